@@ -2,7 +2,9 @@ package com.controlgastos;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase principal de la aplicación Spring Boot
@@ -15,16 +17,23 @@ import org.springframework.data.mongodb.repository.config.EnableMongoRepositorie
  * 
  * Documentación API: http://localhost:8080/swagger-ui.html
  * API Docs JSON: http://localhost:8080/api-docs
+ * Línea de tiempo del arranque: http://localhost:8080/actuator/startup
  * 
  * @author Sistema Control de Gastos
  * @version 1.0.0
  */
 @SpringBootApplication
 @EnableMongoRepositories
+@EnableScheduling
 public class ControlGastosApplication {
 
+    /** Pasos del arranque que se conservan para /actuator/startup */
+    private static final int CAPACIDAD_LINEA_ARRANQUE = 10000;
+
     public static void main(String[] args) {
-        SpringApplication.run(ControlGastosApplication.class, args);
+        SpringApplication application = new SpringApplication(ControlGastosApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(CAPACIDAD_LINEA_ARRANQUE));
+        application.run(args);
         System.out.println("\n========================================");
         System.out.println("Control de Gastos API - Iniciada");
         System.out.println("========================================");
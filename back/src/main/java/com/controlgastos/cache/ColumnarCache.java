@@ -0,0 +1,165 @@
+package com.controlgastos.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché opcional de las transacciones de los usuarios activos en columnas primitivas
+ * 
+ * Con cache.columnar.enabled=true los totales por rango de fechas se calculan sobre
+ * ColumnasTransacciones en lugar de consultar MongoDB. Los usuarios se descartan en
+ * orden LRU cuando la memoria estimada supera cache.columnar.presupuesto-bytes.
+ * 
+ * Los aciertos no toman ningún cerrojo: leen el ConcurrentHashMap y apuntan en la
+ * entrada la marca de un reloj lógico. Solo las cargas, las invalidaciones y los
+ * descartes se sincronizan; para descartar se recorren las entradas y se eligen las
+ * de marca más antigua, así que un acierto concurrente con el descarte puede perder
+ * su turno (recencia aproximada).
+ * 
+ * Igual que en UserScopedCache, cualquier escritura del usuario descarta sus columnas,
+ * y unas columnas cargadas mientras ocurre una invalidación nunca quedan publicadas.
+ */
+@Component
+public class ColumnarCache {
+    
+    private final boolean habilitado;
+    private final long presupuestoBytes;
+    
+    private final ConcurrentHashMap<String, Entrada> columnas = new ConcurrentHashMap<>();
+    private final AtomicLong reloj = new AtomicLong();
+    // Protegidos por el monitor de la caché
+    private final Map<String, Object> cargasEnCurso = new HashMap<>();
+    private long bytesOcupados;
+    
+    public ColumnarCache(
+            @Value("${cache.columnar.enabled:false}") boolean habilitado,
+            @Value("${cache.columnar.presupuesto-bytes:67108864}") long presupuestoBytes) {
+        this.habilitado = habilitado;
+        this.presupuestoBytes = presupuestoBytes;
+    }
+    
+    /**
+     * Indica si los servicios deben usar la caché columnar
+     */
+    public boolean habilitado() {
+        return habilitado;
+    }
+    
+    /**
+     * Obtiene las columnas de un usuario o las carga con el cargador
+     * @param userId ID del usuario
+     * @param cargador función que construye las columnas si no están en caché
+     * @return columnas cacheadas o recién cargadas
+     */
+    public ColumnasTransacciones obtener(String userId, Supplier<ColumnasTransacciones> cargador) {
+        Entrada actual = columnas.get(userId);
+        if (actual != null) {
+            actual.ultimoAcceso = reloj.incrementAndGet();
+            return actual.columnas;
+        }
+        
+        Object carga = new Object();
+        synchronized (this) {
+            actual = columnas.get(userId);
+            if (actual != null) {
+                actual.ultimoAcceso = reloj.incrementAndGet();
+                return actual.columnas;
+            }
+            cargasEnCurso.put(userId, carga);
+        }
+        
+        ColumnasTransacciones cargadas = null;
+        try {
+            cargadas = cargador.get();
+            return cargadas;
+        } finally {
+            synchronized (this) {
+                // Si hubo una invalidación o una carga más reciente, esta ya no es la vigente
+                if (cargasEnCurso.get(userId) == carga) {
+                    cargasEnCurso.remove(userId);
+                    if (cargadas != null) {
+                        publicar(userId, cargadas);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Descarta las columnas de un usuario
+     * Debe llamarse después de completar la escritura en la base de datos
+     * @param userId ID del usuario
+     */
+    public void invalidar(String userId) {
+        if (!habilitado || userId == null) {
+            return;
+        }
+        synchronized (this) {
+            cargasEnCurso.remove(userId);
+            Entrada anterior = columnas.remove(userId);
+            if (anterior != null) {
+                bytesOcupados -= anterior.columnas.bytes();
+            }
+        }
+    }
+    
+    /**
+     * Número de usuarios con columnas en caché
+     */
+    public int tamanio() {
+        return columnas.size();
+    }
+    
+    /**
+     * Memoria estimada de las columnas en caché
+     */
+    public synchronized long bytesOcupados() {
+        return bytesOcupados;
+    }
+    
+    /**
+     * Guarda las columnas y descarta los usuarios menos recientes hasta volver al presupuesto
+     * Un usuario que por sí solo supera el presupuesto no se guarda
+     */
+    private void publicar(String userId, ColumnasTransacciones cargadas) {
+        if (cargadas.bytes() > presupuestoBytes) {
+            return;
+        }
+        Entrada anterior = columnas.put(userId, new Entrada(cargadas, reloj.incrementAndGet()));
+        bytesOcupados += cargadas.bytes() - (anterior != null ? anterior.columnas.bytes() : 0);
+        if (bytesOcupados <= presupuestoBytes) {
+            return;
+        }
+        
+        List<Map.Entry<String, Entrada>> porAntiguedad = columnas.entrySet().stream()
+                .map(entrada -> Map.entry(entrada.getKey(), entrada.getValue()))
+                .sorted(Comparator.comparingLong((Map.Entry<String, Entrada> entrada) -> entrada.getValue().ultimoAcceso))
+                .toList();
+        for (Map.Entry<String, Entrada> entrada : porAntiguedad) {
+            if (bytesOcupados <= presupuestoBytes) {
+                break;
+            }
+            if (columnas.remove(entrada.getKey(), entrada.getValue())) {
+                bytesOcupados -= entrada.getValue().columnas.bytes();
+            }
+        }
+    }
+    
+    private static final class Entrada {
+        
+        private final ColumnasTransacciones columnas;
+        private volatile long ultimoAcceso;
+        
+        private Entrada(ColumnasTransacciones columnas, long ultimoAcceso) {
+            this.columnas = columnas;
+            this.ultimoAcceso = ultimoAcceso;
+        }
+    }
+}
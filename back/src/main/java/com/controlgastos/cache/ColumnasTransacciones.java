@@ -0,0 +1,139 @@
+package com.controlgastos.cache;
+
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Transacciones de un usuario en columnas primitivas ordenadas por fecha
+ * 
+ * Guarda las fechas (epoch en milisegundos, con la misma precisión que MongoDB) y las
+ * sumas acumuladas de ingresos, gastos y cantidad de ingresos. Los totales de cualquier
+ * rango salen de dos búsquedas binarias y dos restas: O(log n) y sin crear objetos.
+ * 
+ * Es inmutable: una escritura del usuario descarta la instancia completa (ver ColumnarCache),
+ * por eso bastan sumas acumuladas y no hace falta un árbol de Fenwick.
+ * Las sumas acumuladas en double pueden diferir de la suma directa en el último decimal.
+ */
+public final class ColumnasTransacciones {
+    
+    /** Bytes por transacción: fecha, dos sumas acumuladas y una cuenta acumulada */
+    private static final long BYTES_POR_TRANSACCION = Long.BYTES + 2L * Double.BYTES + Integer.BYTES;
+    private static final long BYTES_FIJOS = 128;
+    
+    private final long[] fechas;
+    private final double[] ingresosAcumulados;
+    private final double[] gastosAcumulados;
+    private final int[] cantidadIngresosAcumulada;
+    
+    private ColumnasTransacciones(long[] fechas, double[] ingresosAcumulados, double[] gastosAcumulados,
+                                  int[] cantidadIngresosAcumulada) {
+        this.fechas = fechas;
+        this.ingresosAcumulados = ingresosAcumulados;
+        this.gastosAcumulados = gastosAcumulados;
+        this.cantidadIngresosAcumulada = cantidadIngresosAcumulada;
+    }
+    
+    /**
+     * Construye las columnas a partir de las transacciones de un usuario, en cualquier orden
+     * @param transacciones transacciones del usuario
+     * @return columnas ordenadas por fecha
+     */
+    public static ColumnasTransacciones de(List<Transaccion> transacciones) {
+        Transaccion[] ordenadas = transacciones.toArray(new Transaccion[0]);
+        Arrays.sort(ordenadas, Comparator.comparing(Transaccion::getFecha));
+        
+        int n = ordenadas.length;
+        long[] fechas = new long[n];
+        double[] ingresos = new double[n + 1];
+        double[] gastos = new double[n + 1];
+        int[] cantidadIngresos = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            Transaccion transaccion = ordenadas[i];
+            boolean ingreso = transaccion.getTipoTransaccion() == TipoTransaccion.INGRESO;
+            fechas[i] = instante(transaccion.getFecha());
+            ingresos[i + 1] = ingresos[i] + (ingreso ? transaccion.getMonto() : 0.0);
+            gastos[i + 1] = gastos[i] + (ingreso ? 0.0 : transaccion.getMonto());
+            cantidadIngresos[i + 1] = cantidadIngresos[i] + (ingreso ? 1 : 0);
+        }
+        return new ColumnasTransacciones(fechas, ingresos, gastos, cantidadIngresos);
+    }
+    
+    /**
+     * Convierte una fecha al instante en milisegundos con que se compara en las columnas
+     * Las fechas se almacenan como instantes en la zona del servidor
+     */
+    public static long instante(LocalDateTime fecha) {
+        return fecha.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Número de transacciones
+     */
+    public int tamanio() {
+        return fechas.length;
+    }
+    
+    /**
+     * Posición de la primera transacción con fecha igual o posterior al instante
+     */
+    public int primeraDesde(long instante) {
+        int bajo = 0;
+        int alto = fechas.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (fechas[medio] < instante) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+    
+    /**
+     * Posición de la primera transacción con fecha estrictamente posterior al instante
+     */
+    public int primeraPosterior(long instante) {
+        return instante == Long.MAX_VALUE ? fechas.length : primeraDesde(instante + 1);
+    }
+    
+    /**
+     * Total de ingresos de las posiciones [desde, hasta)
+     */
+    public double totalIngresos(int desde, int hasta) {
+        return ingresosAcumulados[hasta] - ingresosAcumulados[desde];
+    }
+    
+    /**
+     * Total de gastos de las posiciones [desde, hasta)
+     */
+    public double totalGastos(int desde, int hasta) {
+        return gastosAcumulados[hasta] - gastosAcumulados[desde];
+    }
+    
+    /**
+     * Cantidad de ingresos de las posiciones [desde, hasta)
+     */
+    public int cantidadIngresos(int desde, int hasta) {
+        return cantidadIngresosAcumulada[hasta] - cantidadIngresosAcumulada[desde];
+    }
+    
+    /**
+     * Cantidad de gastos de las posiciones [desde, hasta)
+     */
+    public int cantidadGastos(int desde, int hasta) {
+        return (hasta - desde) - cantidadIngresos(desde, hasta);
+    }
+    
+    /**
+     * Memoria aproximada que ocupan las columnas
+     */
+    public long bytes() {
+        return BYTES_FIJOS + BYTES_POR_TRANSACCION * fechas.length;
+    }
+}
@@ -0,0 +1,97 @@
+package com.controlgastos.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caché en memoria de resultados calculados por usuario
+ * 
+ * Cada usuario tiene su propia "generación" de valores. Cualquier escritura
+ * sobre los datos del usuario invalida la generación completa, de modo que
+ * los resúmenes se sirven desde memoria hasta la siguiente escritura.
+ * 
+ * Un valor cargado mientras ocurre una invalidación nunca queda publicado:
+ * solo se guarda si la generación sobre la que se calculó sigue vigente.
+ */
+@Component
+public class UserScopedCache {
+    
+    private final ConcurrentHashMap<String, Generacion> generaciones = new ConcurrentHashMap<>();
+    private final int maxUsuarios;
+    private final int maxEntradasPorUsuario;
+    
+    public UserScopedCache(
+            @Value("${cache.usuarios.max:10000}") int maxUsuarios,
+            @Value("${cache.usuarios.entradas-por-usuario:32}") int maxEntradasPorUsuario) {
+        this.maxUsuarios = maxUsuarios;
+        this.maxEntradasPorUsuario = maxEntradasPorUsuario;
+    }
+    
+    /**
+     * Obtiene un valor de la caché o lo calcula con el cargador
+     * @param userId ID del usuario propietario de los datos
+     * @param clave clave del valor dentro del usuario (debe implementar equals/hashCode)
+     * @param cargador función que calcula el valor si no está en caché
+     * @return valor cacheado o recién calculado
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String userId, Object clave, Supplier<T> cargador) {
+        Generacion generacion = generaciones.get(userId);
+        if (generacion == null) {
+            liberarEspacio();
+            generacion = generaciones.computeIfAbsent(userId, id -> new Generacion());
+        }
+        
+        Object valor = generacion.valores.get(clave);
+        if (valor != null) {
+            return (T) valor;
+        }
+        
+        T cargado = cargador.get();
+        if (cargado != null
+                && generaciones.get(userId) == generacion
+                && generacion.valores.size() < maxEntradasPorUsuario) {
+            generacion.valores.putIfAbsent(clave, cargado);
+        }
+        return cargado;
+    }
+    
+    /**
+     * Invalida todos los valores cacheados de un usuario
+     * Debe llamarse después de completar la escritura en la base de datos
+     * @param userId ID del usuario
+     */
+    public void invalidar(String userId) {
+        if (userId != null) {
+            generaciones.remove(userId);
+        }
+    }
+    
+    /**
+     * Número de usuarios con valores en caché
+     */
+    public int tamanio() {
+        return generaciones.size();
+    }
+    
+    /**
+     * Descarta usuarios arbitrarios cuando se alcanza el máximo configurado
+     */
+    private void liberarEspacio() {
+        Iterator<String> iterator = generaciones.keySet().iterator();
+        while (generaciones.size() >= maxUsuarios && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+    
+    /**
+     * Conjunto de valores cacheados de un usuario entre dos escrituras
+     */
+    private static final class Generacion {
+        private final ConcurrentHashMap<Object, Object> valores = new ConcurrentHashMap<>();
+    }
+}
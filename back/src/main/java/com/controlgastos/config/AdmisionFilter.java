@@ -0,0 +1,251 @@
+package com.controlgastos.config;
+
+import com.controlgastos.exception.GlobalExceptionHandler.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Control de admisión de peticiones a la API
+ *
+ * Limita las peticiones en curso para que no compitan por el pool de MongoDB
+ * hasta agotar su maxWaitTime (que terminaría en un 500):
+ * - Límite global de peticiones en curso en la instancia
+ * - Límite por usuario, tomado de la ruta /api/.../usuario/{userId}
+ *
+ * Si no hay cupo, la petición espera como máximo admision.espera-max-ms y solo
+ * si la cola correspondiente no está llena; si no, responde 429 con Retry-After.
+ * Primero se toma el cupo del usuario, así las peticiones de un usuario
+ * saturado esperan sin ocupar cupos globales.
+ *
+ * Métricas (visibles en /actuator/metrics):
+ * - admision.en.curso: peticiones admitidas en ejecución
+ * - admision.en.cola: peticiones esperando cupo, por ámbito (global / usuario)
+ * - admision.espera: tiempo de espera de las peticiones admitidas
+ * - admision.rechazadas: peticiones respondidas con 429, por ámbito
+ */
+@Component
+public class AdmisionFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmisionFilter.class);
+
+    private static final Pattern RUTA_USUARIO = Pattern.compile("^/api/.+/usuario/([^/]+)");
+
+    private final int maxPorUsuario;
+    private final int maxEnColaGlobal;
+    private final int maxEnColaPorUsuario;
+    private final long esperaMaxMs;
+    private final long reintentarEnSegundos;
+    private final ObjectMapper objectMapper;
+
+    private final Semaphore global;
+    private final Map<String, CupoUsuario> usuarios = new ConcurrentHashMap<>();
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicInteger enColaGlobal = new AtomicInteger();
+    private final AtomicInteger enColaUsuarios = new AtomicInteger();
+
+    private final Timer espera;
+    private final Counter rechazadasGlobal;
+    private final Counter rechazadasUsuario;
+
+    public AdmisionFilter(@Value("${admision.max-concurrentes:64}") int maxConcurrentes,
+                          @Value("${admision.max-por-usuario:4}") int maxPorUsuario,
+                          @Value("${admision.max-en-cola:128}") int maxEnColaGlobal,
+                          @Value("${admision.max-en-cola-por-usuario:8}") int maxEnColaPorUsuario,
+                          @Value("${admision.espera-max-ms:500}") long esperaMaxMs,
+                          @Value("${admision.reintentar-en-segundos:1}") long reintentarEnSegundos,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        this.maxPorUsuario = maxPorUsuario;
+        this.maxEnColaGlobal = maxEnColaGlobal;
+        this.maxEnColaPorUsuario = maxEnColaPorUsuario;
+        this.esperaMaxMs = esperaMaxMs;
+        this.reintentarEnSegundos = reintentarEnSegundos;
+        this.objectMapper = objectMapper;
+        this.global = new Semaphore(maxConcurrentes, true);
+
+        Gauge.builder("admision.en.curso", enCurso, AtomicInteger::get)
+                .description("Peticiones admitidas en ejecución")
+                .register(meterRegistry);
+        Gauge.builder("admision.en.cola", enColaGlobal, AtomicInteger::get)
+                .description("Peticiones esperando cupo")
+                .tag("ambito", "global").register(meterRegistry);
+        Gauge.builder("admision.en.cola", enColaUsuarios, AtomicInteger::get)
+                .description("Peticiones esperando cupo")
+                .tag("ambito", "usuario").register(meterRegistry);
+        espera = Timer.builder("admision.espera")
+                .description("Tiempo de espera hasta ser admitida")
+                .register(meterRegistry);
+        rechazadasGlobal = Counter.builder("admision.rechazadas")
+                .description("Peticiones rechazadas por falta de cupo")
+                .tag("ambito", "global").register(meterRegistry);
+        rechazadasUsuario = Counter.builder("admision.rechazadas")
+                .description("Peticiones rechazadas por falta de cupo")
+                .tag("ambito", "usuario").register(meterRegistry);
+    }
+
+    /**
+     * Solo se controlan las rutas /api; no se controlan las preflight de CORS ni el stream SSE,
+     * que no ocupa el pool mientras está abierto y tiene su propio límite de conexiones
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = ruta(request);
+        return !ruta.startsWith("/api/") || ruta.endsWith("/resumen/stream")
+                || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String userId = userIdDeRuta(ruta(request));
+        long inicio = System.nanoTime();
+
+        CupoUsuario cupoUsuario = userId != null ? reservarCupoUsuario(userId) : null;
+        try {
+            if (cupoUsuario != null && !adquirir(cupoUsuario.permisos, cupoUsuario.enCola,
+                    maxEnColaPorUsuario, enColaUsuarios)) {
+                rechazadasUsuario.increment();
+                rechazar(request, response, "Demasiadas solicitudes simultáneas para el usuario " + userId);
+                return;
+            }
+            try {
+                if (!adquirir(global, enColaGlobal, maxEnColaGlobal, null)) {
+                    rechazadasGlobal.increment();
+                    log.warn("Admisión saturada: {} en curso, {} en cola; rechazada {} {}",
+                            enCurso.get(), enColaGlobal.get(), request.getMethod(), request.getRequestURI());
+                    rechazar(request, response, "El servicio está saturado, intente de nuevo en unos segundos");
+                    return;
+                }
+                espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                enCurso.incrementAndGet();
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    enCurso.decrementAndGet();
+                    global.release();
+                }
+            } finally {
+                if (cupoUsuario != null) {
+                    cupoUsuario.permisos.release();
+                }
+            }
+        } finally {
+            if (cupoUsuario != null) {
+                liberarCupoUsuario(userId);
+            }
+        }
+    }
+
+    /**
+     * Toma un permiso sin esperar o, si hay sitio en la cola, esperando como máximo esperaMaxMs
+     * @return false si no se obtuvo el permiso
+     */
+    private boolean adquirir(Semaphore permisos, AtomicInteger enCola, int maxEnCola,
+                             AtomicInteger enColaTotal) {
+        if (permisos.tryAcquire()) {
+            return true;
+        }
+        if (enCola.incrementAndGet() > maxEnCola) {
+            enCola.decrementAndGet();
+            return false;
+        }
+        if (enColaTotal != null) {
+            enColaTotal.incrementAndGet();
+        }
+        try {
+            return permisos.tryAcquire(esperaMaxMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            enCola.decrementAndGet();
+            if (enColaTotal != null) {
+                enColaTotal.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Obtiene el cupo del usuario contando la petición, para eliminarlo cuando no quede ninguna
+     */
+    private CupoUsuario reservarCupoUsuario(String userId) {
+        return usuarios.compute(userId, (id, actual) -> {
+            CupoUsuario cupo = actual != null ? actual : new CupoUsuario(maxPorUsuario);
+            cupo.peticiones++;
+            return cupo;
+        });
+    }
+
+    private void liberarCupoUsuario(String userId) {
+        usuarios.computeIfPresent(userId, (id, cupo) -> --cupo.peticiones == 0 ? null : cupo);
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response, String mensaje) throws IOException {
+        HttpStatus estado = HttpStatus.TOO_MANY_REQUESTS;
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                estado.value(),
+                "Demasiadas solicitudes",
+                mensaje,
+                request.getRequestURI()
+        );
+        response.setStatus(estado.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(reintentarEnSegundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static String ruta(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    static String userIdDeRuta(String ruta) {
+        Matcher matcher = RUTA_USUARIO.matcher(ruta);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Número de usuarios con peticiones en curso o en cola
+     */
+    int getUsuariosActivos() {
+        return usuarios.size();
+    }
+
+    /**
+     * Permisos de un usuario; peticiones se modifica solo dentro de compute del mapa
+     */
+    private static final class CupoUsuario {
+        private final Semaphore permisos;
+        private final AtomicInteger enCola = new AtomicInteger();
+        private int peticiones;
+
+        private CupoUsuario(int maxPorUsuario) {
+            this.permisos = new Semaphore(maxPorUsuario, true);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.controlgastos.config;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.schema.GraphQLTypeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.Collection;
+
+/**
+ * Límites de costo de las consultas GraphQL, comprobados antes de ejecutar nada contra MongoDB
+ * 
+ * El costo de un campo es 1 más el de sus subcampos, multiplicado por el número de
+ * elementos que puede devolver: el tamaño de "ids", el valor de "n" o, en el resto de
+ * listas, graphql.costo-lista. Así anidar listas dentro de listas se encarece de forma
+ * multiplicativa, igual que las lecturas que provoca.
+ */
+@Configuration
+public class GraphQlConfig {
+    
+    @Bean
+    public MaxQueryComplexityInstrumentation maxQueryComplexityInstrumentation(
+            @Value("${graphql.max-complejidad:2000}") int maxComplejidad,
+            @Value("${graphql.costo-lista:20}") int costoLista) {
+        return new MaxQueryComplexityInstrumentation(maxComplejidad, calculadoraCosto(costoLista));
+    }
+    
+    @Bean
+    public MaxQueryDepthInstrumentation maxQueryDepthInstrumentation(
+            @Value("${graphql.max-profundidad:6}") int maxProfundidad) {
+        return new MaxQueryDepthInstrumentation(maxProfundidad);
+    }
+    
+    static FieldComplexityCalculator calculadoraCosto(int costoLista) {
+        return (entorno, costoHijos) -> {
+            int elementos = 1;
+            Object ids = entorno.getArguments().get("ids");
+            Object n = entorno.getArguments().get("n");
+            if (ids instanceof Collection<?> lista) {
+                elementos = lista.size();
+            } else if (n instanceof Integer cantidad) {
+                elementos = cantidad;
+            } else if (GraphQLTypeUtil.isList(GraphQLTypeUtil.unwrapNonNull(entorno.getFieldDefinition().getType()))) {
+                elementos = costoLista;
+            }
+            // Saturado: un "n" enorme no debe desbordar el costo y colarse por debajo del límite
+            return (int) Math.min(Integer.MAX_VALUE, (long) Math.max(elementos, 1) * (1L + costoHijos));
+        };
+    }
+}
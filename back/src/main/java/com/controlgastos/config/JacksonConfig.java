@@ -0,0 +1,39 @@
+package com.controlgastos.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import java.util.List;
+
+/**
+ * Configuración de la serialización JSON
+ * 
+ * - Blackbird: Spring Boot registra el módulo en el ObjectMapper de la aplicación
+ * - Conversor dedicado para las listas de transacciones, antes que el de Jackson
+ */
+@Configuration
+public class JacksonConfig implements WebMvcConfigurer {
+    
+    private final ObjectMapper objectMapper;
+    
+    public JacksonConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Estático para no depender del ObjectMapper que este mismo módulo configura
+     */
+    @Bean
+    public static Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+    
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new TransaccionesJsonHttpMessageConverter(objectMapper.getFactory()));
+    }
+}
@@ -4,15 +4,16 @@ import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
-import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
 import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 
 import java.util.concurrent.TimeUnit;
@@ -21,7 +22,8 @@ import java.util.concurrent.TimeUnit;
  * Configuración optimizada de MongoDB para MongoDB Atlas
  * 
  * Esta configuración incluye:
- * - Pool de conexiones optimizado para Atlas
+ * - Pool de conexiones configurable por perfil (propiedades mongo.pool.*)
+ * - Métricas del pool y avisos de agotamiento (MongoPoolListener)
  * - Timeouts configurados
  * - Manejo de conexiones SSL
  * - Retry automático de escrituras
@@ -37,16 +39,49 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.database}")
     private String databaseName;
 
+    @Value("${spring.data.mongodb.auto-index-creation:false}")
+    private boolean autoIndexCreation;
+
+    // Pool de conexiones (por servidor del cluster); valores por perfil en application-*.properties
+    @Value("${mongo.pool.max-size:100}")
+    private int poolMaxSize;
+
+    @Value("${mongo.pool.min-size:10}")
+    private int poolMinSize;
+
+    @Value("${mongo.pool.max-wait-ms:2000}")
+    private long poolMaxWaitMs;
+
+    @Value("${mongo.pool.max-connecting:2}")
+    private int poolMaxConnecting;
+
+    @Value("${mongo.pool.max-life-time-ms:1800000}")
+    private long poolMaxLifeTimeMs;
+
+    @Value("${mongo.pool.max-idle-time-ms:600000}")
+    private long poolMaxIdleTimeMs;
+
+    @Autowired
+    private MongoPoolListener poolListener;
+
     @Override
     protected String getDatabaseName() {
         return databaseName;
     }
 
+    /**
+     * Respeta spring.data.mongodb.auto-index-creation, que la clase base ignora (siempre false)
+     */
+    @Override
+    protected boolean autoIndexCreation() {
+        return autoIndexCreation;
+    }
+
     /**
      * Configuración del cliente MongoDB optimizada para Atlas
      * 
      * Incluye:
-     * - Connection pooling (100 conexiones máximo, 10 mínimo)
+     * - Connection pooling configurable (por defecto 100 conexiones máximo, 10 mínimo)
      * - Timeouts de conexión y lectura (10 segundos)
      * - Gestión del ciclo de vida de conexiones
      */
@@ -58,11 +93,13 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
                 .applyConnectionString(connectionString)
                 // Configuración del pool de conexiones
                 .applyToConnectionPoolSettings(builder -> builder
-                        .maxSize(100)                                    // Máximo 100 conexiones simultáneas
-                        .minSize(10)                                     // Mínimo 10 conexiones en el pool
-                        .maxWaitTime(2, TimeUnit.SECONDS)               // Espera máxima por una conexión
-                        .maxConnectionLifeTime(30, TimeUnit.MINUTES)    // Vida máxima de una conexión
-                        .maxConnectionIdleTime(10, TimeUnit.MINUTES)    // Tiempo de inactividad antes de cerrar
+                        .maxSize(poolMaxSize)                                           // Máximo de conexiones simultáneas
+                        .minSize(poolMinSize)                                           // Mínimo de conexiones en el pool
+                        .maxWaitTime(poolMaxWaitMs, TimeUnit.MILLISECONDS)              // Espera máxima por una conexión
+                        .maxConnecting(poolMaxConnecting)                               // Conexiones estableciéndose a la vez
+                        .maxConnectionLifeTime(poolMaxLifeTimeMs, TimeUnit.MILLISECONDS) // Vida máxima de una conexión
+                        .maxConnectionIdleTime(poolMaxIdleTimeMs, TimeUnit.MILLISECONDS) // Tiempo de inactividad antes de cerrar
+                        .addConnectionPoolListener(poolListener)                        // Métricas y avisos de agotamiento
                 )
                 // Configuración de timeouts de socket
                 .applyToSocketSettings(builder -> builder
@@ -93,12 +130,16 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
      * Configuración del converter para eliminar el campo "_class"
      * Este campo es agregado automáticamente por Spring Data MongoDB
      * pero no es necesario y ocupa espacio
+     * 
+     * Sobrescribe el bean de la clase base (en lugar de declarar otro método con el
+     * mismo nombre) para que haya un único método de fábrica, requisito del procesamiento AOT
      */
     @Bean
+    @Override
     public MappingMongoConverter mappingMongoConverter(MongoDatabaseFactory databaseFactory,
+                                                       MongoCustomConversions customConversions,
                                                        MongoMappingContext context) {
-        DefaultDbRefResolver dbRefResolver = new DefaultDbRefResolver(databaseFactory);
-        MappingMongoConverter converter = new MappingMongoConverter(dbRefResolver, context);
+        MappingMongoConverter converter = super.mappingMongoConverter(databaseFactory, customConversions, context);
         
         // Eliminar el campo "_class" de los documentos
         converter.setTypeMapper(new DefaultMongoTypeMapper(null));
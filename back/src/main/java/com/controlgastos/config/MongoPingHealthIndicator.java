@@ -0,0 +1,89 @@
+package com.controlgastos.config;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estado de MongoDB para la sonda de readiness ("mongoPing")
+ * 
+ * Un hilo propio hace ping cada salud.mongo.intervalo-ms y la sonda solo lee el
+ * último resultado, así que nunca espera a la base de datos. Si el ping no
+ * responde durante salud.mongo.max-antiguedad-ms la instancia deja de estar lista.
+ * No usa el planificador de @Scheduled: el archivador o el generador de recurrentes
+ * pueden ocuparlo durante minutos.
+ */
+@Component
+public class MongoPingHealthIndicator implements HealthIndicator, SmartLifecycle {
+    
+    private static final Document PING = new Document("ping", 1);
+    
+    private final MongoTemplate mongoTemplate;
+    private final long intervaloMs;
+    private final long maxAntiguedadMs;
+    
+    private volatile Health ultimo = Health.down().withDetail("motivo", "Sin ping todavía").build();
+    private volatile long ultimoExito;
+    private ScheduledExecutorService ejecutor;
+    
+    public MongoPingHealthIndicator(MongoTemplate mongoTemplate,
+                                    @Value("${salud.mongo.intervalo-ms:5000}") long intervaloMs,
+                                    @Value("${salud.mongo.max-antiguedad-ms:15000}") long maxAntiguedadMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.intervaloMs = intervaloMs;
+        this.maxAntiguedadMs = maxAntiguedadMs;
+    }
+    
+    @Override
+    public Health health() {
+        Health health = ultimo;
+        long antiguedadMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ultimoExito);
+        if ("UP".equals(health.getStatus().getCode()) && antiguedadMs > maxAntiguedadMs) {
+            return Health.down().withDetail("motivo", "Ping sin respuesta desde hace " + antiguedadMs + " ms").build();
+        }
+        return health;
+    }
+    
+    /**
+     * Hace ping a MongoDB y guarda el resultado para las sondas
+     */
+    void ping() {
+        long inicio = System.nanoTime();
+        try {
+            mongoTemplate.executeCommand(PING);
+            ultimoExito = System.nanoTime();
+            ultimo = Health.up()
+                    .withDetail("latenciaMs", TimeUnit.NANOSECONDS.toMillis(ultimoExito - inicio))
+                    .build();
+        } catch (RuntimeException e) {
+            ultimo = Health.down().withDetail("error", e.getClass().getSimpleName()).build();
+        }
+    }
+    
+    @Override
+    public void start() {
+        ejecutor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("mongo-ping").daemon().factory());
+        ejecutor.scheduleWithFixedDelay(this::ping, 0, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void stop() {
+        if (ejecutor != null) {
+            ejecutor.shutdownNow();
+            ejecutor = null;
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return ejecutor != null;
+    }
+}
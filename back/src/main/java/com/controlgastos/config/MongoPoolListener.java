@@ -0,0 +1,179 @@
+package com.controlgastos.config;
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listener del pool de conexiones de MongoDB
+ *
+ * Publica por servidor las métricas del pool (Micrometer, visibles en /actuator/metrics):
+ * - mongodb.driver.pool.size: conexiones abiertas
+ * - mongodb.driver.pool.checkedout: conexiones en uso
+ * - mongodb.driver.pool.waitqueuesize: hilos esperando una conexión
+ * - mongodb.driver.pool.wait: tiempo de espera para obtener una conexión
+ *
+ * Cuando una petición no obtiene conexión (pool agotado) o espera más de
+ * mongo.pool.wait-warn-ms, registra el endpoint que esperaba. Los eventos de
+ * checkout se emiten en el hilo de la petición, por eso el endpoint se obtiene
+ * de RequestContextHolder.
+ */
+@Component
+public class MongoPoolListener implements ConnectionPoolListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoPoolListener.class);
+
+    private final MeterRegistry meterRegistry;
+    private final long esperaAvisoMs;
+    private final Map<ServerId, EstadoPool> pools = new ConcurrentHashMap<>();
+
+    public MongoPoolListener(MeterRegistry meterRegistry,
+                             @Value("${mongo.pool.wait-warn-ms:500}") long esperaAvisoMs) {
+        this.meterRegistry = meterRegistry;
+        this.esperaAvisoMs = esperaAvisoMs;
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        pools.computeIfAbsent(event.getServerId(), serverId ->
+                new EstadoPool(serverId, event.getSettings().getMaxSize()));
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        EstadoPool estado = pools.remove(event.getServerId());
+        if (estado != null) {
+            estado.medidores.forEach(meterRegistry::remove);
+        }
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        estado(event.getConnectionId().getServerId()).abiertas.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        estado(event.getConnectionId().getServerId()).abiertas.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        estado(event.getServerId()).enEspera.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        EstadoPool estado = estado(event.getConnectionId().getServerId());
+        estado.enEspera.decrementAndGet();
+        estado.enUso.incrementAndGet();
+
+        long esperaMs = event.getElapsedTime(TimeUnit.MILLISECONDS);
+        estado.esperaExitosa.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        if (esperaMs >= esperaAvisoMs) {
+            log.warn("Espera de {} ms por una conexión a {} (en uso {}/{}, en espera {}) en {}",
+                    esperaMs, estado.servidor, estado.enUso.get(), estado.maxSize,
+                    estado.enEspera.get(), endpointActual());
+        }
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        EstadoPool estado = estado(event.getServerId());
+        estado.enEspera.decrementAndGet();
+        estado.esperaFallida.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+        if (event.getReason() == ConnectionCheckOutFailedEvent.Reason.TIMEOUT) {
+            log.warn("Pool de conexiones agotado en {}: sin conexión tras {} ms (en uso {}/{}, en espera {}) en {}",
+                    estado.servidor, event.getElapsedTime(TimeUnit.MILLISECONDS), estado.enUso.get(),
+                    estado.maxSize, estado.enEspera.get(), endpointActual());
+        }
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        estado(event.getConnectionId().getServerId()).enUso.decrementAndGet();
+    }
+
+    private EstadoPool estado(ServerId serverId) {
+        // El evento de creación del pool llega primero; el valor por defecto es solo por robustez
+        return pools.computeIfAbsent(serverId, id -> new EstadoPool(id, 0));
+    }
+
+    /**
+     * Método y ruta de la petición HTTP que se atiende en el hilo actual
+     */
+    private static String endpointActual() {
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos instanceof ServletRequestAttributes servlet) {
+            HttpServletRequest request = servlet.getRequest();
+            return request.getMethod() + " " + request.getRequestURI();
+        }
+        return "[" + Thread.currentThread().getName() + "]";
+    }
+
+    /**
+     * Contadores y medidores del pool de un servidor
+     */
+    private final class EstadoPool {
+
+        private final String servidor;
+        private final int maxSize;
+        private final AtomicInteger abiertas = new AtomicInteger();
+        private final AtomicInteger enUso = new AtomicInteger();
+        private final AtomicInteger enEspera = new AtomicInteger();
+        private final Timer esperaExitosa;
+        private final Timer esperaFallida;
+        private final List<Meter> medidores = new ArrayList<>();
+
+        private EstadoPool(ServerId serverId, int maxSize) {
+            this.servidor = serverId.getAddress().toString();
+            this.maxSize = maxSize;
+
+            Tags tags = Tags.of("cluster.id", serverId.getClusterId().getValue(), "server.address", servidor);
+            medidores.add(Gauge.builder("mongodb.driver.pool.size", abiertas, AtomicInteger::get)
+                    .description("Conexiones abiertas en el pool")
+                    .tags(tags).register(meterRegistry));
+            medidores.add(Gauge.builder("mongodb.driver.pool.checkedout", enUso, AtomicInteger::get)
+                    .description("Conexiones en uso")
+                    .tags(tags).register(meterRegistry));
+            medidores.add(Gauge.builder("mongodb.driver.pool.waitqueuesize", enEspera, AtomicInteger::get)
+                    .description("Operaciones esperando una conexión")
+                    .tags(tags).register(meterRegistry));
+            esperaExitosa = Timer.builder("mongodb.driver.pool.wait")
+                    .description("Tiempo de espera para obtener una conexión")
+                    .tags(tags.and("outcome", "success")).register(meterRegistry);
+            esperaFallida = Timer.builder("mongodb.driver.pool.wait")
+                    .description("Tiempo de espera para obtener una conexión")
+                    .tags(tags.and("outcome", "failure")).register(meterRegistry);
+            medidores.add(esperaExitosa);
+            medidores.add(esperaFallida);
+        }
+    }
+}
@@ -7,13 +7,17 @@ import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.servers.Server;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import java.util.List;
 
 /**
  * Configuración de OpenAPI/Swagger para documentación de la API
  * Accesible en: http://localhost:8080/swagger-ui.html
+ * 
+ * Perezosa: solo se necesita al pedir la documentación, no para atender la API
  */
 @Configuration
+@Lazy
 public class OpenAPIConfig {
     
     @Bean
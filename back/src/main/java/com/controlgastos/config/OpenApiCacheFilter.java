@@ -0,0 +1,60 @@
+package com.controlgastos.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import java.io.IOException;
+
+/**
+ * Caché del documento OpenAPI en JSON
+ * 
+ * springdoc conserva el modelo OpenAPI pero lo vuelve a serializar en cada petición.
+ * La primera respuesta correcta de springdoc.api-docs.path se guarda tal cual y las
+ * siguientes se sirven desde memoria. El documento no depende de la petición porque
+ * OpenAPIConfig fija los servidores, y la API solo cambia con un despliegue.
+ */
+@Component
+public class OpenApiCacheFilter extends OncePerRequestFilter {
+    
+    private final String ruta;
+    
+    private volatile Documento documento;
+    
+    public OpenApiCacheFilter(@Value("${springdoc.api-docs.path:/v3/api-docs}") String ruta) {
+        this.ruta = ruta;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !ruta.equals(request.getRequestURI());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        
+        Documento cacheado = documento;
+        if (cacheado != null) {
+            response.setContentType(cacheado.tipoContenido());
+            response.setContentLength(cacheado.contenido().length);
+            response.getOutputStream().write(cacheado.contenido());
+            return;
+        }
+        
+        ContentCachingResponseWrapper envoltorio = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, envoltorio);
+        if (envoltorio.getStatus() == HttpStatus.OK.value() && envoltorio.getContentSize() > 0) {
+            documento = new Documento(envoltorio.getContentAsByteArray(), envoltorio.getContentType());
+        }
+        envoltorio.copyBodyToResponse();
+    }
+    
+    private record Documento(byte[] contenido, String tipoContenido) {
+    }
+}
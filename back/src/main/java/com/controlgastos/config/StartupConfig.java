@@ -0,0 +1,84 @@
+package com.controlgastos.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import java.util.Comparator;
+
+/**
+ * Configuración para reducir y medir el tiempo de arranque
+ * 
+ * - Marca como perezosos los beans de springdoc (igual que OpenAPIConfig): se
+ *   crean en la primera petición a la documentación y no en cada arranque en frío
+ * - Registra en el log los beans que más tardaron en crearse, a partir de la
+ *   línea de tiempo que también expone /actuator/startup
+ */
+@Configuration
+public class StartupConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(StartupConfig.class);
+    
+    private static final String PAQUETE_SPRINGDOC = "org.springdoc.";
+    private static final int BEANS_MAS_LENTOS = 10;
+    
+    private final ApplicationStartup applicationStartup;
+    
+    public StartupConfig(ApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+    
+    /**
+     * Inicialización perezosa de los beans de springdoc
+     * Los beans que otro bean necesita al arrancar se siguen creando en ese momento
+     */
+    @Bean
+    public static BeanFactoryPostProcessor inicializacionPerezosaSpringdoc() {
+        return beanFactory -> {
+            for (String nombre : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definicion = beanFactory.getBeanDefinition(nombre);
+                String fabrica = definicion.getFactoryBeanName();
+                String clase = fabrica != null && beanFactory.containsBeanDefinition(fabrica)
+                        ? beanFactory.getBeanDefinition(fabrica).getBeanClassName()
+                        : definicion.getBeanClassName();
+                if (definicion.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE
+                        && clase != null && clase.startsWith(PAQUETE_SPRINGDOC)) {
+                    definicion.setLazyInit(true);
+                }
+            }
+        };
+    }
+    
+    /**
+     * Registra los beans cuya creación dominó el arranque
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrarBeansMasLentos() {
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering)) {
+            return;
+        }
+        StartupTimeline timeline = buffering.getBufferedTimeline();
+        log.info("Beans más lentos del arranque:");
+        timeline.getEvents().stream()
+                .filter(evento -> "spring.beans.instantiate".equals(evento.getStartupStep().getName()))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(BEANS_MAS_LENTOS)
+                .forEach(evento -> log.info("  {} ms  {}", evento.getDuration().toMillis(), nombreBean(evento)));
+    }
+    
+    private static String nombreBean(StartupTimeline.TimelineEvent evento) {
+        for (var tag : evento.getStartupStep().getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return evento.getStartupStep().getName();
+    }
+}
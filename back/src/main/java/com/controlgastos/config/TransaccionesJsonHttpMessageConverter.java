@@ -0,0 +1,145 @@
+package com.controlgastos.config;
+
+import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.model.TipoTransaccion;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Conversor HTTP de solo escritura para listas de TransaccionResponseDTO
+ *
+ * Las listas de transacciones son las respuestas más grandes de la API. En lugar
+ * de pasar por la serialización genérica de ObjectMapper (introspección de cada
+ * propiedad), este conversor recorre la lista y escribe cada campo directamente
+ * con JsonGenerator. El generador sale del JsonFactory del ObjectMapper de la
+ * aplicación, que reutiliza sus buffers internos entre peticiones (BufferRecycler).
+ *
+ * Produce exactamente el mismo JSON que ObjectMapper con la configuración de la
+ * aplicación (fechas ISO-8601 sin zona, nulos incluidos).
+ */
+public class TransaccionesJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<List<TransaccionResponseDTO>> {
+    
+    private static final ResolvableType TIPO_SOPORTADO =
+            ResolvableType.forClassWithGenerics(List.class, TransaccionResponseDTO.class);
+    
+    // Nombres de campo y valores del enum ya codificados, como hace BeanSerializer
+    private static final SerializedString CAMPO_ID = new SerializedString("id");
+    private static final SerializedString CAMPO_TIPO = new SerializedString("tipoTransaccion");
+    private static final SerializedString CAMPO_CATEGORIA_ID = new SerializedString("categoriaId");
+    private static final SerializedString CAMPO_CATEGORIA_NOMBRE = new SerializedString("categoriaNombre");
+    private static final SerializedString CAMPO_DESCRIPCION = new SerializedString("descripcion");
+    private static final SerializedString CAMPO_FECHA = new SerializedString("fecha");
+    private static final SerializedString CAMPO_MONTO = new SerializedString("monto");
+    private static final SerializedString CAMPO_USER_ID = new SerializedString("userId");
+    private static final SerializedString[] TIPOS = Arrays.stream(TipoTransaccion.values())
+            .map(tipo -> new SerializedString(tipo.name()))
+            .toArray(SerializedString[]::new);
+    
+    private final JsonFactory jsonFactory;
+    
+    public TransaccionesJsonHttpMessageConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+    
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz);
+    }
+    
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return type != null && TIPO_SOPORTADO.isAssignableFrom(ResolvableType.forType(type)) && canWrite(mediaType);
+    }
+    
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        // Sin información genérica no se puede saber si la lista es de transacciones
+        return false;
+    }
+    
+    @Override
+    protected void writeInternal(List<TransaccionResponseDTO> transacciones, Type type,
+                                 HttpOutputMessage outputMessage) throws IOException {
+        escribir(transacciones.iterator(), outputMessage.getBody());
+    }
+    
+    /**
+     * Escribe el arreglo JSON a medida que avanza el iterador
+     */
+    public void escribir(Iterator<TransaccionResponseDTO> transacciones, OutputStream salida) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(salida, JsonEncoding.UTF8)) {
+            // El flujo de la respuesta lo cierra el contenedor
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            while (transacciones.hasNext()) {
+                escribir(generator, transacciones.next());
+            }
+            generator.writeEndArray();
+        }
+    }
+    
+    private void escribir(JsonGenerator generator, TransaccionResponseDTO transaccion) throws IOException {
+        generator.writeStartObject();
+        escribirTexto(generator, CAMPO_ID, transaccion.getId());
+        generator.writeFieldName(CAMPO_TIPO);
+        if (transaccion.getTipoTransaccion() != null) {
+            generator.writeString(TIPOS[transaccion.getTipoTransaccion().ordinal()]);
+        } else {
+            generator.writeNull();
+        }
+        escribirTexto(generator, CAMPO_CATEGORIA_ID, transaccion.getCategoriaId());
+        escribirTexto(generator, CAMPO_CATEGORIA_NOMBRE, transaccion.getCategoriaNombre());
+        escribirTexto(generator, CAMPO_DESCRIPCION, transaccion.getDescripcion());
+        escribirTexto(generator, CAMPO_FECHA, transaccion.getFecha() != null
+                ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(transaccion.getFecha()) : null);
+        generator.writeFieldName(CAMPO_MONTO);
+        if (transaccion.getMonto() != null) {
+            generator.writeNumber(transaccion.getMonto());
+        } else {
+            generator.writeNull();
+        }
+        escribirTexto(generator, CAMPO_USER_ID, transaccion.getUserId());
+        generator.writeEndObject();
+    }
+    
+    private static void escribirTexto(JsonGenerator generator, SerializedString campo, String valor) throws IOException {
+        generator.writeFieldName(campo);
+        if (valor != null) {
+            generator.writeString(valor);
+        } else {
+            generator.writeNull();
+        }
+    }
+    
+    @Override
+    public List<TransaccionResponseDTO> read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Conversor de solo escritura", inputMessage);
+    }
+    
+    @Override
+    protected List<TransaccionResponseDTO> readInternal(Class<? extends List<TransaccionResponseDTO>> clazz,
+                                                        HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Conversor de solo escritura", inputMessage);
+    }
+}
@@ -2,6 +2,8 @@ package com.controlgastos.controller;
 
 import com.controlgastos.dto.CategoriaDTO;
 import com.controlgastos.dto.CategoriaResponseDTO;
+import com.controlgastos.dto.LoteIdsRequestDTO;
+import com.controlgastos.dto.LoteResponseDTO;
 import com.controlgastos.service.CategoriaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -72,6 +74,20 @@ public class CategoriaController {
         return ResponseEntity.ok(categoria);
     }
     
+    @Operation(summary = "Obtener categorías por lote de IDs",
+            description = "Resuelve hasta " + LoteIdsRequestDTO.MAX_IDS + " IDs con una sola consulta. Los resultados "
+                    + "siguen el orden de la petición, con null en cada ID no encontrado; noEncontrados lista esos IDs")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote resuelto (puede incluir IDs no encontrados)"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado larga")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<LoteResponseDTO<CategoriaResponseDTO>> obtenerCategoriasPorIds(
+            @Valid @RequestBody LoteIdsRequestDTO lote) {
+        
+        return ResponseEntity.ok(categoriaService.obtenerCategoriasPorIds(lote.getIds()));
+    }
+    
     @Operation(summary = "Actualizar categoría", description = "Actualiza la información de una categoría existente")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Categoría actualizada exitosamente"),
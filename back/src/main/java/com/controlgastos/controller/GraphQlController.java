@@ -0,0 +1,114 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.dto.CategoriaResponseDTO;
+import com.controlgastos.dto.LoteIdsRequestDTO;
+import com.controlgastos.dto.ResumenGastosDTO;
+import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.dto.UserResponseDTO;
+import com.controlgastos.service.CategoriaService;
+import com.controlgastos.service.TransaccionService;
+import com.controlgastos.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
+import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.stereotype.Controller;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Controlador GraphQL sobre usuarios, categorías, transacciones y resúmenes (schema.graphqls)
+ * 
+ * Cada relación anidada es un @BatchMapping: Spring agrupa en un DataLoader los elementos
+ * del mismo nivel y el servicio los resuelve con una sola consulta $in, así una lista de
+ * 200 transacciones con su categoría y su usuario hace tres consultas y no 401.
+ * Las transacciones recientes de un usuario no se agrupan: cada una lee solo N entradas
+ * del índice (userId, fecha, _id) y queda en la caché del usuario.
+ */
+@Controller
+@RequiredArgsConstructor
+public class GraphQlController {
+    
+    private final UserService userService;
+    private final CategoriaService categoriaService;
+    private final TransaccionService transaccionService;
+    
+    @QueryMapping
+    public UserResponseDTO usuario(@Argument String id) {
+        return userService.obtenerUsuarioPorId(id);
+    }
+    
+    @QueryMapping
+    public CategoriaResponseDTO categoria(@Argument String id) {
+        return categoriaService.obtenerCategoriaPorId(id);
+    }
+    
+    @QueryMapping
+    public TransaccionResponseDTO transaccion(@Argument String id) {
+        return transaccionService.obtenerTransaccionPorId(id);
+    }
+    
+    @QueryMapping
+    public List<TransaccionResponseDTO> transacciones(@Argument List<String> ids) {
+        if (ids.size() > LoteIdsRequestDTO.MAX_IDS) {
+            throw new IllegalArgumentException("Se admiten como máximo " + LoteIdsRequestDTO.MAX_IDS + " IDs");
+        }
+        return transaccionService.obtenerTransaccionesPorIds(ids).getResultados();
+    }
+    
+    @SchemaMapping(typeName = "Usuario")
+    public List<TransaccionResponseDTO> transacciones(UserResponseDTO usuario, @Argument int n) {
+        return transaccionService.obtenerTransaccionesRecientes(usuario.getId(), n);
+    }
+    
+    @BatchMapping(typeName = "Usuario")
+    public List<List<CategoriaResponseDTO>> categorias(List<UserResponseDTO> usuarios) {
+        return enOrden(usuarios, UserResponseDTO::getId, categoriaService::obtenerCategoriasPorUsuarios);
+    }
+    
+    @BatchMapping(typeName = "Usuario")
+    public List<ResumenGastosDTO> resumen(List<UserResponseDTO> usuarios) {
+        return enOrden(usuarios, UserResponseDTO::getId, transaccionService::calcularResumenes);
+    }
+    
+    @BatchMapping(typeName = "Transaccion", field = "categoria")
+    public List<CategoriaResponseDTO> categoriaDeTransaccion(List<TransaccionResponseDTO> transacciones) {
+        return enOrden(transacciones, TransaccionResponseDTO::getCategoriaId, ids -> {
+            Map<String, CategoriaResponseDTO> porId = new HashMap<>();
+            categoriaService.obtenerCategoriasPorIds(List.copyOf(ids)).getResultados().stream()
+                    .filter(Objects::nonNull)
+                    .forEach(categoria -> porId.put(categoria.getId(), categoria));
+            return porId;
+        });
+    }
+    
+    @BatchMapping(typeName = "Transaccion", field = "usuario")
+    public List<UserResponseDTO> usuarioDeTransaccion(List<TransaccionResponseDTO> transacciones) {
+        return enOrden(transacciones, TransaccionResponseDTO::getUserId, userService::obtenerUsuariosPorIds);
+    }
+    
+    @BatchMapping(typeName = "Categoria", field = "usuario")
+    public List<UserResponseDTO> usuarioDeCategoria(List<CategoriaResponseDTO> categorias) {
+        return enOrden(categorias, CategoriaResponseDTO::getUserId, userService::obtenerUsuariosPorIds);
+    }
+    
+    /**
+     * Carga una vez cada clave distinta del lote y devuelve los valores en el orden de los elementos,
+     * como espera @BatchMapping cuando retorna una lista
+     */
+    private static <E, V> List<V> enOrden(List<E> elementos, Function<E, String> clave,
+                                          Function<LinkedHashSet<String>, Map<String, V>> cargar) {
+        LinkedHashSet<String> claves = new LinkedHashSet<>();
+        elementos.stream().map(clave).filter(Objects::nonNull).forEach(claves::add);
+        Map<String, V> porClave = claves.isEmpty() ? Map.of() : cargar.apply(claves);
+        return elementos.stream().map(elemento -> {
+            String valor = clave.apply(elemento);
+            return valor == null ? null : porClave.get(valor);
+        }).toList();
+    }
+}
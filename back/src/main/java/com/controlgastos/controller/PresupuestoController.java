@@ -0,0 +1,87 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.dto.AlertaPresupuestoDTO;
+import com.controlgastos.dto.PresupuestoRequestDTO;
+import com.controlgastos.dto.PresupuestoResponseDTO;
+import com.controlgastos.service.PresupuestoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/**
+ * Controlador REST para la gestión de presupuestos
+ * Expone endpoints para presupuestos mensuales por categoría y sus alertas
+ */
+@RestController
+@RequestMapping("/api/presupuestos")
+@RequiredArgsConstructor
+@Tag(name = "Presupuestos", description = "API para presupuestos mensuales por categoría y alertas")
+public class PresupuestoController {
+    
+    private final PresupuestoService presupuestoService;
+    
+    @Operation(summary = "Crear presupuesto", description = "Crea un presupuesto mensual para una categoría del usuario")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Presupuesto creado exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
+        @ApiResponse(responseCode = "404", description = "Usuario o categoría no encontrados"),
+        @ApiResponse(responseCode = "409", description = "La categoría ya tiene presupuesto")
+    })
+    @PostMapping("/usuario/{userId}")
+    public ResponseEntity<PresupuestoResponseDTO> crearPresupuesto(
+            @Parameter(description = "ID del usuario propietario", required = true)
+            @PathVariable String userId,
+            @Valid @RequestBody PresupuestoRequestDTO requestDTO) {
+        
+        PresupuestoResponseDTO presupuesto = presupuestoService.crearPresupuesto(userId, requestDTO);
+        return new ResponseEntity<>(presupuesto, HttpStatus.CREATED);
+    }
+    
+    @Operation(summary = "Obtener presupuestos de un usuario", description = "Retorna los presupuestos del usuario con el gasto del mes en curso")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de presupuestos obtenida exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}")
+    public ResponseEntity<List<PresupuestoResponseDTO>> obtenerPresupuestosPorUsuario(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId) {
+        
+        return ResponseEntity.ok(presupuestoService.obtenerPresupuestosPorUsuario(userId));
+    }
+    
+    @Operation(summary = "Obtener alertas de un usuario", description = "Retorna las alertas de presupuesto emitidas, de la más reciente a la más antigua")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de alertas obtenida exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}/alertas")
+    public ResponseEntity<List<AlertaPresupuestoDTO>> obtenerAlertasPorUsuario(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId) {
+        
+        return ResponseEntity.ok(presupuestoService.obtenerAlertasPorUsuario(userId));
+    }
+    
+    @Operation(summary = "Eliminar presupuesto", description = "Elimina un presupuesto y sus alertas")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Presupuesto eliminado exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Presupuesto no encontrado")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminarPresupuesto(
+            @Parameter(description = "ID del presupuesto", required = true)
+            @PathVariable String id) {
+        
+        presupuestoService.eliminarPresupuesto(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.dto.SyncResponseDTO;
+import com.controlgastos.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controlador REST para la sincronización incremental de clientes sin conexión
+ * Expone los cambios de transacciones y categorías posteriores a la marca del cliente
+ */
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@Tag(name = "Sincronización", description = "API de sincronización incremental para la app móvil")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @Operation(summary = "Obtener cambios desde la última sincronización",
+            description = "Sin since devuelve la copia completa (completo = true). Con since devuelve solo las transacciones "
+                    + "y categorías creadas o modificadas y las eliminadas después de esa marca. El cliente guarda la marca "
+                    + "de la respuesta y, si hayMas es true, repite la petición con ella. Si la marca es anterior a las "
+                    + "eliminaciones ya purgadas, la respuesta es una copia completa.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Cambios obtenidos exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Marca o límite inválidos"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}")
+    public ResponseEntity<SyncResponseDTO> obtenerCambios(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Marca de la última sincronización (omitir para una copia completa)")
+            @RequestParam(required = false) Long since,
+            @Parameter(description = "Máximo de cambios por respuesta")
+            @RequestParam(defaultValue = "500") int limite) {
+
+        return ResponseEntity.ok(syncService.obtenerCambios(userId, since, limite));
+    }
+}
@@ -1,9 +1,21 @@
 package com.controlgastos.controller;
 
+import com.controlgastos.dto.ComparacionPeriodosDTO;
+import com.controlgastos.dto.EstadisticaMontosDTO;
+import com.controlgastos.dto.LoteIdsRequestDTO;
+import com.controlgastos.dto.LoteResponseDTO;
+import com.controlgastos.dto.ResumenCategoriaDTO;
 import com.controlgastos.dto.ResumenGastosDTO;
+import com.controlgastos.dto.SaldoPaginaDTO;
+import com.controlgastos.dto.SerieGastosDTO;
 import com.controlgastos.dto.TransaccionRequestDTO;
 import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.model.Granularidad;
+import com.controlgastos.model.PeriodoComparacion;
 import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.service.EstadisticasMontosService;
+import com.controlgastos.service.ExportacionService;
+import com.controlgastos.service.ResumenStreamService;
 import com.controlgastos.service.TransaccionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,11 +25,20 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controlador REST para la gestión de transacciones (ingresos y gastos)
@@ -30,6 +51,9 @@ import java.util.List;
 public class TransaccionController {
     
     private final TransaccionService transaccionService;
+    private final ResumenStreamService resumenStreamService;
+    private final ExportacionService exportacionService;
+    private final EstadisticasMontosService estadisticasService;
     
     @Operation(summary = "Crear nueva transacción", description = "Registra una nueva transacción (ingreso o gasto) para un usuario")
     @ApiResponses(value = {
@@ -61,6 +85,23 @@ public class TransaccionController {
         return ResponseEntity.ok(transacciones);
     }
     
+    @Operation(summary = "Obtener las transacciones más recientes",
+            description = "Retorna las n transacciones más recientes de un usuario, de la más nueva a la más antigua")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Transacciones recientes obtenidas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "n fuera del rango permitido (1 a 100)"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}/recientes")
+    public ResponseEntity<List<TransaccionResponseDTO>> obtenerTransaccionesRecientes(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Número de transacciones")
+            @RequestParam(defaultValue = "10") int n) {
+        
+        return ResponseEntity.ok(transaccionService.obtenerTransaccionesRecientes(userId, n));
+    }
+    
     @Operation(summary = "Obtener transacciones por tipo", description = "Filtra transacciones de un usuario por tipo (INGRESO o GASTO)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de transacciones filtradas"),
@@ -97,6 +138,49 @@ public class TransaccionController {
         return ResponseEntity.ok(transacciones);
     }
     
+    @Operation(summary = "Exportar transacciones a CSV", 
+               description = "Descarga en CSV (UTF-8 con BOM, compatible con Excel) las transacciones de un usuario en un rango de fechas. " +
+                             "Las filas se envían a medida que se leen de la base de datos; si el cliente acepta gzip la respuesta se comprime")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Archivo CSV generado"),
+        @ApiResponse(responseCode = "400", description = "Rango de fechas o separador inválido"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping(value = "/usuario/{userId}/export.csv", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportarCsv(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Fecha de inicio (formato: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
+            @Parameter(description = "Fecha de fin (formato: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
+            @Parameter(description = "Separador de campos: ',' o ';' (Excel en español)")
+            @RequestParam(defaultValue = ",") char separador,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        // Validar antes de escribir para poder responder 400/404 en lugar de un archivo truncado
+        exportacionService.validarExportacion(userId, fechaInicio, fechaFin, separador);
+        boolean gzip = aceptaGzip(acceptEncoding);
+        
+        StreamingResponseBody cuerpo = salida -> {
+            OutputStream destino = gzip ? new GZIPOutputStream(salida, 64 * 1024) : salida;
+            exportacionService.exportarCsv(userId, fechaInicio, fechaFin, separador, destino);
+            if (destino instanceof GZIPOutputStream comprimido) {
+                comprimido.finish();
+            }
+        };
+        
+        String nombre = String.format("transacciones_%s_%s.csv", fechaInicio.toLocalDate(), fechaFin.toLocalDate());
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(nombre).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
+    }
+    
     @Operation(summary = "Obtener transacciones por categoría", 
                description = "Filtra transacciones de un usuario por categoría")
     @ApiResponses(value = {
@@ -129,6 +213,20 @@ public class TransaccionController {
         return ResponseEntity.ok(transaccion);
     }
     
+    @Operation(summary = "Obtener transacciones por lote de IDs",
+            description = "Resuelve hasta " + LoteIdsRequestDTO.MAX_IDS + " IDs con una sola consulta. Los resultados "
+                    + "siguen el orden de la petición, con null en cada ID no encontrado; noEncontrados lista esos IDs")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote resuelto (puede incluir IDs no encontrados)"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o demasiado larga")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<LoteResponseDTO<TransaccionResponseDTO>> obtenerTransaccionesPorIds(
+            @Valid @RequestBody LoteIdsRequestDTO lote) {
+        
+        return ResponseEntity.ok(transaccionService.obtenerTransaccionesPorIds(lote.getIds()));
+    }
+    
     @Operation(summary = "Actualizar transacción", description = "Actualiza la información de una transacción existente")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Transacción actualizada exitosamente"),
@@ -174,6 +272,23 @@ public class TransaccionController {
         return ResponseEntity.ok(resumen);
     }
     
+    @Operation(summary = "Suscribirse al resumen en tiempo real", 
+               description = "Abre una conexión Server-Sent Events que envía el resumen (evento 'resumen') " +
+                             "al conectarse y cada vez que cambian las transacciones del usuario. " +
+                             "Las ráfagas de cambios se agrupan en un solo envío y se mandan comentarios periódicos como heartbeat")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Conexión SSE abierta"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado"),
+        @ApiResponse(responseCode = "503", description = "Se alcanzó el máximo de conexiones de la instancia")
+    })
+    @GetMapping(value = "/usuario/{userId}/resumen/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter suscribirResumen(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId) {
+        
+        return resumenStreamService.suscribir(userId);
+    }
+    
     @Operation(summary = "Calcular resumen por periodo", 
                description = "Genera un resumen de gastos e ingresos en un rango de fechas específico")
     @ApiResponses(value = {
@@ -192,4 +307,146 @@ public class TransaccionController {
         ResumenGastosDTO resumen = transaccionService.calcularResumenPorFecha(userId, fechaInicio, fechaFin);
         return ResponseEntity.ok(resumen);
     }
+    
+    @Operation(summary = "Calcular resumen por categoría", 
+               description = "Retorna los totales y cantidades por categoría y tipo de transacción en un rango de fechas. " +
+                       "Se calcula en la base de datos y se cachea hasta la siguiente escritura del usuario")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resumen por categoría calculado exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}/resumen/categorias")
+    public ResponseEntity<List<ResumenCategoriaDTO>> calcularResumenPorCategoria(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Fecha de inicio (formato: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
+            @Parameter(description = "Fecha de fin (formato: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin) {
+        
+        List<ResumenCategoriaDTO> resumen = transaccionService.calcularResumenPorCategoria(
+                userId, fechaInicio, fechaFin);
+        return ResponseEntity.ok(resumen);
+    }
+    
+    @Operation(summary = "Comparar un periodo con el anterior", 
+               description = "Compara los ingresos, gastos, balance y totales por categoría del rango [fechaInicio, fechaFin) " +
+                       "con el mismo rango desplazado una semana, un mes o un año. Ambos periodos se calculan en una sola " +
+                       "agregación. El porcentaje es relativo al valor absoluto del periodo anterior y es null si este es cero")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Comparación calculada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Rango de fechas inválido"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}/resumen/comparacion")
+    public ResponseEntity<ComparacionPeriodosDTO> compararPeriodos(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Inicio del periodo actual, inclusivo (formato: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
+            @Parameter(description = "Fin del periodo actual, exclusivo (formato: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
+            @Parameter(description = "Periodo de comparación: SEMANA_ANTERIOR, MES_ANTERIOR o ANIO_ANTERIOR")
+            @RequestParam(defaultValue = "MES_ANTERIOR") PeriodoComparacion comparacion) {
+        
+        ComparacionPeriodosDTO resultado = transaccionService.compararPeriodos(
+                userId, fechaInicio, fechaFin, comparacion);
+        return ResponseEntity.ok(resultado);
+    }
+    
+    @Operation(summary = "Obtener el saldo acumulado", 
+               description = "Retorna las transacciones en orden de fecha con el saldo después de cada una (ingresos menos gastos). " +
+                       "Para la página siguiente se envían siguienteFecha, siguienteId y saldoFinal de la respuesta como " +
+                       "despuesDeFecha, despuesDeId y saldoInicial; así cada página solo recorre sus propias transacciones")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página del saldo calculada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Cursor o límite inválidos"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}/saldo")
+    public ResponseEntity<SaldoPaginaDTO> obtenerSaldoAcumulado(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Fecha de la última transacción de la página anterior (omitir en la primera página)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime despuesDeFecha,
+            @Parameter(description = "ID de la última transacción de la página anterior (omitir en la primera página)")
+            @RequestParam(required = false) String despuesDeId,
+            @Parameter(description = "Saldo antes de la primera transacción de la página")
+            @RequestParam(defaultValue = "0") double saldoInicial,
+            @Parameter(description = "Máximo de transacciones por página")
+            @RequestParam(defaultValue = "100") int limite) {
+        
+        SaldoPaginaDTO pagina = transaccionService.obtenerSaldoAcumulado(
+                userId, despuesDeFecha, despuesDeId, saldoInicial, limite);
+        return ResponseEntity.ok(pagina);
+    }
+    
+    @Operation(summary = "Obtener serie temporal de ingresos y gastos", 
+               description = "Agrupa las transacciones por día, semana (inicia el lunes) o mes en la zona horaria indicada. " +
+                       "Incluye todos los periodos del rango, con ceros donde no hay transacciones")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Serie calculada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Rango de fechas o zona horaria inválidos"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}/serie")
+    public ResponseEntity<SerieGastosDTO> calcularSerie(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Tamaño de cada periodo: DIA, SEMANA o MES", required = true)
+            @RequestParam Granularidad granularidad,
+            @Parameter(description = "Fecha de inicio (formato: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaInicio,
+            @Parameter(description = "Fecha de fin (formato: yyyy-MM-dd'T'HH:mm:ss)", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fechaFin,
+            @Parameter(description = "Zona horaria IANA (por ejemplo America/Bogota) o desplazamiento ±HH:MM")
+            @RequestParam(defaultValue = "UTC") String zonaHoraria) {
+        
+        SerieGastosDTO serie = transaccionService.calcularSerie(
+                userId, granularidad, fechaInicio, fechaFin, zonaHoraria);
+        return ResponseEntity.ok(serie);
+    }
+    
+    @Operation(summary = "Obtener percentiles de gastos por categoría", 
+               description = "Retorna la cantidad, mínimo, máximo y los percentiles p50 (gasto típico), p90 y p99 " +
+                       "de los montos de gasto de cada categoría en un rango de hasta 24 meses. " +
+                       "Los percentiles se calculan con t-digest (compresión 100) y son aproximados en rango: " +
+                       "el valor devuelto para el percentil q corresponde a un percentil real dentro de " +
+                       "±1% en p50, ±0,35% en p90 y ±0,04% en p99. Con menos de ~50 gastos son exactos salvo interpolación")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estadísticas calculadas exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Rango de meses inválido"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}/estadisticas/montos")
+    public ResponseEntity<List<EstadisticaMontosDTO>> calcularEstadisticasMontos(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId,
+            @Parameter(description = "Primer mes (formato: yyyy-MM); por defecto el mes en curso")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+            @Parameter(description = "Último mes, inclusive (formato: yyyy-MM); por defecto el mes en curso")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta) {
+        
+        YearMonth mesActual = YearMonth.now();
+        List<EstadisticaMontosDTO> estadisticas = estadisticasService.calcularEstadisticas(
+                userId, desde != null ? desde : mesActual, hasta != null ? hasta : mesActual);
+        return ResponseEntity.ok(estadisticas);
+    }
+    
+    /**
+     * Indica si la cabecera Accept-Encoding admite gzip (ignora gzip;q=0)
+     */
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            String nombre = partes[0].trim();
+            if (nombre.equalsIgnoreCase("gzip") || nombre.equals("*")) {
+                return partes.length == 1 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,72 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.dto.TransaccionRecurrenteRequestDTO;
+import com.controlgastos.dto.TransaccionRecurrenteResponseDTO;
+import com.controlgastos.service.TransaccionRecurrenteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+/**
+ * Controlador REST para la gestión de transacciones recurrentes
+ * Expone endpoints para ingresos y gastos periódicos (salario, alquiler, etc.)
+ */
+@RestController
+@RequestMapping("/api/recurrentes")
+@RequiredArgsConstructor
+@Tag(name = "Transacciones recurrentes", description = "API para ingresos y gastos que se repiten periódicamente")
+public class TransaccionRecurrenteController {
+    
+    private final TransaccionRecurrenteService recurrenteService;
+    
+    @Operation(summary = "Crear transacción recurrente", description = "Crea una regla cuyas ocurrencias se generan como transacciones a medida que vencen")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "Transacción recurrente creada exitosamente"),
+        @ApiResponse(responseCode = "400", description = "Datos de entrada inválidos"),
+        @ApiResponse(responseCode = "404", description = "Usuario o categoría no encontrados")
+    })
+    @PostMapping("/usuario/{userId}")
+    public ResponseEntity<TransaccionRecurrenteResponseDTO> crearRecurrente(
+            @Parameter(description = "ID del usuario propietario", required = true)
+            @PathVariable String userId,
+            @Valid @RequestBody TransaccionRecurrenteRequestDTO requestDTO) {
+        
+        TransaccionRecurrenteResponseDTO recurrente = recurrenteService.crearRecurrente(userId, requestDTO);
+        return new ResponseEntity<>(recurrente, HttpStatus.CREATED);
+    }
+    
+    @Operation(summary = "Obtener transacciones recurrentes de un usuario", description = "Retorna las reglas del usuario con su próxima ocurrencia")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de transacciones recurrentes obtenida exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    })
+    @GetMapping("/usuario/{userId}")
+    public ResponseEntity<List<TransaccionRecurrenteResponseDTO>> obtenerRecurrentesPorUsuario(
+            @Parameter(description = "ID del usuario", required = true)
+            @PathVariable String userId) {
+        
+        return ResponseEntity.ok(recurrenteService.obtenerRecurrentesPorUsuario(userId));
+    }
+    
+    @Operation(summary = "Eliminar transacción recurrente", description = "Elimina la regla; las transacciones ya generadas se conservan")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Transacción recurrente eliminada exitosamente"),
+        @ApiResponse(responseCode = "404", description = "Transacción recurrente no encontrada")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> eliminarRecurrente(
+            @Parameter(description = "ID de la transacción recurrente", required = true)
+            @PathVariable String id) {
+        
+        recurrenteService.eliminarRecurrente(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.controlgastos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para la respuesta de alertas de presupuesto
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertaPresupuestoDTO {
+    
+    private String id;
+    private String presupuestoId;
+    private String categoriaId;
+    private String periodo;
+    private Integer umbral;
+    private Double gastado;
+    private Double limite;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,28 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.PeriodoComparacion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para la comparación de un periodo con el anterior
+ * Ambos rangos son [inicio, fin)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComparacionPeriodosDTO {
+    
+    private PeriodoComparacion comparacion;
+    private LocalDateTime inicioActual;
+    private LocalDateTime finActual;
+    private LocalDateTime inicioAnterior;
+    private LocalDateTime finAnterior;
+    private VariacionDTO ingresos;
+    private VariacionDTO gastos;
+    private VariacionDTO balance;
+    private List<VariacionCategoriaDTO> categorias; // Ordenadas por total actual y después por total anterior
+}
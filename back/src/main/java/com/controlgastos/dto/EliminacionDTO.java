@@ -0,0 +1,18 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.EntidadSync;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de una entidad eliminada que el cliente debe borrar de su copia local
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EliminacionDTO {
+    
+    private EntidadSync entidad;
+    private String id;
+}
@@ -0,0 +1,23 @@
+package com.controlgastos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los percentiles aproximados de los gastos de una categoría
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticaMontosDTO {
+    
+    private String categoriaId;
+    private String categoriaNombre;
+    private Long cantidad;
+    private Double minimo;
+    private Double maximo;
+    private Double p50; // Gasto típico (mediana)
+    private Double p90;
+    private Double p99; // Por encima de este valor el gasto es atípico
+}
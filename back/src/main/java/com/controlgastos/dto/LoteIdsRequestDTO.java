@@ -0,0 +1,24 @@
+package com.controlgastos.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO con la lista de IDs a resolver en una sola consulta
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteIdsRequestDTO {
+    
+    public static final int MAX_IDS = 200;
+    
+    @NotNull(message = "La lista de IDs es obligatoria")
+    @Size(min = 1, max = MAX_IDS, message = "La lista debe tener entre 1 y " + MAX_IDS + " IDs")
+    private List<@NotBlank(message = "Los IDs no pueden estar vacíos") String> ids;
+}
@@ -0,0 +1,40 @@
+package com.controlgastos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO de respuesta de una consulta por lote de IDs
+ * resultados sigue el orden de la petición, con null en cada ID no encontrado;
+ * noEncontrados repite esos IDs para no tener que recorrer la lista
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteResponseDTO<T> {
+    
+    private List<T> resultados;
+    private List<String> noEncontrados;
+    
+    /**
+     * Ordena los elementos encontrados según los IDs pedidos
+     * @param ids IDs en el orden de la petición (puede haber repetidos)
+     * @param porId elementos encontrados indexados por ID
+     */
+    public static <T> LoteResponseDTO<T> enOrden(List<String> ids, Map<String, T> porId) {
+        List<T> resultados = new ArrayList<>(ids.size());
+        List<String> noEncontrados = new ArrayList<>();
+        for (String id : ids) {
+            T elemento = porId.get(id);
+            resultados.add(elemento);
+            if (elemento == null) {
+                noEncontrados.add(id);
+            }
+        }
+        return new LoteResponseDTO<>(resultados, noEncontrados);
+    }
+}
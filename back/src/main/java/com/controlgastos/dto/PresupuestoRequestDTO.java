@@ -0,0 +1,31 @@
+package com.controlgastos.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO para la creación de presupuestos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresupuestoRequestDTO {
+    
+    @NotBlank(message = "El ID de categoría es obligatorio")
+    private String categoriaId;
+    
+    @NotNull(message = "El límite es obligatorio")
+    @Positive(message = "El límite debe ser positivo")
+    private Double limite;
+    
+    // Porcentajes del límite que generan alerta; si se omite se usan 80 y 100
+    private List<@NotNull @Min(value = 1, message = "El umbral mínimo es 1")
+            @Max(value = 1000, message = "El umbral máximo es 1000") Integer> umbrales;
+}
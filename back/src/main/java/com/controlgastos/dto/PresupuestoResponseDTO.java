@@ -0,0 +1,23 @@
+package com.controlgastos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO para la respuesta de presupuesto con el gasto del mes en curso
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresupuestoResponseDTO {
+    
+    private String id;
+    private String userId;
+    private String categoriaId;
+    private Double limite;
+    private List<Integer> umbrales;
+    private Double gastadoMes;
+    private Double porcentaje;
+}
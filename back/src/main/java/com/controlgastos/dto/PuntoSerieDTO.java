@@ -0,0 +1,21 @@
+package com.controlgastos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+/**
+ * DTO con los totales de un periodo dentro de una serie temporal
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PuntoSerieDTO {
+    
+    private LocalDate inicio; // Primer día del periodo en la zona horaria solicitada
+    private Double totalIngresos;
+    private Double totalGastos;
+    private Double balance;
+    private Long cantidad;
+}
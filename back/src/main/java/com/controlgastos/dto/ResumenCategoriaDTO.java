@@ -0,0 +1,22 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.TipoTransaccion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el total y la cantidad de transacciones de una categoría y tipo
+ * Usado para construir el gráfico de gastos por categoría
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCategoriaDTO {
+    
+    private String categoriaId;
+    private String categoriaNombre;
+    private TipoTransaccion tipoTransaccion;
+    private Double total;
+    private Long cantidad;
+}
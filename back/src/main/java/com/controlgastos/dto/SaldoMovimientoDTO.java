@@ -0,0 +1,25 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.TipoTransaccion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO con una transacción y el saldo de la cuenta después de aplicarla
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoMovimientoDTO {
+    
+    private String id;
+    private TipoTransaccion tipoTransaccion;
+    private String categoriaId;
+    private String categoriaNombre;
+    private String descripcion;
+    private LocalDateTime fecha;
+    private Double monto;
+    private Double saldo;
+}
@@ -0,0 +1,25 @@
+package com.controlgastos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para una página del saldo acumulado, en orden de fecha
+ * 
+ * Si hayMas es true, la página siguiente se pide con despuesDeFecha=siguienteFecha,
+ * despuesDeId=siguienteId y saldoInicial=saldoFinal, sin volver a recorrer las anteriores.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoPaginaDTO {
+    
+    private List<SaldoMovimientoDTO> movimientos;
+    private Double saldoFinal;
+    private boolean hayMas;
+    private LocalDateTime siguienteFecha;
+    private String siguienteId;
+}
@@ -0,0 +1,21 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.Granularidad;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO para la serie temporal de ingresos y gastos
+ * Incluye todos los periodos del rango, con ceros en los periodos sin transacciones
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SerieGastosDTO {
+    
+    private Granularidad granularidad;
+    private String zonaHoraria;
+    private List<PuntoSerieDTO> puntos;
+}
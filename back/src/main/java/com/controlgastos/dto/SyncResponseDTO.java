@@ -0,0 +1,27 @@
+package com.controlgastos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * DTO para la respuesta de la sincronización incremental
+ * 
+ * Si completo es true el cliente debe reemplazar su copia local por el contenido
+ * de la respuesta; si no, aplicar los cambios y eliminaciones. En ambos casos
+ * guarda marca y la envía como since en la siguiente sincronización. Si hayMas
+ * es true debe repetir la petición de inmediato con la nueva marca.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncResponseDTO {
+    
+    private long marca;
+    private boolean completo;
+    private boolean hayMas;
+    private List<TransaccionResponseDTO> transacciones;
+    private List<CategoriaResponseDTO> categorias;
+    private List<EliminacionDTO> eliminaciones;
+}
@@ -0,0 +1,42 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.Frecuencia;
+import com.controlgastos.model.TipoTransaccion;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para la creación de transacciones recurrentes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransaccionRecurrenteRequestDTO {
+    
+    @NotNull(message = "El tipo de transacción es obligatorio")
+    private TipoTransaccion tipoTransaccion;
+    
+    @NotBlank(message = "El ID de categoría es obligatorio")
+    private String categoriaId;
+    
+    @NotBlank(message = "La descripción es obligatoria")
+    private String descripcion;
+    
+    @NotNull(message = "El monto es obligatorio")
+    @Positive(message = "El monto debe ser positivo")
+    private Double monto;
+    
+    @NotNull(message = "La frecuencia es obligatoria")
+    private Frecuencia frecuencia;
+    
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    private LocalDateTime fechaInicio;
+    
+    // Opcional: la regla no termina si se omite
+    private LocalDateTime fechaFin;
+}
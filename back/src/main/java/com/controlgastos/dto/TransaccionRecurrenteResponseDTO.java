@@ -0,0 +1,29 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.Frecuencia;
+import com.controlgastos.model.TipoTransaccion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * DTO para la respuesta de transacción recurrente
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransaccionRecurrenteResponseDTO {
+    
+    private String id;
+    private String userId;
+    private TipoTransaccion tipoTransaccion;
+    private String categoriaId;
+    private String descripcion;
+    private Double monto;
+    private Frecuencia frecuencia;
+    private LocalDateTime fechaInicio;
+    private LocalDateTime fechaFin;
+    private long ocurrenciasGeneradas;
+    private LocalDateTime proximaFecha;
+}
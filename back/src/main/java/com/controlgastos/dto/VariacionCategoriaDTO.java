@@ -0,0 +1,22 @@
+package com.controlgastos.dto;
+
+import com.controlgastos.model.TipoTransaccion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con la variación del total de una categoría y tipo entre dos periodos
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariacionCategoriaDTO {
+    
+    private String categoriaId;
+    private String categoriaNombre;
+    private TipoTransaccion tipoTransaccion;
+    private Long cantidadAnterior;
+    private Long cantidadActual;
+    private VariacionDTO total;
+}
@@ -0,0 +1,28 @@
+package com.controlgastos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el valor de un total en dos periodos y su variación
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariacionDTO {
+    
+    private Double anterior;
+    private Double actual;
+    private Double diferencia; // actual - anterior
+    private Double porcentaje; // Respecto al valor absoluto del anterior; null si el anterior es cero
+    
+    /**
+     * Calcula la variación entre el valor del periodo anterior y el del actual
+     */
+    public static VariacionDTO entre(double anterior, double actual) {
+        double diferencia = actual - anterior;
+        Double porcentaje = anterior != 0.0 ? diferencia / Math.abs(anterior) * 100.0 : null;
+        return new VariacionDTO(anterior, actual, diferencia, porcentaje);
+    }
+}
@@ -0,0 +1,10 @@
+package com.controlgastos.event;
+
+import com.controlgastos.model.AlertaPresupuesto;
+
+/**
+ * Evento publicado en la aplicación cuando se emite una alerta de presupuesto
+ * @param alerta alerta persistida
+ */
+public record AlertaPresupuestoEvent(AlertaPresupuesto alerta) {
+}
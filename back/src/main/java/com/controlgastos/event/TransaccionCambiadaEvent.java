@@ -0,0 +1,8 @@
+package com.controlgastos.event;
+
+/**
+ * Evento publicado en la aplicación cuando se crea, modifica o elimina una transacción
+ * @param userId ID del usuario propietario de la transacción
+ */
+public record TransaccionCambiadaEvent(String userId) {
+}
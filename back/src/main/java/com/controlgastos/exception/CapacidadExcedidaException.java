@@ -0,0 +1,18 @@
+package com.controlgastos.exception;
+
+/**
+ * Excepción lanzada cuando la instancia no admite más trabajo de un tipo (ej. conexiones SSE)
+ */
+public class CapacidadExcedidaException extends RuntimeException {
+    
+    private final long reintentarEnSegundos;
+    
+    public CapacidadExcedidaException(String message, long reintentarEnSegundos) {
+        super(message);
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+    
+    public long getReintentarEnSegundos() {
+        return reintentarEnSegundos;
+    }
+}
@@ -1,15 +1,55 @@
 package com.controlgastos.exception;
 
+import org.springframework.dao.DuplicateKeyException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Excepción lanzada cuando hay un conflicto de datos (ej. duplicados)
+ * 
+ * Sin traza de pila y con el mensaje compuesto al pedirlo, como ResourceNotFoundException:
+ * las comprobaciones de apodo y correo repetidos la lanzan con mucha frecuencia
  */
 public class DuplicateResourceException extends RuntimeException {
     
+    private static final Pattern INDICE = Pattern.compile("index: (\\S+) dup key");
+    
+    private final String resourceName;
+    private final String fieldName;
+    private final Object fieldValue;
+    private String message;
+    
     public DuplicateResourceException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.resourceName = null;
+        this.fieldName = null;
+        this.fieldValue = null;
+        this.message = message;
     }
     
     public DuplicateResourceException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s ya existe con %s: '%s'", resourceName, fieldName, fieldValue));
+        super(null, null, false, false);
+        this.resourceName = resourceName;
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+    }
+    
+    /**
+     * Nombre del índice único que rechazó la escritura, según el mensaje del servidor
+     * ("E11000 duplicate key error collection: controlgastos.usuarios index: correo dup key: ...")
+     * @param e excepción traducida por Spring Data
+     * @return nombre del índice, o null si el mensaje no lo incluye
+     */
+    public static String indiceViolado(DuplicateKeyException e) {
+        Matcher matcher = INDICE.matcher(String.valueOf(e.getMessage()));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+    
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = resourceName + " ya existe con " + fieldName + ": '" + fieldValue + "'";
+        }
+        return message;
     }
 }
@@ -1,11 +1,13 @@
 package com.controlgastos.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -30,7 +32,7 @@ public class GlobalExceptionHandler {
                 HttpStatus.NOT_FOUND.value(),
                 "Recurso no encontrado",
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                ruta(request)
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
@@ -48,7 +50,7 @@ public class GlobalExceptionHandler {
                 HttpStatus.CONFLICT.value(),
                 "Conflicto de datos",
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                ruta(request)
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
@@ -66,12 +68,50 @@ public class GlobalExceptionHandler {
                 HttpStatus.UNAUTHORIZED.value(),
                 "Credenciales incorrectas",
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                ruta(request)
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
     }
     
+    /**
+     * Maneja argumentos inválidos (rangos de fechas, zonas horarias, etc.)
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
+            IllegalArgumentException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Solicitud inválida",
+                ex.getMessage(),
+                ruta(request)
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+    
+    /**
+     * Maneja excepciones de capacidad agotada indicando cuándo reintentar
+     */
+    @ExceptionHandler(CapacidadExcedidaException.class)
+    public ResponseEntity<ErrorResponse> handleCapacidadExcedidaException(
+            CapacidadExcedidaException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Servicio saturado",
+                ex.getMessage(),
+                ruta(request)
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getReintentarEnSegundos()))
+                .body(errorResponse);
+    }
+    
     /**
      * Maneja errores de validación de campos
      */
@@ -91,7 +131,7 @@ public class GlobalExceptionHandler {
                 HttpStatus.BAD_REQUEST.value(),
                 "Error de validación",
                 errors,
-                request.getDescription(false).replace("uri=", "")
+                ruta(request)
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
@@ -109,12 +149,23 @@ public class GlobalExceptionHandler {
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
                 "Error interno del servidor",
                 ex.getMessage(),
-                request.getDescription(false).replace("uri=", "")
+                ruta(request)
         );
         
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
     
+    /**
+     * Ruta de la petición, leída directamente de la petición HTTP cuando es posible
+     * (getDescription compone "uri=..." solo para volver a quitarlo)
+     */
+    private static String ruta(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).replace("uri=", "");
+    }
+    
     /**
      * Clase interna para formatear respuestas de error
      */
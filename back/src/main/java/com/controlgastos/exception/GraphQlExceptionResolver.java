@@ -0,0 +1,35 @@
+package com.controlgastos.exception;
+
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.schema.DataFetchingEnvironment;
+import org.springframework.graphql.execution.DataFetcherExceptionResolverAdapter;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Traduce las excepciones de los servicios a errores GraphQL, con las mismas
+ * categorías que GlobalExceptionHandler usa para la API REST
+ * El resto queda como INTERNAL_ERROR sin detalles
+ */
+@Component
+public class GraphQlExceptionResolver extends DataFetcherExceptionResolverAdapter {
+    
+    @Override
+    protected GraphQLError resolveToSingleError(Throwable ex, DataFetchingEnvironment env) {
+        ErrorType tipo;
+        if (ex instanceof ResourceNotFoundException) {
+            tipo = ErrorType.NOT_FOUND;
+        } else if (ex instanceof IllegalArgumentException) {
+            tipo = ErrorType.BAD_REQUEST;
+        } else if (ex instanceof UnauthorizedException) {
+            tipo = ErrorType.UNAUTHORIZED;
+        } else {
+            return null;
+        }
+        return GraphqlErrorBuilder.newError(env)
+                .errorType(tipo)
+                .message(ex.getMessage())
+                .build();
+    }
+}
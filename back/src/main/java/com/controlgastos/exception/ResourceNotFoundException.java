@@ -2,14 +2,38 @@ package com.controlgastos.exception;
 
 /**
  * Excepción lanzada cuando no se encuentra un recurso
+ * 
+ * Es la respuesta habitual a IDs inválidos (incluidos los de bots), por eso no captura
+ * la traza de pila, que GlobalExceptionHandler nunca usa, y el mensaje se compone la
+ * primera vez que se pide
  */
 public class ResourceNotFoundException extends RuntimeException {
     
+    private final String resourceName;
+    private final String fieldName;
+    private final Object fieldValue;
+    private String message;
+    
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.resourceName = null;
+        this.fieldName = null;
+        this.fieldValue = null;
+        this.message = message;
     }
     
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s no encontrado con %s: '%s'", resourceName, fieldName, fieldValue));
+        super(null, null, false, false);
+        this.resourceName = resourceName;
+        this.fieldName = fieldName;
+        this.fieldValue = fieldValue;
+    }
+    
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = resourceName + " no encontrado con " + fieldName + ": '" + fieldValue + "'";
+        }
+        return message;
     }
 }
@@ -1,7 +1,17 @@
 package com.controlgastos.exception;
 
+/**
+ * Excepción lanzada cuando falla la autenticación (HU002)
+ * 
+ * No captura la traza de pila y es inmutable, así que la instancia de credenciales
+ * incorrectas se comparte entre todos los inicios de sesión fallidos
+ */
 public class UnauthorizedException extends RuntimeException {
+    
+    public static final UnauthorizedException CREDENCIALES_INCORRECTAS =
+            new UnauthorizedException("Correo electrónico o contrasenia incorrectos");
+    
     public UnauthorizedException(String mensaje) {
-        super(mensaje);
+        super(mensaje, null, false, false);
     }
 }
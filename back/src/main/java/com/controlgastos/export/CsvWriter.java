@@ -0,0 +1,119 @@
+package com.controlgastos.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escritor CSV mínimo compatible con Excel (RFC 4180)
+ *
+ * Escribe directamente sobre el Writer recibido, sin acumular filas en memoria.
+ * Los textos se entrecomillan solo cuando contienen el separador, comillas o
+ * saltos de línea, y los que empiezan por =, +, - o @ se prefijan con un
+ * apóstrofo para que Excel no los interprete como fórmulas.
+ */
+public class CsvWriter {
+    
+    /** Marca de orden de bytes para que Excel detecte UTF-8 */
+    public static final char BOM = '\uFEFF';
+    
+    private static final String FIN_LINEA = "\r\n";
+    
+    private final Writer writer;
+    private final char separador;
+    private boolean inicioFila = true;
+    
+    public CsvWriter(Writer writer, char separador) {
+        this.writer = writer;
+        this.separador = separador;
+    }
+    
+    /**
+     * Escribe la marca BOM; debe llamarse antes de la primera fila
+     */
+    public void escribirBom() throws IOException {
+        writer.write(BOM);
+    }
+    
+    /**
+     * Escribe una fila completa de textos (ej. la cabecera)
+     */
+    public void escribirFila(String... valores) throws IOException {
+        for (String valor : valores) {
+            texto(valor);
+        }
+        finFila();
+    }
+    
+    /**
+     * Escribe un campo de texto escapándolo si es necesario
+     */
+    public void texto(String valor) throws IOException {
+        separar();
+        if (valor == null || valor.isEmpty()) {
+            return;
+        }
+        
+        boolean formula = esInicioDeFormula(valor.charAt(0));
+        if (!formula && !requiereComillas(valor)) {
+            writer.write(valor);
+            return;
+        }
+        
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+    
+    /**
+     * Escribe un campo sin escapar; solo para valores que no pueden contener
+     * el separador ni comillas (números, fechas, enums)
+     */
+    public void literal(String valor) throws IOException {
+        separar();
+        if (valor != null) {
+            writer.write(valor);
+        }
+    }
+    
+    /**
+     * Termina la fila actual
+     */
+    public void finFila() throws IOException {
+        writer.write(FIN_LINEA);
+        inicioFila = true;
+    }
+    
+    public void flush() throws IOException {
+        writer.flush();
+    }
+    
+    private void separar() throws IOException {
+        if (!inicioFila) {
+            writer.write(separador);
+        }
+        inicioFila = false;
+    }
+    
+    private boolean requiereComillas(String valor) {
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == separador || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean esInicioDeFormula(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@';
+    }
+}
@@ -0,0 +1,52 @@
+package com.controlgastos.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una alerta emitida al superar un umbral de un presupuesto
+ * Almacenada en la colección "alertas_presupuesto" de MongoDB
+ * 
+ * El índice único (presupuestoId, periodo, umbral) garantiza una sola alerta
+ * por umbral y mes, aunque el monitor reprocese eventos tras un reinicio
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "alertas_presupuesto")
+@CompoundIndex(name = "presupuesto_periodo_umbral", def = "{ 'presupuestoId': 1, 'periodo': 1, 'umbral': 1 }", unique = true)
+@CompoundIndex(name = "userId_fecha", def = "{ 'userId': 1, 'fecha': -1 }")
+public class AlertaPresupuesto {
+    
+    @Id
+    private String id;
+    
+    private String presupuestoId;
+    private String userId;
+    private String categoriaId;
+    private String periodo; // Mes del presupuesto (formato: yyyy-MM)
+    private Integer umbral; // Porcentaje superado
+    private Double gastado; // Gasto acumulado del mes al superar el umbral
+    private Double limite;
+    private LocalDateTime fecha;
+    
+    /**
+     * Constructor para crear una alerta sin ID (se generará automáticamente)
+     */
+    public AlertaPresupuesto(String presupuestoId, String userId, String categoriaId, String periodo,
+                             Integer umbral, Double gastado, Double limite, LocalDateTime fecha) {
+        this.presupuestoId = presupuestoId;
+        this.userId = userId;
+        this.categoriaId = categoriaId;
+        this.periodo = periodo;
+        this.umbral = umbral;
+        this.gastado = gastado;
+        this.limite = limite;
+        this.fecha = fecha;
+    }
+}
@@ -1,22 +1,34 @@
 package com.controlgastos.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
 
 /**
  * Entidad que representa una categoría de transacciones
  * Almacenada en la colección "categorias" de MongoDB
+ * 
+ * El índice (userId, secuencia) soporta la sincronización incremental y el índice
+ * único (userId, nombre) impide nombres repetidos dentro de un usuario
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "categorias")
+@CompoundIndexes({
+    @CompoundIndex(name = "userId_secuencia", def = "{ 'userId': 1, 'secuencia': 1 }"),
+    @CompoundIndex(name = Categoria.INDICE_NOMBRE, def = "{ 'userId': 1, 'nombre': 1 }", unique = true)
+})
 public class Categoria {
     
+    public static final String INDICE_NOMBRE = "userId_nombre";
+    
     @Id
     private String id;
     
@@ -25,6 +37,10 @@ public class Categoria {
     
     private String userId; // Referencia al usuario propietario
     
+    private Long secuencia; // Orden del último cambio dentro del usuario (sincronización)
+    
+    private LocalDateTime actualizadoEn;
+    
     /**
      * Constructor para crear una categoría sin ID (se generará automáticamente)
      */
@@ -0,0 +1,32 @@
+package com.controlgastos.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Entidad que guarda el punto de reanudación de un consumidor de change streams
+ * Almacenada en la colección "checkpoints" de MongoDB
+ * 
+ * El resume token y los totales se guardan juntos para que, al reanudar,
+ * cada evento posterior al token se aplique exactamente una vez
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "checkpoints")
+public class CheckpointStream {
+    
+    @Id
+    private String id; // Nombre del consumidor
+    
+    private String resumeToken; // Resume token en formato JSON
+    private String periodo; // Mes al que corresponden los totales (formato: yyyy-MM)
+    private Map<String, Double> totales = new HashMap<>(); // Gasto acumulado por ID de presupuesto
+    private LocalDateTime actualizado;
+}
@@ -0,0 +1,44 @@
+package com.controlgastos.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Marca de eliminación (tombstone) de una transacción o categoría
+ * Almacenada en la colección "eliminaciones" de MongoDB
+ * 
+ * Permite que los clientes sincronizados borren su copia local. Se conservan
+ * durante sync.retencion-eliminaciones-dias y después se purgan.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "eliminaciones")
+@CompoundIndex(name = "userId_secuencia", def = "{ 'userId': 1, 'secuencia': 1 }")
+public class Eliminacion {
+    
+    @Id
+    private String id;
+    
+    private String userId;
+    private EntidadSync entidad;
+    private String entidadId;
+    private Long secuencia;
+    
+    @Indexed
+    private LocalDateTime eliminadoEn;
+    
+    public Eliminacion(String userId, EntidadSync entidad, String entidadId, Long secuencia, LocalDateTime eliminadoEn) {
+        this.userId = userId;
+        this.entidad = entidad;
+        this.entidadId = entidadId;
+        this.secuencia = secuencia;
+        this.eliminadoEn = eliminadoEn;
+    }
+}
@@ -0,0 +1,9 @@
+package com.controlgastos.model;
+
+/**
+ * Enumeración de las entidades que se sincronizan con los clientes sin conexión
+ */
+public enum EntidadSync {
+    TRANSACCION,
+    CATEGORIA
+}
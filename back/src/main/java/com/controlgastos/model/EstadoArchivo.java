@@ -0,0 +1,34 @@
+package com.controlgastos.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Estado del archivado de transacciones antiguas
+ * Almacenada en la colección "estado_archivo" de MongoDB (un único documento)
+ * 
+ * corte separa las dos colecciones: las transacciones con fecha anterior se leen
+ * de "transacciones_archivo" y el resto de "transacciones". Mientras pendiente es
+ * true, "transacciones" aún conserva copias anteriores al corte que el archivador
+ * borrará cuando todas las instancias hayan visto el corte nuevo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "estado_archivo")
+public class EstadoArchivo {
+    
+    public static final String ID = "transacciones";
+    
+    @Id
+    private String id;
+    
+    private LocalDateTime corte;
+    private boolean pendiente;
+    private LocalDateTime cambiadoEn; // Momento en que se publicó el corte actual
+    private LocalDateTime inicioCopia; // Inicio de la copia al archivo del corte actual
+}
@@ -0,0 +1,27 @@
+package com.controlgastos.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Enumeración que representa la frecuencia de una transacción recurrente
+ */
+public enum Frecuencia {
+    DIARIA,
+    SEMANAL,
+    MENSUAL,
+    ANUAL;
+    
+    /**
+     * Fecha de la ocurrencia número n (la primera es la 0) contando desde el inicio
+     * Se calcula desde el inicio y no desde la ocurrencia anterior para no acumular
+     * desplazamientos: una regla del 31 cae el 28/29 en febrero y vuelve al 31 en marzo
+     */
+    public LocalDateTime ocurrencia(LocalDateTime inicio, long n) {
+        return switch (this) {
+            case DIARIA -> inicio.plusDays(n);
+            case SEMANAL -> inicio.plusWeeks(n);
+            case MENSUAL -> inicio.plusMonths(n);
+            case ANUAL -> inicio.plusYears(n);
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.controlgastos.model;
+
+import java.time.DayOfWeek;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Enumeración que representa el tamaño de los periodos de una serie temporal
+ * Cada valor conoce su unidad equivalente en $dateTrunc de MongoDB
+ */
+public enum Granularidad {
+    DIA("day"),
+    SEMANA("week"),
+    MES("month");
+    
+    private final String unidadMongo;
+    
+    Granularidad(String unidadMongo) {
+        this.unidadMongo = unidadMongo;
+    }
+    
+    /**
+     * Unidad usada por $dateTrunc
+     */
+    public String getUnidadMongo() {
+        return unidadMongo;
+    }
+    
+    /**
+     * Trunca una fecha al inicio de su periodo (las semanas empiezan el lunes)
+     */
+    public ZonedDateTime truncar(ZonedDateTime fecha) {
+        ZonedDateTime dia = fecha.truncatedTo(ChronoUnit.DAYS);
+        return switch (this) {
+            case DIA -> dia;
+            case SEMANA -> dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MES -> dia.withDayOfMonth(1);
+        };
+    }
+    
+    /**
+     * Avanza una fecha al inicio del periodo siguiente
+     */
+    public ZonedDateTime siguiente(ZonedDateTime inicio) {
+        return switch (this) {
+            case DIA -> inicio.plusDays(1);
+            case SEMANA -> inicio.plusWeeks(1);
+            case MES -> inicio.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.controlgastos.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Enumeración que representa contra qué periodo se compara un rango de fechas
+ * El periodo anterior es el mismo rango desplazado una semana, un mes o un año
+ */
+public enum PeriodoComparacion {
+    SEMANA_ANTERIOR,
+    MES_ANTERIOR,
+    ANIO_ANTERIOR;
+    
+    /**
+     * Desplaza un extremo del rango al periodo anterior
+     * Un mes o año más corto ajusta el día al último disponible (31 de marzo pasa a 28 de febrero)
+     */
+    public LocalDateTime desplazar(LocalDateTime fecha) {
+        return switch (this) {
+            case SEMANA_ANTERIOR -> fecha.minusWeeks(1);
+            case MES_ANTERIOR -> fecha.minusMonths(1);
+            case ANIO_ANTERIOR -> fecha.minusYears(1);
+        };
+    }
+}
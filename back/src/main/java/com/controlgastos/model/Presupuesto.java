@@ -0,0 +1,51 @@
+package com.controlgastos.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entidad que representa un presupuesto mensual de gastos para una categoría
+ * Almacenada en la colección "presupuestos" de MongoDB
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "presupuestos")
+public class Presupuesto {
+    
+    @Id
+    private String id;
+    
+    @NotBlank(message = "El ID de usuario es obligatorio")
+    private String userId; // Referencia al usuario propietario
+    
+    @NotBlank(message = "El ID de categoría es obligatorio")
+    @Indexed(unique = true)
+    private String categoriaId; // Un presupuesto por categoría
+    
+    @NotNull(message = "El límite es obligatorio")
+    @Positive(message = "El límite debe ser positivo")
+    private Double limite;
+    
+    // Porcentajes del límite que generan una alerta al ser superados (ej. 80, 100)
+    private List<Integer> umbrales = new ArrayList<>();
+    
+    /**
+     * Constructor para crear un presupuesto sin ID (se generará automáticamente)
+     */
+    public Presupuesto(String userId, String categoriaId, Double limite, List<Integer> umbrales) {
+        this.userId = userId;
+        this.categoriaId = categoriaId;
+        this.limite = limite;
+        this.umbrales = umbrales;
+    }
+}
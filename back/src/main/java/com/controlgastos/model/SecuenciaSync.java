@@ -0,0 +1,29 @@
+package com.controlgastos.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contador de cambios de un usuario para la sincronización incremental
+ * Almacenada en la colección "secuencias_sync" de MongoDB
+ * 
+ * El ID es el del usuario. Cada escritura de una transacción o categoría toma el
+ * siguiente valor con un $inc atómico. purgadaHasta es la mayor secuencia de las
+ * eliminaciones ya purgadas: un cliente con una marca anterior necesita una
+ * sincronización completa.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "secuencias_sync")
+public class SecuenciaSync {
+    
+    @Id
+    private String id;
+    
+    private long valor;
+    private long purgadaHasta;
+}
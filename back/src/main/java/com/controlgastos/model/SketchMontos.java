@@ -0,0 +1,47 @@
+package com.controlgastos.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Entidad con los t-digest de los montos de gasto de un usuario en un mes, uno por categoría
+ * Almacenada en la colección "sketches_montos" de MongoDB
+ * 
+ * El ID es "userId:yyyy-MM". Los digest se actualizan al crear cada gasto con
+ * bloqueo optimista (version). Un t-digest no permite quitar valores: al modificar
+ * o eliminar un gasto su categoría se marca como obsoleta y se reconstruye desde
+ * las transacciones del mes en la siguiente lectura. Un sketch incompleto es la
+ * marca que deja un gasto en un mes sin sketch: se reconstruye entero.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "sketches_montos")
+public class SketchMontos {
+    
+    @Id
+    private String id;
+    
+    private String userId;
+    private String periodo; // Formato: yyyy-MM
+    private Map<String, byte[]> digests = new HashMap<>(); // t-digest serializado por ID de categoría
+    private Set<String> obsoletas = new HashSet<>(); // Categorías a reconstruir
+    private boolean incompleto; // Todas las categorías a reconstruir
+    
+    @Version
+    private Long version;
+    
+    public SketchMontos(String userId, String periodo) {
+        this.id = userId + ":" + periodo;
+        this.userId = userId;
+        this.periodo = periodo;
+    }
+}
@@ -1,6 +1,8 @@
 package com.controlgastos.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -13,11 +15,21 @@ import java.time.LocalDateTime;
 /**
  * Entidad que representa una transacción (ingreso o gasto)
  * Almacenada en la colección "transacciones" de MongoDB
+ * 
+ * El índice (userId, fecha, _id) soporta las consultas y agregaciones por rango de fechas
+ * y el índice (userId, secuencia) la sincronización incremental. El índice (fecha, _id)
+ * permite al archivador recorrer por lotes las transacciones anteriores al corte. Con _id
+ * al final, el primero también sirve ya ordenadas las páginas del saldo acumulado.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "transacciones")
+@CompoundIndexes({
+    @CompoundIndex(name = "userId_secuencia", def = "{ 'userId': 1, 'secuencia': 1 }"),
+    @CompoundIndex(name = "fecha_id", def = "{ 'fecha': 1, '_id': 1 }"),
+    @CompoundIndex(name = "userId_fecha_id", def = "{ 'userId': 1, 'fecha': 1, '_id': 1 }")
+})
 public class Transaccion {
     
     @Id
@@ -44,6 +56,10 @@ public class Transaccion {
     @NotBlank(message = "El ID de usuario es obligatorio")
     private String userId; // Referencia al usuario propietario
     
+    private Long secuencia; // Orden del último cambio dentro del usuario (sincronización)
+    
+    private LocalDateTime actualizadoEn;
+    
     /**
      * Constructor para crear una transacción sin ID (se generará automáticamente)
      */
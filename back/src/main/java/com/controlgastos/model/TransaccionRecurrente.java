@@ -0,0 +1,78 @@
+package com.controlgastos.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa una transacción recurrente (ej. salario, alquiler)
+ * Almacenada en la colección "transacciones_recurrentes" de MongoDB
+ * 
+ * El generador materializa sus ocurrencias como transacciones. proximaFecha es la
+ * fecha de la siguiente ocurrencia pendiente (null cuando la regla terminó) y está
+ * indexada para encontrar las reglas vencidas.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "transacciones_recurrentes")
+public class TransaccionRecurrente {
+    
+    @Id
+    private String id;
+    
+    @NotBlank(message = "El ID de usuario es obligatorio")
+    @Indexed
+    private String userId; // Referencia al usuario propietario
+    
+    @NotNull(message = "El tipo de transacción es obligatorio")
+    private TipoTransaccion tipoTransaccion;
+    
+    @NotBlank(message = "El ID de categoría es obligatorio")
+    private String categoriaId; // Referencia a Categoria
+    
+    @NotBlank(message = "La descripción es obligatoria")
+    private String descripcion;
+    
+    @NotNull(message = "El monto es obligatorio")
+    @Positive(message = "El monto debe ser positivo")
+    private Double monto;
+    
+    @NotNull(message = "La frecuencia es obligatoria")
+    private Frecuencia frecuencia;
+    
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    private LocalDateTime fechaInicio;
+    
+    private LocalDateTime fechaFin; // Opcional: sin fin si es null
+    
+    private long ocurrenciasGeneradas;
+    
+    @Indexed
+    private LocalDateTime proximaFecha;
+    
+    /**
+     * Constructor para crear una regla sin ID (se generará automáticamente)
+     */
+    public TransaccionRecurrente(String userId, TipoTransaccion tipoTransaccion, String categoriaId,
+                                 String descripcion, Double monto, Frecuencia frecuencia,
+                                 LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        this.userId = userId;
+        this.tipoTransaccion = tipoTransaccion;
+        this.categoriaId = categoriaId;
+        this.descripcion = descripcion;
+        this.monto = monto;
+        this.frecuencia = frecuencia;
+        this.fechaInicio = fechaInicio;
+        this.fechaFin = fechaFin;
+        this.ocurrenciasGeneradas = 0;
+        this.proximaFecha = fechaInicio;
+    }
+}
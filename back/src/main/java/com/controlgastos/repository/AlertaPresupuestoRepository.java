@@ -0,0 +1,27 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.AlertaPresupuesto;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad AlertaPresupuesto
+ * Proporciona operaciones CRUD y consultas personalizadas
+ */
+@Repository
+public interface AlertaPresupuestoRepository extends MongoRepository<AlertaPresupuesto, String> {
+    
+    /**
+     * Busca las alertas de un usuario, de la más reciente a la más antigua
+     * @param userId el ID del usuario
+     * @return lista de alertas del usuario
+     */
+    List<AlertaPresupuesto> findByUserIdOrderByFechaDesc(String userId);
+    
+    /**
+     * Elimina las alertas de un presupuesto
+     * @param presupuestoId el ID del presupuesto
+     */
+    void deleteByPresupuestoId(String presupuestoId);
+}
@@ -1,8 +1,13 @@
 package com.controlgastos.repository;
 
 import com.controlgastos.model.Categoria;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,12 +26,32 @@ public interface CategoriaRepository extends MongoRepository<Categoria, String>
     List<Categoria> findByUserId(String userId);
     
     /**
-     * Busca una categoría por nombre y usuario
-     * @param nombre el nombre de la categoría
+     * Busca las categorías de varios usuarios con una sola consulta $in
+     * @param userIds IDs de los usuarios
+     * @return categorías de todos los usuarios indicados
+     */
+    List<Categoria> findByUserIdIn(Collection<String> userIds);
+    
+    /**
+     * Busca las categorías de un usuario cambiadas después de una secuencia (índice userId_secuencia)
      * @param userId el ID del usuario
-     * @return Optional con la categoría si existe
+     * @param secuencia última secuencia conocida por el cliente (exclusiva)
+     * @param limite máximo de resultados
+     * @return categorías ordenadas por secuencia
+     */
+    List<Categoria> findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(String userId, long secuencia, Limit limite);
+    
+    /**
+     * Cambia el nombre de una categoría existente sin crearla de nuevo si fue eliminada
+     * @param id el ID de la categoría
+     * @param nombre el nuevo nombre
+     * @param secuencia secuencia de sincronización del cambio
+     * @param actualizadoEn momento del cambio
+     * @return número de documentos modificados (0 si la categoría ya no existe)
      */
-    Optional<Categoria> findByNombreAndUserId(String nombre, String userId);
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'nombre': ?1, 'secuencia': ?2, 'actualizadoEn': ?3 } }")
+    long renombrar(String id, String nombre, Long secuencia, LocalDateTime actualizadoEn);
     
     /**
      * Elimina todas las categorías de un usuario
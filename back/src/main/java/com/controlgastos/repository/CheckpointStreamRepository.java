@@ -0,0 +1,12 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.CheckpointStream;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para los checkpoints de los consumidores de change streams
+ */
+@Repository
+public interface CheckpointStreamRepository extends MongoRepository<CheckpointStream, String> {
+}
@@ -0,0 +1,19 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * Proyección de la agregación $facet que compara dos periodos de TransaccionRepository
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComparacionCategorias {
+    
+    private List<ResumenCategoriaDTO> anterior;
+    private List<ResumenCategoriaDTO> actual;
+}
@@ -0,0 +1,53 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.EstadoArchivo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.time.LocalDateTime;
+
+/**
+ * Corte vigente entre "transacciones" y "transacciones_archivo"
+ * 
+ * Se relee de estado_archivo como mucho una vez por archivo.refresco-ms; el
+ * archivador espera más que ese intervalo antes de borrar las copias antiguas,
+ * así ninguna instancia lee con un corte desactualizado datos ya borrados.
+ */
+@Component
+public class CorteArchivo {
+    
+    public static final String COLECCION = "transacciones";
+    public static final String COLECCION_ARCHIVO = "transacciones_archivo";
+    
+    private final MongoTemplate mongoTemplate;
+    private final long refrescoMs;
+    
+    private volatile LocalDateTime corte;
+    private volatile long leidoEn = Long.MIN_VALUE;
+    
+    public CorteArchivo(MongoTemplate mongoTemplate,
+                        @Value("${archivo.refresco-ms:60000}") long refrescoMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.refrescoMs = refrescoMs;
+    }
+    
+    /**
+     * @return fecha de corte, o null si nunca se ha archivado
+     */
+    public LocalDateTime actual() {
+        long ahora = System.nanoTime();
+        if (leidoEn == Long.MIN_VALUE || ahora - leidoEn > refrescoMs * 1_000_000) {
+            EstadoArchivo estado = mongoTemplate.findById(EstadoArchivo.ID, EstadoArchivo.class);
+            corte = estado != null ? estado.getCorte() : null;
+            leidoEn = ahora;
+        }
+        return corte;
+    }
+    
+    /**
+     * Fuerza la relectura del corte en la siguiente consulta de esta instancia
+     */
+    public void invalidar() {
+        leidoEn = Long.MIN_VALUE;
+    }
+}
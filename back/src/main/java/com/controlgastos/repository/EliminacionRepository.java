@@ -0,0 +1,54 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.SecuenciaSync;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad Eliminacion
+ * Proporciona operaciones CRUD y consultas personalizadas
+ */
+@Repository
+public interface EliminacionRepository extends MongoRepository<Eliminacion, String> {
+    
+    /**
+     * Busca las eliminaciones de un usuario posteriores a una secuencia (índice userId_secuencia)
+     * @param userId el ID del usuario
+     * @param secuencia última secuencia conocida por el cliente (exclusiva)
+     * @param limite máximo de resultados
+     * @return eliminaciones ordenadas por secuencia
+     */
+    List<Eliminacion> findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(String userId, long secuencia, Limit limite);
+    
+    /**
+     * Busca las eliminaciones de un tipo de entidad desde una fecha (índice eliminadoEn)
+     * @param entidad tipo de entidad eliminada
+     * @param desde fecha inicial (inclusive)
+     * @return eliminaciones desde la fecha
+     */
+    List<Eliminacion> findByEntidadAndEliminadoEnGreaterThanEqual(EntidadSync entidad, LocalDateTime desde);
+    
+    /**
+     * Calcula por usuario la mayor secuencia de las eliminaciones anteriores a una fecha
+     * @param corte fecha límite (exclusiva)
+     * @return una entrada por usuario con id = userId y purgadaHasta = mayor secuencia
+     */
+    @Aggregation(pipeline = {
+        "{ '$match': { 'eliminadoEn': { '$lt': ?0 } } }",
+        "{ '$group': { '_id': '$userId', 'purgadaHasta': { '$max': '$secuencia' } } }"
+    })
+    List<SecuenciaSync> maximosAnterioresA(LocalDateTime corte);
+    
+    /**
+     * Elimina las eliminaciones anteriores a una fecha
+     * @param corte fecha límite (exclusiva)
+     * @return número de documentos eliminados
+     */
+    long deleteByEliminadoEnBefore(LocalDateTime corte);
+}
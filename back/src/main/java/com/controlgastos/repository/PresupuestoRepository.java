@@ -0,0 +1,29 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.Presupuesto;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio para la entidad Presupuesto
+ * Proporciona operaciones CRUD y consultas personalizadas
+ */
+@Repository
+public interface PresupuestoRepository extends MongoRepository<Presupuesto, String> {
+    
+    /**
+     * Busca todos los presupuestos de un usuario
+     * @param userId el ID del usuario
+     * @return lista de presupuestos del usuario
+     */
+    List<Presupuesto> findByUserId(String userId);
+    
+    /**
+     * Busca el presupuesto de una categoría
+     * @param categoriaId el ID de la categoría
+     * @return Optional con el presupuesto si existe
+     */
+    Optional<Presupuesto> findByCategoriaId(String categoriaId);
+}
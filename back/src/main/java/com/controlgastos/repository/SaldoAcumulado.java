@@ -0,0 +1,25 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.TipoTransaccion;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección de la agregación de saldo acumulado de TransaccionRepository
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoAcumulado {
+    
+    private String id;
+    private TipoTransaccion tipoTransaccion;
+    private String categoriaId;
+    private String categoriaNombre;
+    private String descripcion;
+    private LocalDateTime fecha;
+    private Double monto;
+    private Double acumulado; // Ingresos menos gastos desde la primera transacción devuelta, incluida esta
+}
@@ -0,0 +1,13 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.SecuenciaSync;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio para la entidad SecuenciaSync
+ * Proporciona operaciones CRUD y las actualizaciones atómicas del contador
+ */
+@Repository
+public interface SecuenciaSyncRepository extends MongoRepository<SecuenciaSync, String>, SecuenciaSyncRepositoryContador {
+}
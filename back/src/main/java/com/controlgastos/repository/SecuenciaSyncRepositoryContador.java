@@ -0,0 +1,24 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.SecuenciaSync;
+import java.util.Collection;
+
+/**
+ * Actualizaciones atómicas de los contadores de sincronización
+ */
+public interface SecuenciaSyncRepositoryContador {
+    
+    /**
+     * Incrementa el contador del usuario con un $inc atómico, creándolo si no existe
+     * @param userId el ID del usuario
+     * @param cantidad número de secuencias a reservar
+     * @return valor del contador tras el incremento (última secuencia reservada)
+     */
+    long incrementar(String userId, int cantidad);
+    
+    /**
+     * Sube purgadaHasta ($max) de cada usuario, en un solo bulkWrite
+     * @param maximos una entrada por usuario con id = userId y purgadaHasta = mayor secuencia purgada
+     */
+    void registrarPurgadas(Collection<SecuenciaSync> maximos);
+}
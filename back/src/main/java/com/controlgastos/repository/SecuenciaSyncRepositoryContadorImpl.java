@@ -0,0 +1,45 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.SecuenciaSync;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.util.Collection;
+
+/**
+ * Implementación de las actualizaciones de SecuenciaSyncRepository con findAndModify y bulkWrite
+ */
+public class SecuenciaSyncRepositoryContadorImpl implements SecuenciaSyncRepositoryContador {
+
+    private final MongoTemplate mongoTemplate;
+
+    public SecuenciaSyncRepositoryContadorImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long incrementar(String userId, int cantidad) {
+        SecuenciaSync secuencia = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(userId)),
+                new Update().inc("valor", cantidad),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                SecuenciaSync.class);
+        return secuencia.getValor();
+    }
+
+    @Override
+    public void registrarPurgadas(Collection<SecuenciaSync> maximos) {
+        if (maximos.isEmpty()) {
+            return;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkMode.UNORDERED, SecuenciaSync.class);
+        maximos.forEach(maximo -> operaciones.updateOne(
+                Query.query(Criteria.where("id").is(maximo.getId())),
+                new Update().max("purgadaHasta", maximo.getPurgadaHasta())));
+        operaciones.execute();
+    }
+}
@@ -0,0 +1,25 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.SketchMontos;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad SketchMontos
+ * Proporciona operaciones CRUD y consultas personalizadas
+ */
+@Repository
+public interface SketchMontosRepository extends MongoRepository<SketchMontos, String>, SketchMontosRepositoryObsoletas {
+    
+    /**
+     * Busca los sketches de un usuario en un rango de meses (ambos inclusive)
+     * @param userId el ID del usuario
+     * @param desde primer mes (formato: yyyy-MM)
+     * @param hasta último mes (formato: yyyy-MM)
+     * @return lista de sketches, uno por mes con datos
+     */
+    @Query("{ 'userId': ?0, 'periodo': { '$gte': ?1, '$lte': ?2 } }")
+    List<SketchMontos> findByUserIdAndPeriodoEntre(String userId, String desde, String hasta);
+}
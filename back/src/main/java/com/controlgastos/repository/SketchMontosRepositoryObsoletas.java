@@ -0,0 +1,20 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.SketchMontos;
+import java.util.Collection;
+
+/**
+ * Marcas de categorías obsoletas en los sketches de montos
+ */
+public interface SketchMontosRepositoryObsoletas {
+    
+    /**
+     * Marca de forma atómica categorías como obsoletas e incrementa version, en un solo bulkWrite
+     * 
+     * Si el mes aún no tiene sketch lo crea vacío y marcado como incompleto: una
+     * reconstrucción en curso ya no puede guardarse (conflicto de version o de _id) y
+     * la siguiente lectura vuelve a construir el mes desde las transacciones.
+     * @param marcas un sketch por mes (ID, userId y periodo) con las categorías a marcar en obsoletas
+     */
+    void marcarObsoletas(Collection<SketchMontos> marcas);
+}
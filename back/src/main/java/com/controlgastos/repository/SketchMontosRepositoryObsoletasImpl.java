@@ -0,0 +1,39 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.SketchMontos;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.util.Collection;
+
+/**
+ * Implementación de las marcas de obsolescencia de SketchMontosRepository con upserts
+ */
+public class SketchMontosRepositoryObsoletasImpl implements SketchMontosRepositoryObsoletas {
+
+    private final MongoTemplate mongoTemplate;
+
+    public SketchMontosRepositoryObsoletasImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void marcarObsoletas(Collection<SketchMontos> marcas) {
+        if (marcas.isEmpty()) {
+            return;
+        }
+        BulkOperations operaciones = mongoTemplate.bulkOps(BulkMode.UNORDERED, SketchMontos.class);
+        for (SketchMontos marca : marcas) {
+            operaciones.upsert(Query.query(Criteria.where("id").is(marca.getId())),
+                    new Update().addToSet("obsoletas").each(marca.getObsoletas().toArray())
+                            .inc("version", 1)
+                            .setOnInsert("userId", marca.getUserId())
+                            .setOnInsert("periodo", marca.getPeriodo())
+                            .setOnInsert("incompleto", true));
+        }
+        operaciones.execute();
+    }
+}
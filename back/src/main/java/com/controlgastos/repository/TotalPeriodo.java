@@ -0,0 +1,21 @@
+package com.controlgastos.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Date;
+
+/**
+ * Proyección de la agregación por periodos de TransaccionRepository
+ * El inicio es el instante devuelto por $dateTrunc en la zona horaria solicitada
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalPeriodo {
+    
+    private Date inicio;
+    private Double totalIngresos;
+    private Double totalGastos;
+    private Long cantidad;
+}
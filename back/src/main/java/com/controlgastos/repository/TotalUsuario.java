@@ -0,0 +1,20 @@
+package com.controlgastos.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección de la agregación por usuarios de TransaccionRepository
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalUsuario {
+    
+    private String userId;
+    private Double totalIngresos;
+    private Double totalGastos;
+    private Long cantidadIngresos;
+    private Long cantidadGastos;
+}
@@ -0,0 +1,21 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.TransaccionRecurrente;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+/**
+ * Repositorio para la entidad TransaccionRecurrente
+ * Proporciona operaciones CRUD y consultas personalizadas
+ */
+@Repository
+public interface TransaccionRecurrenteRepository extends MongoRepository<TransaccionRecurrente, String> {
+    
+    /**
+     * Busca todas las transacciones recurrentes de un usuario
+     * @param userId el ID del usuario
+     * @return lista de reglas del usuario
+     */
+    List<TransaccionRecurrente> findByUserId(String userId);
+}
@@ -0,0 +1,229 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.TipoTransaccion;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de transacciones federadas entre "transacciones" y "transacciones_archivo"
+ * 
+ * Las transacciones con fecha anterior al corte (CorteArchivo) se leen del archivo y
+ * el resto de la colección principal. Las consultas cuyo rango no llega al corte solo
+ * tocan la colección principal. Las escrituras se dirigen a la colección que
+ * corresponde a la fecha de la transacción.
+ */
+public interface TransaccionRepositoryFederado {
+    
+    /**
+     * Busca una transacción por ID en la colección principal y, si no está, en el archivo
+     */
+    Optional<Transaccion> findById(String id);
+    
+    /**
+     * Inserta la transacción en la colección que corresponde a su fecha
+     */
+    <S extends Transaccion> S insert(S transaccion);
+    
+    /**
+     * Guarda la transacción en la colección que corresponde a su fecha y quita la copia
+     * de la otra colección (la fecha pudo cruzar el corte)
+     */
+    <S extends Transaccion> S save(S transaccion);
+    
+    /**
+     * Reemplaza una transacción existente sin volver a crearla si otra petición la eliminó
+     * entretanto (save haría un upsert y la transacción reaparecería fuera de la lista del usuario)
+     * @param transaccion transacción con los nuevos datos
+     * @return la transacción reemplazada, o vacío si ya no existe
+     */
+    Optional<Transaccion> reemplazar(Transaccion transaccion);
+    
+    /**
+     * Busca las N transacciones más recientes de un usuario recorriendo el índice userId_fecha_id
+     * hacia atrás: lee exactamente N entradas y documentos (el archivo solo si faltan)
+     * @param userId el ID del usuario
+     * @param n número de transacciones
+     * @return transacciones ordenadas por fecha descendente
+     */
+    List<Transaccion> buscarRecientes(String userId, int n);
+    
+    /**
+     * Busca varias transacciones por ID con una consulta $in (y otra en el archivo para las que falten)
+     * @param ids IDs a buscar
+     * @return transacciones encontradas, sin orden definido
+     */
+    List<Transaccion> buscarPorIds(Collection<String> ids);
+    
+    /**
+     * Elimina la transacción de ambas colecciones
+     */
+    void delete(Transaccion transaccion);
+    
+    /**
+     * Busca todas las transacciones de un usuario
+     * @param userId el ID del usuario
+     * @return lista de transacciones del usuario
+     */
+    List<Transaccion> findByUserId(String userId);
+    
+    /**
+     * Busca transacciones por usuario y tipo
+     * @param userId el ID del usuario
+     * @param tipo el tipo de transacción (INGRESO o GASTO)
+     * @return lista de transacciones filtradas
+     */
+    List<Transaccion> findByUserIdAndTipoTransaccion(String userId, TipoTransaccion tipo);
+    
+    /**
+     * Busca transacciones por usuario y categoría
+     * @param userId el ID del usuario
+     * @param categoriaId el ID de la categoría
+     * @return lista de transacciones de la categoría
+     */
+    List<Transaccion> findByUserIdAndCategoriaId(String userId, String categoriaId);
+    
+    /**
+     * Busca transacciones por usuario en un rango de fechas (exclusivo en ambos extremos)
+     * @param userId el ID del usuario
+     * @param fechaInicio fecha de inicio del rango
+     * @param fechaFin fecha de fin del rango
+     * @return lista de transacciones en el rango
+     */
+    List<Transaccion> findByUserIdAndFechaBetween(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    
+    /**
+     * Recorre con un cursor las transacciones de un usuario en un rango de fechas, ordenadas por fecha
+     * Los documentos se leen por lotes a medida que se consume el Stream, que debe cerrarse al terminar.
+     * La parte archivada (anterior al corte) se recorre primero, así el orden se mantiene.
+     * @param userId el ID del usuario
+     * @param fechaInicio fecha de inicio del rango
+     * @param fechaFin fecha de fin del rango
+     * @return stream de transacciones respaldado por los cursores de MongoDB
+     */
+    Stream<Transaccion> findByUserIdAndFechaBetweenOrderByFechaAsc(
+            String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    
+    /**
+     * Busca transacciones por usuario, tipo y rango de fechas (exclusivo en ambos extremos)
+     * @param userId el ID del usuario
+     * @param tipo el tipo de transacción
+     * @param fechaInicio fecha de inicio del rango
+     * @param fechaFin fecha de fin del rango
+     * @return lista de transacciones filtradas
+     */
+    List<Transaccion> findByUserIdAndTipoTransaccionAndFechaBetween(
+            String userId, TipoTransaccion tipo, LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    
+    /**
+     * Busca las transacciones de un usuario por tipo para sumar sus montos
+     * @param userId el ID del usuario
+     * @param tipo el tipo de transacción
+     * @return transacciones del tipo
+     */
+    List<Transaccion> findForSum(String userId, TipoTransaccion tipo);
+    
+    /**
+     * Agrupa en la base de datos las transacciones de un usuario por categoría y tipo
+     * Usa el índice (userId, fecha, _id); el rango es exclusivo igual que findByUserIdAndFechaBetween
+     * @param userId el ID del usuario
+     * @param fechaInicio fecha de inicio del rango
+     * @param fechaFin fecha de fin del rango
+     * @return totales y cantidades por categoría y tipo, ordenados por total descendente
+     */
+    List<ResumenCategoriaDTO> resumirPorCategoria(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    
+    /**
+     * Agrupa en la base de datos las transacciones de un usuario por periodos de tiempo ($dateTrunc)
+     * Solo devuelve los periodos con transacciones; el rango es exclusivo
+     * @param userId el ID del usuario
+     * @param fechaInicio fecha de inicio del rango
+     * @param fechaFin fecha de fin del rango
+     * @param unidad unidad de $dateTrunc (day, week o month)
+     * @param zonaHoraria zona horaria IANA usada para calcular el inicio de cada periodo
+     * @return totales por periodo ordenados por fecha
+     */
+    List<TotalPeriodo> agruparPorPeriodo(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                         String unidad, String zonaHoraria);
+    
+    /**
+     * Agrupa por categoría y tipo las transacciones de dos periodos en una sola agregación ($facet)
+     * Ambos rangos son [inicio, fin), de modo que periodos consecutivos no comparten transacciones.
+     * Se agrupa por ID de categoría: cada fila lleva el nombre de la transacción más reciente
+     * del periodo, así una categoría renombrada no aparece dos veces
+     * @param userId el ID del usuario
+     * @param anteriorInicio inicio del periodo anterior (inclusivo)
+     * @param anteriorFin fin del periodo anterior (exclusivo)
+     * @param actualInicio inicio del periodo actual (inclusivo)
+     * @param actualFin fin del periodo actual (exclusivo)
+     * @return totales y cantidades por categoría y tipo de cada periodo, ordenados por total descendente
+     */
+    ComparacionCategorias compararPorCategoria(String userId, LocalDateTime anteriorInicio, LocalDateTime anteriorFin,
+                                               LocalDateTime actualInicio, LocalDateTime actualFin);
+    
+    /**
+     * Recorre las transacciones de un usuario en orden (fecha, id) calculando el saldo acumulado ($setWindowFields)
+     * Los ingresos suman y los gastos restan; el acumulado empieza en cero en la primera transacción devuelta
+     * @param userId el ID del usuario
+     * @param despuesDeFecha fecha de la última transacción ya recorrida (null para empezar por la primera)
+     * @param despuesDeId ID de la última transacción ya recorrida (null para empezar por la primera)
+     * @param limite máximo de transacciones
+     * @return transacciones siguientes al cursor con su saldo acumulado, en orden (fecha, id)
+     */
+    List<SaldoAcumulado> acumularSaldo(String userId, LocalDateTime despuesDeFecha, String despuesDeId, int limite);
+    
+    /**
+     * Suma los gastos de varias categorías en un rango [desde, hasta)
+     * Incluir los usuarios permite usar el índice (userId, fecha, _id)
+     * @param userIds IDs de los usuarios propietarios de las categorías
+     * @param categoriaIds IDs de las categorías
+     * @param desde inicio del rango (inclusivo)
+     * @param hasta fin del rango (exclusivo)
+     * @return total y cantidad de gastos por categoría (solo categorías con gastos)
+     */
+    List<ResumenCategoriaDTO> sumarGastosPorCategorias(Collection<String> userIds, Collection<String> categoriaIds,
+                                                       LocalDateTime desde, LocalDateTime hasta);
+    
+    /**
+     * Totaliza ingresos y gastos de varios usuarios en una sola agregación ($in sobre userId)
+     * @param userIds IDs de los usuarios
+     * @return totales por usuario (solo usuarios con transacciones)
+     */
+    List<TotalUsuario> totalizarPorUsuarios(Collection<String> userIds);
+    
+    /**
+     * Elimina todas las transacciones de un usuario
+     * @param userId el ID del usuario
+     */
+    void deleteByUserId(String userId);
+    
+    /**
+     * Elimina transacciones por categoría
+     * @param categoriaId el ID de la categoría
+     */
+    void deleteByCategoriaId(String categoriaId);
+    
+    /**
+     * Obtiene solo la categoría y el monto de los gastos de un usuario en un rango [inicio, fin)
+     * Se usa para reconstruir los sketches de percentiles
+     * @param userId el ID del usuario
+     * @param fechaInicio inicio del rango (inclusive)
+     * @param fechaFin fin del rango (exclusive)
+     * @return transacciones con categoriaId y monto
+     */
+    List<Transaccion> findMontosGasto(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin);
+    
+    /**
+     * Busca las transacciones de un usuario cambiadas después de una secuencia (índice userId_secuencia)
+     * @param userId el ID del usuario
+     * @param secuencia última secuencia conocida por el cliente (exclusiva)
+     * @param limite máximo de resultados
+     * @return transacciones ordenadas por secuencia
+     */
+    List<Transaccion> findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(String userId, long secuencia, Limit limite);
+}
@@ -0,0 +1,420 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import org.bson.Document;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.FacetOperation;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de las consultas federadas de TransaccionRepository
+ *
+ * Con un corte C, la colección principal se filtra con fecha >= C y el archivo con
+ * fecha < C. Así las copias que el archivador aún no ha borrado de la colección
+ * principal (o que ya copió al archivo antes de publicar el corte) nunca se cuentan
+ * dos veces. Sin corte (nunca se archivó) las consultas son las de siempre.
+ */
+public class TransaccionRepositoryFederadoImpl implements TransaccionRepositoryFederado {
+
+    private static final String FECHA = "fecha";
+
+    private static final AggregationOperation AGRUPAR_POR_CATEGORIA = etapa(
+            "{ '$group': { '_id': { 'categoriaId': '$categoriaId', 'categoriaNombre': '$categoriaNombre', 'tipoTransaccion': '$tipoTransaccion' }, 'total': { '$sum': '$monto' }, 'cantidad': { '$sum': 1 } } }");
+    private static final AggregationOperation PROYECTAR_CATEGORIA = etapa(
+            "{ '$project': { '_id': 0, 'categoriaId': '$_id.categoriaId', 'categoriaNombre': '$_id.categoriaNombre', 'tipoTransaccion': '$_id.tipoTransaccion', 'total': 1, 'cantidad': 1 } }");
+    // Por ID y tipo: si la categoría se renombró dentro del periodo, una sola fila con el nombre más reciente
+    private static final AggregationOperation AGRUPAR_POR_CATEGORIA_Y_TIPO = etapa(
+            "{ '$group': { '_id': { 'categoriaId': '$categoriaId', 'tipoTransaccion': '$tipoTransaccion' }, 'categoriaNombre': { '$top': { 'sortBy': { 'fecha': -1, '_id': -1 }, 'output': '$categoriaNombre' } }, 'total': { '$sum': '$monto' }, 'cantidad': { '$sum': 1 } } }");
+    private static final AggregationOperation PROYECTAR_CATEGORIA_Y_TIPO = etapa(
+            "{ '$project': { '_id': 0, 'categoriaId': '$_id.categoriaId', 'categoriaNombre': 1, 'tipoTransaccion': '$_id.tipoTransaccion', 'total': 1, 'cantidad': 1 } }");
+    private static final AggregationOperation ORDENAR_POR_TOTAL = etapa("{ '$sort': { 'total': -1 } }");
+    private static final AggregationOperation PROYECTAR_PERIODO = etapa(
+            "{ '$project': { '_id': 0, 'inicio': '$_id', 'totalIngresos': 1, 'totalGastos': 1, 'cantidad': 1 } }");
+    private static final AggregationOperation ORDENAR_POR_INICIO = etapa("{ '$sort': { 'inicio': 1 } }");
+    private static final AggregationOperation AGRUPAR_GASTOS = etapa(
+            "{ '$group': { '_id': '$categoriaId', 'total': { '$sum': '$monto' }, 'cantidad': { '$sum': 1 } } }");
+    private static final AggregationOperation PROYECTAR_GASTOS = etapa(
+            "{ '$project': { '_id': 0, 'categoriaId': '$_id', 'tipoTransaccion': { '$literal': 'GASTO' }, 'total': 1, 'cantidad': 1 } }");
+    private static final AggregationOperation ORDENAR_POR_FECHA_E_ID = etapa("{ '$sort': { 'fecha': 1, '_id': 1 } }");
+    private static final AggregationOperation ACUMULAR_SALDO = etapa(
+            "{ '$setWindowFields': { 'partitionBy': '$userId', 'sortBy': { 'fecha': 1, '_id': 1 }, 'output': { 'acumulado': { '$sum': { '$cond': [ { '$eq': [ '$tipoTransaccion', 'INGRESO' ] }, '$monto', { '$multiply': [ '$monto', -1 ] } ] }, 'window': { 'documents': [ 'unbounded', 'current' ] } } } } }");
+    private static final AggregationOperation PROYECTAR_SALDO = etapa(
+            "{ '$project': { 'tipoTransaccion': 1, 'categoriaId': 1, 'categoriaNombre': 1, 'descripcion': 1, 'fecha': 1, 'monto': 1, 'acumulado': 1 } }");
+    private static final AggregationOperation PROYECTAR_USUARIO = etapa(
+            "{ '$project': { '_id': 0, 'userId': '$_id', 'totalIngresos': 1, 'totalGastos': 1, 'cantidadIngresos': 1, 'cantidadGastos': 1 } }");
+
+    private final MongoTemplate mongoTemplate;
+    private final CorteArchivo corteArchivo;
+
+    public TransaccionRepositoryFederadoImpl(MongoTemplate mongoTemplate, CorteArchivo corteArchivo) {
+        this.mongoTemplate = mongoTemplate;
+        this.corteArchivo = corteArchivo;
+    }
+
+    @Override
+    public Optional<Transaccion> findById(String id) {
+        Transaccion transaccion = mongoTemplate.findById(id, Transaccion.class, CorteArchivo.COLECCION);
+        if (transaccion == null && corteArchivo.actual() != null) {
+            transaccion = mongoTemplate.findById(id, Transaccion.class, CorteArchivo.COLECCION_ARCHIVO);
+        }
+        return Optional.ofNullable(transaccion);
+    }
+
+    @Override
+    public <S extends Transaccion> S insert(S transaccion) {
+        return mongoTemplate.insert(transaccion, coleccionPara(transaccion.getFecha(), corteArchivo.actual()));
+    }
+
+    @Override
+    public <S extends Transaccion> S save(S transaccion) {
+        LocalDateTime corte = corteArchivo.actual();
+        String destino = coleccionPara(transaccion.getFecha(), corte);
+        S guardada = mongoTemplate.save(transaccion, destino);
+        if (corte != null) {
+            mongoTemplate.remove(Query.query(Criteria.where("id").is(transaccion.getId())),
+                    Transaccion.class, otraColeccion(destino));
+        }
+        return guardada;
+    }
+
+    @Override
+    public Optional<Transaccion> reemplazar(Transaccion transaccion) {
+        LocalDateTime corte = corteArchivo.actual();
+        String destino = coleccionPara(transaccion.getFecha(), corte);
+        Query porId = Query.query(Criteria.where("id").is(transaccion.getId()));
+        if (mongoTemplate.findAndReplace(porId, transaccion, destino) != null) {
+            if (corte != null) {
+                // Copia anterior al corte que el archivador aún no ha borrado
+                mongoTemplate.remove(porId, Transaccion.class, otraColeccion(destino));
+            }
+            return Optional.of(transaccion);
+        }
+        // La fecha cruzó el corte: solo se mueve si sigue existiendo en la otra colección
+        if (corte == null || mongoTemplate.findAndRemove(porId, Transaccion.class, otraColeccion(destino)) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(mongoTemplate.insert(transaccion, destino));
+    }
+    
+    @Override
+    public List<Transaccion> buscarRecientes(String userId, int n) {
+        Criteria filtro = Criteria.where("userId").is(userId);
+        LocalDateTime corte = corteArchivo.actual();
+        Sort recientes = Sort.by(Sort.Direction.DESC, FECHA);
+        List<Transaccion> resultado = new ArrayList<>(mongoTemplate.find(
+                enPrincipal(filtro, corte).with(recientes).limit(n), Transaccion.class, CorteArchivo.COLECCION));
+        if (resultado.size() < n && corte != null) {
+            // Todas las archivadas son anteriores a las de la colección principal
+            resultado.addAll(mongoTemplate.find(enArchivo(filtro, corte).with(recientes).limit(n - resultado.size()),
+                    Transaccion.class, CorteArchivo.COLECCION_ARCHIVO));
+        }
+        return resultado;
+    }
+    
+    @Override
+    public List<Transaccion> buscarPorIds(Collection<String> ids) {
+        List<Transaccion> resultado = new ArrayList<>(mongoTemplate.find(
+                Query.query(Criteria.where("id").in(ids)), Transaccion.class, CorteArchivo.COLECCION));
+        if (resultado.size() < ids.size() && corteArchivo.actual() != null) {
+            Set<String> encontradas = resultado.stream().map(Transaccion::getId).collect(Collectors.toSet());
+            List<String> faltan = ids.stream().filter(id -> !encontradas.contains(id)).toList();
+            resultado.addAll(mongoTemplate.find(
+                    Query.query(Criteria.where("id").in(faltan)), Transaccion.class, CorteArchivo.COLECCION_ARCHIVO));
+        }
+        return resultado;
+    }
+    
+    @Override
+    public void delete(Transaccion transaccion) {
+        Query query = Query.query(Criteria.where("id").is(transaccion.getId()));
+        mongoTemplate.remove(query, Transaccion.class, CorteArchivo.COLECCION);
+        // Siempre en ambas: el archivador pudo copiarla antes de publicar el corte
+        mongoTemplate.remove(query, Transaccion.class, CorteArchivo.COLECCION_ARCHIVO);
+    }
+
+    @Override
+    public List<Transaccion> findByUserId(String userId) {
+        return buscar(Criteria.where("userId").is(userId), null);
+    }
+
+    @Override
+    public List<Transaccion> findByUserIdAndTipoTransaccion(String userId, TipoTransaccion tipo) {
+        return buscar(Criteria.where("userId").is(userId).and("tipoTransaccion").is(tipo), null);
+    }
+
+    @Override
+    public List<Transaccion> findByUserIdAndCategoriaId(String userId, String categoriaId) {
+        return buscar(Criteria.where("userId").is(userId).and("categoriaId").is(categoriaId), null);
+    }
+
+    @Override
+    public List<Transaccion> findByUserIdAndFechaBetween(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return buscar(Criteria.where("userId").is(userId).and(FECHA).gt(fechaInicio).lt(fechaFin), fechaInicio);
+    }
+
+    @Override
+    public Stream<Transaccion> findByUserIdAndFechaBetweenOrderByFechaAsc(
+            String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        Criteria filtro = Criteria.where("userId").is(userId).and(FECHA).gt(fechaInicio).lt(fechaFin);
+        LocalDateTime corte = corteArchivo.actual();
+        Supplier<Stream<Transaccion>> principal = () -> recorrer(enPrincipal(filtro, corte), CorteArchivo.COLECCION);
+        if (!alcanzaArchivo(corte, fechaInicio)) {
+            return principal.get();
+        }
+        Supplier<Stream<Transaccion>> archivo = () -> recorrer(enArchivo(filtro, corte), CorteArchivo.COLECCION_ARCHIVO);
+        // flatMap abre cada cursor al llegar a él y lo cierra al agotarlo
+        return Stream.of(archivo, principal).flatMap(Supplier::get);
+    }
+
+    @Override
+    public List<Transaccion> findByUserIdAndTipoTransaccionAndFechaBetween(
+            String userId, TipoTransaccion tipo, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return buscar(Criteria.where("userId").is(userId).and("tipoTransaccion").is(tipo)
+                .and(FECHA).gt(fechaInicio).lt(fechaFin), fechaInicio);
+    }
+
+    @Override
+    public List<Transaccion> findForSum(String userId, TipoTransaccion tipo) {
+        return findByUserIdAndTipoTransaccion(userId, tipo);
+    }
+
+    @Override
+    public List<ResumenCategoriaDTO> resumirPorCategoria(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        Criteria filtro = Criteria.where("userId").is(userId).and(FECHA).gt(fechaInicio).lt(fechaFin);
+        return agregar(filtro, fechaInicio, ResumenCategoriaDTO.class,
+                AGRUPAR_POR_CATEGORIA, PROYECTAR_CATEGORIA, ORDENAR_POR_TOTAL);
+    }
+
+    @Override
+    public List<TotalPeriodo> agruparPorPeriodo(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                String unidad, String zonaHoraria) {
+        Criteria filtro = Criteria.where("userId").is(userId).and(FECHA).gt(fechaInicio).lt(fechaFin);
+        Document truncar = new Document("$dateTrunc", new Document("date", "$fecha")
+                .append("unit", unidad)
+                .append("timezone", zonaHoraria)
+                .append("startOfWeek", "monday"));
+        AggregationOperation agrupar = contexto -> new Document("$group", new Document("_id", truncar)
+                .append("totalIngresos", sumaPorTipo(TipoTransaccion.INGRESO))
+                .append("totalGastos", sumaPorTipo(TipoTransaccion.GASTO))
+                .append("cantidad", new Document("$sum", 1)));
+        return agregar(filtro, fechaInicio, TotalPeriodo.class, agrupar, PROYECTAR_PERIODO, ORDENAR_POR_INICIO);
+    }
+
+    @Override
+    public ComparacionCategorias compararPorCategoria(String userId, LocalDateTime anteriorInicio, LocalDateTime anteriorFin,
+                                                      LocalDateTime actualInicio, LocalDateTime actualFin) {
+        Criteria anterior = Criteria.where(FECHA).gte(anteriorInicio).lt(anteriorFin);
+        Criteria actual = Criteria.where(FECHA).gte(actualInicio).lt(actualFin);
+        Criteria filtro = Criteria.where("userId").is(userId).orOperator(anterior, actual);
+        // Un solo recorrido del índice (userId, fecha, _id); cada faceta agrupa su periodo
+        FacetOperation facetas = Aggregation
+                .facet(Aggregation.match(anterior), AGRUPAR_POR_CATEGORIA_Y_TIPO, PROYECTAR_CATEGORIA_Y_TIPO, ORDENAR_POR_TOTAL)
+                .as("anterior")
+                .and(Aggregation.match(actual), AGRUPAR_POR_CATEGORIA_Y_TIPO, PROYECTAR_CATEGORIA_Y_TIPO, ORDENAR_POR_TOTAL)
+                .as("actual");
+        LocalDateTime desde = anteriorInicio.isBefore(actualInicio) ? anteriorInicio : actualInicio;
+        List<ComparacionCategorias> resultado = agregar(filtro, desde, ComparacionCategorias.class, facetas);
+        return resultado.isEmpty() ? new ComparacionCategorias(List.of(), List.of()) : resultado.get(0);
+    }
+
+    @Override
+    public List<SaldoAcumulado> acumularSaldo(String userId, LocalDateTime despuesDeFecha, String despuesDeId, int limite) {
+        Criteria filtro = Criteria.where("userId").is(userId);
+        if (despuesDeFecha != null) {
+            filtro = filtro.orOperator(
+                    Criteria.where(FECHA).gt(despuesDeFecha),
+                    Criteria.where(FECHA).is(despuesDeFecha).and("id").gt(despuesDeId));
+        }
+        // Ordenar y limitar antes de la ventana: solo se acumula la página, no el historial completo.
+        // En cada colección el orden lo da el índice (userId, fecha, _id), sin etapa SORT en memoria
+        List<AggregationOperation> pagina = List.of(ORDENAR_POR_FECHA_E_ID, Aggregation.limit(limite));
+        return agregar(filtro, despuesDeFecha, pagina, SaldoAcumulado.class, ACUMULAR_SALDO, PROYECTAR_SALDO);
+    }
+
+    @Override
+    public List<ResumenCategoriaDTO> sumarGastosPorCategorias(Collection<String> userIds, Collection<String> categoriaIds,
+                                                              LocalDateTime desde, LocalDateTime hasta) {
+        Criteria filtro = Criteria.where("userId").in(userIds).and("categoriaId").in(categoriaIds)
+                .and("tipoTransaccion").is(TipoTransaccion.GASTO)
+                .and(FECHA).gte(desde).lt(hasta);
+        return agregar(filtro, desde, ResumenCategoriaDTO.class, AGRUPAR_GASTOS, PROYECTAR_GASTOS);
+    }
+
+    @Override
+    public List<TotalUsuario> totalizarPorUsuarios(Collection<String> userIds) {
+        AggregationOperation agrupar = contexto -> new Document("$group", new Document("_id", "$userId")
+                .append("totalIngresos", sumaPorTipo(TipoTransaccion.INGRESO))
+                .append("totalGastos", sumaPorTipo(TipoTransaccion.GASTO))
+                .append("cantidadIngresos", cuentaPorTipo(TipoTransaccion.INGRESO))
+                .append("cantidadGastos", cuentaPorTipo(TipoTransaccion.GASTO)));
+        return agregar(Criteria.where("userId").in(userIds), null, TotalUsuario.class, agrupar, PROYECTAR_USUARIO);
+    }
+
+    @Override
+    public void deleteByUserId(String userId) {
+        eliminarDeAmbas(Criteria.where("userId").is(userId));
+    }
+
+    @Override
+    public void deleteByCategoriaId(String categoriaId) {
+        eliminarDeAmbas(Criteria.where("categoriaId").is(categoriaId));
+    }
+
+    @Override
+    public List<Transaccion> findMontosGasto(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        Criteria filtro = Criteria.where("userId").is(userId).and("tipoTransaccion").is(TipoTransaccion.GASTO)
+                .and(FECHA).gte(fechaInicio).lt(fechaFin);
+        LocalDateTime corte = corteArchivo.actual();
+        List<Transaccion> resultado = new ArrayList<>(mongoTemplate.find(
+                soloMontos(enPrincipal(filtro, corte)), Transaccion.class, CorteArchivo.COLECCION));
+        if (alcanzaArchivo(corte, fechaInicio)) {
+            resultado.addAll(mongoTemplate.find(
+                    soloMontos(enArchivo(filtro, corte)), Transaccion.class, CorteArchivo.COLECCION_ARCHIVO));
+        }
+        return resultado;
+    }
+
+    @Override
+    public List<Transaccion> findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(String userId, long secuencia, Limit limite) {
+        Criteria filtro = Criteria.where("userId").is(userId).and("secuencia").gt(secuencia);
+        LocalDateTime corte = corteArchivo.actual();
+        Sort orden = Sort.by(Sort.Direction.ASC, "secuencia");
+        List<Transaccion> resultado = new ArrayList<>(mongoTemplate.find(
+                enPrincipal(filtro, corte).with(orden).limit(limite), Transaccion.class, CorteArchivo.COLECCION));
+        if (corte != null) {
+            // Las transacciones antiguas también pueden modificarse: el archivo se consulta siempre
+            resultado.addAll(mongoTemplate.find(
+                    enArchivo(filtro, corte).with(orden).limit(limite), Transaccion.class, CorteArchivo.COLECCION_ARCHIVO));
+            resultado.sort(Comparator.comparing(Transaccion::getSecuencia));
+            if (limite.isLimited() && resultado.size() > limite.max()) {
+                return new ArrayList<>(resultado.subList(0, limite.max()));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Colección donde debe guardarse una transacción con la fecha indicada
+     */
+    static String coleccionPara(LocalDateTime fecha, LocalDateTime corte) {
+        return corte != null && fecha != null && fecha.isBefore(corte)
+                ? CorteArchivo.COLECCION_ARCHIVO
+                : CorteArchivo.COLECCION;
+    }
+
+    private static String otraColeccion(String coleccion) {
+        return CorteArchivo.COLECCION.equals(coleccion) ? CorteArchivo.COLECCION_ARCHIVO : CorteArchivo.COLECCION;
+    }
+    
+    /**
+     * El rango llega al archivo si empieza antes del corte; null significa sin límite inferior
+     */
+    private static boolean alcanzaArchivo(LocalDateTime corte, LocalDateTime desde) {
+        return corte != null && (desde == null || desde.isBefore(corte));
+    }
+
+    private List<Transaccion> buscar(Criteria filtro, LocalDateTime desde) {
+        LocalDateTime corte = corteArchivo.actual();
+        List<Transaccion> resultado = new ArrayList<>();
+        if (alcanzaArchivo(corte, desde)) {
+            resultado.addAll(mongoTemplate.find(enArchivo(filtro, corte), Transaccion.class, CorteArchivo.COLECCION_ARCHIVO));
+        }
+        resultado.addAll(mongoTemplate.find(enPrincipal(filtro, corte), Transaccion.class, CorteArchivo.COLECCION));
+        return resultado;
+    }
+
+    private <T> List<T> agregar(Criteria filtro, LocalDateTime desde, Class<T> salida, AggregationOperation... etapas) {
+        return agregar(filtro, desde, List.of(), salida, etapas);
+    }
+
+    /**
+     * Igual que agregar, pero aplica porColeccion tras el $match de cada colección, donde
+     * $sort y $limit pueden recorrer el índice; si se une el archivo las repite sobre la
+     * unión (deben poder aplicarse dos veces, como $sort + $limit)
+     */
+    private <T> List<T> agregar(Criteria filtro, LocalDateTime desde, List<AggregationOperation> porColeccion,
+                                Class<T> salida, AggregationOperation... etapas) {
+        LocalDateTime corte = corteArchivo.actual();
+        List<AggregationOperation> pipeline = new ArrayList<>();
+        pipeline.add(Aggregation.match(criterioPrincipal(filtro, corte)));
+        pipeline.addAll(porColeccion);
+        if (alcanzaArchivo(corte, desde)) {
+            List<AggregationOperation> archivo = new ArrayList<>();
+            archivo.add(Aggregation.match(criterioArchivo(filtro, corte)));
+            archivo.addAll(porColeccion);
+            pipeline.add(UnionWithOperation.unionWith(CorteArchivo.COLECCION_ARCHIVO)
+                    .pipeline(archivo)
+                    .mapFieldsTo(Transaccion.class));
+            pipeline.addAll(porColeccion);
+        }
+        pipeline.addAll(List.of(etapas));
+        return mongoTemplate.aggregate(Aggregation.newAggregation(Transaccion.class, pipeline),
+                CorteArchivo.COLECCION, salida).getMappedResults();
+    }
+
+    private void eliminarDeAmbas(Criteria filtro) {
+        mongoTemplate.remove(Query.query(filtro), Transaccion.class, CorteArchivo.COLECCION);
+        if (corteArchivo.actual() != null) {
+            mongoTemplate.remove(Query.query(filtro), Transaccion.class, CorteArchivo.COLECCION_ARCHIVO);
+        }
+    }
+
+    private Stream<Transaccion> recorrer(Query query, String coleccion) {
+        query.with(Sort.by(Sort.Direction.ASC, FECHA)).cursorBatchSize(1000);
+        return mongoTemplate.stream(query, Transaccion.class, coleccion);
+    }
+
+    private static Query enPrincipal(Criteria filtro, LocalDateTime corte) {
+        return Query.query(criterioPrincipal(filtro, corte));
+    }
+
+    private static Query enArchivo(Criteria filtro, LocalDateTime corte) {
+        return Query.query(criterioArchivo(filtro, corte));
+    }
+
+    private static Criteria criterioPrincipal(Criteria filtro, LocalDateTime corte) {
+        return corte == null ? filtro : new Criteria().andOperator(filtro, Criteria.where(FECHA).gte(corte));
+    }
+
+    private static Criteria criterioArchivo(Criteria filtro, LocalDateTime corte) {
+        return new Criteria().andOperator(filtro, Criteria.where(FECHA).lt(corte));
+    }
+
+    private static Query soloMontos(Query query) {
+        query.fields().include("categoriaId", "monto");
+        return query;
+    }
+
+    private static Document sumaPorTipo(TipoTransaccion tipo) {
+        return new Document("$sum", new Document("$cond", List.of(
+                new Document("$eq", List.of("$tipoTransaccion", tipo.name())), "$monto", 0)));
+    }
+
+    private static Document cuentaPorTipo(TipoTransaccion tipo) {
+        return new Document("$sum", new Document("$cond", List.of(
+                new Document("$eq", List.of("$tipoTransaccion", tipo.name())), 1, 0)));
+    }
+
+    private static AggregationOperation etapa(String json) {
+        Document documento = Document.parse(json);
+        return contexto -> documento;
+    }
+}
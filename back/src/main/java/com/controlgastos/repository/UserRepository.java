@@ -2,6 +2,8 @@ package com.controlgastos.repository;
 
 import com.controlgastos.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -27,16 +29,65 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByCorreo(String correo);
     
     /**
-     * Verifica si existe un usuario con el apodo especificado
-     * @param apodo el apodo a verificar
-     * @return true si existe, false en caso contrario
+     * Agrega de forma atómica una transacción a la lista del usuario ($push)
+     * @param userId el ID del usuario
+     * @param transaccionId el ID de la transacción
+     * @return número de documentos modificados (0 si el usuario no existe)
      */
-    boolean existsByApodo(String apodo);
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$push': { 'transaccionesIds': ?1 } }")
+    long agregarTransaccionId(String userId, String transaccionId);
     
     /**
-     * Verifica si existe un usuario con el correo especificado
-     * @param correo el correo a verificar
-     * @return true si existe, false en caso contrario
+     * Quita de forma atómica una transacción de la lista del usuario ($pull)
+     * @param userId el ID del usuario
+     * @param transaccionId el ID de la transacción
+     * @return número de documentos modificados
      */
-    boolean existsByCorreo(String correo);
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$pull': { 'transaccionesIds': ?1 } }")
+    long quitarTransaccionId(String userId, String transaccionId);
+    
+    /**
+     * Agrega de forma atómica una categoría a la lista del usuario ($push)
+     * @param userId el ID del usuario
+     * @param categoriaId el ID de la categoría
+     * @return número de documentos modificados (0 si el usuario no existe)
+     */
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$push': { 'categoriasIds': ?1 } }")
+    long agregarCategoriaId(String userId, String categoriaId);
+    
+    /**
+     * Quita de forma atómica una categoría de la lista del usuario ($pull)
+     * @param userId el ID del usuario
+     * @param categoriaId el ID de la categoría
+     * @return número de documentos modificados
+     */
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$pull': { 'categoriasIds': ?1 } }")
+    long quitarCategoriaId(String userId, String categoriaId);
+    
+    /**
+     * Actualiza apodo y correo ($set) sin reescribir las listas de IDs del usuario
+     * @param userId el ID del usuario
+     * @param apodo el nuevo apodo
+     * @param correo el nuevo correo
+     * @return número de documentos modificados
+     */
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'apodo': ?1, 'correo': ?2 } }")
+    long actualizarDatos(String userId, String apodo, String correo);
+    
+    /**
+     * Actualiza apodo, correo y contraseña ($set) sin reescribir las listas de IDs del usuario
+     * @param userId el ID del usuario
+     * @param apodo el nuevo apodo
+     * @param correo el nuevo correo
+     * @param contrasenia la nueva contraseña
+     * @return número de documentos modificados
+     */
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'apodo': ?1, 'correo': ?2, 'contrasenia': ?3 } }")
+    long actualizarDatosYContrasenia(String userId, String apodo, String correo, String contrasenia);
 }
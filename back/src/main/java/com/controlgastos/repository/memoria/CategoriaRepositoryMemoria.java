@@ -0,0 +1,116 @@
+package com.controlgastos.repository.memoria;
+
+import com.controlgastos.model.Categoria;
+import com.controlgastos.repository.CategoriaRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * CategoriaRepository en memoria, con índice por usuario y el índice único (userId, nombre)
+ */
+@Repository
+@Primary
+@Profile("memoria")
+public class CategoriaRepositoryMemoria extends RepositorioMemoria<Categoria> implements CategoriaRepository {
+    
+    private final Map<String, Set<String>> porUsuario = new ConcurrentHashMap<>();
+    private final Map<ClaveNombre, String> porNombre = new ConcurrentHashMap<>();
+    
+    @Override
+    public List<Categoria> findByUserId(String userId) {
+        return leer(idsDe(userId), categoria -> userId.equals(categoria.getUserId()));
+    }
+    
+    @Override
+    public List<Categoria> findByUserIdIn(Collection<String> userIds) {
+        Set<String> usuarios = Set.copyOf(userIds);
+        return leer(usuarios.stream().flatMap(this::idsDe), categoria -> usuarios.contains(categoria.getUserId()));
+    }
+    
+    @Override
+    public List<Categoria> findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(String userId, long secuencia, Limit limite) {
+        Stream<Categoria> cambiadas = findByUserId(userId).stream()
+                .filter(categoria -> categoria.getSecuencia() != null && categoria.getSecuencia() > secuencia)
+                .sorted(Comparator.comparing(Categoria::getSecuencia));
+        return (limite.isLimited() ? cambiadas.limit(limite.max()) : cambiadas).collect(Collectors.toList());
+    }
+    
+    @Override
+    public long renombrar(String id, String nombre, Long secuencia, LocalDateTime actualizadoEn) {
+        return modificar(id, categoria -> {
+            boolean cambia = !Objects.equals(categoria.getNombre(), nombre)
+                    || !Objects.equals(categoria.getSecuencia(), secuencia)
+                    || !Objects.equals(categoria.getActualizadoEn(), actualizadoEn);
+            categoria.setNombre(nombre);
+            categoria.setSecuencia(secuencia);
+            categoria.setActualizadoEn(actualizadoEn);
+            return cambia;
+        });
+    }
+    
+    @Override
+    public void deleteByUserId(String userId) {
+        quitarTodos(porUsuario.getOrDefault(userId, Set.of()));
+    }
+    
+    @Override
+    protected String idDe(Categoria categoria) {
+        return categoria.getId();
+    }
+    
+    @Override
+    protected void asignarId(Categoria categoria, String id) {
+        categoria.setId(id);
+    }
+    
+    @Override
+    protected Categoria copiar(Categoria categoria) {
+        return new Categoria(categoria.getId(), categoria.getNombre(), categoria.getUserId(),
+                categoria.getSecuencia(), categoria.getActualizadoEn());
+    }
+    
+    @Override
+    protected void comprobarUnicos(Categoria categoria, Categoria anterior) {
+        String otra = porNombre.get(ClaveNombre.de(categoria));
+        if (otra != null && !otra.equals(categoria.getId())) {
+            throw duplicado(Categoria.INDICE_NOMBRE, ClaveNombre.de(categoria));
+        }
+    }
+    
+    @Override
+    protected void indexar(Categoria categoria) {
+        agregarA(porUsuario, String.valueOf(categoria.getUserId()), categoria.getId());
+        porNombre.put(ClaveNombre.de(categoria), categoria.getId());
+    }
+    
+    @Override
+    protected void desindexar(Categoria categoria) {
+        quitarDe(porUsuario, String.valueOf(categoria.getUserId()), categoria.getId());
+        porNombre.remove(ClaveNombre.de(categoria), categoria.getId());
+    }
+    
+    private Stream<String> idsDe(String userId) {
+        return porUsuario.getOrDefault(userId, Set.of()).stream();
+    }
+    
+    /**
+     * Clave del índice único (userId, nombre)
+     */
+    private record ClaveNombre(String userId, String nombre) {
+        static ClaveNombre de(Categoria categoria) {
+            return new ClaveNombre(categoria.getUserId(), categoria.getNombre());
+        }
+    }
+}
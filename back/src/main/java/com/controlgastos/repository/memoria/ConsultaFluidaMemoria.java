@@ -0,0 +1,186 @@
+package com.controlgastos.repository.memoria;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.OffsetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * FetchableFluentQuery de findBy(Example, ...) sobre las copias de un repositorio en memoria
+ *
+ * as(Class) devuelve el documento si es de ese tipo, una proyección si es una interfaz
+ * y, si no, una instancia del tipo con las propiedades del mismo nombre. project(...)
+ * no recorta campos: los documentos se devuelven completos.
+ */
+final class ConsultaFluidaMemoria<T, R> implements FluentQuery.FetchableFluentQuery<R> {
+    
+    private static final SpelAwareProxyProjectionFactory PROYECCIONES = new SpelAwareProxyProjectionFactory();
+    
+    private final Supplier<List<T>> coincidentes;
+    private final Sort sort;
+    private final int limite;
+    private final Function<T, R> convertir;
+    
+    private ConsultaFluidaMemoria(Supplier<List<T>> coincidentes, Sort sort, int limite, Function<T, R> convertir) {
+        this.coincidentes = coincidentes;
+        this.sort = sort;
+        this.limite = limite;
+        this.convertir = convertir;
+    }
+    
+    @SuppressWarnings("unchecked")
+    static <T> ConsultaFluidaMemoria<T, T> de(Supplier<? extends List<? extends T>> coincidentes) {
+        return new ConsultaFluidaMemoria<>(() -> (List<T>) coincidentes.get(), Sort.unsorted(), 0, Function.identity());
+    }
+    
+    @Override
+    public FetchableFluentQuery<R> sortBy(Sort sort) {
+        return new ConsultaFluidaMemoria<>(coincidentes, this.sort.and(sort), limite, convertir);
+    }
+    
+    @Override
+    public FetchableFluentQuery<R> limit(int limite) {
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        return new ConsultaFluidaMemoria<>(coincidentes, sort, limite, convertir);
+    }
+    
+    @Override
+    public <N> FetchableFluentQuery<N> as(Class<N> tipo) {
+        return new ConsultaFluidaMemoria<>(coincidentes, sort, limite, documento -> convertir(documento, tipo));
+    }
+    
+    @Override
+    public FetchableFluentQuery<R> project(Collection<String> propiedades) {
+        return this;
+    }
+    
+    @Override
+    public R oneValue() {
+        List<T> resultado = limitar(ordenados(), 2);
+        if (resultado.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, resultado.size());
+        }
+        return resultado.isEmpty() ? null : convertir.apply(resultado.get(0));
+    }
+    
+    @Override
+    public R firstValue() {
+        List<T> resultado = limitar(ordenados(), 1);
+        return resultado.isEmpty() ? null : convertir.apply(resultado.get(0));
+    }
+    
+    @Override
+    public List<R> all() {
+        return stream().collect(Collectors.toList());
+    }
+    
+    @Override
+    public Window<R> scroll(ScrollPosition posicion) {
+        List<T> ordenados = ordenados();
+        if (posicion instanceof OffsetScrollPosition offset) {
+            int desde = (int) Math.min(offset.isInitial() ? 0 : offset.getOffset() + 1, ordenados.size());
+            List<T> resto = ordenados.subList(desde, ordenados.size());
+            List<T> ventana = limitar(resto, limite);
+            return Window.from(ventana, i -> ScrollPosition.offset(desde + i), ventana.size() < resto.size())
+                    .map(convertir);
+        }
+        KeysetScrollPosition keyset = (KeysetScrollPosition) posicion;
+        Sort orden = sort.getOrderFor("id") == null ? sort.and(Sort.by("id")) : sort;
+        List<T> porClaves = ConsultasMemoria.ordenar(ordenados, orden);
+        List<T> resto = keyset.isInitial() ? porClaves : porClaves.stream()
+                .filter(documento -> compararConClaves(documento, keyset.getKeys(), orden) * (keyset.scrollsForward() ? 1 : -1) > 0)
+                .toList();
+        List<T> ventana = keyset.scrollsForward() || limite == 0 || resto.size() <= limite
+                ? limitar(resto, limite)
+                : resto.subList(resto.size() - limite, resto.size());
+        return Window.from(ventana, i -> ScrollPosition.of(claves(ventana.get(i), orden), keyset.getDirection()),
+                ventana.size() < resto.size())
+                .map(convertir);
+    }
+    
+    @Override
+    public Page<R> page(Pageable pageable) {
+        return ConsultasMemoria.paginar(ordenados(), pageable.getSort().isSorted() ? pageable : conOrden(pageable))
+                .map(convertir);
+    }
+    
+    @Override
+    public Stream<R> stream() {
+        return limitar(ordenados(), limite).stream().map(convertir);
+    }
+    
+    @Override
+    public long count() {
+        return limitar(coincidentes.get(), limite).size();
+    }
+    
+    @Override
+    public boolean exists() {
+        return !coincidentes.get().isEmpty();
+    }
+    
+    private List<T> ordenados() {
+        return ConsultasMemoria.ordenar(coincidentes.get(), sort);
+    }
+    
+    private Pageable conOrden(Pageable pageable) {
+        return pageable.isUnpaged() ? Pageable.unpaged(sort)
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+    
+    private static int compararConClaves(Object documento, Map<String, Object> claves, Sort sort) {
+        for (Sort.Order orden : sort) {
+            int comparacion = ConsultasMemoria.comparar(
+                    ConsultasMemoria.valor(documento, orden.getProperty(), false), claves.get(orden.getProperty()));
+            if (comparacion != 0) {
+                return orden.isAscending() ? comparacion : -comparacion;
+            }
+        }
+        return 0;
+    }
+    
+    private static Map<String, Object> claves(Object documento, Sort sort) {
+        Map<String, Object> claves = new LinkedHashMap<>();
+        for (Sort.Order orden : sort) {
+            claves.put(orden.getProperty(), ConsultasMemoria.valor(documento, orden.getProperty(), false));
+        }
+        return claves;
+    }
+    
+    private static <E> List<E> limitar(List<E> elementos, int limite) {
+        return limite > 0 && elementos.size() > limite ? new ArrayList<>(elementos.subList(0, limite)) : elementos;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <N> N convertir(T documento, Class<N> tipo) {
+        R actual = convertir.apply(documento);
+        if (tipo.isInstance(actual)) {
+            return (N) actual;
+        }
+        if (tipo.isInterface()) {
+            return PROYECCIONES.createProjection(tipo, actual);
+        }
+        N instancia = BeanUtils.instantiateClass(tipo);
+        BeanUtils.copyProperties(actual, instancia);
+        return instancia;
+    }
+}
@@ -0,0 +1,169 @@
+package com.controlgastos.repository.memoria;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Orden, paginación y consultas por Example sobre las copias de los repositorios en memoria
+ *
+ * Sigue el orden de MongoDB en lo que usan las entidades: null antes que cualquier valor,
+ * enums por nombre (se guardan como texto) y números por su valor aunque sean de tipos
+ * distintos. Las propiedades se leen con sus getters; "_id" equivale a "id".
+ */
+final class ConsultasMemoria {
+    
+    private ConsultasMemoria() {
+    }
+    
+    /**
+     * Comparador equivalente a un Sort de MongoDB (propiedades anidadas con punto)
+     */
+    static <T> Comparator<T> comparador(Sort sort) {
+        Comparator<T> comparador = (a, b) -> 0;
+        for (Sort.Order orden : sort) {
+            Comparator<T> porPropiedad = (a, b) -> comparar(
+                    valor(a, orden.getProperty(), orden.isIgnoreCase()),
+                    valor(b, orden.getProperty(), orden.isIgnoreCase()));
+            comparador = comparador.thenComparing(orden.isAscending() ? porPropiedad : porPropiedad.reversed());
+        }
+        return comparador;
+    }
+    
+    /**
+     * Ordena una copia de la lista (sin orden la devuelve tal cual)
+     */
+    static <T> List<T> ordenar(List<T> elementos, Sort sort) {
+        if (sort.isUnsorted()) {
+            return elementos;
+        }
+        List<T> ordenados = new ArrayList<>(elementos);
+        ordenados.sort(comparador(sort));
+        return ordenados;
+    }
+    
+    /**
+     * Ordena según el Pageable y devuelve la página pedida con el total de elementos
+     */
+    static <T> Page<T> paginar(List<T> elementos, Pageable pageable) {
+        List<T> ordenados = ordenar(elementos, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(ordenados);
+        }
+        int desde = (int) Math.min(pageable.getOffset(), ordenados.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), ordenados.size());
+        return new PageImpl<>(new ArrayList<>(ordenados.subList(desde, hasta)), pageable, ordenados.size());
+    }
+    
+    /**
+     * Condición de un Example: cada propiedad del probe que no se ignora se compara con la
+     * del documento según el ExampleMatcher (igualdad, o el StringMatcher para textos)
+     */
+    static <T> Predicate<T> coincide(Example<?> example) {
+        Object probe = example.getProbe();
+        ExampleMatcher matcher = example.getMatcher();
+        ExampleMatcherAccessor accesor = new ExampleMatcherAccessor(matcher);
+        BeanWrapper propiedadesProbe = new BeanWrapperImpl(probe);
+        
+        List<Predicate<T>> condiciones = new ArrayList<>();
+        for (PropertyDescriptor propiedad : propiedadesProbe.getPropertyDescriptors()) {
+            String ruta = propiedad.getName();
+            if (propiedad.getReadMethod() == null || propiedad.getWriteMethod() == null || accesor.isIgnoredPath(ruta)) {
+                continue;
+            }
+            Optional<Object> esperado = accesor.getValueTransformerForPath(ruta)
+                    .apply(Optional.ofNullable(propiedadesProbe.getPropertyValue(ruta)));
+            if (esperado.isEmpty()) {
+                if (accesor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    condiciones.add(documento -> valor(documento, ruta, false) == null);
+                }
+                continue;
+            }
+            Object valorEsperado = esperado.get();
+            if (valorEsperado instanceof String texto) {
+                Predicate<String> coincideTexto = texto(texto, accesor.getStringMatcherForPath(ruta),
+                        accesor.isIgnoreCaseForPath(ruta));
+                condiciones.add(documento -> valor(documento, ruta, false) instanceof String actual
+                        && coincideTexto.test(actual));
+            } else {
+                condiciones.add(documento -> Objects.equals(valorEsperado, valor(documento, ruta, false)));
+            }
+        }
+        
+        Class<?> tipo = example.getProbeType();
+        Predicate<T> delTipo = tipo::isInstance;
+        if (condiciones.isEmpty()) {
+            return delTipo;
+        }
+        Predicate<T> propiedades = matcher.isAllMatching()
+                ? documento -> condiciones.stream().allMatch(condicion -> condicion.test(documento))
+                : documento -> condiciones.stream().anyMatch(condicion -> condicion.test(documento));
+        return delTipo.and(propiedades);
+    }
+    
+    /**
+     * Valor de una propiedad (ruta con puntos); null si algún tramo es null
+     */
+    static Object valor(Object documento, String ruta, boolean ignorarMayusculas) {
+        Object actual = documento;
+        for (String tramo : ("_id".equals(ruta) ? "id" : ruta).split("\\.")) {
+            if (actual == null) {
+                return null;
+            }
+            actual = new BeanWrapperImpl(actual).getPropertyValue(tramo);
+        }
+        if (ignorarMayusculas && actual instanceof String texto) {
+            return texto.toLowerCase(Locale.ROOT);
+        }
+        return actual;
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int comparar(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof Number x && b instanceof Number y) {
+            return Double.compare(x.doubleValue(), y.doubleValue());
+        }
+        if (a instanceof Enum<?> x && b instanceof Enum<?> y) {
+            return x.name().compareTo(y.name());
+        }
+        if (a instanceof Comparable x && a.getClass().isInstance(b)) {
+            return x.compareTo(b);
+        }
+        return a.getClass().getName().compareTo(b.getClass().getName());
+    }
+    
+    private static Predicate<String> texto(String esperado, ExampleMatcher.StringMatcher modo, boolean ignorarMayusculas) {
+        if (modo == ExampleMatcher.StringMatcher.REGEX) {
+            Pattern patron = Pattern.compile(esperado, ignorarMayusculas ? Pattern.CASE_INSENSITIVE : 0);
+            return actual -> patron.matcher(actual).find();
+        }
+        String buscado = ignorarMayusculas ? esperado.toLowerCase(Locale.ROOT) : esperado;
+        return valor -> {
+            String actual = ignorarMayusculas ? valor.toLowerCase(Locale.ROOT) : valor;
+            return switch (modo) {
+                case STARTING -> actual.startsWith(buscado);
+                case ENDING -> actual.endsWith(buscado);
+                case CONTAINING -> actual.contains(buscado);
+                default -> actual.equals(buscado);
+            };
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.controlgastos.repository.memoria;
+
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.SecuenciaSync;
+import com.controlgastos.repository.EliminacionRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * EliminacionRepository en memoria, con índice por usuario
+ * 
+ * Las consultas por fecha solo las usa la purga programada y recorren todas las marcas.
+ */
+@Repository
+@Primary
+@Profile("memoria")
+public class EliminacionRepositoryMemoria extends RepositorioMemoria<Eliminacion> implements EliminacionRepository {
+    
+    private final Map<String, Set<String>> porUsuario = new ConcurrentHashMap<>();
+    
+    @Override
+    public List<Eliminacion> findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(String userId, long secuencia, Limit limite) {
+        Stream<Eliminacion> posteriores = leer(porUsuario.getOrDefault(userId, Set.of()).stream(),
+                eliminacion -> userId.equals(eliminacion.getUserId())).stream()
+                .filter(eliminacion -> eliminacion.getSecuencia() != null && eliminacion.getSecuencia() > secuencia)
+                .sorted(Comparator.comparing(Eliminacion::getSecuencia));
+        return (limite.isLimited() ? posteriores.limit(limite.max()) : posteriores).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<Eliminacion> findByEntidadAndEliminadoEnGreaterThanEqual(EntidadSync entidad, LocalDateTime desde) {
+        return findAll().stream()
+                .filter(eliminacion -> eliminacion.getEntidad() == entidad
+                        && eliminacion.getEliminadoEn() != null && !eliminacion.getEliminadoEn().isBefore(desde))
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<SecuenciaSync> maximosAnterioresA(LocalDateTime corte) {
+        return anterioresA(corte)
+                .filter(eliminacion -> eliminacion.getSecuencia() != null)
+                .collect(Collectors.toMap(Eliminacion::getUserId, Eliminacion::getSecuencia, Math::max))
+                .entrySet().stream()
+                .map(maximo -> new SecuenciaSync(maximo.getKey(), 0, maximo.getValue()))
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public long deleteByEliminadoEnBefore(LocalDateTime corte) {
+        escritura.lock();
+        try {
+            List<String> ids = anterioresA(corte).map(Eliminacion::getId).collect(Collectors.toList());
+            quitarTodos(ids);
+            return ids.size();
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    protected String idDe(Eliminacion eliminacion) {
+        return eliminacion.getId();
+    }
+    
+    @Override
+    protected void asignarId(Eliminacion eliminacion, String id) {
+        eliminacion.setId(id);
+    }
+    
+    @Override
+    protected Eliminacion copiar(Eliminacion eliminacion) {
+        return new Eliminacion(eliminacion.getId(), eliminacion.getUserId(), eliminacion.getEntidad(),
+                eliminacion.getEntidadId(), eliminacion.getSecuencia(), eliminacion.getEliminadoEn());
+    }
+    
+    @Override
+    protected void indexar(Eliminacion eliminacion) {
+        agregarA(porUsuario, String.valueOf(eliminacion.getUserId()), eliminacion.getId());
+    }
+    
+    @Override
+    protected void desindexar(Eliminacion eliminacion) {
+        quitarDe(porUsuario, String.valueOf(eliminacion.getUserId()), eliminacion.getId());
+    }
+    
+    private Stream<Eliminacion> anterioresA(LocalDateTime corte) {
+        return documentos.values().stream()
+                .filter(eliminacion -> eliminacion.getEliminadoEn() != null && eliminacion.getEliminadoEn().isBefore(corte));
+    }
+}
@@ -0,0 +1,327 @@
+package com.controlgastos.repository.memoria;
+
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Base de los repositorios en memoria del perfil "memoria"
+ * 
+ * Cada documento se guarda como una copia que nunca se modifica en un ConcurrentHashMap:
+ * las lecturas no bloquean y devuelven otra copia, así cambiar una entidad leída no
+ * altera lo guardado hasta llamar a save, igual que con MongoDB. Las escrituras de un
+ * repositorio se serializan con un cerrojo para mantener coherentes los índices
+ * secundarios y los únicos. Un lector concurrente puede ver un índice un instante por
+ * delante o por detrás del documento, por eso las consultas vuelven a comprobar su
+ * condición sobre cada documento leído.
+ * 
+ * Los Sort se resuelven con un comparador sobre las copias y los Example comparando
+ * propiedad a propiedad con el probe (ver ConsultasMemoria): sin índices, recorren
+ * todos los documentos del repositorio.
+ */
+abstract class RepositorioMemoria<T> implements MongoRepository<T, String> {
+    
+    protected final Map<String, T> documentos = new ConcurrentHashMap<>();
+    protected final ReentrantLock escritura = new ReentrantLock();
+    
+    protected abstract String idDe(T documento);
+    
+    protected abstract void asignarId(T documento, String id);
+    
+    /**
+     * Copia profunda: ni el llamador ni el almacén deben compartir objetos mutables
+     */
+    protected abstract T copiar(T documento);
+    
+    /**
+     * Lanza DuplicateKeyException si el documento viola un índice único
+     * @param anterior versión guardada con el mismo ID, o null si es nuevo
+     */
+    protected void comprobarUnicos(T documento, T anterior) {
+    }
+    
+    protected void indexar(T documento) {
+    }
+    
+    protected void desindexar(T documento) {
+    }
+    
+    @Override
+    public <S extends T> S insert(S documento) {
+        escritura.lock();
+        try {
+            if (idDe(documento) == null) {
+                asignarId(documento, new ObjectId().toHexString());
+            } else if (documentos.containsKey(idDe(documento))) {
+                throw duplicado("_id_", idDe(documento));
+            }
+            guardar(documento, null);
+            return documento;
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> documentos) {
+        List<S> insertados = new ArrayList<>();
+        documentos.forEach(documento -> insertados.add(insert(documento)));
+        return insertados;
+    }
+    
+    @Override
+    public <S extends T> S save(S documento) {
+        escritura.lock();
+        try {
+            if (idDe(documento) == null) {
+                asignarId(documento, new ObjectId().toHexString());
+            }
+            guardar(documento, documentos.get(idDe(documento)));
+            return documento;
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> documentos) {
+        List<S> guardados = new ArrayList<>();
+        documentos.forEach(documento -> guardados.add(save(documento)));
+        return guardados;
+    }
+    
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(documentos.get(id)).map(this::copiar);
+    }
+    
+    @Override
+    public boolean existsById(String id) {
+        return documentos.containsKey(id);
+    }
+    
+    @Override
+    public List<T> findAll() {
+        return documentos.values().stream().map(this::copiar).collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        Set<String> distintos = new LinkedHashSet<>();
+        ids.forEach(distintos::add);
+        return leer(distintos.stream(), documento -> true);
+    }
+    
+    @Override
+    public long count() {
+        return documentos.size();
+    }
+    
+    @Override
+    public void deleteById(String id) {
+        escritura.lock();
+        try {
+            quitar(id);
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    public void delete(T documento) {
+        deleteById(idDe(documento));
+    }
+    
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+    
+    @Override
+    public void deleteAll(Iterable<? extends T> documentos) {
+        documentos.forEach(this::delete);
+    }
+    
+    @Override
+    public void deleteAll() {
+        escritura.lock();
+        try {
+            List.copyOf(documentos.keySet()).forEach(this::quitar);
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return ConsultasMemoria.paginar(findAll(), pageable);
+    }
+    
+    @Override
+    public List<T> findAll(Sort sort) {
+        return ConsultasMemoria.ordenar(findAll(), sort);
+    }
+    
+    /**
+     * El primero que coincide, como hace MongoDB aunque haya varios
+     */
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return coincidentes(example).stream().findFirst();
+    }
+    
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return coincidentes(example);
+    }
+    
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return ConsultasMemoria.ordenar(coincidentes(example), sort);
+    }
+    
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return ConsultasMemoria.paginar(coincidentes(example), pageable);
+    }
+    
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return coincidentes(example).size();
+    }
+    
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        Predicate<T> condicion = ConsultasMemoria.coincide(example);
+        return documentos.values().stream().anyMatch(condicion);
+    }
+    
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(ConsultaFluidaMemoria.de(() -> coincidentes(example)));
+    }
+    
+    /**
+     * Copias de los documentos que cumplen el Example
+     */
+    @SuppressWarnings("unchecked")
+    private <S extends T> List<S> coincidentes(Example<S> example) {
+        Predicate<T> condicion = ConsultasMemoria.coincide(example);
+        return documentos.values().stream()
+                .filter(condicion)
+                .map(documento -> (S) copiar(documento))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Sustituye la versión anterior por una copia del documento (con el cerrojo tomado)
+     */
+    protected void guardar(T documento, T anterior) {
+        comprobarUnicos(documento, anterior);
+        if (anterior != null) {
+            desindexar(anterior);
+        }
+        T copia = copiar(documento);
+        documentos.put(idDe(copia), copia);
+        indexar(copia);
+    }
+    
+    /**
+     * Elimina un documento y sus entradas de índice (con el cerrojo tomado)
+     */
+    protected boolean quitar(String id) {
+        T anterior = documentos.remove(id);
+        if (anterior != null) {
+            desindexar(anterior);
+        }
+        return anterior != null;
+    }
+    
+    /**
+     * Aplica un cambio atómico sobre una copia del documento guardado, como un update por _id
+     * @param cambio modifica la copia y devuelve si cambió algo
+     * @return documentos modificados (0 si no existe o el cambio no altera nada)
+     */
+    protected long modificar(String id, Predicate<T> cambio) {
+        escritura.lock();
+        try {
+            T anterior = documentos.get(id);
+            if (anterior == null) {
+                return 0;
+            }
+            T nuevo = copiar(anterior);
+            if (!cambio.test(nuevo)) {
+                return 0;
+            }
+            guardar(nuevo, anterior);
+            return 1;
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    /**
+     * Elimina los documentos con los IDs indicados
+     */
+    protected void quitarTodos(Collection<String> ids) {
+        escritura.lock();
+        try {
+            List.copyOf(ids).forEach(this::quitar);
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    /**
+     * Copias de los documentos con esos IDs que siguen cumpliendo la condición
+     */
+    protected List<T> leer(Stream<String> ids, Predicate<T> condicion) {
+        return ids.map(documentos::get)
+                .filter(documento -> documento != null && condicion.test(documento))
+                .map(this::copiar)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Añade un ID al índice secundario de una clave
+     */
+    protected static void agregarA(Map<String, Set<String>> indice, String clave, String id) {
+        indice.computeIfAbsent(clave, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+    
+    /**
+     * Quita un ID del índice secundario de una clave, y la clave si queda vacía
+     */
+    protected static void quitarDe(Map<String, Set<String>> indice, String clave, String id) {
+        indice.computeIfPresent(clave, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+    
+    /**
+     * Mismo formato que el mensaje del servidor, para que DuplicateResourceException.indiceViolado lo reconozca
+     */
+    protected static DuplicateKeyException duplicado(String indice, Object valor) {
+        return new DuplicateKeyException(
+                "E11000 duplicate key error collection: memoria index: " + indice + " dup key: { " + valor + " }");
+    }
+}
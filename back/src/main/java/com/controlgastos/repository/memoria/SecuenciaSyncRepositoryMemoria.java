@@ -0,0 +1,59 @@
+package com.controlgastos.repository.memoria;
+
+import com.controlgastos.model.SecuenciaSync;
+import com.controlgastos.repository.SecuenciaSyncRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+
+/**
+ * SecuenciaSyncRepository en memoria: los incrementos se serializan con el cerrojo de escritura
+ */
+@Repository
+@Primary
+@Profile("memoria")
+public class SecuenciaSyncRepositoryMemoria extends RepositorioMemoria<SecuenciaSync> implements SecuenciaSyncRepository {
+    
+    @Override
+    public long incrementar(String userId, int cantidad) {
+        escritura.lock();
+        try {
+            SecuenciaSync anterior = documentos.get(userId);
+            SecuenciaSync nueva = anterior == null ? new SecuenciaSync(userId, 0, 0) : copiar(anterior);
+            nueva.setValor(nueva.getValor() + cantidad);
+            guardar(nueva, anterior);
+            return nueva.getValor();
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    public void registrarPurgadas(Collection<SecuenciaSync> maximos) {
+        for (SecuenciaSync maximo : maximos) {
+            modificar(maximo.getId(), secuencia -> {
+                if (secuencia.getPurgadaHasta() >= maximo.getPurgadaHasta()) {
+                    return false;
+                }
+                secuencia.setPurgadaHasta(maximo.getPurgadaHasta());
+                return true;
+            });
+        }
+    }
+    
+    @Override
+    protected String idDe(SecuenciaSync secuencia) {
+        return secuencia.getId();
+    }
+    
+    @Override
+    protected void asignarId(SecuenciaSync secuencia, String id) {
+        secuencia.setId(id);
+    }
+    
+    @Override
+    protected SecuenciaSync copiar(SecuenciaSync secuencia) {
+        return new SecuenciaSync(secuencia.getId(), secuencia.getValor(), secuencia.getPurgadaHasta());
+    }
+}
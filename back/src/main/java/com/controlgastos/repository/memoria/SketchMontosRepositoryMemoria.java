@@ -0,0 +1,117 @@
+package com.controlgastos.repository.memoria;
+
+import com.controlgastos.model.SketchMontos;
+import com.controlgastos.repository.SketchMontosRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SketchMontosRepository en memoria, con índice por usuario
+ * 
+ * save respeta @Version como MongoDB: sin version inserta (DuplicateKeyException si el
+ * mes ya existe) y con version solo guarda si coincide con la guardada
+ * (OptimisticLockingFailureException si otra escritura la cambió).
+ */
+@Repository
+@Primary
+@Profile("memoria")
+public class SketchMontosRepositoryMemoria extends RepositorioMemoria<SketchMontos> implements SketchMontosRepository {
+    
+    private final Map<String, Set<String>> porUsuario = new ConcurrentHashMap<>();
+    
+    @Override
+    public List<SketchMontos> findByUserIdAndPeriodoEntre(String userId, String desde, String hasta) {
+        return leer(porUsuario.getOrDefault(userId, Set.of()).stream(), sketch -> userId.equals(sketch.getUserId())
+                && sketch.getPeriodo().compareTo(desde) >= 0 && sketch.getPeriodo().compareTo(hasta) <= 0);
+    }
+    
+    @Override
+    public void marcarObsoletas(Collection<SketchMontos> marcas) {
+        escritura.lock();
+        try {
+            for (SketchMontos marca : marcas) {
+                SketchMontos anterior = documentos.get(marca.getId());
+                SketchMontos nuevo = anterior != null ? copiar(anterior) : stub(marca);
+                nuevo.getObsoletas().addAll(marca.getObsoletas());
+                nuevo.setVersion(Objects.requireNonNullElse(nuevo.getVersion(), 0L) + 1);
+                guardar(nuevo, anterior);
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    public <S extends SketchMontos> S save(S sketch) {
+        escritura.lock();
+        try {
+            if (sketch.getId() == null) {
+                asignarId(sketch, new SketchMontos(sketch.getUserId(), sketch.getPeriodo()).getId());
+            }
+            SketchMontos anterior = documentos.get(sketch.getId());
+            if (sketch.getVersion() == null) {
+                if (anterior != null) {
+                    throw duplicado("_id_", sketch.getId());
+                }
+                sketch.setVersion(0L);
+            } else if (anterior == null || !sketch.getVersion().equals(anterior.getVersion())) {
+                throw new OptimisticLockingFailureException(
+                        "El sketch " + sketch.getId() + " cambió desde la versión " + sketch.getVersion());
+            } else {
+                sketch.setVersion(sketch.getVersion() + 1);
+            }
+            guardar(sketch, anterior);
+            return sketch;
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    protected String idDe(SketchMontos sketch) {
+        return sketch.getId();
+    }
+    
+    @Override
+    protected void asignarId(SketchMontos sketch, String id) {
+        sketch.setId(id);
+    }
+    
+    @Override
+    protected SketchMontos copiar(SketchMontos sketch) {
+        Map<String, byte[]> digests = new HashMap<>();
+        sketch.getDigests().forEach((categoriaId, bytes) -> digests.put(categoriaId, bytes.clone()));
+        return new SketchMontos(sketch.getId(), sketch.getUserId(), sketch.getPeriodo(), digests,
+                new HashSet<>(sketch.getObsoletas()), sketch.isIncompleto(), sketch.getVersion());
+    }
+    
+    @Override
+    protected void indexar(SketchMontos sketch) {
+        agregarA(porUsuario, String.valueOf(sketch.getUserId()), sketch.getId());
+    }
+    
+    @Override
+    protected void desindexar(SketchMontos sketch) {
+        quitarDe(porUsuario, String.valueOf(sketch.getUserId()), sketch.getId());
+    }
+    
+    /**
+     * Sketch vacío e incompleto que crea el upsert de una marca en un mes sin sketch
+     */
+    private static SketchMontos stub(SketchMontos marca) {
+        SketchMontos stub = new SketchMontos(marca.getUserId(), marca.getPeriodo());
+        stub.setId(marca.getId());
+        stub.setIncompleto(true);
+        return stub;
+    }
+}
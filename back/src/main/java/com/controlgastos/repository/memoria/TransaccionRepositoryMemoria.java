@@ -0,0 +1,403 @@
+package com.controlgastos.repository.memoria;
+
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.ComparacionCategorias;
+import com.controlgastos.repository.SaldoAcumulado;
+import com.controlgastos.repository.TotalPeriodo;
+import com.controlgastos.repository.TotalUsuario;
+import com.controlgastos.repository.TransaccionRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * TransaccionRepository en memoria
+ * 
+ * Índices secundarios:
+ * - (userId, fecha): un ConcurrentSkipListSet ordenado por fecha e ID por usuario, para
+ *   los rangos de fechas y las N más recientes sin recorrer el resto
+ * - categoriaId: conjunto de IDs por categoría
+ * 
+ * Las agregaciones se calculan recorriendo el rango del índice y reproducen los
+ * resultados de las de MongoDB, incluido $dateTrunc sobre la fecha en la zona horaria
+ * de la JVM, que es como Spring Data convierte LocalDateTime al guardarla.
+ * No hay colección de archivo: todas las transacciones viven en el mismo almacén.
+ */
+@Repository
+@Primary
+@Profile("memoria")
+public class TransaccionRepositoryMemoria extends RepositorioMemoria<Transaccion> implements TransaccionRepository {
+    
+    /** Ordena después de cualquier ObjectId en hexadecimal con la misma fecha */
+    private static final String DESPUES_DE_TODAS = "\uffff";
+    
+    private final Map<String, NavigableSet<Entrada>> porUsuario = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> porCategoria = new ConcurrentHashMap<>();
+    
+    @Override
+    public Optional<Transaccion> reemplazar(Transaccion transaccion) {
+        escritura.lock();
+        try {
+            Transaccion anterior = documentos.get(transaccion.getId());
+            if (anterior == null) {
+                return Optional.empty();
+            }
+            guardar(transaccion, anterior);
+            return Optional.of(transaccion);
+        } finally {
+            escritura.unlock();
+        }
+    }
+    
+    @Override
+    public List<Transaccion> buscarRecientes(String userId, int n) {
+        return leer(entradas(userId).descendingSet().stream().limit(n).map(Entrada::id), deUsuario(userId));
+    }
+    
+    @Override
+    public List<Transaccion> buscarPorIds(Collection<String> ids) {
+        return leer(new LinkedHashSet<>(ids).stream(), transaccion -> true);
+    }
+    
+    @Override
+    public List<Transaccion> findByUserId(String userId) {
+        return leer(ids(entradas(userId)), deUsuario(userId));
+    }
+    
+    @Override
+    public List<Transaccion> findByUserIdAndTipoTransaccion(String userId, TipoTransaccion tipo) {
+        return leer(ids(entradas(userId)), deUsuario(userId).and(delTipo(tipo)));
+    }
+    
+    @Override
+    public List<Transaccion> findByUserIdAndCategoriaId(String userId, String categoriaId) {
+        return leer(porCategoria.getOrDefault(categoriaId, Set.of()).stream(),
+                deUsuario(userId).and(transaccion -> categoriaId.equals(transaccion.getCategoriaId())));
+    }
+    
+    @Override
+    public List<Transaccion> findByUserIdAndFechaBetween(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return leer(ids(entreExclusivo(userId, fechaInicio, fechaFin)),
+                deUsuario(userId).and(entreExclusivo(fechaInicio, fechaFin)));
+    }
+    
+    @Override
+    public Stream<Transaccion> findByUserIdAndFechaBetweenOrderByFechaAsc(
+            String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        Predicate<Transaccion> condicion = deUsuario(userId).and(entreExclusivo(fechaInicio, fechaFin));
+        // Perezoso como el cursor de MongoDB: el índice ya está en orden de fecha
+        return ids(entreExclusivo(userId, fechaInicio, fechaFin))
+                .map(documentos::get)
+                .filter(transaccion -> transaccion != null && condicion.test(transaccion))
+                .map(this::copiar);
+    }
+    
+    @Override
+    public List<Transaccion> findByUserIdAndTipoTransaccionAndFechaBetween(
+            String userId, TipoTransaccion tipo, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return leer(ids(entreExclusivo(userId, fechaInicio, fechaFin)),
+                deUsuario(userId).and(delTipo(tipo)).and(entreExclusivo(fechaInicio, fechaFin)));
+    }
+    
+    @Override
+    public List<Transaccion> findForSum(String userId, TipoTransaccion tipo) {
+        return findByUserIdAndTipoTransaccion(userId, tipo);
+    }
+    
+    @Override
+    public List<ResumenCategoriaDTO> resumirPorCategoria(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return resumir(findByUserIdAndFechaBetween(userId, fechaInicio, fechaFin));
+    }
+    
+    @Override
+    public ComparacionCategorias compararPorCategoria(String userId, LocalDateTime anteriorInicio, LocalDateTime anteriorFin,
+                                                      LocalDateTime actualInicio, LocalDateTime actualFin) {
+        return new ComparacionCategorias(
+                resumirPorId(leer(ids(desdeHasta(userId, anteriorInicio, anteriorFin)),
+                        deUsuario(userId).and(desdeHasta(anteriorInicio, anteriorFin)))),
+                resumirPorId(leer(ids(desdeHasta(userId, actualInicio, actualFin)),
+                        deUsuario(userId).and(desdeHasta(actualInicio, actualFin)))));
+    }
+    
+    /**
+     * Equivalente de las facetas de compararPorCategoria: $group por ID de categoría y tipo
+     * con el nombre de la transacción más reciente ($top por fecha e ID), y $sort por total
+     */
+    private static List<ResumenCategoriaDTO> resumirPorId(List<Transaccion> transacciones) {
+        Map<ClaveVariacion, ResumenCategoriaDTO> grupos = new LinkedHashMap<>();
+        Map<ClaveVariacion, Entrada> masRecientes = new HashMap<>();
+        for (Transaccion transaccion : transacciones) {
+            ClaveVariacion clave = new ClaveVariacion(transaccion.getCategoriaId(), transaccion.getTipoTransaccion());
+            ResumenCategoriaDTO grupo = grupos.computeIfAbsent(clave, c -> new ResumenCategoriaDTO(
+                    c.categoriaId(), null, c.tipoTransaccion(), 0.0, 0L));
+            acumular(grupo, transaccion);
+            Entrada entrada = Entrada.de(transaccion);
+            Entrada anterior = masRecientes.get(clave);
+            if (anterior == null || entrada.compareTo(anterior) > 0) {
+                masRecientes.put(clave, entrada);
+                grupo.setCategoriaNombre(transaccion.getCategoriaNombre());
+            }
+        }
+        return grupos.values().stream()
+                .sorted(Comparator.comparing(ResumenCategoriaDTO::getTotal).reversed())
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<SaldoAcumulado> acumularSaldo(String userId, LocalDateTime despuesDeFecha, String despuesDeId, int limite) {
+        NavigableSet<Entrada> siguientes = despuesDeFecha == null
+                ? entradas(userId)
+                : entradas(userId).tailSet(new Entrada(despuesDeFecha, despuesDeId), false);
+        List<SaldoAcumulado> pagina = new ArrayList<>();
+        double acumulado = 0.0;
+        for (Transaccion t : leer(ids(siguientes).limit(limite), deUsuario(userId))) {
+            acumulado += t.getTipoTransaccion() == TipoTransaccion.INGRESO ? t.getMonto() : -t.getMonto();
+            pagina.add(new SaldoAcumulado(t.getId(), t.getTipoTransaccion(), t.getCategoriaId(), t.getCategoriaNombre(),
+                    t.getDescripcion(), t.getFecha(), t.getMonto(), acumulado));
+        }
+        return pagina;
+    }
+    
+    /**
+     * Equivalente de las etapas $group por categoría y tipo, $project y $sort por total
+     */
+    private static List<ResumenCategoriaDTO> resumir(List<Transaccion> transacciones) {
+        Map<ClaveCategoria, ResumenCategoriaDTO> grupos = new LinkedHashMap<>();
+        for (Transaccion transaccion : transacciones) {
+            ClaveCategoria clave = new ClaveCategoria(transaccion.getCategoriaId(), transaccion.getCategoriaNombre(),
+                    transaccion.getTipoTransaccion());
+            acumular(grupos.computeIfAbsent(clave, c -> new ResumenCategoriaDTO(
+                    c.categoriaId(), c.categoriaNombre(), c.tipoTransaccion(), 0.0, 0L)), transaccion);
+        }
+        return grupos.values().stream()
+                .sorted(Comparator.comparing(ResumenCategoriaDTO::getTotal).reversed())
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public List<TotalPeriodo> agruparPorPeriodo(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                String unidad, String zonaHoraria) {
+        ZoneId zona = ZoneId.of(zonaHoraria);
+        TreeMap<ZonedDateTime, TotalPeriodo> periodos = new TreeMap<>();
+        for (Transaccion transaccion : findByUserIdAndFechaBetween(userId, fechaInicio, fechaFin)) {
+            ZonedDateTime inicio = truncar(transaccion.getFecha().atZone(ZoneId.systemDefault())
+                    .withZoneSameInstant(zona), unidad);
+            TotalPeriodo periodo = periodos.computeIfAbsent(inicio, i -> new TotalPeriodo(
+                    Date.from(i.toInstant()), 0.0, 0.0, 0L));
+            if (transaccion.getTipoTransaccion() == TipoTransaccion.INGRESO) {
+                periodo.setTotalIngresos(periodo.getTotalIngresos() + transaccion.getMonto());
+            } else if (transaccion.getTipoTransaccion() == TipoTransaccion.GASTO) {
+                periodo.setTotalGastos(periodo.getTotalGastos() + transaccion.getMonto());
+            }
+            periodo.setCantidad(periodo.getCantidad() + 1);
+        }
+        return new ArrayList<>(periodos.values());
+    }
+    
+    @Override
+    public List<ResumenCategoriaDTO> sumarGastosPorCategorias(Collection<String> userIds, Collection<String> categoriaIds,
+                                                              LocalDateTime desde, LocalDateTime hasta) {
+        Set<String> categorias = Set.copyOf(categoriaIds);
+        Map<String, ResumenCategoriaDTO> grupos = new LinkedHashMap<>();
+        for (String userId : Set.copyOf(userIds)) {
+            Predicate<Transaccion> condicion = deUsuario(userId).and(delTipo(TipoTransaccion.GASTO))
+                    .and(desdeHasta(desde, hasta))
+                    .and(transaccion -> categorias.contains(transaccion.getCategoriaId()));
+            for (Transaccion transaccion : leer(ids(desdeHasta(userId, desde, hasta)), condicion)) {
+                acumular(grupos.computeIfAbsent(transaccion.getCategoriaId(), categoriaId -> new ResumenCategoriaDTO(
+                        categoriaId, null, TipoTransaccion.GASTO, 0.0, 0L)), transaccion);
+            }
+        }
+        return new ArrayList<>(grupos.values());
+    }
+    
+    @Override
+    public List<TotalUsuario> totalizarPorUsuarios(Collection<String> userIds) {
+        return Set.copyOf(userIds).stream()
+                .map(userId -> {
+                    TotalUsuario total = new TotalUsuario(userId, 0.0, 0.0, 0L, 0L);
+                    for (Transaccion transaccion : findByUserId(userId)) {
+                        if (transaccion.getTipoTransaccion() == TipoTransaccion.INGRESO) {
+                            total.setTotalIngresos(total.getTotalIngresos() + transaccion.getMonto());
+                            total.setCantidadIngresos(total.getCantidadIngresos() + 1);
+                        } else if (transaccion.getTipoTransaccion() == TipoTransaccion.GASTO) {
+                            total.setTotalGastos(total.getTotalGastos() + transaccion.getMonto());
+                            total.setCantidadGastos(total.getCantidadGastos() + 1);
+                        }
+                    }
+                    return total;
+                })
+                .filter(total -> total.getCantidadIngresos() + total.getCantidadGastos() > 0)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public void deleteByUserId(String userId) {
+        quitarTodos(ids(entradas(userId)).toList());
+    }
+    
+    @Override
+    public void deleteByCategoriaId(String categoriaId) {
+        quitarTodos(porCategoria.getOrDefault(categoriaId, Set.of()));
+    }
+    
+    @Override
+    public List<Transaccion> findMontosGasto(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        return leer(ids(desdeHasta(userId, fechaInicio, fechaFin)),
+                deUsuario(userId).and(delTipo(TipoTransaccion.GASTO)).and(desdeHasta(fechaInicio, fechaFin)));
+    }
+    
+    @Override
+    public List<Transaccion> findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(String userId, long secuencia, Limit limite) {
+        Stream<Transaccion> cambiadas = findByUserId(userId).stream()
+                .filter(transaccion -> transaccion.getSecuencia() != null && transaccion.getSecuencia() > secuencia)
+                .sorted(Comparator.comparing(Transaccion::getSecuencia));
+        return (limite.isLimited() ? cambiadas.limit(limite.max()) : cambiadas).collect(Collectors.toList());
+    }
+    
+    @Override
+    protected String idDe(Transaccion transaccion) {
+        return transaccion.getId();
+    }
+    
+    @Override
+    protected void asignarId(Transaccion transaccion, String id) {
+        transaccion.setId(id);
+    }
+    
+    @Override
+    protected Transaccion copiar(Transaccion t) {
+        return new Transaccion(t.getId(), t.getTipoTransaccion(), t.getCategoriaId(), t.getCategoriaNombre(),
+                t.getDescripcion(), t.getFecha(), t.getMonto(), t.getUserId(), t.getSecuencia(), t.getActualizadoEn());
+    }
+    
+    @Override
+    protected void indexar(Transaccion transaccion) {
+        porUsuario.computeIfAbsent(String.valueOf(transaccion.getUserId()), u -> new ConcurrentSkipListSet<>())
+                .add(Entrada.de(transaccion));
+        agregarA(porCategoria, String.valueOf(transaccion.getCategoriaId()), transaccion.getId());
+    }
+    
+    @Override
+    protected void desindexar(Transaccion transaccion) {
+        porUsuario.computeIfPresent(String.valueOf(transaccion.getUserId()), (u, entradas) -> {
+            entradas.remove(Entrada.de(transaccion));
+            return entradas.isEmpty() ? null : entradas;
+        });
+        quitarDe(porCategoria, String.valueOf(transaccion.getCategoriaId()), transaccion.getId());
+    }
+    
+    private NavigableSet<Entrada> entradas(String userId) {
+        return porUsuario.getOrDefault(userId, new ConcurrentSkipListSet<>());
+    }
+    
+    /**
+     * Entradas con fecha en (inicio, fin), como Between en las consultas derivadas
+     */
+    private NavigableSet<Entrada> entreExclusivo(String userId, LocalDateTime inicio, LocalDateTime fin) {
+        if (!inicio.isBefore(fin)) {
+            return new ConcurrentSkipListSet<>();
+        }
+        return entradas(userId).subSet(new Entrada(inicio, DESPUES_DE_TODAS), false, new Entrada(fin, ""), false);
+    }
+    
+    /**
+     * Entradas con fecha en [desde, hasta)
+     */
+    private NavigableSet<Entrada> desdeHasta(String userId, LocalDateTime desde, LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            return new ConcurrentSkipListSet<>();
+        }
+        return entradas(userId).subSet(new Entrada(desde, ""), true, new Entrada(hasta, ""), false);
+    }
+    
+    private static Stream<String> ids(NavigableSet<Entrada> entradas) {
+        return entradas.stream().map(Entrada::id);
+    }
+    
+    private static Predicate<Transaccion> deUsuario(String userId) {
+        return transaccion -> userId.equals(transaccion.getUserId());
+    }
+    
+    private static Predicate<Transaccion> delTipo(TipoTransaccion tipo) {
+        return transaccion -> transaccion.getTipoTransaccion() == tipo;
+    }
+    
+    private static Predicate<Transaccion> entreExclusivo(LocalDateTime inicio, LocalDateTime fin) {
+        return transaccion -> transaccion.getFecha().isAfter(inicio) && transaccion.getFecha().isBefore(fin);
+    }
+    
+    private static Predicate<Transaccion> desdeHasta(LocalDateTime desde, LocalDateTime hasta) {
+        return transaccion -> !transaccion.getFecha().isBefore(desde) && transaccion.getFecha().isBefore(hasta);
+    }
+    
+    private static void acumular(ResumenCategoriaDTO grupo, Transaccion transaccion) {
+        grupo.setTotal(grupo.getTotal() + transaccion.getMonto());
+        grupo.setCantidad(grupo.getCantidad() + 1);
+    }
+    
+    /**
+     * Equivalente de $dateTrunc para las unidades que usa el servicio (semanas desde el lunes)
+     */
+    private static ZonedDateTime truncar(ZonedDateTime fecha, String unidad) {
+        ZonedDateTime dia = fecha.truncatedTo(ChronoUnit.DAYS);
+        return switch (unidad) {
+            case "day" -> dia;
+            case "week" -> dia.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month" -> dia.withDayOfMonth(1);
+            default -> throw new IllegalArgumentException("Unidad de $dateTrunc no soportada: " + unidad);
+        };
+    }
+    
+    /**
+     * Entrada del índice (userId, fecha): ordena por fecha y desempata por ID
+     */
+    private record Entrada(LocalDateTime fecha, String id) implements Comparable<Entrada> {
+        
+        private static final Comparator<Entrada> ORDEN = Comparator
+                .comparing(Entrada::fecha, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(Entrada::id);
+        
+        static Entrada de(Transaccion transaccion) {
+            return new Entrada(transaccion.getFecha(), transaccion.getId());
+        }
+        
+        @Override
+        public int compareTo(Entrada otra) {
+            return ORDEN.compare(this, otra);
+        }
+    }
+    
+    private record ClaveCategoria(String categoriaId, String categoriaNombre, TipoTransaccion tipoTransaccion) {
+    }
+    
+    private record ClaveVariacion(String categoriaId, TipoTransaccion tipoTransaccion) {
+    }
+}
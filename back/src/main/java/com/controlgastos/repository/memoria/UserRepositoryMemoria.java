@@ -0,0 +1,135 @@
+package com.controlgastos.repository.memoria;
+
+import com.controlgastos.model.User;
+import com.controlgastos.repository.UserRepository;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * UserRepository en memoria, con los índices únicos de apodo y correo
+ */
+@Repository
+@Primary
+@Profile("memoria")
+public class UserRepositoryMemoria extends RepositorioMemoria<User> implements UserRepository {
+    
+    private final Map<String, String> porApodo = new ConcurrentHashMap<>();
+    private final Map<String, String> porCorreo = new ConcurrentHashMap<>();
+    
+    @Override
+    public Optional<User> findByApodo(String apodo) {
+        return buscarUnico(porApodo, apodo).filter(user -> apodo.equals(user.getApodo()));
+    }
+    
+    @Override
+    public Optional<User> findByCorreo(String correo) {
+        return buscarUnico(porCorreo, correo).filter(user -> correo.equals(user.getCorreo()));
+    }
+    
+    @Override
+    public long agregarTransaccionId(String userId, String transaccionId) {
+        return modificar(userId, user -> user.getTransaccionesIds().add(transaccionId));
+    }
+    
+    @Override
+    public long quitarTransaccionId(String userId, String transaccionId) {
+        return modificar(userId, user -> user.getTransaccionesIds().removeIf(transaccionId::equals));
+    }
+    
+    @Override
+    public long agregarCategoriaId(String userId, String categoriaId) {
+        return modificar(userId, user -> user.getCategoriasIds().add(categoriaId));
+    }
+    
+    @Override
+    public long quitarCategoriaId(String userId, String categoriaId) {
+        return modificar(userId, user -> user.getCategoriasIds().removeIf(categoriaId::equals));
+    }
+    
+    @Override
+    public long actualizarDatos(String userId, String apodo, String correo) {
+        return modificar(userId, user -> {
+            boolean cambia = !Objects.equals(apodo, user.getApodo()) || !Objects.equals(correo, user.getCorreo());
+            user.setApodo(apodo);
+            user.setCorreo(correo);
+            return cambia;
+        });
+    }
+    
+    @Override
+    public long actualizarDatosYContrasenia(String userId, String apodo, String correo, String contrasenia) {
+        return modificar(userId, user -> {
+            boolean cambia = !Objects.equals(apodo, user.getApodo()) || !Objects.equals(correo, user.getCorreo())
+                    || !Objects.equals(contrasenia, user.getContrasenia());
+            user.setApodo(apodo);
+            user.setCorreo(correo);
+            user.setContrasenia(contrasenia);
+            return cambia;
+        });
+    }
+    
+    @Override
+    protected String idDe(User user) {
+        return user.getId();
+    }
+    
+    @Override
+    protected void asignarId(User user, String id) {
+        user.setId(id);
+    }
+    
+    @Override
+    protected User copiar(User user) {
+        return new User(user.getId(), user.getApodo(), user.getCorreo(), user.getContrasenia(),
+                copiarLista(user.getTransaccionesIds()), copiarLista(user.getCategoriasIds()));
+    }
+    
+    @Override
+    protected void comprobarUnicos(User user, User anterior) {
+        comprobarUnico(porApodo, "apodo", user.getApodo(), user.getId());
+        comprobarUnico(porCorreo, "correo", user.getCorreo(), user.getId());
+    }
+    
+    @Override
+    protected void indexar(User user) {
+        if (user.getApodo() != null) {
+            porApodo.put(user.getApodo(), user.getId());
+        }
+        if (user.getCorreo() != null) {
+            porCorreo.put(user.getCorreo(), user.getId());
+        }
+    }
+    
+    @Override
+    protected void desindexar(User user) {
+        if (user.getApodo() != null) {
+            porApodo.remove(user.getApodo(), user.getId());
+        }
+        if (user.getCorreo() != null) {
+            porCorreo.remove(user.getCorreo(), user.getId());
+        }
+    }
+    
+    private Optional<User> buscarUnico(Map<String, String> indice, String valor) {
+        String id = valor == null ? null : indice.get(valor);
+        return id == null ? Optional.empty() : findById(id);
+    }
+    
+    private static void comprobarUnico(Map<String, String> indice, String nombre, String valor, String id) {
+        String otro = valor == null ? null : indice.get(valor);
+        if (otro != null && !otro.equals(id)) {
+            throw duplicado(nombre, valor);
+        }
+    }
+    
+    private static List<String> copiarLista(List<String> ids) {
+        return ids == null ? new ArrayList<>() : new ArrayList<>(ids);
+    }
+}
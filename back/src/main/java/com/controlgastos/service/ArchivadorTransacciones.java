@@ -0,0 +1,217 @@
+package com.controlgastos.service;
+
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.EstadoArchivo;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.CorteArchivo;
+import com.controlgastos.repository.EliminacionRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation.WhenDocumentsDontMatch;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation.WhenDocumentsMatch;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Archivador de transacciones antiguas en "transacciones_archivo"
+ *
+ * Mueve por lotes las transacciones anteriores al corte (primer día del mes de hace
+ * archivo.edad-meses) en dos fases, para que las lecturas federadas nunca pierdan
+ * ni dupliquen transacciones:
+ * 1. Copia al archivo ($merge por lotes de _id) las transacciones anteriores al corte
+ *    nuevo y después lo publica en estado_archivo. Hasta entonces los lectores filtran
+ *    el archivo con el corte anterior y no ven las copias.
+ * 2. En una ejecución posterior, pasado archivo.espera-ms (más que el refresco del
+ *    corte en cada instancia), vuelve a copiar lo que se escribió entretanto con el
+ *    corte anterior, borra los lotes de la colección principal y quita del archivo
+ *    las transacciones eliminadas durante la copia.
+ *
+ * Cada ejecución también traslada las transacciones anteriores al corte que se
+ * escribieron después en la colección principal (por ejemplo, ocurrencias antiguas
+ * de transacciones recurrentes).
+ */
+@Service
+public class ArchivadorTransacciones {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivadorTransacciones.class);
+
+    private static final MergeOperation FUSIONAR_EN_ARCHIVO = Aggregation.merge()
+            .intoCollection(CorteArchivo.COLECCION_ARCHIVO)
+            .on("_id")
+            .whenMatched(WhenDocumentsMatch.replaceDocument())
+            .whenDocumentsDontMatch(WhenDocumentsDontMatch.insertNewDocument())
+            .build();
+
+    private final MongoTemplate mongoTemplate;
+    private final CorteArchivo corteArchivo;
+    private final EliminacionRepository eliminacionRepository;
+    private final boolean habilitado;
+    private final int edadMeses;
+    private final int tamanioLote;
+    private final long esperaMs;
+
+    public ArchivadorTransacciones(MongoTemplate mongoTemplate,
+                                   CorteArchivo corteArchivo,
+                                   EliminacionRepository eliminacionRepository,
+                                   @Value("${archivo.enabled:true}") boolean habilitado,
+                                   @Value("${archivo.edad-meses:24}") int edadMeses,
+                                   @Value("${archivo.tamanio-lote:1000}") int tamanioLote,
+                                   @Value("${archivo.espera-ms:300000}") long esperaMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.corteArchivo = corteArchivo;
+        this.eliminacionRepository = eliminacionRepository;
+        this.habilitado = habilitado;
+        this.edadMeses = edadMeses;
+        this.tamanioLote = tamanioLote;
+        this.esperaMs = esperaMs;
+    }
+
+    /**
+     * Ejecución programada del archivado
+     */
+    @Scheduled(cron = "${archivo.cron:0 20 * * * *}")
+    public void archivarPendientes() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            archivar(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // Todas las fases son repetibles: la siguiente ejecución retoma desde estado_archivo
+            log.error("Error archivando transacciones: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Avanza el archivado una fase
+     * @param ahora momento de la ejecución
+     * @return transacciones copiadas al archivo con el corte nuevo y trasladadas desde la colección principal
+     */
+    public Resultado archivar(LocalDateTime ahora) {
+        EstadoArchivo estado = mongoTemplate.findById(EstadoArchivo.ID, EstadoArchivo.class);
+        if (estado == null) {
+            estado = new EstadoArchivo(EstadoArchivo.ID, null, false, null, null);
+        }
+
+        long trasladadas = 0;
+        if (estado.isPendiente()) {
+            if (ahora.isBefore(estado.getCambiadoEn().plusNanos(esperaMs * 1_000_000))) {
+                return new Resultado(0, 0);
+            }
+            trasladadas = trasladar(estado.getCorte(), true);
+            quitarEliminadas(estado.getInicioCopia());
+            estado.setPendiente(false);
+            mongoTemplate.save(estado);
+        } else if (estado.getCorte() != null) {
+            trasladadas = trasladar(estado.getCorte(), true);
+            if (trasladadas > 0) {
+                quitarEliminadas(ahora);
+            }
+        }
+
+        long copiadas = 0;
+        LocalDateTime objetivo = YearMonth.from(ahora).minusMonths(edadMeses).atDay(1).atStartOfDay();
+        if (!estado.isPendiente() && (estado.getCorte() == null || objetivo.isAfter(estado.getCorte()))) {
+            asegurarIndices();
+            estado.setInicioCopia(ahora);
+            copiadas = trasladar(objetivo, false);
+
+            estado.setCorte(objetivo);
+            estado.setCambiadoEn(LocalDateTime.now());
+            estado.setPendiente(true);
+            mongoTemplate.save(estado);
+            corteArchivo.invalidar();
+        }
+
+        if (copiadas > 0 || trasladadas > 0) {
+            log.info("Archivo de transacciones: {} copiadas con el corte {}, {} trasladadas",
+                    copiadas, estado.getCorte(), trasladadas);
+        }
+        return new Resultado(copiadas, trasladadas);
+    }
+
+    /**
+     * Copia al archivo por lotes las transacciones anteriores al corte, recorriendo el
+     * índice (fecha, _id); si borrar es true quita cada lote de la colección principal
+     * @return número de transacciones procesadas
+     */
+    private long trasladar(LocalDateTime corte, boolean borrar) {
+        long total = 0;
+        Document ultima = null;
+        while (true) {
+            Criteria criterio = Criteria.where("fecha").lt(corte);
+            if (ultima != null) {
+                criterio = new Criteria().andOperator(criterio, new Criteria().orOperator(
+                        Criteria.where("fecha").gt(ultima.get("fecha")),
+                        Criteria.where("fecha").is(ultima.get("fecha")).and("_id").gt(ultima.get("_id"))));
+            }
+            Query query = Query.query(criterio)
+                    .with(Sort.by(Sort.Direction.ASC, "fecha", "_id"))
+                    .limit(tamanioLote);
+            query.fields().include("_id", "fecha");
+            List<Document> lote = mongoTemplate.find(query, Document.class, CorteArchivo.COLECCION);
+            if (lote.isEmpty()) {
+                break;
+            }
+
+            List<Object> ids = lote.stream().map(documento -> documento.get("_id")).toList();
+            mongoTemplate.aggregate(Aggregation.newAggregation(
+                    Aggregation.match(Criteria.where("_id").in(ids)),
+                    FUSIONAR_EN_ARCHIVO), CorteArchivo.COLECCION, Document.class);
+            if (borrar) {
+                mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), CorteArchivo.COLECCION);
+            }
+
+            total += lote.size();
+            ultima = lote.get(lote.size() - 1);
+            if (lote.size() < tamanioLote) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Una transacción eliminada mientras su lote se copiaba puede haber reaparecido en el archivo
+     */
+    private void quitarEliminadas(LocalDateTime desde) {
+        if (desde == null) {
+            return;
+        }
+        List<String> ids = eliminacionRepository
+                .findByEntidadAndEliminadoEnGreaterThanEqual(EntidadSync.TRANSACCION, desde).stream()
+                .map(Eliminacion::getEntidadId)
+                .toList();
+        if (!ids.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("id").in(ids)),
+                    Transaccion.class, CorteArchivo.COLECCION_ARCHIVO);
+        }
+    }
+
+    private void asegurarIndices() {
+        var indices = mongoTemplate.indexOps(CorteArchivo.COLECCION_ARCHIVO);
+        indices.ensureIndex(new Index().on("userId", Sort.Direction.ASC).on("secuencia", Sort.Direction.ASC)
+                .named("userId_secuencia"));
+        indices.ensureIndex(new Index().on("userId", Sort.Direction.ASC).on("fecha", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC).named("userId_fecha_id"));
+    }
+
+    /**
+     * Resultado de una ejecución del archivador
+     */
+    public record Resultado(long copiadas, long trasladadas) {
+    }
+}
@@ -2,16 +2,24 @@ package com.controlgastos.service;
 
 import com.controlgastos.dto.CategoriaDTO;
 import com.controlgastos.dto.CategoriaResponseDTO;
+import com.controlgastos.dto.LoteResponseDTO;
 import com.controlgastos.exception.DuplicateResourceException;
 import com.controlgastos.exception.ResourceNotFoundException;
 import com.controlgastos.model.Categoria;
-import com.controlgastos.model.User;
+import com.controlgastos.model.EntidadSync;
 import com.controlgastos.repository.CategoriaRepository;
 import com.controlgastos.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +32,7 @@ public class CategoriaService {
     
     private final CategoriaRepository categoriaRepository;
     private final UserRepository userRepository;
+    private final SyncService syncService;
     
     /**
      * Crea una nueva categoría para un usuario
@@ -31,24 +40,31 @@ public class CategoriaService {
      * @param categoriaDTO datos de la categoría
      * @return categoría creada
      */
-    @Transactional
     public CategoriaResponseDTO crearCategoria(String userId, CategoriaDTO categoriaDTO) {
-        // Verificar que el usuario existe
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", userId));
+        // Crear la categoría con un ID generado en el cliente para poder
+        // referenciarla en el usuario antes de insertarla
+        Categoria categoria = new Categoria(categoriaDTO.getNombre(), userId);
+        categoria.setId(new ObjectId().toHexString());
         
-        // Verificar que la categoría no exista para este usuario
-        if (categoriaRepository.findByNombreAndUserId(categoriaDTO.getNombre(), userId).isPresent()) {
-            throw new DuplicateResourceException("Categoría", "nombre", categoriaDTO.getNombre());
+        // $push atómico: verifica que el usuario existe y registra la referencia en un solo viaje
+        if (userRepository.agregarCategoriaId(userId, categoria.getId()) == 0) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
         }
         
-        // Crear y guardar la categoría
-        Categoria categoria = new Categoria(categoriaDTO.getNombre(), userId);
-        Categoria savedCategoria = categoriaRepository.save(categoria);
-        
-        // Actualizar el usuario con la nueva categoría
-        user.agregarCategoria(savedCategoria.getId());
-        userRepository.save(user);
+        // El índice único (userId, nombre) rechaza los nombres repetidos en la misma inserción
+        Categoria savedCategoria;
+        try {
+            // La secuencia se reserva solo para un usuario existente: reservarla crea su contador
+            syncService.sellar(categoria);
+            savedCategoria = categoriaRepository.insert(categoria);
+        } catch (RuntimeException e) {
+            // Compensar la referencia agregada si la inserción falla
+            userRepository.quitarCategoriaId(userId, categoria.getId());
+            if (e instanceof DuplicateKeyException) {
+                throw new DuplicateResourceException("Categoría", "nombre", categoriaDTO.getNombre());
+            }
+            throw e;
+        }
         
         return convertToDTO(savedCategoria);
     }
@@ -69,6 +85,19 @@ public class CategoriaService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene las categorías de varios usuarios con una sola consulta (usuarios inexistentes sin categorías)
+     * @param userIds IDs de los usuarios
+     * @return categorías agrupadas por ID de usuario; todos los usuarios pedidos tienen entrada
+     */
+    public Map<String, List<CategoriaResponseDTO>> obtenerCategoriasPorUsuarios(Collection<String> userIds) {
+        Map<String, List<CategoriaResponseDTO>> porUsuario = new LinkedHashMap<>();
+        userIds.forEach(userId -> porUsuario.put(userId, new ArrayList<>()));
+        categoriaRepository.findByUserIdIn(porUsuario.keySet())
+                .forEach(categoria -> porUsuario.get(categoria.getUserId()).add(convertToDTO(categoria)));
+        return porUsuario;
+    }
+    
     /**
      * Obtiene una categoría por su ID
      * @param id ID de la categoría
@@ -80,48 +109,61 @@ public class CategoriaService {
         return convertToDTO(categoria);
     }
     
+    /**
+     * Obtiene varias categorías por ID con una sola consulta
+     * @param ids IDs en el orden deseado
+     * @return categorías en el orden de los IDs, con las no encontradas marcadas
+     */
+    public LoteResponseDTO<CategoriaResponseDTO> obtenerCategoriasPorIds(List<String> ids) {
+        Map<String, CategoriaResponseDTO> porId = new HashMap<>();
+        categoriaRepository.findAllById(new LinkedHashSet<>(ids))
+                .forEach(categoria -> porId.put(categoria.getId(), convertToDTO(categoria)));
+        return LoteResponseDTO.enOrden(ids, porId);
+    }
+    
     /**
      * Actualiza una categoría existente
      * @param id ID de la categoría
      * @param categoriaDTO nuevos datos
      * @return categoría actualizada
      */
-    @Transactional
     public CategoriaResponseDTO actualizarCategoria(String id, CategoriaDTO categoriaDTO) {
         Categoria categoria = categoriaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría", "id", id));
         
-        // Verificar que el nuevo nombre no exista para este usuario (excepto esta misma categoría)
-        categoriaRepository.findByNombreAndUserId(categoriaDTO.getNombre(), categoria.getUserId())
-                .ifPresent(existingCategoria -> {
-                    if (!existingCategoria.getId().equals(id)) {
-                        throw new DuplicateResourceException("Categoría", "nombre", categoriaDTO.getNombre());
-                    }
-                });
-        
         categoria.setNombre(categoriaDTO.getNombre());
-        Categoria updatedCategoria = categoriaRepository.save(categoria);
+        syncService.sellar(categoria);
         
-        return convertToDTO(updatedCategoria);
+        // $set atómico: si otra petición la eliminó entretanto, no debe reaparecer;
+        // un nombre de otra categoría del usuario lo rechaza el índice único (userId, nombre)
+        long modificadas;
+        try {
+            modificadas = categoriaRepository.renombrar(id, categoria.getNombre(), categoria.getSecuencia(),
+                    categoria.getActualizadoEn());
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateResourceException("Categoría", "nombre", categoriaDTO.getNombre());
+        }
+        if (modificadas == 0) {
+            throw new ResourceNotFoundException("Categoría", "id", id);
+        }
+        
+        return convertToDTO(categoria);
     }
     
     /**
      * Elimina una categoría
      * @param id ID de la categoría
      */
-    @Transactional
     public void eliminarCategoria(String id) {
         Categoria categoria = categoriaRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría", "id", id));
         
-        // Actualizar el usuario eliminando la referencia
-        User user = userRepository.findById(categoria.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", categoria.getUserId()));
-        user.eliminarCategoria(id);
-        userRepository.save(user);
-        
         // Eliminar la categoría
         categoriaRepository.delete(categoria);
+        
+        // $pull atómico de la referencia en el usuario
+        userRepository.quitarCategoriaId(categoria.getUserId(), id);
+        syncService.registrarEliminacion(categoria.getUserId(), EntidadSync.CATEGORIA, id);
     }
     
     /**
@@ -0,0 +1,266 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.EstadisticaMontosDTO;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.SketchMontos;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.SketchMontosRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import java.nio.ByteBuffer;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de percentiles aproximados de los gastos por usuario y categoría
+ *
+ * Mantiene un t-digest por (usuario, categoría, mes) en la colección sketches_montos.
+ * Los digest se combinan para responder cualquier rango de meses sin ordenar el
+ * historial completo.
+ *
+ * Cotas de error (compresión 100): el error es de rango, no de valor. El cuantil
+ * devuelto para q corresponde a un rango real dentro de aproximadamente
+ * ±q(1-q)·4% del total (≈ ±1% en p50, ≈ ±0,35% en p90 y ≈ ±0,04% en p99).
+ * Con menos de ~50 gastos el digest guarda cada valor y los percentiles se
+ * interpolan entre valores reales.
+ */
+@Service
+@RequiredArgsConstructor
+public class EstadisticasMontosService {
+
+    private static final Logger log = LoggerFactory.getLogger(EstadisticasMontosService.class);
+
+    static final double COMPRESION = 100;
+    private static final int MAX_MESES = 24;
+    private static final int MAX_REINTENTOS = 5;
+
+    private final SketchMontosRepository sketchRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final UserRepository userRepository;
+
+    /**
+     * Agrega el monto de un gasto nuevo al digest de su categoría y mes
+     * Si el mes aún no tiene sketch, o la categoría ya está obsoleta, solo la marca como
+     * obsoleta: así una reconstrucción en curso que no vio este gasto no llega a guardarse
+     */
+    public void registrar(Transaccion transaccion) {
+        if (transaccion.getTipoTransaccion() != TipoTransaccion.GASTO) {
+            return;
+        }
+        String id = idSketch(transaccion);
+        String categoriaId = transaccion.getCategoriaId();
+        try {
+            for (int intento = 0; intento < MAX_REINTENTOS; intento++) {
+                SketchMontos sketch = sketchRepository.findById(id).orElse(null);
+                if (sketch == null || sketch.isIncompleto() || sketch.getObsoletas().contains(categoriaId)) {
+                    sketchRepository.marcarObsoletas(List.of(marca(transaccion)));
+                    return;
+                }
+                TDigest digest = leer(sketch.getDigests().get(categoriaId));
+                digest.add(transaccion.getMonto());
+                sketch.getDigests().put(categoriaId, escribir(digest));
+                try {
+                    sketchRepository.save(sketch);
+                    return;
+                } catch (OptimisticLockingFailureException e) {
+                    // Otra escritura actualizó el mes: releer y reintentar
+                }
+            }
+            sketchRepository.marcarObsoletas(List.of(marca(transaccion)));
+        } catch (DataAccessException e) {
+            // Las estadísticas no deben hacer fallar la escritura de la transacción
+            log.warn("No se pudo actualizar el sketch {}: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Marca como obsoleto el digest de la categoría y mes de un gasto modificado o eliminado
+     */
+    public void invalidar(Transaccion transaccion) {
+        if (transaccion.getTipoTransaccion() != TipoTransaccion.GASTO) {
+            return;
+        }
+        try {
+            sketchRepository.marcarObsoletas(List.of(marca(transaccion)));
+        } catch (DataAccessException e) {
+            log.warn("No se pudo invalidar el sketch {}: {}", idSketch(transaccion), e.getMessage());
+        }
+    }
+
+    /**
+     * Marca como obsoletos los digests afectados por una inserción masiva, en un solo bulkWrite
+     * Igual que con un solo gasto, un fallo se registra y no interrumpe a quien insertó
+     */
+    public void invalidar(Collection<Transaccion> transacciones) {
+        Map<String, SketchMontos> marcas = new HashMap<>();
+        for (Transaccion transaccion : transacciones) {
+            if (transaccion.getTipoTransaccion() == TipoTransaccion.GASTO) {
+                marcas.computeIfAbsent(idSketch(transaccion), id -> new SketchMontos(
+                                transaccion.getUserId(), periodo(transaccion)))
+                        .getObsoletas().add(transaccion.getCategoriaId());
+            }
+        }
+        try {
+            sketchRepository.marcarObsoletas(marcas.values());
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron invalidar los sketches {}: {}", marcas.keySet(), e.getMessage());
+        }
+    }
+
+    /**
+     * Calcula los percentiles de los gastos de cada categoría en un rango de meses
+     * @param userId ID del usuario
+     * @param desde primer mes (inclusive)
+     * @param hasta último mes (inclusive)
+     * @return estadísticas por categoría con al menos un gasto, ordenadas por nombre
+     */
+    public List<EstadisticaMontosDTO> calcularEstadisticas(String userId, YearMonth desde, YearMonth hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("El mes inicial debe ser anterior o igual al mes final");
+        }
+        if (desde.plusMonths(MAX_MESES).isBefore(hasta.plusMonths(1))) {
+            throw new IllegalArgumentException("El rango solicitado supera el máximo de " + MAX_MESES + " meses");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+
+        Map<String, SketchMontos> porPeriodo = sketchRepository
+                .findByUserIdAndPeriodoEntre(userId, desde.toString(), hasta.toString()).stream()
+                .collect(Collectors.toMap(SketchMontos::getPeriodo, Function.identity()));
+
+        Map<String, List<TDigest>> digestsPorCategoria = new HashMap<>();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            SketchMontos sketch = actualizado(userId, mes, porPeriodo.get(mes.toString()));
+            sketch.getDigests().forEach((categoriaId, bytes) ->
+                    digestsPorCategoria.computeIfAbsent(categoriaId, id -> new ArrayList<>()).add(leer(bytes)));
+        }
+
+        Map<String, Categoria> categorias = categoriaRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(Categoria::getId, Function.identity()));
+
+        List<EstadisticaMontosDTO> estadisticas = new ArrayList<>();
+        digestsPorCategoria.forEach((categoriaId, digests) -> {
+            Categoria categoria = categorias.get(categoriaId);
+            TDigest combinado = combinar(digests);
+            if (categoria != null && combinado.size() > 0) {
+                estadisticas.add(new EstadisticaMontosDTO(
+                        categoriaId,
+                        categoria.getNombre(),
+                        combinado.size(),
+                        combinado.getMin(),
+                        combinado.getMax(),
+                        combinado.quantile(0.50),
+                        combinado.quantile(0.90),
+                        combinado.quantile(0.99)
+                ));
+            }
+        });
+        estadisticas.sort(Comparator.comparing(EstadisticaMontosDTO::getCategoriaNombre));
+        return estadisticas;
+    }
+
+    /**
+     * Devuelve el sketch del mes sin categorías obsoletas, construyéndolo o reconstruyendo
+     * las categorías obsoletas desde las transacciones del mes (una consulta por mes)
+     */
+    private SketchMontos actualizado(String userId, YearMonth mes, SketchMontos sketch) {
+        if (sketch != null && sketch.getObsoletas().isEmpty()) {
+            return sketch;
+        }
+        // Un sketch incompleto se reconstruye entero, pero se guarda con su version
+        boolean completo = sketch == null || sketch.isIncompleto();
+        SketchMontos resultado = sketch == null ? new SketchMontos(userId, mes.toString()) : sketch;
+        Set<String> reconstruir = completo ? null : new HashSet<>(sketch.getObsoletas());
+
+        Map<String, TDigest> digests = new HashMap<>();
+        List<Transaccion> gastos = transaccionRepository.findMontosGasto(
+                userId, mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay());
+        for (Transaccion gasto : gastos) {
+            if (reconstruir == null || reconstruir.contains(gasto.getCategoriaId())) {
+                digests.computeIfAbsent(gasto.getCategoriaId(), id -> nuevoDigest()).add(gasto.getMonto());
+            }
+        }
+
+        if (reconstruir != null) {
+            reconstruir.forEach(resultado.getDigests()::remove);
+        } else {
+            resultado.getDigests().clear();
+            resultado.setIncompleto(false);
+        }
+        resultado.getObsoletas().clear();
+        digests.forEach((categoriaId, digest) -> resultado.getDigests().put(categoriaId, escribir(digest)));
+
+        try {
+            sketchRepository.save(resultado);
+        } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+            // Otra escritura cambió el mes mientras se reconstruía: se usa el resultado
+            // en esta respuesta y la siguiente lectura vuelve a reconstruir si hace falta
+            log.debug("Sketch {} modificado durante la reconstrucción", resultado.getId());
+        }
+        return resultado;
+    }
+
+    static TDigest combinar(List<TDigest> digests) {
+        if (digests.size() == 1) {
+            return digests.get(0);
+        }
+        TDigest combinado = nuevoDigest();
+        combinado.add(digests);
+        return combinado;
+    }
+
+    static TDigest nuevoDigest() {
+        return new MergingDigest(COMPRESION);
+    }
+
+    static TDigest leer(byte[] bytes) {
+        return bytes == null ? nuevoDigest() : MergingDigest.fromBytes(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Serializa con el formato de doubles: el compacto guarda floats y pierde los
+     * céntimos en montos grandes (mínimo y máximo dejan de ser exactos)
+     */
+    static byte[] escribir(TDigest digest) {
+        ByteBuffer buffer = ByteBuffer.allocate(digest.byteSize());
+        digest.asBytes(buffer);
+        return buffer.array();
+    }
+
+    private static SketchMontos marca(Transaccion transaccion) {
+        SketchMontos marca = new SketchMontos(transaccion.getUserId(), periodo(transaccion));
+        marca.getObsoletas().add(transaccion.getCategoriaId());
+        return marca;
+    }
+
+    private static String idSketch(Transaccion transaccion) {
+        return transaccion.getUserId() + ":" + periodo(transaccion);
+    }
+
+    private static String periodo(Transaccion transaccion) {
+        return YearMonth.from(transaccion.getFecha()).toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.controlgastos.service;
+
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.export.CsvWriter;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Servicio para exportar transacciones a CSV
+ * Las filas se escriben a medida que se leen del cursor de MongoDB, por lo que
+ * la memoria usada no depende del número de transacciones exportadas
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportacionService {
+    
+    private static final int TAMANIO_BUFFER = 64 * 1024;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] CABECERA = {"id", "fecha", "tipo", "categoria", "descripcion", "monto"};
+    
+    private final TransaccionRepository transaccionRepository;
+    private final UserRepository userRepository;
+    
+    /**
+     * Valida los parámetros de la exportación antes de empezar a escribir la respuesta
+     * @param userId ID del usuario
+     * @param fechaInicio fecha de inicio
+     * @param fechaFin fecha de fin
+     * @param separador separador de campos (',' o ';')
+     */
+    public void validarExportacion(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin, char separador) {
+        if (!fechaInicio.isBefore(fechaFin)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+        if (separador != ',' && separador != ';') {
+            throw new IllegalArgumentException("Separador no soportado: " + separador);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+    }
+    
+    /**
+     * Escribe en formato CSV las transacciones de un usuario en un rango de fechas
+     * @param userId ID del usuario
+     * @param fechaInicio fecha de inicio
+     * @param fechaFin fecha de fin
+     * @param separador separador de campos
+     * @param salida flujo de salida (no se cierra)
+     * @return número de transacciones exportadas
+     */
+    public long exportarCsv(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                            char separador, OutputStream salida) throws IOException {
+        
+        try (Stream<Transaccion> transacciones = transaccionRepository
+                .findByUserIdAndFechaBetweenOrderByFechaAsc(userId, fechaInicio, fechaFin)) {
+            return escribir(transacciones, separador, salida);
+        }
+    }
+    
+    /**
+     * Escribe las transacciones recibidas con cabecera y BOM UTF-8 para Excel
+     */
+    long escribir(Stream<Transaccion> transacciones, char separador, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+        CsvWriter csv = new CsvWriter(writer, separador);
+        csv.escribirBom();
+        csv.escribirFila(CABECERA);
+        
+        long filas = 0;
+        Iterator<Transaccion> iterador = transacciones.iterator();
+        while (iterador.hasNext()) {
+            escribirFila(csv, iterador.next());
+            filas++;
+        }
+        csv.flush();
+        return filas;
+    }
+    
+    private void escribirFila(CsvWriter csv, Transaccion transaccion) throws IOException {
+        csv.literal(transaccion.getId());
+        csv.literal(transaccion.getFecha() != null ? FORMATO_FECHA.format(transaccion.getFecha()) : null);
+        csv.literal(transaccion.getTipoTransaccion() != null ? transaccion.getTipoTransaccion().name() : null);
+        csv.texto(transaccion.getCategoriaNombre());
+        csv.texto(transaccion.getDescripcion());
+        csv.literal(transaccion.getMonto() != null ? BigDecimal.valueOf(transaccion.getMonto()).toPlainString() : null);
+        csv.finFila();
+    }
+}
@@ -0,0 +1,284 @@
+package com.controlgastos.service;
+
+import com.controlgastos.cache.ColumnarCache;
+import com.controlgastos.cache.UserScopedCache;
+import com.controlgastos.event.TransaccionCambiadaEvent;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.TransaccionRecurrente;
+import com.controlgastos.model.User;
+import com.controlgastos.repository.CategoriaRepository;
+import com.mongodb.MongoBulkWriteException;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Generador de las ocurrencias vencidas de las transacciones recurrentes
+ *
+ * Recorre las reglas con proximaFecha vencida en páginas ordenadas por _id y,
+ * por cada página, hace:
+ * 1. Una lectura de las categorías de la página (nombre actual y propietario)
+ * 2. Un insert masivo no ordenado de las transacciones generadas
+ * 3. Un bulkWrite con un $addToSet por usuario para sus transaccionesIds
+ * 4. Un bulkWrite que avanza cada regla, condicionado a su contador anterior
+ * 5. Un bulkWrite que marca como obsoletos los sketches de percentiles afectados
+ *
+ * Antes de insertar reserva un bloque de secuencias de sincronización por usuario.
+ *
+ * Es idempotente: el ID de cada ocurrencia se deriva de la regla y del número de
+ * ocurrencia, así que repetir una ejecución interrumpida entre los pasos 2 y 4
+ * vuelve a generar los mismos IDs; los duplicados se ignoran y $addToSet no repite
+ * referencias.
+ */
+@Service
+public class GeneradorRecurrentes {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorRecurrentes.class);
+
+    /** Ocurrencias de una regla por ejecución (un año de una regla diaria); el resto queda para la siguiente */
+    static final int MAX_OCURRENCIAS_POR_REGLA = 400;
+    private static final int CODIGO_CLAVE_DUPLICADA = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final CategoriaRepository categoriaRepository;
+    private final UserScopedCache userCache;
+    private final ColumnarCache columnarCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EstadisticasMontosService estadisticasService;
+    private final SyncService syncService;
+    private final boolean habilitado;
+    private final int tamanioPagina;
+
+    public GeneradorRecurrentes(MongoTemplate mongoTemplate,
+                                CategoriaRepository categoriaRepository,
+                                UserScopedCache userCache,
+                                ColumnarCache columnarCache,
+                                ApplicationEventPublisher eventPublisher,
+                                EstadisticasMontosService estadisticasService,
+                                SyncService syncService,
+                                @Value("${recurrentes.generador.enabled:true}") boolean habilitado,
+                                @Value("${recurrentes.generador.tamanio-pagina:1000}") int tamanioPagina) {
+        this.mongoTemplate = mongoTemplate;
+        this.categoriaRepository = categoriaRepository;
+        this.userCache = userCache;
+        this.columnarCache = columnarCache;
+        this.eventPublisher = eventPublisher;
+        this.estadisticasService = estadisticasService;
+        this.syncService = syncService;
+        this.habilitado = habilitado;
+        this.tamanioPagina = tamanioPagina;
+    }
+
+    /**
+     * Ejecución programada: genera las ocurrencias vencidas hasta ahora
+     */
+    @Scheduled(cron = "${recurrentes.generador.cron:0 */15 * * * *}")
+    public void generarPendientes() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            generarHasta(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            // La siguiente ejecución retoma desde el estado guardado de cada regla
+            log.error("Error generando transacciones recurrentes: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Genera las ocurrencias con fecha anterior o igual a la indicada
+     * @param hasta fecha límite (inclusive)
+     * @return reglas procesadas y transacciones insertadas
+     */
+    public Resultado generarHasta(LocalDateTime hasta) {
+        long inicio = System.nanoTime();
+        int reglas = 0;
+        long insertadas = 0;
+        String ultimoId = null;
+
+        while (true) {
+            Query query = new Query(Criteria.where("proximaFecha").lte(hasta))
+                    .with(Sort.by(Sort.Direction.ASC, "id"))
+                    .limit(tamanioPagina);
+            if (ultimoId != null) {
+                query.addCriteria(Criteria.where("id").gt(ultimoId));
+            }
+            List<TransaccionRecurrente> pagina = mongoTemplate.find(query, TransaccionRecurrente.class);
+            if (pagina.isEmpty()) {
+                break;
+            }
+            insertadas += procesarPagina(pagina, hasta);
+            reglas += pagina.size();
+            ultimoId = pagina.get(pagina.size() - 1).getId();
+            if (pagina.size() < tamanioPagina) {
+                break;
+            }
+        }
+
+        if (reglas > 0) {
+            log.info("Transacciones recurrentes: {} reglas, {} transacciones insertadas en {} ms",
+                    reglas, insertadas, (System.nanoTime() - inicio) / 1_000_000);
+        }
+        return new Resultado(reglas, insertadas);
+    }
+
+    private long procesarPagina(List<TransaccionRecurrente> pagina, LocalDateTime hasta) {
+        Set<String> categoriaIds = pagina.stream()
+                .map(TransaccionRecurrente::getCategoriaId)
+                .collect(Collectors.toSet());
+        Map<String, Categoria> categorias = categoriaRepository.findAllById(categoriaIds).stream()
+                .collect(Collectors.toMap(Categoria::getId, Function.identity()));
+
+        List<Transaccion> transacciones = new ArrayList<>();
+        Map<String, List<String>> idsPorUsuario = new LinkedHashMap<>();
+        BulkOperations avances = mongoTemplate.bulkOps(BulkMode.UNORDERED, TransaccionRecurrente.class);
+
+        for (TransaccionRecurrente regla : pagina) {
+            Categoria categoria = categorias.get(regla.getCategoriaId());
+            long n = regla.getOcurrenciasGeneradas();
+            LocalDateTime fecha = regla.getProximaFecha();
+
+            if (categoria == null || !categoria.getUserId().equals(regla.getUserId())) {
+                // La categoría ya no existe: la regla termina
+                log.warn("Regla recurrente {} finalizada: la categoría {} no existe", regla.getId(), regla.getCategoriaId());
+                fecha = null;
+            }
+
+            int generadas = 0;
+            while (fecha != null && !fecha.isAfter(hasta) && generadas < MAX_OCURRENCIAS_POR_REGLA) {
+                Transaccion transaccion = new Transaccion(
+                        regla.getTipoTransaccion(),
+                        regla.getCategoriaId(),
+                        categoria.getNombre(),
+                        regla.getDescripcion(),
+                        fecha,
+                        regla.getMonto(),
+                        regla.getUserId()
+                );
+                transaccion.setId(idOcurrencia(regla.getId(), n, fecha));
+                transacciones.add(transaccion);
+                idsPorUsuario.computeIfAbsent(regla.getUserId(), id -> new ArrayList<>()).add(transaccion.getId());
+
+                n++;
+                generadas++;
+                fecha = siguienteFecha(regla, n);
+            }
+
+            // Condicionado al contador leído: una ejecución concurrente no retrocede la regla
+            avances.updateOne(
+                    Query.query(Criteria.where("id").is(regla.getId())
+                            .and("ocurrenciasGeneradas").is(regla.getOcurrenciasGeneradas())),
+                    new Update().set("ocurrenciasGeneradas", n).set("proximaFecha", fecha));
+        }
+
+        syncService.sellar(transacciones);
+        long insertadas = insertarIgnorandoDuplicados(transacciones);
+
+        if (!idsPorUsuario.isEmpty()) {
+            BulkOperations usuarios = mongoTemplate.bulkOps(BulkMode.UNORDERED, User.class);
+            idsPorUsuario.forEach((userId, ids) -> usuarios.updateOne(
+                    Query.query(Criteria.where("id").is(userId)),
+                    new Update().addToSet("transaccionesIds").each(ids.toArray())));
+            usuarios.execute();
+        }
+
+        avances.execute();
+        estadisticasService.invalidar(transacciones);
+
+        idsPorUsuario.keySet().forEach(userId -> {
+            userCache.invalidar(userId);
+            columnarCache.invalidar(userId);
+            eventPublisher.publishEvent(new TransaccionCambiadaEvent(userId));
+        });
+        return insertadas;
+    }
+
+    /**
+     * Inserta en un solo bulkWrite no ordenado; las ocurrencias que ya existían
+     * (ejecución repetida) fallan por clave duplicada y se ignoran
+     * @return número de transacciones nuevas
+     */
+    private long insertarIgnorandoDuplicados(List<Transaccion> transacciones) {
+        if (transacciones.isEmpty()) {
+            return 0;
+        }
+        try {
+            return mongoTemplate.bulkOps(BulkMode.UNORDERED, Transaccion.class)
+                    .insert(transacciones)
+                    .execute()
+                    .getInsertedCount();
+        } catch (BulkOperationException e) {
+            boolean soloDuplicados = e.getErrors().stream()
+                    .allMatch(error -> error.getCode() == CODIGO_CLAVE_DUPLICADA);
+            boolean errorDeWriteConcern = e.getCause() instanceof MongoBulkWriteException causa
+                    && causa.getWriteConcernError() != null;
+            if (!soloDuplicados || errorDeWriteConcern) {
+                throw e;
+            }
+            log.info("{} ocurrencias ya existían (ejecución repetida)", e.getErrors().size());
+            return e.getResult().getInsertedCount();
+        }
+    }
+
+    /**
+     * Fecha de la ocurrencia n de la regla, o null si pasa de su fecha de fin
+     */
+    static LocalDateTime siguienteFecha(TransaccionRecurrente regla, long n) {
+        LocalDateTime fecha = regla.getFrecuencia().ocurrencia(regla.getFechaInicio(), n);
+        return regla.getFechaFin() != null && fecha.isAfter(regla.getFechaFin()) ? null : fecha;
+    }
+
+    /**
+     * ID determinista de una ocurrencia: un ObjectId con la fecha de la ocurrencia
+     * como marca de tiempo (UTC, así no depende de la zona del servidor) y los 8
+     * bytes restantes del SHA-256 de "reglaId:n"
+     */
+    static String idOcurrencia(String reglaId, long n, LocalDateTime fecha) {
+        long segundos = Math.max(0, Math.min(fecha.toEpochSecond(ZoneOffset.UTC), 0xFFFFFFFFL));
+        byte[] hash = sha256().digest((reglaId + ":" + n).getBytes(StandardCharsets.UTF_8));
+        ByteBuffer bytes = ByteBuffer.allocate(12)
+                .putInt((int) segundos)
+                .put(hash, 0, 8);
+        return new ObjectId(bytes.array()).toHexString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Resultado de una ejecución del generador
+     */
+    public record Resultado(int reglas, long transacciones) {
+    }
+}
@@ -0,0 +1,522 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.event.AlertaPresupuestoEvent;
+import com.controlgastos.model.AlertaPresupuesto;
+import com.controlgastos.model.CheckpointStream;
+import com.controlgastos.model.Presupuesto;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.repository.AlertaPresupuestoRepository;
+import com.controlgastos.repository.CheckpointStreamRepository;
+import com.controlgastos.repository.PresupuestoRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.OperationType;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monitor de presupuestos alimentado por el change stream de "transacciones"
+ *
+ * Mantiene en memoria el gasto acumulado del mes de cada presupuesto y lo
+ * actualiza con cada inserción, modificación o eliminación de transacciones,
+ * sin consultar la base de datos por usuario. Solo cuando un gasto cruza un
+ * umbral se persiste una alerta (una por umbral y mes).
+ *
+ * El resume token se guarda periódicamente junto con los totales, de modo que
+ * tras un reinicio el stream se reanuda donde quedó. Si no hay checkpoint
+ * válido, los totales se reconstruyen con una agregación del mes actual.
+ *
+ * Requiere que MongoDB sea un replica set (Atlas lo es; en local basta un
+ * replica set de un solo nodo). Para las modificaciones y eliminaciones usa
+ * las pre- y post-imágenes de la colección (MongoDB 6.0+); si no están
+ * disponibles recalcula los totales con una agregación.
+ */
+@Service
+public class MonitorPresupuestos implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorPresupuestos.class);
+
+    private static final String COLECCION = "transacciones";
+    private static final int CODIGO_HISTORIA_PERDIDA = 286;
+    private static final int CODIGO_ERROR_FATAL_STREAM = 280;
+    private static final int CODIGO_SIN_REPLICA_SET = 40573;
+    private static final long ESPERA_MAXIMA_MS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final PresupuestoRepository presupuestoRepository;
+    private final AlertaPresupuestoRepository alertaRepository;
+    private final CheckpointStreamRepository checkpointRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean habilitado;
+    private final String checkpointId;
+    private final long intervaloCheckpointMs;
+
+    // Estado de cada presupuesto indexado por ID de categoría (un presupuesto por categoría)
+    private final Map<String, EstadoPresupuesto> estados = new ConcurrentHashMap<>();
+
+    private volatile boolean ejecutando;
+    private volatile boolean resincronizar;
+    private volatile BsonDocument resumeToken;
+    private Thread hilo;
+
+    public MonitorPresupuestos(MongoTemplate mongoTemplate,
+                               PresupuestoRepository presupuestoRepository,
+                               AlertaPresupuestoRepository alertaRepository,
+                               CheckpointStreamRepository checkpointRepository,
+                               TransaccionRepository transaccionRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${presupuestos.monitor.enabled:true}") boolean habilitado,
+                               @Value("${presupuestos.monitor.checkpoint-id:monitor-presupuestos}") String checkpointId,
+                               @Value("${presupuestos.monitor.checkpoint-intervalo-ms:5000}") long intervaloCheckpointMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.presupuestoRepository = presupuestoRepository;
+        this.alertaRepository = alertaRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transaccionRepository = transaccionRepository;
+        this.eventPublisher = eventPublisher;
+        this.habilitado = habilitado;
+        this.checkpointId = checkpointId;
+        this.intervaloCheckpointMs = intervaloCheckpointMs;
+    }
+
+    // ==========================================
+    // CICLO DE VIDA
+    // ==========================================
+
+    @Override
+    public void start() {
+        if (!habilitado || ejecutando) {
+            return;
+        }
+        ejecutando = true;
+        hilo = new Thread(this::ejecutar, "monitor-presupuestos");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    @Override
+    public void stop() {
+        ejecutando = false;
+        if (hilo != null) {
+            try {
+                hilo.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return ejecutando;
+    }
+
+    /**
+     * Indica si el monitor mantiene los totales en memoria
+     */
+    public boolean isActivo() {
+        return ejecutando;
+    }
+
+    // ==========================================
+    // API PARA EL SERVICIO DE PRESUPUESTOS
+    // ==========================================
+
+    /**
+     * Empieza a seguir un presupuesto recién creado, partiendo del gasto actual del mes
+     * Los eventos que lleguen mientras se calcula el total inicial pueden contarse dos veces
+     */
+    public void registrar(Presupuesto presupuesto) {
+        if (!ejecutando) {
+            return;
+        }
+        YearMonth mes = mesActual();
+        double gastado = sumarGastos(List.of(presupuesto), mes).getOrDefault(presupuesto.getCategoriaId(), 0.0);
+        EstadoPresupuesto estado = new EstadoPresupuesto(presupuesto, mes, gastado);
+        estados.put(presupuesto.getCategoriaId(), estado);
+        emitirAlertas(estado, estado.umbralesSuperados(), mes);
+    }
+
+    /**
+     * Deja de seguir un presupuesto eliminado
+     */
+    public void quitar(Presupuesto presupuesto) {
+        estados.remove(presupuesto.getCategoriaId());
+    }
+
+    /**
+     * Gasto acumulado del mes actual según los totales en memoria
+     * @return vacío si el monitor no sigue el presupuesto
+     */
+    public Optional<Double> gastadoDelMes(Presupuesto presupuesto) {
+        EstadoPresupuesto estado = estados.get(presupuesto.getCategoriaId());
+        if (!ejecutando || estado == null || !estado.presupuestoId.equals(presupuesto.getId())) {
+            return Optional.empty();
+        }
+        return Optional.of(estado.gastado(mesActual()));
+    }
+
+    // ==========================================
+    // CONSUMO DEL CHANGE STREAM
+    // ==========================================
+
+    private void ejecutar() {
+        long espera = 1000;
+        try {
+            habilitarPreImagenes();
+            inicializar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo inicializar el monitor de presupuestos: {}", e.getMessage());
+        }
+
+        while (ejecutando) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = abrirCursor()) {
+                espera = 1000;
+                long ultimoCheckpoint = System.currentTimeMillis();
+                while (ejecutando) {
+                    ChangeStreamDocument<Document> cambio = cursor.tryNext();
+                    if (cambio != null) {
+                        procesarCambio(cambio.getOperationType(),
+                                cambio.getFullDocumentBeforeChange(), cambio.getFullDocument());
+                    }
+                    if (cursor.getResumeToken() != null) {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                    if (resincronizar) {
+                        resincronizar = false;
+                        recalcularTodos();
+                    }
+                    if (System.currentTimeMillis() - ultimoCheckpoint >= intervaloCheckpointMs) {
+                        guardarCheckpoint();
+                        ultimoCheckpoint = System.currentTimeMillis();
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CODIGO_SIN_REPLICA_SET) {
+                    log.warn("MongoDB no es un replica set; el monitor de presupuestos queda deshabilitado");
+                    ejecutando = false;
+                } else if (e.getErrorCode() == CODIGO_HISTORIA_PERDIDA
+                        || e.getErrorCode() == CODIGO_ERROR_FATAL_STREAM) {
+                    log.warn("No se puede reanudar el change stream ({}); se recalculan los totales", e.getErrorCode());
+                    resumeToken = null;
+                    recalcularSeguro();
+                } else {
+                    espera = esperarReintento(e, espera);
+                }
+            } catch (RuntimeException e) {
+                espera = esperarReintento(e, espera);
+            }
+        }
+
+        try {
+            guardarCheckpoint();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo guardar el checkpoint del monitor de presupuestos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Abre el change stream con las imágenes guardadas de cada evento: UPDATE_LOOKUP leería
+     * el documento en el momento de la consulta, y al reproducir dos modificaciones seguidas
+     * la primera ya vería el resultado de la segunda
+     */
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> abrirCursor() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(COLECCION)
+                .watch(List.of(Aggregates.match(Filters.in("operationType",
+                        List.of("insert", "update", "replace", "delete")))))
+                .fullDocument(FullDocument.WHEN_AVAILABLE)
+                .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    private long esperarReintento(RuntimeException e, long espera) {
+        log.warn("Error en el change stream de presupuestos, reintentando en {} ms: {}", espera, e.getMessage());
+        try {
+            Thread.sleep(espera);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            ejecutando = false;
+        }
+        return Math.min(espera * 2, ESPERA_MAXIMA_MS);
+    }
+
+    /**
+     * Habilita las pre- y post-imágenes de la colección para conocer el documento antes
+     * y después de cada modificación o eliminación (MongoDB 6.0+)
+     */
+    private void habilitarPreImagenes() {
+        try {
+            mongoTemplate.getDb().runCommand(new Document("collMod", COLECCION)
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (RuntimeException e) {
+            log.info("Pre-imágenes no disponibles para {}; se recalculará ante modificaciones: {}",
+                    COLECCION, e.getMessage());
+        }
+    }
+
+    /**
+     * Carga los presupuestos y reanuda desde el checkpoint si sus totales siguen siendo válidos
+     */
+    private void inicializar() {
+        YearMonth mes = mesActual();
+        List<Presupuesto> presupuestos = presupuestoRepository.findAll();
+        Optional<CheckpointStream> checkpoint = checkpointRepository.findById(checkpointId);
+
+        boolean reanudable = checkpoint.isPresent()
+                && checkpoint.get().getResumeToken() != null
+                && mes.toString().equals(checkpoint.get().getPeriodo())
+                && presupuestos.stream().allMatch(p -> checkpoint.get().getTotales().containsKey(p.getId()));
+
+        estados.clear();
+        if (reanudable) {
+            Map<String, Double> totales = checkpoint.get().getTotales();
+            for (Presupuesto presupuesto : presupuestos) {
+                estados.put(presupuesto.getCategoriaId(),
+                        new EstadoPresupuesto(presupuesto, mes, totales.get(presupuesto.getId())));
+            }
+            resumeToken = BsonDocument.parse(checkpoint.get().getResumeToken());
+            log.info("Monitor de presupuestos reanudado desde checkpoint ({} presupuestos)", presupuestos.size());
+        } else {
+            for (Presupuesto presupuesto : presupuestos) {
+                estados.put(presupuesto.getCategoriaId(), new EstadoPresupuesto(presupuesto, mes, 0.0));
+            }
+            resumeToken = null;
+            recalcularTodos();
+            log.info("Monitor de presupuestos inicializado con agregación ({} presupuestos)", presupuestos.size());
+        }
+    }
+
+    /**
+     * Aplica un evento del change stream a los totales en memoria
+     * @param operacion tipo de operación
+     * @param antes documento antes del cambio (null si no hay pre-imagen)
+     * @param despues documento después del cambio (null en eliminaciones o si no hay post-imagen)
+     */
+    void procesarCambio(OperationType operacion, Document antes, Document despues) {
+        switch (operacion) {
+            case INSERT -> aplicar(despues, 1);
+            case UPDATE, REPLACE -> {
+                if (antes == null || despues == null) {
+                    resincronizar = true;
+                } else {
+                    aplicar(antes, -1);
+                    aplicar(despues, 1);
+                }
+            }
+            case DELETE -> {
+                if (antes == null) {
+                    resincronizar = true;
+                } else {
+                    aplicar(antes, -1);
+                }
+            }
+            default -> {
+                // Otros eventos (drop, invalidate...) no afectan a los totales
+            }
+        }
+    }
+
+    private void aplicar(Document transaccion, int signo) {
+        if (transaccion == null
+                || !TipoTransaccion.GASTO.name().equals(transaccion.getString("tipoTransaccion"))) {
+            return;
+        }
+        EstadoPresupuesto estado = estados.get(transaccion.getString("categoriaId"));
+        Date fecha = transaccion.getDate("fecha");
+        Number monto = transaccion.get("monto", Number.class);
+        if (estado == null || fecha == null || monto == null) {
+            return;
+        }
+
+        YearMonth mes = mesActual();
+        YearMonth mesTransaccion = YearMonth.from(fecha.toInstant().atZone(ZoneId.systemDefault()));
+        List<Integer> superados = estado.aplicar(mesTransaccion, mes, signo * monto.doubleValue());
+        emitirAlertas(estado, superados, mes);
+    }
+
+    private void recalcularSeguro() {
+        try {
+            recalcularTodos();
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron recalcular los totales de presupuestos: {}", e.getMessage());
+            resincronizar = true;
+        }
+    }
+
+    /**
+     * Recalcula con una agregación el gasto del mes de todos los presupuestos seguidos
+     * Emite las alertas de umbrales superados mientras el monitor no estaba activo
+     */
+    private void recalcularTodos() {
+        YearMonth mes = mesActual();
+        List<Presupuesto> presupuestos = estados.values().stream()
+                .map(EstadoPresupuesto::presupuesto)
+                .toList();
+        Map<String, Double> totales = sumarGastos(presupuestos, mes);
+        for (EstadoPresupuesto estado : estados.values()) {
+            estado.reiniciar(mes, totales.getOrDefault(estado.categoriaId, 0.0));
+            emitirAlertas(estado, estado.umbralesSuperados(), mes);
+        }
+    }
+
+    private Map<String, Double> sumarGastos(Collection<Presupuesto> presupuestos, YearMonth mes) {
+        Map<String, Double> totales = new HashMap<>();
+        if (presupuestos.isEmpty()) {
+            return totales;
+        }
+        Set<String> userIds = new HashSet<>();
+        Set<String> categoriaIds = new HashSet<>();
+        for (Presupuesto presupuesto : presupuestos) {
+            userIds.add(presupuesto.getUserId());
+            categoriaIds.add(presupuesto.getCategoriaId());
+        }
+        List<ResumenCategoriaDTO> resumen = transaccionRepository.sumarGastosPorCategorias(
+                userIds, categoriaIds, mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay());
+        for (ResumenCategoriaDTO fila : resumen) {
+            totales.put(fila.getCategoriaId(), fila.getTotal());
+        }
+        return totales;
+    }
+
+    private void emitirAlertas(EstadoPresupuesto estado, List<Integer> umbrales, YearMonth mes) {
+        for (Integer umbral : umbrales) {
+            AlertaPresupuesto alerta = new AlertaPresupuesto(
+                    estado.presupuestoId, estado.userId, estado.categoriaId, mes.toString(),
+                    umbral, estado.gastado(mes), estado.limite, LocalDateTime.now());
+            try {
+                AlertaPresupuesto guardada = alertaRepository.insert(alerta);
+                log.info("Presupuesto {} superó el {}% del límite ({} de {})",
+                        estado.presupuestoId, umbral, alerta.getGastado(), estado.limite);
+                eventPublisher.publishEvent(new AlertaPresupuestoEvent(guardada));
+            } catch (DuplicateKeyException e) {
+                // La alerta de este umbral y mes ya fue emitida
+            }
+        }
+    }
+
+    private void guardarCheckpoint() {
+        if (resumeToken == null) {
+            return;
+        }
+        YearMonth mes = mesActual();
+        Map<String, Double> totales = new HashMap<>();
+        for (EstadoPresupuesto estado : estados.values()) {
+            totales.put(estado.presupuestoId, estado.gastado(mes));
+        }
+        checkpointRepository.save(new CheckpointStream(
+                checkpointId, resumeToken.toJson(), mes.toString(), totales, LocalDateTime.now()));
+    }
+
+    private YearMonth mesActual() {
+        return YearMonth.now(ZoneId.systemDefault());
+    }
+
+    /**
+     * Gasto acumulado de un presupuesto en el mes en curso
+     * Se modifica desde el hilo del stream y se lee desde las peticiones HTTP
+     */
+    static final class EstadoPresupuesto {
+
+        private final Presupuesto presupuesto;
+        private final String presupuestoId;
+        private final String userId;
+        private final String categoriaId;
+        private final double limite;
+        private final List<Integer> umbrales;
+        private YearMonth periodo;
+        private double gastado;
+
+        EstadoPresupuesto(Presupuesto presupuesto, YearMonth periodo, double gastado) {
+            this.presupuesto = presupuesto;
+            this.presupuestoId = presupuesto.getId();
+            this.userId = presupuesto.getUserId();
+            this.categoriaId = presupuesto.getCategoriaId();
+            this.limite = presupuesto.getLimite();
+            this.umbrales = presupuesto.getUmbrales() != null
+                    ? presupuesto.getUmbrales().stream().sorted().toList()
+                    : List.of();
+            this.periodo = periodo;
+            this.gastado = gastado;
+        }
+
+        Presupuesto presupuesto() {
+            return presupuesto;
+        }
+
+        /**
+         * Suma un gasto del mes indicado y devuelve los umbrales cruzados hacia arriba
+         */
+        synchronized List<Integer> aplicar(YearMonth mesTransaccion, YearMonth mesActual, double delta) {
+            if (!mesTransaccion.equals(mesActual)) {
+                return List.of();
+            }
+            if (!periodo.equals(mesActual)) {
+                periodo = mesActual;
+                gastado = 0.0;
+            }
+            double anterior = gastado;
+            gastado += delta;
+
+            List<Integer> cruzados = new ArrayList<>();
+            if (delta > 0) {
+                for (Integer umbral : umbrales) {
+                    double valor = limite * umbral / 100.0;
+                    if (anterior < valor && gastado >= valor) {
+                        cruzados.add(umbral);
+                    }
+                }
+            }
+            return cruzados;
+        }
+
+        synchronized void reiniciar(YearMonth mes, double total) {
+            periodo = mes;
+            gastado = total;
+        }
+
+        synchronized double gastado(YearMonth mesActual) {
+            return periodo.equals(mesActual) ? gastado : 0.0;
+        }
+
+        synchronized List<Integer> umbralesSuperados() {
+            return umbrales.stream()
+                    .filter(umbral -> gastado >= limite * umbral / 100.0)
+                    .toList();
+        }
+    }
+}
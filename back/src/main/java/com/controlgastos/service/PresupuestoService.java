@@ -0,0 +1,166 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.AlertaPresupuestoDTO;
+import com.controlgastos.dto.PresupuestoRequestDTO;
+import com.controlgastos.dto.PresupuestoResponseDTO;
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.exception.DuplicateResourceException;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.AlertaPresupuesto;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Presupuesto;
+import com.controlgastos.repository.AlertaPresupuestoRepository;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.PresupuestoRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para la gestión de presupuestos mensuales por categoría
+ * El gasto del mes se toma del monitor de presupuestos cuando está activo
+ */
+@Service
+@RequiredArgsConstructor
+public class PresupuestoService {
+    
+    private static final List<Integer> UMBRALES_POR_DEFECTO = List.of(80, 100);
+    
+    private final PresupuestoRepository presupuestoRepository;
+    private final AlertaPresupuestoRepository alertaRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final UserRepository userRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final MonitorPresupuestos monitor;
+    
+    /**
+     * Crea un presupuesto para una categoría del usuario
+     * @param userId ID del usuario
+     * @param requestDTO datos del presupuesto
+     * @return presupuesto creado
+     */
+    public PresupuestoResponseDTO crearPresupuesto(String userId, PresupuestoRequestDTO requestDTO) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        
+        Categoria categoria = categoriaRepository.findById(requestDTO.getCategoriaId())
+                .orElseThrow(() -> new ResourceNotFoundException("Categoría", "id", requestDTO.getCategoriaId()));
+        
+        if (!categoria.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("La categoría no pertenece al usuario");
+        }
+        
+        List<Integer> umbrales = requestDTO.getUmbrales() == null || requestDTO.getUmbrales().isEmpty()
+                ? UMBRALES_POR_DEFECTO
+                : requestDTO.getUmbrales().stream().distinct().sorted().collect(Collectors.toList());
+        
+        // El índice único de categoriaId rechaza el segundo presupuesto, también entre peticiones concurrentes
+        Presupuesto presupuesto;
+        try {
+            presupuesto = presupuestoRepository.insert(
+                    new Presupuesto(userId, categoria.getId(), requestDTO.getLimite(), umbrales));
+        } catch (DuplicateKeyException e) {
+            throw new DuplicateResourceException("Presupuesto", "categoriaId", categoria.getId());
+        }
+        monitor.registrar(presupuesto);
+        
+        return convertToDTO(presupuesto, gastadoDelMes(presupuesto));
+    }
+    
+    /**
+     * Obtiene los presupuestos de un usuario con el gasto del mes en curso
+     * @param userId ID del usuario
+     * @return lista de presupuestos
+     */
+    public List<PresupuestoResponseDTO> obtenerPresupuestosPorUsuario(String userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        
+        return presupuestoRepository.findByUserId(userId).stream()
+                .map(presupuesto -> convertToDTO(presupuesto, gastadoDelMes(presupuesto)))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Elimina un presupuesto y sus alertas
+     * @param id ID del presupuesto
+     */
+    public void eliminarPresupuesto(String id) {
+        Presupuesto presupuesto = presupuestoRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Presupuesto", "id", id));
+        
+        presupuestoRepository.delete(presupuesto);
+        monitor.quitar(presupuesto);
+        alertaRepository.deleteByPresupuestoId(id);
+    }
+    
+    /**
+     * Obtiene las alertas emitidas para los presupuestos de un usuario
+     * @param userId ID del usuario
+     * @return lista de alertas, de la más reciente a la más antigua
+     */
+    public List<AlertaPresupuestoDTO> obtenerAlertasPorUsuario(String userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        
+        return alertaRepository.findByUserIdOrderByFechaDesc(userId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Gasto del mes en curso; si el monitor no sigue el presupuesto se calcula con una agregación
+     */
+    private double gastadoDelMes(Presupuesto presupuesto) {
+        return monitor.gastadoDelMes(presupuesto).orElseGet(() -> {
+            YearMonth mes = YearMonth.now(ZoneId.systemDefault());
+            return transaccionRepository.sumarGastosPorCategorias(
+                            Set.of(presupuesto.getUserId()), Set.of(presupuesto.getCategoriaId()),
+                            mes.atDay(1).atStartOfDay(), mes.plusMonths(1).atDay(1).atStartOfDay())
+                    .stream()
+                    .mapToDouble(ResumenCategoriaDTO::getTotal)
+                    .sum();
+        });
+    }
+    
+    /**
+     * Convierte una entidad Presupuesto a PresupuestoResponseDTO
+     */
+    private PresupuestoResponseDTO convertToDTO(Presupuesto presupuesto, double gastado) {
+        return new PresupuestoResponseDTO(
+                presupuesto.getId(),
+                presupuesto.getUserId(),
+                presupuesto.getCategoriaId(),
+                presupuesto.getLimite(),
+                presupuesto.getUmbrales(),
+                gastado,
+                gastado * 100.0 / presupuesto.getLimite()
+        );
+    }
+    
+    /**
+     * Convierte una entidad AlertaPresupuesto a AlertaPresupuestoDTO
+     */
+    private AlertaPresupuestoDTO convertToDTO(AlertaPresupuesto alerta) {
+        return new AlertaPresupuestoDTO(
+                alerta.getId(),
+                alerta.getPresupuestoId(),
+                alerta.getCategoriaId(),
+                alerta.getPeriodo(),
+                alerta.getUmbral(),
+                alerta.getGastado(),
+                alerta.getLimite(),
+                alerta.getFecha()
+        );
+    }
+}
@@ -0,0 +1,223 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.ResumenGastosDTO;
+import com.controlgastos.event.TransaccionCambiadaEvent;
+import com.controlgastos.exception.CapacidadExcedidaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio que envía por Server-Sent Events el resumen de un usuario cada vez que cambian sus transacciones
+ *
+ * Los cambios llegan como TransaccionCambiadaEvent publicados por TransaccionService.
+ * Cada usuario con conexiones abiertas tiene como máximo un envío pendiente: las
+ * ráfagas de escrituras se agrupan en un solo recálculo del resumen, que se envía
+ * a todas sus conexiones. Así el búfer por conexión está acotado a un resumen
+ * (el último) sin importar cuántas escrituras lleguen mientras el cliente es lento.
+ */
+@Service
+public class ResumenStreamService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenStreamService.class);
+
+    static final String EVENTO_RESUMEN = "resumen";
+
+    private final TransaccionService transaccionService;
+    private final int maxConexiones;
+    private final long timeoutMs;
+    private final ExecutorService executor;
+
+    private final Map<String, Suscriptores> suscripciones = new ConcurrentHashMap<>();
+    private final AtomicInteger conexiones = new AtomicInteger();
+
+    @Autowired
+    public ResumenStreamService(TransaccionService transaccionService,
+                                @Value("${resumen.stream.max-conexiones:1000}") int maxConexiones,
+                                @Value("${resumen.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${resumen.stream.hilos-envio:4}") int hilosEnvio) {
+        this(transaccionService, maxConexiones, timeoutMs, crearExecutor(hilosEnvio, maxConexiones));
+    }
+
+    ResumenStreamService(TransaccionService transaccionService, int maxConexiones,
+                         long timeoutMs, ExecutorService executor) {
+        this.transaccionService = transaccionService;
+        this.maxConexiones = maxConexiones;
+        this.timeoutMs = timeoutMs;
+        this.executor = executor;
+    }
+
+    private static ExecutorService crearExecutor(int hilos, int capacidad) {
+        AtomicInteger contador = new AtomicInteger();
+        return new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(capacidad, 1)),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "resumen-sse-" + contador.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    /**
+     * Abre una conexión SSE para el usuario y envía el resumen actual como primer evento
+     * @param userId ID del usuario
+     * @return emisor asociado a la petición
+     */
+    public SseEmitter suscribir(String userId) {
+        // Valida el usuario antes de reservar la conexión
+        ResumenGastosDTO inicial = transaccionService.calcularResumen(userId);
+
+        if (conexiones.incrementAndGet() > maxConexiones) {
+            conexiones.decrementAndGet();
+            throw new CapacidadExcedidaException(
+                    "Se alcanzó el máximo de " + maxConexiones + " conexiones de resumen en esta instancia", 5);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        suscripciones.compute(userId, (id, actual) -> {
+            Suscriptores suscriptores = actual != null ? actual : new Suscriptores();
+            suscriptores.emisores.add(emitter);
+            return suscriptores;
+        });
+
+        Runnable cerrar = () -> quitar(userId, emitter);
+        emitter.onCompletion(cerrar);
+        emitter.onTimeout(cerrar);
+        emitter.onError(error -> cerrar.run());
+
+        enviar(userId, emitter, inicial);
+        return emitter;
+    }
+
+    /**
+     * Programa el envío del resumen a las conexiones del usuario que cambió
+     * Si ya hay un envío pendiente para el usuario, este cambio queda incluido en él
+     */
+    @EventListener
+    public void onTransaccionCambiada(TransaccionCambiadaEvent event) {
+        Suscriptores suscriptores = suscripciones.get(event.userId());
+        if (suscriptores == null || !suscriptores.pendiente.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> difundir(event.userId(), suscriptores));
+        } catch (RejectedExecutionException e) {
+            // Sin capacidad de envío: el siguiente cambio volverá a intentarlo
+            suscriptores.pendiente.set(false);
+            log.warn("Envío de resumen descartado para el usuario {}: cola llena", event.userId());
+        }
+    }
+
+    /**
+     * Envía un comentario a todas las conexiones para mantenerlas abiertas en proxies
+     * y detectar clientes desconectados
+     * 
+     * Los envíos se hacen en los hilos de envío, no en el hilo compartido de @Scheduled:
+     * un cliente lento no retrasa las demás tareas programadas. Cada usuario tiene como
+     * máximo un heartbeat pendiente.
+     */
+    @Scheduled(fixedRateString = "${resumen.stream.heartbeat-ms:15000}")
+    public void enviarHeartbeats() {
+        suscripciones.forEach((userId, suscriptores) -> {
+            if (!suscriptores.latidoPendiente.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(() -> latir(userId, suscriptores));
+            } catch (RejectedExecutionException e) {
+                // Sin capacidad de envío: el siguiente heartbeat volverá a intentarlo
+                suscriptores.latidoPendiente.set(false);
+            }
+        });
+    }
+
+    /**
+     * Número de conexiones abiertas en esta instancia
+     */
+    public int getConexionesActivas() {
+        return conexiones.get();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        suscripciones.values().forEach(suscriptores -> suscriptores.emisores.forEach(SseEmitter::complete));
+    }
+
+    private void difundir(String userId, Suscriptores suscriptores) {
+        // Se libera antes de calcular para no perder cambios que lleguen durante el envío
+        suscriptores.pendiente.set(false);
+        List<SseEmitter> emisores = List.copyOf(suscriptores.emisores);
+        if (emisores.isEmpty()) {
+            return;
+        }
+
+        ResumenGastosDTO resumen;
+        try {
+            resumen = transaccionService.calcularResumen(userId);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo calcular el resumen del usuario {}: {}", userId, e.getMessage());
+            emisores.forEach(emitter -> emitter.completeWithError(e));
+            return;
+        }
+
+        for (SseEmitter emitter : emisores) {
+            enviar(userId, emitter, resumen);
+        }
+    }
+
+    private void latir(String userId, Suscriptores suscriptores) {
+        suscriptores.latidoPendiente.set(false);
+        for (SseEmitter emitter : suscriptores.emisores) {
+            try {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } catch (IOException | IllegalStateException e) {
+                quitar(userId, emitter);
+            }
+        }
+    }
+
+    private void enviar(String userId, SseEmitter emitter, ResumenGastosDTO resumen) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENTO_RESUMEN).data(resumen, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            quitar(userId, emitter);
+        }
+    }
+
+    private void quitar(String userId, SseEmitter emitter) {
+        Suscriptores suscriptores = suscripciones.get(userId);
+        if (suscriptores != null && suscriptores.emisores.remove(emitter)) {
+            conexiones.decrementAndGet();
+            suscripciones.computeIfPresent(userId, (id, actual) -> actual.emisores.isEmpty() ? null : actual);
+        }
+    }
+
+    /**
+     * Conexiones abiertas de un usuario y marcas de envío y heartbeat pendientes
+     */
+    private static final class Suscriptores {
+        private final List<SseEmitter> emisores = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean pendiente = new AtomicBoolean();
+        private final AtomicBoolean latidoPendiente = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,283 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.CategoriaResponseDTO;
+import com.controlgastos.dto.EliminacionDTO;
+import com.controlgastos.dto.SyncResponseDTO;
+import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.SecuenciaSync;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.EliminacionRepository;
+import com.controlgastos.repository.SecuenciaSyncRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de sincronización incremental para clientes sin conexión
+ *
+ * Cada escritura de una transacción o categoría toma la siguiente secuencia del
+ * usuario (secuencias_sync) y las eliminaciones dejan una marca en "eliminaciones".
+ * El cliente guarda la marca de la última respuesta y solo descarga lo que cambió
+ * después, con consultas sobre los índices (userId, secuencia).
+ *
+ * La secuencia se reserva antes de escribir el documento, así que dos escrituras
+ * concurrentes pueden hacerse visibles en distinto orden. La marca devuelta no pasa
+ * de los cambios con menos de sync.margen-ms de antigüedad: esos cambios se envían
+ * de nuevo en la siguiente sincronización (aplicarlos es idempotente) y ninguna
+ * escritura que tarde menos que el margen en confirmarse se pierde.
+ */
+@Service
+public class SyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(SyncService.class);
+
+    private final SecuenciaSyncRepository secuenciaRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final EliminacionRepository eliminacionRepository;
+    private final UserRepository userRepository;
+    private final long margenMs;
+    private final int limiteMaximo;
+    private final int retencionDias;
+
+    public SyncService(SecuenciaSyncRepository secuenciaRepository,
+                       TransaccionRepository transaccionRepository,
+                       CategoriaRepository categoriaRepository,
+                       EliminacionRepository eliminacionRepository,
+                       UserRepository userRepository,
+                       @Value("${sync.margen-ms:10000}") long margenMs,
+                       @Value("${sync.limite-maximo:1000}") int limiteMaximo,
+                       @Value("${sync.retencion-eliminaciones-dias:90}") int retencionDias) {
+        this.secuenciaRepository = secuenciaRepository;
+        this.transaccionRepository = transaccionRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.eliminacionRepository = eliminacionRepository;
+        this.userRepository = userRepository;
+        this.margenMs = margenMs;
+        this.limiteMaximo = limiteMaximo;
+        this.retencionDias = retencionDias;
+    }
+
+    /**
+     * Reserva un bloque de secuencias consecutivas del usuario con un $inc atómico
+     * @return la primera secuencia del bloque
+     */
+    public long reservar(String userId, int cantidad) {
+        return secuenciaRepository.incrementar(userId, cantidad) - cantidad + 1;
+    }
+
+    /**
+     * Asigna a la transacción la siguiente secuencia del usuario antes de guardarla
+     */
+    public void sellar(Transaccion transaccion) {
+        transaccion.setSecuencia(reservar(transaccion.getUserId(), 1));
+        transaccion.setActualizadoEn(LocalDateTime.now());
+    }
+
+    /**
+     * Asigna a la categoría la siguiente secuencia del usuario antes de guardarla
+     */
+    public void sellar(Categoria categoria) {
+        categoria.setSecuencia(reservar(categoria.getUserId(), 1));
+        categoria.setActualizadoEn(LocalDateTime.now());
+    }
+
+    /**
+     * Asigna secuencias a una inserción masiva con una sola reserva por usuario
+     */
+    public void sellar(Collection<Transaccion> transacciones) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<String, List<Transaccion>> porUsuario = transacciones.stream()
+                .collect(Collectors.groupingBy(Transaccion::getUserId));
+        porUsuario.forEach((userId, lista) -> {
+            long siguiente = reservar(userId, lista.size());
+            for (Transaccion transaccion : lista) {
+                transaccion.setSecuencia(siguiente++);
+                transaccion.setActualizadoEn(ahora);
+            }
+        });
+    }
+
+    /**
+     * Deja la marca de eliminación de una transacción o categoría
+     */
+    public void registrarEliminacion(String userId, EntidadSync entidad, String entidadId) {
+        eliminacionRepository.insert(new Eliminacion(
+                userId, entidad, entidadId, reservar(userId, 1), LocalDateTime.now()));
+    }
+
+    /**
+     * Obtiene los cambios de un usuario posteriores a la marca del cliente
+     * @param userId ID del usuario
+     * @param since marca de la última sincronización; null para una sincronización completa
+     * @param limite máximo de cambios en la respuesta
+     * @return cambios, eliminaciones y la nueva marca
+     */
+    public SyncResponseDTO obtenerCambios(String userId, Long since, int limite) {
+        if (since != null && since < 0) {
+            throw new IllegalArgumentException("La marca de sincronización no puede ser negativa");
+        }
+        if (limite < 1 || limite > limiteMaximo) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + limiteMaximo);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+
+        SecuenciaSync secuencia = secuenciaRepository.findById(userId).orElse(null);
+        long actual = secuencia != null ? secuencia.getValor() : 0;
+        long purgadaHasta = secuencia != null ? secuencia.getPurgadaHasta() : 0;
+
+        // Sin marca, con eliminaciones ya purgadas o con una marca desconocida: copia completa
+        if (since == null || since < purgadaHasta || since > actual) {
+            return sincronizacionCompleta(userId, purgadaHasta);
+        }
+        // Caso habitual al abrir la app: nada cambió desde la última vez
+        if (since == actual) {
+            return new SyncResponseDTO(since, false, false, List.of(), List.of(), List.of());
+        }
+
+        List<Cambio> cambios = new ArrayList<>();
+        Limit consulta = Limit.of(limite + 1);
+        transaccionRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(userId, since, consulta)
+                .forEach(t -> cambios.add(new Cambio(t.getSecuencia(), t.getActualizadoEn(), t)));
+        categoriaRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(userId, since, consulta)
+                .forEach(c -> cambios.add(new Cambio(c.getSecuencia(), c.getActualizadoEn(), c)));
+        eliminacionRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(userId, since, consulta)
+                .forEach(e -> cambios.add(new Cambio(e.getSecuencia(), e.getEliminadoEn(), e)));
+
+        // Cada lista viene ordenada y limitada a limite + 1: los primeros "limite" de la mezcla
+        // son los primeros "limite" cambios del usuario
+        cambios.sort(Comparator.comparingLong(Cambio::secuencia));
+        boolean truncado = cambios.size() > limite;
+        List<Cambio> pagina = truncado ? cambios.subList(0, limite) : cambios;
+
+        long marca = marcaAsentada(pagina, since);
+        SyncResponseDTO respuesta = new SyncResponseDTO(
+                marca, false, truncado && marca > since, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (Cambio cambio : pagina) {
+            if (cambio.entidad() instanceof Transaccion transaccion) {
+                respuesta.getTransacciones().add(convertToDTO(transaccion));
+            } else if (cambio.entidad() instanceof Categoria categoria) {
+                respuesta.getCategorias().add(convertToDTO(categoria));
+            } else if (cambio.entidad() instanceof Eliminacion eliminacion) {
+                respuesta.getEliminaciones().add(new EliminacionDTO(eliminacion.getEntidad(), eliminacion.getEntidadId()));
+            }
+        }
+        return respuesta;
+    }
+
+    private SyncResponseDTO sincronizacionCompleta(String userId, long purgadaHasta) {
+        List<Transaccion> transacciones = transaccionRepository.findByUserId(userId);
+        List<Categoria> categorias = categoriaRepository.findByUserId(userId);
+
+        // Los documentos anteriores a la sincronización no tienen secuencia: cuentan como 0
+        List<Cambio> cambios = new ArrayList<>(transacciones.size() + categorias.size());
+        transacciones.forEach(t -> cambios.add(new Cambio(
+                t.getSecuencia() != null ? t.getSecuencia() : 0, t.getActualizadoEn(), t)));
+        categorias.forEach(c -> cambios.add(new Cambio(
+                c.getSecuencia() != null ? c.getSecuencia() : 0, c.getActualizadoEn(), c)));
+        cambios.sort(Comparator.comparingLong(Cambio::secuencia));
+
+        // Las secuencias purgadas tienen más antigüedad que la retención: la marca puede
+        // pasar de ellas aunque no quede ningún documento vivo posterior
+        long marca = Math.max(marcaAsentada(cambios, 0), purgadaHasta);
+        return new SyncResponseDTO(
+                marca,
+                true,
+                false,
+                transacciones.stream().map(this::convertToDTO).collect(Collectors.toList()),
+                categorias.stream().map(this::convertToDTO).collect(Collectors.toList()),
+                List.of());
+    }
+
+    /**
+     * Mayor secuencia tal que todos los cambios hasta ella tienen al menos el margen
+     * de antigüedad (las escrituras con secuencias menores ya se confirmaron)
+     */
+    private long marcaAsentada(List<Cambio> cambios, long desde) {
+        LocalDateTime corte = LocalDateTime.now().minusNanos(margenMs * 1_000_000);
+        long marca = desde;
+        for (Cambio cambio : cambios) {
+            if (cambio.fecha() != null && cambio.fecha().isAfter(corte)) {
+                break;
+            }
+            marca = Math.max(marca, cambio.secuencia());
+        }
+        return marca;
+    }
+
+    /**
+     * Purga programada de las marcas de eliminación más antiguas que la retención
+     */
+    @Scheduled(cron = "${sync.purga.cron:0 30 3 * * *}")
+    public void purgarEliminaciones() {
+        try {
+            purgarEliminacionesAnterioresA(LocalDateTime.now().minusDays(retencionDias));
+        } catch (RuntimeException e) {
+            log.error("Error purgando eliminaciones: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Borra las eliminaciones anteriores a la fecha de corte. Antes registra por usuario
+     * la mayor secuencia purgada, para que los clientes con una marca anterior hagan
+     * una sincronización completa en lugar de perder eliminaciones
+     * @return número de eliminaciones borradas
+     */
+    public long purgarEliminacionesAnterioresA(LocalDateTime corte) {
+        List<SecuenciaSync> maximos = eliminacionRepository.maximosAnterioresA(corte);
+        if (maximos.isEmpty()) {
+            return 0;
+        }
+        secuenciaRepository.registrarPurgadas(maximos);
+
+        long borradas = eliminacionRepository.deleteByEliminadoEnBefore(corte);
+        log.info("Purgadas {} eliminaciones de {} usuarios", borradas, maximos.size());
+        return borradas;
+    }
+
+    private TransaccionResponseDTO convertToDTO(Transaccion transaccion) {
+        return new TransaccionResponseDTO(
+                transaccion.getId(),
+                transaccion.getTipoTransaccion(),
+                transaccion.getCategoriaId(),
+                transaccion.getCategoriaNombre(),
+                transaccion.getDescripcion(),
+                transaccion.getFecha(),
+                transaccion.getMonto(),
+                transaccion.getUserId()
+        );
+    }
+
+    private CategoriaResponseDTO convertToDTO(Categoria categoria) {
+        return new CategoriaResponseDTO(
+                categoria.getId(),
+                categoria.getNombre(),
+                categoria.getUserId()
+        );
+    }
+
+    /**
+     * Cambio de cualquier entidad ordenable por secuencia
+     */
+    private record Cambio(long secuencia, LocalDateTime fecha, Object entidad) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.TransaccionRecurrenteRequestDTO;
+import com.controlgastos.dto.TransaccionRecurrenteResponseDTO;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.TransaccionRecurrente;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.TransaccionRecurrenteRepository;
+import com.controlgastos.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para la gestión de transacciones recurrentes
+ * Las ocurrencias las materializa GeneradorRecurrentes en su siguiente ejecución
+ */
+@Service
+@RequiredArgsConstructor
+public class TransaccionRecurrenteService {
+    
+    private final TransaccionRecurrenteRepository recurrenteRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final UserRepository userRepository;
+    
+    /**
+     * Crea una transacción recurrente para un usuario
+     * @param userId ID del usuario
+     * @param requestDTO datos de la regla
+     * @return regla creada
+     */
+    public TransaccionRecurrenteResponseDTO crearRecurrente(String userId, TransaccionRecurrenteRequestDTO requestDTO) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        
+        Categoria categoria = categoriaRepository.findById(requestDTO.getCategoriaId())
+                .orElseThrow(() -> new ResourceNotFoundException("Categoría", "id", requestDTO.getCategoriaId()));
+        
+        if (!categoria.getUserId().equals(userId)) {
+            throw new IllegalArgumentException("La categoría no pertenece al usuario especificado");
+        }
+        
+        if (requestDTO.getFechaFin() != null && requestDTO.getFechaFin().isBefore(requestDTO.getFechaInicio())) {
+            throw new IllegalArgumentException("La fecha de fin debe ser posterior a la fecha de inicio");
+        }
+        
+        TransaccionRecurrente recurrente = recurrenteRepository.insert(new TransaccionRecurrente(
+                userId,
+                requestDTO.getTipoTransaccion(),
+                categoria.getId(),
+                requestDTO.getDescripcion(),
+                requestDTO.getMonto(),
+                requestDTO.getFrecuencia(),
+                requestDTO.getFechaInicio(),
+                requestDTO.getFechaFin()
+        ));
+        
+        return convertToDTO(recurrente);
+    }
+    
+    /**
+     * Obtiene las transacciones recurrentes de un usuario
+     * @param userId ID del usuario
+     * @return lista de reglas
+     */
+    public List<TransaccionRecurrenteResponseDTO> obtenerRecurrentesPorUsuario(String userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        
+        return recurrenteRepository.findByUserId(userId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Elimina una transacción recurrente; las transacciones ya generadas se conservan
+     * @param id ID de la regla
+     */
+    public void eliminarRecurrente(String id) {
+        TransaccionRecurrente recurrente = recurrenteRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Transacción recurrente", "id", id));
+        
+        recurrenteRepository.delete(recurrente);
+    }
+    
+    /**
+     * Convierte una entidad TransaccionRecurrente a TransaccionRecurrenteResponseDTO
+     */
+    private TransaccionRecurrenteResponseDTO convertToDTO(TransaccionRecurrente recurrente) {
+        return new TransaccionRecurrenteResponseDTO(
+                recurrente.getId(),
+                recurrente.getUserId(),
+                recurrente.getTipoTransaccion(),
+                recurrente.getCategoriaId(),
+                recurrente.getDescripcion(),
+                recurrente.getMonto(),
+                recurrente.getFrecuencia(),
+                recurrente.getFechaInicio(),
+                recurrente.getFechaFin(),
+                recurrente.getOcurrenciasGeneradas(),
+                recurrente.getProximaFecha()
+        );
+    }
+}
@@ -1,21 +1,54 @@
 package com.controlgastos.service;
 
+import com.controlgastos.cache.ColumnarCache;
+import com.controlgastos.cache.ColumnasTransacciones;
+import com.controlgastos.cache.UserScopedCache;
+import com.controlgastos.dto.ComparacionPeriodosDTO;
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.dto.LoteResponseDTO;
+import com.controlgastos.dto.PuntoSerieDTO;
 import com.controlgastos.dto.ResumenGastosDTO;
+import com.controlgastos.dto.SaldoMovimientoDTO;
+import com.controlgastos.dto.SaldoPaginaDTO;
+import com.controlgastos.dto.SerieGastosDTO;
 import com.controlgastos.dto.TransaccionRequestDTO;
 import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.dto.VariacionCategoriaDTO;
+import com.controlgastos.dto.VariacionDTO;
+import com.controlgastos.event.TransaccionCambiadaEvent;
 import com.controlgastos.exception.ResourceNotFoundException;
 import com.controlgastos.model.Categoria;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.Granularidad;
+import com.controlgastos.model.PeriodoComparacion;
 import com.controlgastos.model.TipoTransaccion;
 import com.controlgastos.model.Transaccion;
-import com.controlgastos.model.User;
 import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.ComparacionCategorias;
+import com.controlgastos.repository.SaldoAcumulado;
+import com.controlgastos.repository.TotalPeriodo;
+import com.controlgastos.repository.TotalUsuario;
 import com.controlgastos.repository.TransaccionRepository;
 import com.controlgastos.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -26,9 +59,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TransaccionService {
     
+    /** Máximo de periodos en una serie (10 años por día) */
+    private static final int MAX_PUNTOS_SERIE = 3660;
+    private static final int MAX_RECIENTES = 100;
+    private static final int MAX_SALDO_PAGINA = 1000;
+    private static final Set<String> ZONAS_IANA = ZoneId.getAvailableZoneIds();
+    
     private final TransaccionRepository transaccionRepository;
     private final UserRepository userRepository;
     private final CategoriaRepository categoriaRepository;
+    private final UserScopedCache userCache;
+    private final ColumnarCache columnarCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EstadisticasMontosService estadisticasService;
+    private final SyncService syncService;
     
     /**
      * Crea una nueva transacción para un usuario
@@ -36,12 +80,7 @@ public class TransaccionService {
      * @param transaccionDTO datos de la transacción
      * @return transacción creada
      */
-    @Transactional
     public TransaccionResponseDTO crearTransaccion(String userId, TransaccionRequestDTO transaccionDTO) {
-        // Verificar que el usuario existe
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", userId));
-        
         // Verificar que la categoría existe y pertenece al usuario
         Categoria categoria = categoriaRepository.findById(transaccionDTO.getCategoriaId())
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría", "id", transaccionDTO.getCategoriaId()));
@@ -50,7 +89,8 @@ public class TransaccionService {
             throw new IllegalArgumentException("La categoría no pertenece al usuario especificado");
         }
         
-        // Crear y guardar la transacción
+        // Crear la transacción con un ID generado en el cliente para poder
+        // referenciarla en el usuario antes de insertarla
         Transaccion transaccion = new Transaccion(
                 transaccionDTO.getTipoTransaccion(),
                 transaccionDTO.getCategoriaId(),
@@ -60,13 +100,25 @@ public class TransaccionService {
                 transaccionDTO.getMonto(),
                 userId
         );
+        transaccion.setId(new ObjectId().toHexString());
+        syncService.sellar(transaccion);
         
-        Transaccion savedTransaccion = transaccionRepository.save(transaccion);
+        // $push atómico: verifica que el usuario existe y registra la referencia en un solo viaje
+        if (userRepository.agregarTransaccionId(userId, transaccion.getId()) == 0) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
         
-        // Actualizar el usuario con la nueva transacción
-        user.agregarTransaccion(savedTransaccion.getId());
-        userRepository.save(user);
+        Transaccion savedTransaccion;
+        try {
+            savedTransaccion = transaccionRepository.insert(transaccion);
+        } catch (RuntimeException e) {
+            // Compensar la referencia agregada si la inserción falla
+            userRepository.quitarTransaccionId(userId, transaccion.getId());
+            throw e;
+        }
         
+        estadisticasService.registrar(savedTransaccion);
+        notificarCambio(userId);
         return convertToDTO(savedTransaccion);
     }
     
@@ -86,6 +138,28 @@ public class TransaccionService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Obtiene las transacciones más recientes de un usuario
+     * Se leen solo N entradas del índice (userId, fecha, _id) y el resultado queda en caché hasta la siguiente escritura del usuario
+     * @param userId ID del usuario
+     * @param n número de transacciones (1 a 100)
+     * @return transacciones ordenadas de la más reciente a la más antigua
+     */
+    public List<TransaccionResponseDTO> obtenerTransaccionesRecientes(String userId, int n) {
+        if (n < 1 || n > MAX_RECIENTES) {
+            throw new IllegalArgumentException("n debe estar entre 1 y " + MAX_RECIENTES);
+        }
+        
+        return userCache.obtener(userId, new ClaveRecientes(n), () -> {
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("Usuario", "id", userId);
+            }
+            return transaccionRepository.buscarRecientes(userId, n).stream()
+                    .map(this::convertToDTO)
+                    .toList();
+        });
+    }
+    
     /**
      * Obtiene transacciones filtradas por tipo
      * @param userId ID del usuario
@@ -152,13 +226,23 @@ public class TransaccionService {
         return convertToDTO(transaccion);
     }
     
+    /**
+     * Obtiene varias transacciones por ID con una sola consulta
+     * @param ids IDs en el orden deseado
+     * @return transacciones en el orden de los IDs, con los no encontrados marcados
+     */
+    public LoteResponseDTO<TransaccionResponseDTO> obtenerTransaccionesPorIds(List<String> ids) {
+        Map<String, TransaccionResponseDTO> porId = transaccionRepository.buscarPorIds(new LinkedHashSet<>(ids)).stream()
+                .collect(Collectors.toMap(Transaccion::getId, this::convertToDTO, (primera, repetida) -> primera));
+        return LoteResponseDTO.enOrden(ids, porId);
+    }
+    
     /**
      * Actualiza una transacción existente
      * @param id ID de la transacción
      * @param transaccionDTO nuevos datos
      * @return transacción actualizada
      */
-    @Transactional
     public TransaccionResponseDTO actualizarTransaccion(String id, TransaccionRequestDTO transaccionDTO) {
         Transaccion transaccion = transaccionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transacción", "id", id));
@@ -167,6 +251,9 @@ public class TransaccionService {
         Categoria categoria = categoriaRepository.findById(transaccionDTO.getCategoriaId())
                 .orElseThrow(() -> new ResourceNotFoundException("Categoría", "id", transaccionDTO.getCategoriaId()));
         
+        // El digest del mes y categoría anteriores deja de ser válido
+        estadisticasService.invalidar(transaccion);
+        
         // Actualizar campos
         transaccion.setTipoTransaccion(transaccionDTO.getTipoTransaccion());
         transaccion.setCategoriaId(transaccionDTO.getCategoriaId());
@@ -174,8 +261,13 @@ public class TransaccionService {
         transaccion.setDescripcion(transaccionDTO.getDescripcion());
         transaccion.setFecha(transaccionDTO.getFecha());
         transaccion.setMonto(transaccionDTO.getMonto());
+        syncService.sellar(transaccion);
         
-        Transaccion updatedTransaccion = transaccionRepository.save(transaccion);
+        // Sin upsert: si otra petición la eliminó entretanto, no debe reaparecer
+        Transaccion updatedTransaccion = transaccionRepository.reemplazar(transaccion)
+                .orElseThrow(() -> new ResourceNotFoundException("Transacción", "id", id));
+        estadisticasService.invalidar(updatedTransaccion);
+        notificarCambio(updatedTransaccion.getUserId());
         return convertToDTO(updatedTransaccion);
     }
     
@@ -183,19 +275,18 @@ public class TransaccionService {
      * Elimina una transacción
      * @param id ID de la transacción
      */
-    @Transactional
     public void eliminarTransaccion(String id) {
         Transaccion transaccion = transaccionRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transacción", "id", id));
         
-        // Actualizar el usuario eliminando la referencia
-        User user = userRepository.findById(transaccion.getUserId())
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", transaccion.getUserId()));
-        user.eliminarTransaccion(id);
-        userRepository.save(user);
-        
         // Eliminar la transacción
         transaccionRepository.delete(transaccion);
+        
+        // $pull atómico de la referencia en el usuario
+        userRepository.quitarTransaccionId(transaccion.getUserId(), id);
+        syncService.registrarEliminacion(transaccion.getUserId(), EntidadSync.TRANSACCION, id);
+        estadisticasService.invalidar(transaccion);
+        notificarCambio(transaccion.getUserId());
     }
     
     /**
@@ -204,6 +295,11 @@ public class TransaccionService {
      * @return resumen con totales y balance
      */
     public ResumenGastosDTO calcularResumen(String userId) {
+        if (columnarCache.habilitado()) {
+            ColumnasTransacciones columnas = obtenerColumnas(userId);
+            return resumir(columnas, 0, columnas.tamanio(), "Todos los periodos");
+        }
+        
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("Usuario", "id", userId);
         }
@@ -233,6 +329,31 @@ public class TransaccionService {
         );
     }
     
+    /**
+     * Calcula el resumen total de varios usuarios con una sola agregación
+     * @param userIds IDs de los usuarios (no se comprueba que existan)
+     * @return resumen por ID de usuario; los usuarios sin transacciones tienen totales en cero
+     */
+    public Map<String, ResumenGastosDTO> calcularResumenes(Collection<String> userIds) {
+        Map<String, TotalUsuario> totales = new HashMap<>();
+        transaccionRepository.totalizarPorUsuarios(userIds)
+                .forEach(total -> totales.put(total.getUserId(), total));
+        
+        Map<String, ResumenGastosDTO> resumenes = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            TotalUsuario total = totales.getOrDefault(userId, new TotalUsuario(userId, 0.0, 0.0, 0L, 0L));
+            resumenes.put(userId, new ResumenGastosDTO(
+                    total.getTotalIngresos(),
+                    total.getTotalGastos(),
+                    total.getTotalIngresos() - total.getTotalGastos(),
+                    total.getCantidadIngresos(),
+                    total.getCantidadGastos(),
+                    "Todos los periodos"
+            ));
+        }
+        return resumenes;
+    }
+    
     /**
      * Calcula el resumen de gastos e ingresos en un rango de fechas
      * @param userId ID del usuario
@@ -243,6 +364,17 @@ public class TransaccionService {
     public ResumenGastosDTO calcularResumenPorFecha(
             String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
         
+        String periodo = String.format("Desde %s hasta %s", 
+                fechaInicio.toLocalDate(), fechaFin.toLocalDate());
+        
+        if (columnarCache.habilitado()) {
+            // Mismo rango que la consulta Between: exclusivo en ambos extremos
+            ColumnasTransacciones columnas = obtenerColumnas(userId);
+            int desde = columnas.primeraPosterior(ColumnasTransacciones.instante(fechaInicio));
+            int hasta = columnas.primeraDesde(ColumnasTransacciones.instante(fechaFin));
+            return resumir(columnas, desde, Math.max(desde, hasta), periodo);
+        }
+        
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("Usuario", "id", userId);
         }
@@ -262,9 +394,6 @@ public class TransaccionService {
         
         double balance = totalIngresos - totalGastos;
         
-        String periodo = String.format("Desde %s hasta %s", 
-                fechaInicio.toLocalDate(), fechaFin.toLocalDate());
-        
         return new ResumenGastosDTO(
                 totalIngresos,
                 totalGastos,
@@ -275,6 +404,272 @@ public class TransaccionService {
         );
     }
     
+    /**
+     * Calcula los totales por categoría y tipo en un rango de fechas
+     * La agrupación se hace en MongoDB y el resultado queda en caché hasta la siguiente escritura del usuario
+     * @param userId ID del usuario
+     * @param fechaInicio fecha de inicio
+     * @param fechaFin fecha de fin
+     * @return totales y cantidades por categoría y tipo
+     */
+    public List<ResumenCategoriaDTO> calcularResumenPorCategoria(
+            String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+        
+        return userCache.obtener(userId, new ClaveResumenCategorias(fechaInicio, fechaFin), () -> {
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("Usuario", "id", userId);
+            }
+            return List.copyOf(transaccionRepository.resumirPorCategoria(userId, fechaInicio, fechaFin));
+        });
+    }
+    
+    /**
+     * Compara un periodo con el anterior: totales por tipo, balance y totales por categoría
+     * Ambos periodos se agrupan en MongoDB en una sola agregación ($facet) y el resultado queda en caché hasta la siguiente escritura del usuario
+     * @param userId ID del usuario
+     * @param fechaInicio inicio del periodo actual (inclusivo)
+     * @param fechaFin fin del periodo actual (exclusivo)
+     * @param comparacion periodo anterior contra el que se compara
+     * @return variaciones absolutas y porcentuales entre ambos periodos
+     */
+    public ComparacionPeriodosDTO compararPeriodos(String userId, LocalDateTime fechaInicio, LocalDateTime fechaFin,
+                                                   PeriodoComparacion comparacion) {
+        
+        if (!fechaInicio.isBefore(fechaFin)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+        
+        LocalDateTime anteriorInicio = comparacion.desplazar(fechaInicio);
+        LocalDateTime anteriorFin = comparacion.desplazar(fechaFin);
+        
+        return userCache.obtener(userId, new ClaveComparacion(fechaInicio, fechaFin, comparacion), () -> {
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("Usuario", "id", userId);
+            }
+            
+            ComparacionCategorias periodos = transaccionRepository.compararPorCategoria(
+                    userId, anteriorInicio, anteriorFin, fechaInicio, fechaFin);
+            
+            // Una fila por categoría y tipo presente en cualquiera de los dos periodos
+            Map<ClaveVariacion, ResumenCategoriaDTO[]> filas = new LinkedHashMap<>();
+            for (ResumenCategoriaDTO fila : periodos.getActual()) {
+                sumar(filas.computeIfAbsent(ClaveVariacion.de(fila), clave -> new ResumenCategoriaDTO[2]), 1, fila);
+            }
+            for (ResumenCategoriaDTO fila : periodos.getAnterior()) {
+                sumar(filas.computeIfAbsent(ClaveVariacion.de(fila), clave -> new ResumenCategoriaDTO[2]), 0, fila);
+            }
+            
+            double[] ingresos = new double[2];
+            double[] gastos = new double[2];
+            List<VariacionCategoriaDTO> categorias = new ArrayList<>(filas.size());
+            for (ResumenCategoriaDTO[] par : filas.values()) {
+                ResumenCategoriaDTO referencia = par[1] != null ? par[1] : par[0];
+                double[] totales = referencia.getTipoTransaccion() == TipoTransaccion.INGRESO ? ingresos : gastos;
+                double anterior = par[0] != null ? par[0].getTotal() : 0.0;
+                double actual = par[1] != null ? par[1].getTotal() : 0.0;
+                totales[0] += anterior;
+                totales[1] += actual;
+                categorias.add(new VariacionCategoriaDTO(
+                        referencia.getCategoriaId(),
+                        referencia.getCategoriaNombre(),
+                        referencia.getTipoTransaccion(),
+                        par[0] != null ? par[0].getCantidad() : 0L,
+                        par[1] != null ? par[1].getCantidad() : 0L,
+                        VariacionDTO.entre(anterior, actual)
+                ));
+            }
+            categorias.sort(Comparator.comparing((VariacionCategoriaDTO v) -> v.getTotal().getActual())
+                    .thenComparing(v -> v.getTotal().getAnterior())
+                    .reversed());
+            
+            return new ComparacionPeriodosDTO(
+                    comparacion,
+                    fechaInicio,
+                    fechaFin,
+                    anteriorInicio,
+                    anteriorFin,
+                    VariacionDTO.entre(ingresos[0], ingresos[1]),
+                    VariacionDTO.entre(gastos[0], gastos[1]),
+                    VariacionDTO.entre(ingresos[0] - gastos[0], ingresos[1] - gastos[1]),
+                    List.copyOf(categorias)
+            );
+        });
+    }
+    
+    /**
+     * Obtiene una página del saldo acumulado después de cada transacción, en orden (fecha, id)
+     * El acumulado se calcula en MongoDB ($setWindowFields) solo sobre la página; las páginas
+     * siguientes parten del cursor y del saldo final de la anterior, sin recorrer las previas
+     * @param userId ID del usuario
+     * @param despuesDeFecha fecha de la última transacción de la página anterior (null en la primera página)
+     * @param despuesDeId ID de la última transacción de la página anterior (null en la primera página)
+     * @param saldoInicial saldo antes de la primera transacción de la página
+     * @param limite máximo de transacciones en la página (1 a 1000)
+     * @return transacciones con el saldo después de cada una y el cursor de la página siguiente
+     */
+    public SaldoPaginaDTO obtenerSaldoAcumulado(String userId, LocalDateTime despuesDeFecha, String despuesDeId,
+                                                double saldoInicial, int limite) {
+        
+        if (limite < 1 || limite > MAX_SALDO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_SALDO_PAGINA);
+        }
+        if ((despuesDeFecha == null) != (despuesDeId == null)) {
+            throw new IllegalArgumentException("despuesDeFecha y despuesDeId deben indicarse juntos");
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        
+        // Una transacción de más indica si hay otra página
+        List<SaldoAcumulado> filas = transaccionRepository.acumularSaldo(userId, despuesDeFecha, despuesDeId, limite + 1);
+        boolean hayMas = filas.size() > limite;
+        List<SaldoMovimientoDTO> movimientos = filas.stream()
+                .limit(limite)
+                .map(fila -> new SaldoMovimientoDTO(
+                        fila.getId(),
+                        fila.getTipoTransaccion(),
+                        fila.getCategoriaId(),
+                        fila.getCategoriaNombre(),
+                        fila.getDescripcion(),
+                        fila.getFecha(),
+                        fila.getMonto(),
+                        saldoInicial + fila.getAcumulado()
+                ))
+                .toList();
+        
+        if (movimientos.isEmpty()) {
+            return new SaldoPaginaDTO(movimientos, saldoInicial, false, null, null);
+        }
+        SaldoMovimientoDTO ultimo = movimientos.get(movimientos.size() - 1);
+        return new SaldoPaginaDTO(movimientos, ultimo.getSaldo(), hayMas,
+                hayMas ? ultimo.getFecha() : null, hayMas ? ultimo.getId() : null);
+    }
+    
+    /**
+     * Calcula la serie temporal de ingresos y gastos agrupada por día, semana o mes
+     * La agrupación se hace en MongoDB en un solo viaje; los periodos sin transacciones se completan con ceros
+     * @param userId ID del usuario
+     * @param granularidad tamaño de cada periodo
+     * @param fechaInicio fecha de inicio
+     * @param fechaFin fecha de fin
+     * @param zonaHoraria zona horaria IANA (ej. America/Bogota) o desplazamiento (ej. -05:00) para calcular el inicio de cada periodo
+     * @return serie con un punto por periodo del rango
+     */
+    public SerieGastosDTO calcularSerie(String userId, Granularidad granularidad,
+                                        LocalDateTime fechaInicio, LocalDateTime fechaFin, String zonaHoraria) {
+        
+        if (!fechaInicio.isBefore(fechaFin)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+        
+        ZoneId zona = zonaParaMongo(zonaHoraria);
+        
+        // Las fechas se almacenan como instantes en la zona del servidor
+        Instant inicio = fechaInicio.atZone(ZoneId.systemDefault()).toInstant();
+        Instant fin = fechaFin.atZone(ZoneId.systemDefault()).toInstant();
+        List<ZonedDateTime> periodos = calcularPeriodos(granularidad, inicio, fin, zona);
+        
+        return userCache.obtener(userId, new ClaveSerie(granularidad, fechaInicio, fechaFin, zona), () -> {
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("Usuario", "id", userId);
+            }
+            
+            List<TotalPeriodo> totales = transaccionRepository.agruparPorPeriodo(
+                    userId, fechaInicio, fechaFin, granularidad.getUnidadMongo(), zona.getId());
+            
+            Map<Instant, TotalPeriodo> totalesPorInicio = new HashMap<>();
+            for (TotalPeriodo total : totales) {
+                totalesPorInicio.put(total.getInicio().toInstant(), total);
+            }
+            
+            List<PuntoSerieDTO> puntos = new ArrayList<>(periodos.size());
+            for (ZonedDateTime periodo : periodos) {
+                TotalPeriodo total = totalesPorInicio.get(periodo.toInstant());
+                double ingresos = total != null ? total.getTotalIngresos() : 0.0;
+                double gastos = total != null ? total.getTotalGastos() : 0.0;
+                long cantidad = total != null ? total.getCantidad() : 0L;
+                puntos.add(new PuntoSerieDTO(periodo.toLocalDate(), ingresos, gastos, ingresos - gastos, cantidad));
+            }
+            
+            return new SerieGastosDTO(granularidad, zona.getId(), List.copyOf(puntos));
+        });
+    }
+    
+    /**
+     * Interpreta la zona horaria y la deja en una forma que acepta $dateTrunc: un identificador
+     * IANA o un desplazamiento ±HH:MM. Java acepta además "Z", "UTC+05:00" o "GMT+5", que se
+     * convierten a su desplazamiento (UTC si es cero); un desplazamiento con segundos se rechaza
+     */
+    private static ZoneId zonaParaMongo(String zonaHoraria) {
+        ZoneId zona;
+        try {
+            zona = ZoneId.of(zonaHoraria);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Zona horaria inválida: " + zonaHoraria);
+        }
+        if (ZONAS_IANA.contains(zona.getId())) {
+            return zona;
+        }
+        if (!(zona.normalized() instanceof ZoneOffset desplazamiento) || desplazamiento.getTotalSeconds() % 60 != 0) {
+            throw new IllegalArgumentException("Zona horaria inválida: " + zonaHoraria);
+        }
+        return desplazamiento.getTotalSeconds() == 0 ? ZoneId.of("UTC") : desplazamiento;
+    }
+    
+    /**
+     * Calcula el inicio de cada periodo del rango en la zona horaria indicada
+     */
+    private List<ZonedDateTime> calcularPeriodos(Granularidad granularidad, Instant inicio, Instant fin, ZoneId zona) {
+        List<ZonedDateTime> periodos = new ArrayList<>();
+        ZonedDateTime periodo = granularidad.truncar(inicio.atZone(zona));
+        while (periodo.toInstant().isBefore(fin)) {
+            if (periodos.size() == MAX_PUNTOS_SERIE) {
+                throw new IllegalArgumentException(
+                        "El rango solicitado supera el máximo de " + MAX_PUNTOS_SERIE + " periodos");
+            }
+            periodos.add(periodo);
+            periodo = granularidad.siguiente(periodo);
+        }
+        return periodos;
+    }
+    
+    /**
+     * Obtiene las columnas del usuario de la caché columnar, cargándolas con una consulta si no están
+     */
+    private ColumnasTransacciones obtenerColumnas(String userId) {
+        return columnarCache.obtener(userId, () -> {
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("Usuario", "id", userId);
+            }
+            return ColumnasTransacciones.de(transaccionRepository.findByUserId(userId));
+        });
+    }
+    
+    /**
+     * Resumen de las posiciones [desde, hasta) de las columnas
+     */
+    private ResumenGastosDTO resumir(ColumnasTransacciones columnas, int desde, int hasta, String periodo) {
+        double totalIngresos = columnas.totalIngresos(desde, hasta);
+        double totalGastos = columnas.totalGastos(desde, hasta);
+        return new ResumenGastosDTO(
+                totalIngresos,
+                totalGastos,
+                totalIngresos - totalGastos,
+                (long) columnas.cantidadIngresos(desde, hasta),
+                (long) columnas.cantidadGastos(desde, hasta),
+                periodo
+        );
+    }
+    
+    /**
+     * Invalida los resúmenes en caché del usuario y publica el cambio para los suscriptores (SSE)
+     */
+    private void notificarCambio(String userId) {
+        userCache.invalidar(userId);
+        columnarCache.invalidar(userId);
+        eventPublisher.publishEvent(new TransaccionCambiadaEvent(userId));
+    }
+    
     /**
      * Convierte una entidad Transaccion a TransaccionResponseDTO
      */
@@ -290,4 +685,53 @@ public class TransaccionService {
                 transaccion.getUserId()
         );
     }
+    
+    /**
+     * Acumula una fila en su periodo: si la categoría ya tiene fila (p. ej. con otro nombre),
+     * suma total y cantidad y conserva el primer nombre recibido en lugar de reemplazarla
+     */
+    private static void sumar(ResumenCategoriaDTO[] par, int periodo, ResumenCategoriaDTO fila) {
+        ResumenCategoriaDTO previa = par[periodo];
+        par[periodo] = previa == null ? fila : new ResumenCategoriaDTO(
+                previa.getCategoriaId(),
+                previa.getCategoriaNombre(),
+                previa.getTipoTransaccion(),
+                previa.getTotal() + fila.getTotal(),
+                previa.getCantidad() + fila.getCantidad());
+    }
+    
+    /**
+     * Clave de caché del resumen por categorías para un rango de fechas
+     */
+    private record ClaveResumenCategorias(LocalDateTime fechaInicio, LocalDateTime fechaFin) {
+    }
+    
+    /**
+     * Clave de caché de la comparación entre periodos
+     */
+    private record ClaveComparacion(LocalDateTime fechaInicio, LocalDateTime fechaFin, PeriodoComparacion comparacion) {
+    }
+    
+    /**
+     * Categoría y tipo de una fila de la comparación entre periodos
+     */
+    private record ClaveVariacion(String categoriaId, TipoTransaccion tipoTransaccion) {
+        
+        static ClaveVariacion de(ResumenCategoriaDTO fila) {
+            return new ClaveVariacion(fila.getCategoriaId(), fila.getTipoTransaccion());
+        }
+    }
+    
+    /**
+     * Clave de caché de las N transacciones más recientes
+     */
+    private record ClaveRecientes(int n) {
+    }
+    
+    /**
+     * Clave de caché de la serie temporal
+     */
+    private record ClaveSerie(Granularidad granularidad, LocalDateTime fechaInicio,
+                              LocalDateTime fechaFin, ZoneId zona) {
+    }
 }
@@ -7,9 +7,12 @@ import com.controlgastos.exception.UnauthorizedException;
 import com.controlgastos.model.User;
 import com.controlgastos.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -31,11 +34,11 @@ public class UserService {
     public UserResponseDTO autenticarUsuario(LoginRequestDTO loginRequestDTO) {
         // Buscar usuario por correo
     User user = userRepository.findByCorreo(loginRequestDTO.getCorreo())
-        .orElseThrow(() -> new UnauthorizedException("Correo electrónico o contrasenia incorrectos"));
+        .orElseThrow(() -> UnauthorizedException.CREDENCIALES_INCORRECTAS);
 
     // Verificar contrasenia (en producción, usar BCrypt)
     if (!user.getContrasenia().equals(loginRequestDTO.getContrasenia())) {
-        throw new UnauthorizedException("Correo electrónico o contrasenia incorrectos");
+        throw UnauthorizedException.CREDENCIALES_INCORRECTAS;
     }
         
         return convertToDTO(user);
@@ -47,18 +50,7 @@ public class UserService {
      * @return usuario creado
      * @throws DuplicateResourceException si el apodo o correo ya existe
      */
-    @Transactional
     public UserResponseDTO crearUsuario(UserRequestDTO userRequestDTO) {
-        // Verificar que el apodo no exista
-        if (userRepository.existsByApodo(userRequestDTO.getApodo())) {
-            throw new DuplicateResourceException("Usuario", "apodo", userRequestDTO.getApodo());
-        }
-        
-        // Verificar que el correo no exista
-        if (userRepository.existsByCorreo(userRequestDTO.getCorreo())) {
-            throw new DuplicateResourceException("Usuario", "correo", userRequestDTO.getCorreo());
-        }
-        
         // Crear y guardar el usuario
     User user = new User(
         userRequestDTO.getApodo(),
@@ -66,8 +58,14 @@ public class UserService {
         userRequestDTO.getContrasenia() // En producción, encriptar la contrasenia
     );
         
-        User savedUser = userRepository.save(user);
-        return convertToDTO(savedUser);
+        // Los índices únicos de apodo y correo rechazan los duplicados en el mismo viaje,
+        // también entre peticiones concurrentes
+        try {
+            User savedUser = userRepository.insert(user);
+            return convertToDTO(savedUser);
+        } catch (DuplicateKeyException e) {
+            throw duplicado(e, userRequestDTO);
+        }
     }
     
     /**
@@ -92,6 +90,17 @@ public class UserService {
         return convertToDTO(user);
     }
     
+    /**
+     * Obtiene varios usuarios por ID con una sola consulta $in
+     * @param ids IDs de los usuarios
+     * @return usuarios encontrados por ID (los inexistentes no tienen entrada)
+     */
+    public Map<String, UserResponseDTO> obtenerUsuariosPorIds(Collection<String> ids) {
+        Map<String, UserResponseDTO> porId = new HashMap<>();
+        userRepository.findAllById(ids).forEach(user -> porId.put(user.getId(), convertToDTO(user)));
+        return porId;
+    }
+    
     /**
      * Obtiene un usuario por su apodo
      * @param apodo apodo del usuario
@@ -109,31 +118,24 @@ public class UserService {
      * @param userRequestDTO nuevos datos del usuario
      * @return usuario actualizado
      */
-    @Transactional
     public UserResponseDTO actualizarUsuario(String id, UserRequestDTO userRequestDTO) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id));
-        
-        // Verificar si el nuevo apodo ya existe (y no es del mismo usuario)
-        if (!user.getApodo().equals(userRequestDTO.getApodo()) 
-                && userRepository.existsByApodo(userRequestDTO.getApodo())) {
-            throw new DuplicateResourceException("Usuario", "apodo", userRequestDTO.getApodo());
-        }
-        
-        // Verificar si el nuevo correo ya existe (y no es del mismo usuario)
-        if (!user.getCorreo().equals(userRequestDTO.getCorreo()) 
-                && userRepository.existsByCorreo(userRequestDTO.getCorreo())) {
-            throw new DuplicateResourceException("Usuario", "correo", userRequestDTO.getCorreo());
+        // $set solo de los datos del perfil: un save del documento leído pisaría
+        // las listas de IDs que otra petición modifique a la vez
+        String contrasenia = userRequestDTO.getContrasenia();
+        try {
+            if (contrasenia != null && !contrasenia.isEmpty()) {
+                userRepository.actualizarDatosYContrasenia(id, userRequestDTO.getApodo(),
+                        userRequestDTO.getCorreo(), contrasenia); // En producción, encriptar
+            } else {
+                userRepository.actualizarDatos(id, userRequestDTO.getApodo(), userRequestDTO.getCorreo());
+            }
+        } catch (DuplicateKeyException e) {
+            // Un apodo o correo de otro usuario lo rechazan los índices únicos
+            throw duplicado(e, userRequestDTO);
         }
         
-        // Actualizar campos
-        user.setApodo(userRequestDTO.getApodo());
-        user.setCorreo(userRequestDTO.getCorreo());
-        if (userRequestDTO.getContrasenia() != null && !userRequestDTO.getContrasenia().isEmpty()) {
-            user.setContrasenia(userRequestDTO.getContrasenia()); // En producción, encriptar
-        }
-        
-        User updatedUser = userRepository.save(user);
+        User updatedUser = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id));
         return convertToDTO(updatedUser);
     }
     
@@ -141,13 +143,22 @@ public class UserService {
      * Elimina un usuario
      * @param id ID del usuario a eliminar
      */
-    @Transactional
     public void eliminarUsuario(String id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id));
         userRepository.delete(user);
     }
     
+    /**
+     * Traduce la violación de un índice único al campo repetido
+     */
+    private DuplicateResourceException duplicado(DuplicateKeyException e, UserRequestDTO userRequestDTO) {
+        if ("correo".equals(DuplicateResourceException.indiceViolado(e))) {
+            return new DuplicateResourceException("Usuario", "correo", userRequestDTO.getCorreo());
+        }
+        return new DuplicateResourceException("Usuario", "apodo", userRequestDTO.getApodo());
+    }
+    
     /**
      * Convierte una entidad User a UserResponseDTO
      */
@@ -0,0 +1,168 @@
+package com.controlgastos.cache;
+
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para ColumnarCache y ColumnasTransacciones
+ */
+class ColumnarCacheTest {
+    
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 10, 12, 0);
+    
+    /** Memoria estimada de las columnas de un usuario con una transacción */
+    private static final long BYTES_UNA = columnas(1).bytes();
+    
+    private ColumnarCache cache;
+    private AtomicInteger cargas;
+    
+    @BeforeEach
+    void setUp() {
+        cache = new ColumnarCache(true, 2 * BYTES_UNA);
+        cargas = new AtomicInteger();
+    }
+    
+    @Test
+    void columnas_TotalesPorRango_BusquedaBinariaYSumasAcumuladas() {
+        // Arrange: desordenadas y con dos transacciones en la misma fecha
+        ColumnasTransacciones columnas = ColumnasTransacciones.de(List.of(
+                transaccion(TipoTransaccion.GASTO, BASE.plusDays(2), 50.0),
+                transaccion(TipoTransaccion.INGRESO, BASE, 1000.0),
+                transaccion(TipoTransaccion.GASTO, BASE.plusDays(1), 300.0),
+                transaccion(TipoTransaccion.GASTO, BASE.plusDays(1), 20.0)));
+        long inicio = ColumnasTransacciones.instante(BASE);
+        long fin = ColumnasTransacciones.instante(BASE.plusDays(2));
+        
+        // Act
+        int desde = columnas.primeraPosterior(inicio);
+        int hasta = columnas.primeraDesde(fin);
+        
+        // Assert: (inicio, fin) excluye la primera y la última
+        assertEquals(4, columnas.tamanio());
+        assertEquals(1, desde);
+        assertEquals(3, hasta);
+        assertEquals(0.0, columnas.totalIngresos(desde, hasta));
+        assertEquals(320.0, columnas.totalGastos(desde, hasta), 1e-9);
+        assertEquals(0, columnas.cantidadIngresos(desde, hasta));
+        assertEquals(2, columnas.cantidadGastos(desde, hasta));
+        assertEquals(1000.0, columnas.totalIngresos(0, columnas.tamanio()));
+        assertEquals(370.0, columnas.totalGastos(0, columnas.tamanio()), 1e-9);
+        assertEquals(0, columnas.primeraDesde(Long.MIN_VALUE));
+        assertEquals(4, columnas.primeraPosterior(Long.MAX_VALUE));
+    }
+    
+    @Test
+    void obtener_MismoUsuario_CargaUnaSolaVez() {
+        // Act
+        ColumnasTransacciones primero = cache.obtener("user1", () -> cargar(1));
+        ColumnasTransacciones segundo = cache.obtener("user1", () -> cargar(1));
+        
+        // Assert
+        assertSame(primero, segundo);
+        assertEquals(1, cargas.get());
+        assertEquals(BYTES_UNA, cache.bytesOcupados());
+    }
+    
+    @Test
+    void invalidar_DescartaLasColumnasDelUsuario() {
+        // Arrange
+        cache.obtener("user1", () -> cargar(1));
+        
+        // Act
+        cache.invalidar("user1");
+        cache.obtener("user1", () -> cargar(1));
+        
+        // Assert
+        assertEquals(2, cargas.get());
+        assertEquals(BYTES_UNA, cache.bytesOcupados());
+    }
+    
+    @Test
+    void obtener_InvalidacionDuranteCarga_NoPublicaColumnasObsoletas() {
+        // Act: la escritura ocurre mientras se cargan las columnas
+        cache.obtener("user1", () -> {
+            cache.invalidar("user1");
+            return cargar(1);
+        });
+        
+        // Assert
+        assertEquals(0, cache.tamanio());
+        assertEquals(0, cache.bytesOcupados());
+    }
+    
+    @Test
+    void obtener_SuperaElPresupuesto_DescartaElMenosReciente() {
+        // Arrange
+        cache.obtener("user1", () -> cargar(1));
+        cache.obtener("user2", () -> cargar(1));
+        cache.obtener("user1", () -> cargar(1)); // user1 pasa a ser el más reciente
+        
+        // Act
+        cache.obtener("user3", () -> cargar(1));
+        cache.obtener("user1", () -> cargar(1));
+        cache.obtener("user2", () -> cargar(1));
+        
+        // Assert: solo user2 se volvió a cargar
+        assertEquals(4, cargas.get());
+        assertEquals(2, cache.tamanio());
+        assertEquals(2 * BYTES_UNA, cache.bytesOcupados());
+    }
+    
+    @Test
+    void obtener_Acierto_NoEsperaAlMonitorDeLaCache() throws Exception {
+        // Arrange
+        ColumnasTransacciones cargadas = cache.obtener("user1", () -> cargar(1));
+        ExecutorService otroHilo = Executors.newSingleThreadExecutor();
+        
+        try {
+            // Act: una carga o invalidación en curso tiene el monitor tomado
+            ColumnasTransacciones leidas;
+            synchronized (cache) {
+                leidas = otroHilo.submit(() -> cache.obtener("user1", () -> cargar(1))).get(5, TimeUnit.SECONDS);
+            }
+            
+            // Assert
+            assertSame(cargadas, leidas);
+            assertEquals(1, cargas.get());
+        } finally {
+            otroHilo.shutdownNow();
+        }
+    }
+    
+    @Test
+    void obtener_UsuarioMayorQueElPresupuesto_NoSeGuarda() {
+        // Act
+        ColumnasTransacciones columnas = cache.obtener("user1", () -> cargar(100));
+        
+        // Assert
+        assertEquals(100, columnas.tamanio());
+        assertEquals(0, cache.tamanio());
+    }
+    
+    private ColumnasTransacciones cargar(int cantidad) {
+        cargas.incrementAndGet();
+        return columnas(cantidad);
+    }
+    
+    private static ColumnasTransacciones columnas(int cantidad) {
+        Transaccion[] transacciones = new Transaccion[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            transacciones[i] = transaccion(TipoTransaccion.GASTO, BASE.plusHours(i), 1.0);
+        }
+        return ColumnasTransacciones.de(List.of(transacciones));
+    }
+    
+    private static Transaccion transaccion(TipoTransaccion tipo, LocalDateTime fecha, double monto) {
+        return new Transaccion(tipo, "cat1", "Comida", "Prueba", fecha, monto, "user1");
+    }
+}
@@ -0,0 +1,77 @@
+package com.controlgastos.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para UserScopedCache
+ */
+class UserScopedCacheTest {
+    
+    private UserScopedCache cache;
+    private AtomicInteger cargas;
+    
+    @BeforeEach
+    void setUp() {
+        cache = new UserScopedCache(2, 2);
+        cargas = new AtomicInteger();
+    }
+    
+    @Test
+    void obtener_MismaClave_CargaUnaSolaVez() {
+        // Act
+        String primero = cache.obtener("user1", "clave", () -> "valor" + cargas.incrementAndGet());
+        String segundo = cache.obtener("user1", "clave", () -> "valor" + cargas.incrementAndGet());
+        
+        // Assert
+        assertEquals("valor1", primero);
+        assertEquals("valor1", segundo);
+        assertEquals(1, cargas.get());
+    }
+    
+    @Test
+    void invalidar_DescartaSoloElUsuario() {
+        // Arrange
+        cache.obtener("user1", "clave", () -> cargas.incrementAndGet());
+        cache.obtener("user2", "clave", () -> cargas.incrementAndGet());
+        
+        // Act
+        cache.invalidar("user1");
+        Integer user1 = cache.obtener("user1", "clave", () -> cargas.incrementAndGet());
+        Integer user2 = cache.obtener("user2", "clave", () -> cargas.incrementAndGet());
+        
+        // Assert
+        assertEquals(3, user1);
+        assertEquals(2, user2);
+    }
+    
+    @Test
+    void obtener_InvalidacionDuranteCarga_NoPublicaValorObsoleto() {
+        // Act: la escritura ocurre mientras se calcula el valor
+        cache.obtener("user1", "clave", () -> {
+            cache.invalidar("user1");
+            return "obsoleto";
+        });
+        String actual = cache.obtener("user1", "clave", () -> "nuevo");
+        
+        // Assert
+        assertEquals("nuevo", actual);
+    }
+    
+    @Test
+    void obtener_RespetaLimites() {
+        // Act
+        cache.obtener("user1", "a", () -> 1);
+        cache.obtener("user1", "b", () -> 2);
+        cache.obtener("user1", "c", () -> 3);
+        cache.obtener("user2", "a", () -> 1);
+        cache.obtener("user3", "a", () -> 1);
+        
+        // Assert
+        assertTrue(cache.tamanio() <= 2);
+        assertEquals(30, (int) cache.obtener("user3", "c", () -> 30));
+    }
+}
@@ -0,0 +1,186 @@
+package com.controlgastos.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para AdmisionFilter
+ */
+class AdmisionFilterTest {
+
+    private MeterRegistry registry;
+    private AdmisionFilter filter;
+    private ExecutorService executor;
+    private CountDownLatch dentro;
+    private CountDownLatch liberar;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        // 2 globales, 1 por usuario, sin cola por usuario y 1 en cola global con 50 ms de espera
+        filter = new AdmisionFilter(2, 1, 1, 0, 50, 3,
+                new ObjectMapper().registerModule(new JavaTimeModule()), registry);
+        executor = Executors.newCachedThreadPool();
+        liberar = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void userIdDeRuta_ExtraeElUsuarioDeLasRutasDeLaApi() {
+        assertEquals("user1", AdmisionFilter.userIdDeRuta("/api/transacciones/usuario/user1"));
+        assertEquals("user1", AdmisionFilter.userIdDeRuta("/api/transacciones/usuario/user1/resumen/periodo"));
+        assertEquals("user2", AdmisionFilter.userIdDeRuta("/api/categorias/usuario/user2"));
+        assertNull(AdmisionFilter.userIdDeRuta("/api/transacciones/tx1"));
+        assertNull(AdmisionFilter.userIdDeRuta("/api/usuarios/user1"));
+    }
+
+    @Test
+    void doFilter_ConCupo_AdmiteYLiberaElUsuario() throws Exception {
+        // Arrange
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(peticion("/api/transacciones/usuario/user1"), response, chain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+        assertEquals(0, filter.getUsuariosActivos());
+        assertEquals(1, registry.get("admision.espera").timer().count());
+    }
+
+    @Test
+    void doFilter_UsuarioSaturado_Responde429ConRetryAfter() throws Exception {
+        // Arrange
+        ocupar("/api/transacciones/usuario/user1", 1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(peticion("/api/transacciones/usuario/user1/resumen"), response, chain);
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertEquals("3", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(response.getContentAsString().contains("\"status\":429"));
+        assertNull(chain.getRequest());
+        assertEquals(1.0, registry.get("admision.rechazadas").tag("ambito", "usuario").counter().count());
+    }
+
+    @Test
+    void doFilter_UsuarioSaturado_NoAfectaAOtrosUsuarios() throws Exception {
+        // Arrange
+        ocupar("/api/transacciones/usuario/user1", 1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(peticion("/api/transacciones/usuario/user2"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    void doFilter_GlobalSaturado_EsperaEnColaYResponde429() throws Exception {
+        // Arrange
+        ocupar("/api/transacciones/usuario/user1", 1);
+        ocupar("/api/transacciones/tx1", 1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        long inicio = System.nanoTime();
+        filter.doFilter(peticion("/api/transacciones/usuario/user2"), response, new MockFilterChain());
+        long esperaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        // Assert
+        assertEquals(429, response.getStatus());
+        assertTrue(esperaMs >= 40, "Debe esperar en la cola antes de rechazar");
+        assertEquals(1.0, registry.get("admision.rechazadas").tag("ambito", "global").counter().count());
+        assertEquals(0.0, registry.get("admision.en.cola").tag("ambito", "global").gauge().value());
+        assertEquals(2.0, registry.get("admision.en.curso").gauge().value());
+    }
+
+    @Test
+    void doFilter_GlobalSaturado_AdmiteAlLiberarseUnCupo() throws Exception {
+        // Arrange
+        Future<?> primera = ocupar("/api/transacciones/tx1", 2);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act: la petición espera en la cola y se libera un cupo durante la espera
+        executor.submit(() -> {
+            TimeUnit.MILLISECONDS.sleep(10);
+            liberar.countDown();
+            return null;
+        });
+        filter.doFilter(peticion("/api/transacciones/tx2"), response, new MockFilterChain());
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        primera.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldNotFilter_RutasFueraDeLaApiYStreamSse() throws Exception {
+        // Arrange
+        ocupar("/api/transacciones/usuario/user1", 1);
+        ocupar("/api/transacciones/tx1", 1);
+
+        // Act & Assert
+        for (String ruta : new String[] {"/actuator/health", "/api/transacciones/usuario/user1/resumen/stream"}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(peticion(ruta), response, new MockFilterChain());
+            assertEquals(200, response.getStatus(), ruta);
+        }
+    }
+
+    private MockHttpServletRequest peticion(String ruta) {
+        return new MockHttpServletRequest("GET", ruta);
+    }
+
+    /**
+     * Deja peticiones bloqueadas dentro del filtro hasta que se libere el latch
+     */
+    private Future<?> ocupar(String ruta, int peticiones) throws Exception {
+        dentro = new CountDownLatch(peticiones);
+        FilterChain bloqueante = (request, response) -> {
+            dentro.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Future<?> ultima = null;
+        for (int i = 0; i < peticiones; i++) {
+            ultima = executor.submit(() -> {
+                filter.doFilter(peticion(ruta), new MockHttpServletResponse(), bloqueante);
+                return null;
+            });
+        }
+        assertTrue(dentro.await(1, TimeUnit.SECONDS));
+        return ultima;
+    }
+}
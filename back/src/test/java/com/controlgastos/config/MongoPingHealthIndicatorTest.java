@@ -0,0 +1,81 @@
+package com.controlgastos.config;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para MongoPingHealthIndicator
+ */
+@ExtendWith(MockitoExtension.class)
+class MongoPingHealthIndicatorTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void health_SinPingTodavia_NoEstaLista() {
+        // Arrange
+        MongoPingHealthIndicator indicador = new MongoPingHealthIndicator(mongoTemplate, 5000, 15000);
+
+        // Act & Assert
+        assertEquals(Status.DOWN, indicador.health().getStatus());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void health_TrasPingCorrecto_DevuelveElResultadoSinConsultarMongo() {
+        // Arrange
+        MongoPingHealthIndicator indicador = new MongoPingHealthIndicator(mongoTemplate, 5000, 15000);
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(new Document("ok", 1));
+        indicador.ping();
+
+        // Act
+        indicador.health();
+        indicador.health();
+
+        // Assert
+        assertEquals(Status.UP, indicador.health().getStatus());
+        verify(mongoTemplate, times(1)).executeCommand(any(Document.class));
+    }
+
+    @Test
+    void health_PingFallido_NoEstaLista() {
+        // Arrange
+        MongoPingHealthIndicator indicador = new MongoPingHealthIndicator(mongoTemplate, 5000, 15000);
+        when(mongoTemplate.executeCommand(any(Document.class)))
+                .thenReturn(new Document("ok", 1))
+                .thenThrow(new DataAccessResourceFailureException("Sin servidor"));
+
+        // Act
+        indicador.ping();
+        indicador.ping();
+
+        // Assert
+        assertEquals(Status.DOWN, indicador.health().getStatus());
+        assertEquals("DataAccessResourceFailureException", indicador.health().getDetails().get("error"));
+    }
+
+    @Test
+    void health_PingSinRespuestaDemasiadoTiempo_NoEstaLista() throws Exception {
+        // Arrange
+        MongoPingHealthIndicator indicador = new MongoPingHealthIndicator(mongoTemplate, 5000, 1);
+        when(mongoTemplate.executeCommand(any(Document.class))).thenReturn(new Document("ok", 1));
+        indicador.ping();
+
+        // Act
+        Thread.sleep(20);
+
+        // Assert
+        assertEquals(Status.DOWN, indicador.health().getStatus());
+    }
+}
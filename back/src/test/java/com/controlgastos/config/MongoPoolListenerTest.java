@@ -0,0 +1,95 @@
+package com.controlgastos.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionId;
+import com.mongodb.connection.ConnectionPoolSettings;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para MongoPoolListener
+ */
+class MongoPoolListenerTest {
+    
+    private MeterRegistry registry;
+    private MongoPoolListener listener;
+    private ServerId serverId;
+    private ConnectionId conexion;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        listener = new MongoPoolListener(registry, 500);
+        serverId = new ServerId(new ClusterId("cluster1"), new ServerAddress("localhost", 27017));
+        conexion = new ConnectionId(serverId, 1, null);
+        listener.connectionPoolCreated(new ConnectionPoolCreatedEvent(serverId,
+                ConnectionPoolSettings.builder().maxSize(2).build()));
+    }
+    
+    @Test
+    void checkout_ActualizaConexionesEnUsoYEnEspera() {
+        // Act
+        listener.connectionCreated(new ConnectionCreatedEvent(conexion));
+        listener.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId, 1));
+        listener.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId, 2));
+        listener.connectionCheckedOut(new ConnectionCheckedOutEvent(conexion, 1, TimeUnit.MILLISECONDS.toNanos(3)));
+        
+        // Assert
+        assertEquals(1.0, gauge("mongodb.driver.pool.size"));
+        assertEquals(1.0, gauge("mongodb.driver.pool.checkedout"));
+        assertEquals(1.0, gauge("mongodb.driver.pool.waitqueuesize"));
+        assertEquals(1, espera("success").count());
+        
+        // Act
+        listener.connectionCheckedIn(new ConnectionCheckedInEvent(conexion, 1));
+        
+        // Assert
+        assertEquals(0.0, gauge("mongodb.driver.pool.checkedout"));
+    }
+    
+    @Test
+    void checkoutFallido_RegistraEsperaFallida() {
+        // Act
+        listener.connectionCheckOutStarted(new ConnectionCheckOutStartedEvent(serverId, 1));
+        listener.connectionCheckOutFailed(new ConnectionCheckOutFailedEvent(serverId, 1,
+                ConnectionCheckOutFailedEvent.Reason.TIMEOUT, TimeUnit.SECONDS.toNanos(2)));
+        
+        // Assert
+        assertEquals(0.0, gauge("mongodb.driver.pool.waitqueuesize"));
+        assertEquals(1, espera("failure").count());
+        assertEquals(2000.0, espera("failure").totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+    
+    @Test
+    void poolCerrado_EliminaMedidores() {
+        // Act
+        listener.connectionPoolClosed(new ConnectionPoolClosedEvent(serverId));
+        
+        // Assert
+        assertNull(registry.find("mongodb.driver.pool.checkedout").gauge());
+        assertNull(registry.find("mongodb.driver.pool.wait").timer());
+    }
+    
+    private double gauge(String nombre) {
+        return registry.get(nombre).tag("server.address", "localhost:27017").gauge().value();
+    }
+    
+    private Timer espera(String resultado) {
+        return registry.get("mongodb.driver.pool.wait").tag("outcome", resultado).timer();
+    }
+}
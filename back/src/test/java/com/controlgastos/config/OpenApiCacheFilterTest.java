@@ -0,0 +1,51 @@
+package com.controlgastos.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para OpenApiCacheFilter
+ */
+class OpenApiCacheFilterTest {
+
+    private final OpenApiCacheFilter filtro = new OpenApiCacheFilter("/api-docs");
+    private final AtomicInteger generaciones = new AtomicInteger();
+
+    @Test
+    void doFilter_SegundaPeticion_SeSirveDesdeCache() throws Exception {
+        // Act
+        MockHttpServletResponse primera = pedir("/api-docs");
+        MockHttpServletResponse segunda = pedir("/api-docs");
+
+        // Assert
+        assertEquals(1, generaciones.get());
+        assertEquals("{\"openapi\":\"3.0.1\"}", primera.getContentAsString());
+        assertEquals(primera.getContentAsString(), segunda.getContentAsString());
+        assertEquals("application/json", segunda.getContentType());
+    }
+
+    @Test
+    void doFilter_OtraRuta_NoSeCachea() throws Exception {
+        // Act
+        pedir("/api-docs/swagger-config");
+        pedir("/api-docs/swagger-config");
+
+        // Assert
+        assertEquals(2, generaciones.get());
+    }
+
+    private MockHttpServletResponse pedir(String ruta) throws Exception {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", ruta), respuesta, (request, response) -> {
+            generaciones.incrementAndGet();
+            response.setContentType("application/json");
+            response.getOutputStream().write("{\"openapi\":\"3.0.1\"}".getBytes(StandardCharsets.UTF_8));
+        });
+        return respuesta;
+    }
+}
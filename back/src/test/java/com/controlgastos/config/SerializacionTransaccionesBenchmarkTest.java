@@ -0,0 +1,81 @@
+package com.controlgastos.config;
+
+import com.controlgastos.dto.TransaccionResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.io.OutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark de la serialización de listas de transacciones: ObjectMapper (camino por defecto
+ * de Spring MVC) frente a TransaccionesJsonHttpMessageConverter
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=SerializacionTransaccionesBenchmarkTest
+ */
+@Tag("benchmark")
+class SerializacionTransaccionesBenchmarkTest {
+    
+    private static final int TRANSACCIONES = 10_000;
+    private static final int CALENTAMIENTO = 200;
+    private static final int ITERACIONES = 500;
+    
+    @Test
+    void compararObjectMapperConConversorDedicado() throws Exception {
+        ObjectMapper objectMapper = TransaccionesJsonHttpMessageConverterTest.objectMapperAplicacion();
+        ObjectWriter writer = objectMapper.writerFor(new TypeReference<List<TransaccionResponseDTO>>() { });
+        TransaccionesJsonHttpMessageConverter converter =
+                new TransaccionesJsonHttpMessageConverter(objectMapper.getFactory());
+        List<TransaccionResponseDTO> transacciones =
+                TransaccionesJsonHttpMessageConverterTest.transaccionesDePrueba(TRANSACCIONES);
+        
+        Tarea porDefecto = salida -> writer.writeValue(salida, transacciones);
+        Tarea dedicado = salida -> converter.escribir(transacciones.iterator(), salida);
+        
+        medir("ObjectMapper", porDefecto, CALENTAMIENTO);
+        medir("Conversor", dedicado, CALENTAMIENTO);
+        double tiempoPorDefecto = medir("ObjectMapper", porDefecto, ITERACIONES);
+        double tiempoDedicado = medir("Conversor", dedicado, ITERACIONES);
+        
+        System.out.printf("Aceleración del conversor: %.2fx%n", tiempoPorDefecto / tiempoDedicado);
+        assertTrue(tiempoDedicado > 0);
+    }
+    
+    private double medir(String nombre, Tarea tarea, int iteraciones) throws Exception {
+        ContadorBytes salida = new ContadorBytes();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < iteraciones; i++) {
+            tarea.ejecutar(salida);
+        }
+        double msPorLista = (System.nanoTime() - inicio) / 1e6 / iteraciones;
+        System.out.printf("[%s] %d listas de %,d transacciones: %.3f ms/lista, %,.0f transacciones/s, %,d bytes/lista%n",
+                nombre, iteraciones, TRANSACCIONES, msPorLista, TRANSACCIONES / msPorLista * 1000,
+                salida.bytes / iteraciones);
+        return msPorLista;
+    }
+    
+    @FunctionalInterface
+    private interface Tarea {
+        void ejecutar(OutputStream salida) throws Exception;
+    }
+    
+    /**
+     * Salida que descarta los datos y solo cuenta los bytes
+     */
+    private static class ContadorBytes extends OutputStream {
+        private long bytes;
+        
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
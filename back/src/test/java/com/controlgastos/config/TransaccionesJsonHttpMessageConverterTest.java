@@ -0,0 +1,100 @@
+package com.controlgastos.config;
+
+import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.model.TipoTransaccion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para TransaccionesJsonHttpMessageConverter
+ */
+class TransaccionesJsonHttpMessageConverterTest {
+    
+    private static final Type LISTA_TRANSACCIONES =
+            new ParameterizedTypeReference<List<TransaccionResponseDTO>>() { }.getType();
+    
+    /** Misma configuración que el ObjectMapper de la aplicación */
+    static ObjectMapper objectMapperAplicacion() {
+        return Jackson2ObjectMapperBuilder.json()
+                .modules(new JavaTimeModule(), new BlackbirdModule())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+    
+    /** Transacciones con los casos límite de cada campo */
+    static List<TransaccionResponseDTO> transaccionesDePrueba(int cantidad) {
+        List<TransaccionResponseDTO> transacciones = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < cantidad; i++) {
+            transacciones.add(new TransaccionResponseDTO(
+                    "id" + i,
+                    i % 2 == 0 ? TipoTransaccion.GASTO : TipoTransaccion.INGRESO,
+                    "cat" + (i % 7),
+                    "Categoría \"" + i + "\"",
+                    i % 5 == 0 ? "Línea\ncon\tcontrol \u0001 y emoji 💰" : "Movimiento " + i,
+                    base.plusSeconds(i * 37L).plusNanos(i % 3 == 0 ? 0 : i * 1000L),
+                    i % 4 == 0 ? 1e7 + i : 0.1 * i,
+                    "user1"));
+        }
+        transacciones.add(new TransaccionResponseDTO(null, null, null, null, null, null, null, null));
+        return transacciones;
+    }
+    
+    private final ObjectMapper objectMapper = objectMapperAplicacion();
+    private final TransaccionesJsonHttpMessageConverter converter =
+            new TransaccionesJsonHttpMessageConverter(objectMapper.getFactory());
+    
+    @Test
+    void write_ProduceElMismoJsonQueObjectMapper() throws Exception {
+        // Arrange
+        List<TransaccionResponseDTO> transacciones = transaccionesDePrueba(500);
+        MockHttpOutputMessage salida = new MockHttpOutputMessage();
+        
+        // Act
+        converter.write(transacciones, LISTA_TRANSACCIONES, MediaType.APPLICATION_JSON, salida);
+        
+        // Assert
+        // Spring escribe bytes UTF-8: se compara con la misma salida de ObjectMapper
+        assertEquals(new String(objectMapper.writeValueAsBytes(transacciones), StandardCharsets.UTF_8),
+                salida.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, salida.getHeaders().getContentType());
+    }
+    
+    @Test
+    void write_ListaVacia_EscribeArregloVacio() throws Exception {
+        // Arrange
+        MockHttpOutputMessage salida = new MockHttpOutputMessage();
+        
+        // Act
+        converter.write(List.of(), LISTA_TRANSACCIONES, MediaType.APPLICATION_JSON, salida);
+        
+        // Assert
+        assertEquals("[]", salida.getBodyAsString(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void canWrite_SoloListasDeTransaccionesEnJson() {
+        Type listaDeTextos = new ParameterizedTypeReference<List<String>>() { }.getType();
+        
+        assertTrue(converter.canWrite(LISTA_TRANSACCIONES, List.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(LISTA_TRANSACCIONES, List.class, null));
+        assertFalse(converter.canWrite(LISTA_TRANSACCIONES, List.class, MediaType.APPLICATION_XML));
+        assertFalse(converter.canWrite(listaDeTextos, List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(List.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(LISTA_TRANSACCIONES, null, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,227 @@
+package com.controlgastos.controller;
+
+import com.controlgastos.config.GraphQlConfig;
+import com.controlgastos.dto.CategoriaResponseDTO;
+import com.controlgastos.dto.LoteResponseDTO;
+import com.controlgastos.dto.ResumenGastosDTO;
+import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.dto.UserResponseDTO;
+import com.controlgastos.exception.GraphQlExceptionResolver;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.service.CategoriaService;
+import com.controlgastos.service.TransaccionService;
+import com.controlgastos.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.graphql.ResponseError;
+import org.springframework.graphql.data.method.annotation.support.AnnotatedControllerConfigurer;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import org.springframework.graphql.execution.DefaultBatchLoaderRegistry;
+import org.springframework.graphql.execution.DefaultExecutionGraphQlService;
+import org.springframework.graphql.execution.ErrorType;
+import org.springframework.graphql.execution.GraphQlSource;
+import org.springframework.graphql.test.tester.ExecutionGraphQlServiceTester;
+import org.springframework.graphql.test.tester.GraphQlTester;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas del endpoint GraphQL: agrupación de las relaciones anidadas y límites de costo
+ * El esquema y el controlador se montan como en la aplicación, con los servicios simulados
+ */
+@ExtendWith(MockitoExtension.class)
+class GraphQlControllerTest {
+    
+    @Mock
+    private UserService userService;
+    
+    @Mock
+    private CategoriaService categoriaService;
+    
+    @Mock
+    private TransaccionService transaccionService;
+    
+    private GenericApplicationContext contexto;
+    private GraphQlTester tester;
+    
+    @BeforeEach
+    void setUp() {
+        contexto = new GenericApplicationContext();
+        contexto.registerBean(GraphQlController.class,
+                () -> new GraphQlController(userService, categoriaService, transaccionService));
+        contexto.registerBean(BatchLoaderRegistry.class, () -> new DefaultBatchLoaderRegistry());
+        contexto.refresh();
+        
+        AnnotatedControllerConfigurer controladores = new AnnotatedControllerConfigurer();
+        controladores.setApplicationContext(contexto);
+        controladores.afterPropertiesSet();
+        
+        GraphQlConfig config = new GraphQlConfig();
+        GraphQlSource fuente = GraphQlSource.schemaResourceBuilder()
+                .schemaResources(new ClassPathResource("graphql/schema.graphqls"))
+                .configureRuntimeWiring(controladores)
+                .exceptionResolvers(List.of(controladores.getExceptionResolver(), new GraphQlExceptionResolver()))
+                .instrumentation(List.of(
+                        config.maxQueryComplexityInstrumentation(2000, 20),
+                        config.maxQueryDepthInstrumentation(6)))
+                .build();
+        DefaultExecutionGraphQlService servicio = new DefaultExecutionGraphQlService(fuente);
+        servicio.addDataLoaderRegistrar(contexto.getBean(BatchLoaderRegistry.class));
+        tester = ExecutionGraphQlServiceTester.create(servicio);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        contexto.close();
+    }
+    
+    @Test
+    void transacciones_ConCategoriaYUsuario_UnaConsultaPorRelacion() {
+        // Arrange
+        List<String> ids = IntStream.range(0, 50).mapToObj(i -> "t" + i).toList();
+        List<TransaccionResponseDTO> transacciones = ids.stream()
+                .map(id -> transaccion(id, "cat" + (id.hashCode() % 3), "user" + (id.hashCode() % 2)))
+                .toList();
+        when(transaccionService.obtenerTransaccionesPorIds(ids))
+                .thenReturn(new LoteResponseDTO<>(transacciones, List.of()));
+        when(categoriaService.obtenerCategoriasPorIds(any())).thenAnswer(invocacion -> {
+            List<String> categoriaIds = invocacion.getArgument(0);
+            return new LoteResponseDTO<>(categoriaIds.stream()
+                    .map(id -> new CategoriaResponseDTO(id, "Categoría " + id, "user0"))
+                    .toList(), List.of());
+        });
+        when(userService.obtenerUsuariosPorIds(any())).thenAnswer(invocacion -> {
+            Map<String, UserResponseDTO> porId = new HashMap<>();
+            invocacion.<Collection<String>>getArgument(0).forEach(id -> porId.put(id, usuario(id)));
+            return porId;
+        });
+        
+        // Act
+        GraphQlTester.Response respuesta = tester.document("""
+                query($ids: [ID!]!) {
+                  transacciones(ids: $ids) { id monto categoria { nombre } usuario { apodo } }
+                }""")
+                .variable("ids", ids)
+                .execute();
+        
+        // Assert
+        respuesta.path("transacciones").entityList(Object.class).hasSize(50);
+        respuesta.path("transacciones[0].categoria.nombre").entity(String.class)
+                .isEqualTo("Categoría " + transacciones.get(0).getCategoriaId());
+        respuesta.path("transacciones[0].usuario.apodo").entity(String.class)
+                .isEqualTo("apodo-" + transacciones.get(0).getUserId());
+        verify(categoriaService, times(1)).obtenerCategoriasPorIds(any());
+        verify(userService, times(1)).obtenerUsuariosPorIds(any());
+    }
+    
+    @Test
+    void usuario_ConCategoriasResumenYRecientes() {
+        // Arrange
+        when(userService.obtenerUsuarioPorId("user1")).thenReturn(usuario("user1"));
+        when(categoriaService.obtenerCategoriasPorUsuarios(any()))
+                .thenReturn(Map.of("user1", List.of(new CategoriaResponseDTO("cat1", "Alimentos", "user1"))));
+        when(transaccionService.calcularResumenes(any()))
+                .thenReturn(Map.of("user1", new ResumenGastosDTO(1000.0, 300.0, 700.0, 1L, 2L, "Todos los periodos")));
+        when(transaccionService.obtenerTransaccionesRecientes("user1", 5))
+                .thenReturn(List.of(transaccion("t1", "cat1", "user1")));
+        
+        // Act & Assert
+        tester.document("""
+                {
+                  usuario(id: "user1") {
+                    apodo
+                    categorias { nombre }
+                    resumen { balance cantidadGastos }
+                    transacciones(n: 5) { id }
+                  }
+                }""")
+                .execute()
+                .path("usuario.categorias[0].nombre").entity(String.class).isEqualTo("Alimentos")
+                .path("usuario.resumen.balance").entity(Double.class).isEqualTo(700.0)
+                .path("usuario.resumen.cantidadGastos").entity(Integer.class).isEqualTo(2)
+                .path("usuario.transacciones[0].id").entity(String.class).isEqualTo("t1");
+    }
+    
+    @Test
+    void usuario_NoEncontrado_ErrorNotFound() {
+        // Arrange
+        when(userService.obtenerUsuarioPorId("user9"))
+                .thenThrow(new ResourceNotFoundException("Usuario", "id", "user9"));
+        
+        // Act & Assert
+        tester.document("{ usuario(id: \"user9\") { apodo } }")
+                .execute()
+                .errors()
+                .expect(error -> error.getErrorType() == ErrorType.NOT_FOUND)
+                .verify()
+                .path("usuario").valueIsNull();
+    }
+    
+    @Test
+    void consultaDemasiadoCostosa_SeRechazaSinConsultarServicios() {
+        // 200 transacciones x (1 + usuario x (1 + 100 recientes x (1 + id))) supera con creces el límite
+        List<String> ids = new ArrayList<>(Collections.nCopies(200, "t1"));
+        
+        // Act
+        List<ResponseError> errores = new ArrayList<>();
+        tester.document("""
+                query($ids: [ID!]!) {
+                  transacciones(ids: $ids) { usuario { transacciones(n: 100) { id } } }
+                }""")
+                .variable("ids", ids)
+                .execute()
+                .errors()
+                .satisfy(errores::addAll);
+        
+        // Assert
+        assertEquals(1, errores.size());
+        assertTrue(errores.get(0).getMessage().contains("complexity"), errores.get(0).getMessage());
+        verifyNoInteractions(transaccionService, userService, categoriaService);
+    }
+    
+    @Test
+    void consultaDemasiadoProfunda_SeRechaza() {
+        // Act
+        List<ResponseError> errores = new ArrayList<>();
+        tester.document("""
+                {
+                  transaccion(id: "t1") {
+                    usuario { transacciones(n: 1) { usuario { transacciones(n: 1) { categoria { usuario { apodo } } } } } }
+                  }
+                }""")
+                .execute()
+                .errors()
+                .satisfy(errores::addAll);
+        
+        // Assert
+        assertEquals(1, errores.size());
+        assertTrue(errores.get(0).getMessage().contains("depth"), errores.get(0).getMessage());
+        verifyNoInteractions(transaccionService);
+    }
+    
+    private static TransaccionResponseDTO transaccion(String id, String categoriaId, String userId) {
+        return new TransaccionResponseDTO(id, TipoTransaccion.GASTO, categoriaId, null, "Compra",
+                LocalDateTime.of(2025, 1, 1, 12, 0), 10.0, userId);
+    }
+    
+    private static UserResponseDTO usuario(String id) {
+        return new UserResponseDTO(id, "apodo-" + id, id + "@example.com", List.of(), List.of(), 0, 0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.controlgastos.exception;
+
+import com.controlgastos.exception.GlobalExceptionHandler.ErrorResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark de tráfico con muchos 404: excepción con traza y String.format (como antes)
+ * frente a ResourceNotFoundException sin traza y GlobalExceptionHandler
+ * La excepción se lanza bajo una pila de profundidad parecida a la de Spring MVC
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=ExcepcionesBenchmarkTest
+ */
+@Tag("benchmark")
+class ExcepcionesBenchmarkTest {
+    
+    private static final int PROFUNDIDAD = 120;
+    private static final int CALENTAMIENTO = 50_000;
+    private static final int ITERACIONES = 500_000;
+    
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final WebRequest peticion = new ServletWebRequest(
+            new MockHttpServletRequest("GET", "/api/transacciones/000000000000000000000000"));
+    
+    @Test
+    void compararExcepcionConTrazaConExcepcionSinTraza() {
+        Function<String, Object> antes = id -> {
+            try {
+                lanzar(PROFUNDIDAD, () -> new ExcepcionConTraza(
+                        String.format("%s no encontrado con %s: '%s'", "Transacción", "id", id)));
+                return null;
+            } catch (ExcepcionConTraza ex) {
+                return new ResponseEntity<>(new ErrorResponse(LocalDateTime.now(), HttpStatus.NOT_FOUND.value(),
+                        "Recurso no encontrado", ex.getMessage(),
+                        peticion.getDescription(false).replace("uri=", "")), HttpStatus.NOT_FOUND);
+            }
+        };
+        Function<String, Object> despues = id -> {
+            try {
+                lanzar(PROFUNDIDAD, () -> new ResourceNotFoundException("Transacción", "id", id));
+                return null;
+            } catch (ResourceNotFoundException ex) {
+                return handler.handleResourceNotFoundException(ex, peticion);
+            }
+        };
+        
+        medir("Con traza", antes, CALENTAMIENTO);
+        medir("Sin traza", despues, CALENTAMIENTO);
+        double tiempoAntes = medir("Con traza", antes, ITERACIONES);
+        double tiempoDespues = medir("Sin traza", despues, ITERACIONES);
+        
+        System.out.printf("Aceleración de las respuestas 404: %.2fx%n", tiempoAntes / tiempoDespues);
+        assertTrue(tiempoDespues > 0);
+    }
+    
+    private double medir(String nombre, Function<String, Object> tarea, int iteraciones) {
+        Object ultima = null;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < iteraciones; i++) {
+            ultima = tarea.apply(Integer.toHexString(i));
+        }
+        double nsPorRespuesta = (double) (System.nanoTime() - inicio) / iteraciones;
+        assertNotNull(ultima);
+        System.out.printf("[%s] %,d respuestas 404: %,.0f ns/respuesta, %,.0f respuestas/s%n",
+                nombre, iteraciones, nsPorRespuesta, 1e9 / nsPorRespuesta);
+        return nsPorRespuesta;
+    }
+    
+    private static void lanzar(int profundidad, Supplier<RuntimeException> excepcion) {
+        if (profundidad == 0) {
+            throw excepcion.get();
+        }
+        lanzar(profundidad - 1, excepcion);
+    }
+    
+    /**
+     * Réplica de las excepciones anteriores: traza completa y mensaje con String.format
+     */
+    private static class ExcepcionConTraza extends RuntimeException {
+        ExcepcionConTraza(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.controlgastos.exception;
+
+import com.controlgastos.exception.GlobalExceptionHandler.ErrorResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para GlobalExceptionHandler y las excepciones de dominio sin traza
+ */
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void handleResourceNotFoundException_MantieneMensajeYRuta() {
+        // Arrange
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/api/transacciones/abc");
+
+        // Act
+        ResponseEntity<ErrorResponse> respuesta = handler.handleResourceNotFoundException(
+                new ResourceNotFoundException("Transacción", "id", "abc"), new ServletWebRequest(peticion));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, respuesta.getStatusCode());
+        assertEquals("Transacción no encontrado con id: 'abc'", respuesta.getBody().getMessage());
+        assertEquals("/api/transacciones/abc", respuesta.getBody().getPath());
+    }
+
+    @Test
+    void excepcionesDeDominio_NoCapturanTrazaNiSupresiones() {
+        // Arrange
+        ResourceNotFoundException noEncontrado = new ResourceNotFoundException("Usuario", "id", "u1");
+        DuplicateResourceException duplicado = new DuplicateResourceException("Usuario", "apodo", "ana");
+
+        // Act
+        noEncontrado.addSuppressed(new IllegalStateException());
+
+        // Assert
+        assertEquals(0, noEncontrado.getStackTrace().length);
+        assertEquals(0, noEncontrado.getSuppressed().length);
+        assertEquals(0, duplicado.getStackTrace().length);
+        assertEquals("Usuario ya existe con apodo: 'ana'", duplicado.getMessage());
+        assertEquals(0, UnauthorizedException.CREDENCIALES_INCORRECTAS.getStackTrace().length);
+    }
+
+    @Test
+    void handleUnauthorizedException_InstanciaCompartida_RespondeCadaPeticionConSuRuta() {
+        // Act
+        ResponseEntity<ErrorResponse> primera = handler.handleUnauthorizedException(
+                UnauthorizedException.CREDENCIALES_INCORRECTAS,
+                new ServletWebRequest(new MockHttpServletRequest("POST", "/api/usuarios/login")));
+        ResponseEntity<ErrorResponse> segunda = handler.handleUnauthorizedException(
+                UnauthorizedException.CREDENCIALES_INCORRECTAS,
+                new ServletWebRequest(new MockHttpServletRequest("POST", "/api/v2/login")));
+
+        // Assert
+        assertEquals(HttpStatus.UNAUTHORIZED, primera.getStatusCode());
+        assertEquals("Correo electrónico o contrasenia incorrectos", segunda.getBody().getMessage());
+        assertEquals("/api/usuarios/login", primera.getBody().getPath());
+        assertEquals("/api/v2/login", segunda.getBody().getPath());
+    }
+}
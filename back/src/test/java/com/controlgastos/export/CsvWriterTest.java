@@ -0,0 +1,60 @@
+package com.controlgastos.export;
+
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para CsvWriter
+ */
+class CsvWriterTest {
+    
+    @Test
+    void texto_ConCaracteresEspeciales_SeEntrecomilla() throws IOException {
+        // Arrange
+        StringWriter salida = new StringWriter();
+        CsvWriter csv = new CsvWriter(salida, ',');
+        
+        // Act
+        csv.texto("simple");
+        csv.texto("con, coma");
+        csv.texto("con \"comillas\"");
+        csv.texto("dos\nlíneas");
+        csv.finFila();
+        
+        // Assert
+        assertEquals("simple,\"con, coma\",\"con \"\"comillas\"\"\",\"dos\nlíneas\"\r\n", salida.toString());
+    }
+    
+    @Test
+    void texto_InicioDeFormula_SeNeutraliza() throws IOException {
+        // Arrange
+        StringWriter salida = new StringWriter();
+        CsvWriter csv = new CsvWriter(salida, ';');
+        
+        // Act
+        csv.texto("=SUMA(A1:A2)");
+        csv.texto("@usuario");
+        csv.literal("-15.5");
+        csv.finFila();
+        
+        // Assert: los literales numéricos no se alteran
+        assertEquals("\"'=SUMA(A1:A2)\";\"'@usuario\";-15.5\r\n", salida.toString());
+    }
+    
+    @Test
+    void escribirFila_ValoresVaciosYNulos_DejaCamposVacios() throws IOException {
+        // Arrange
+        StringWriter salida = new StringWriter();
+        CsvWriter csv = new CsvWriter(salida, ',');
+        
+        // Act
+        csv.escribirBom();
+        csv.escribirFila("a", null, "", "b");
+        
+        // Assert
+        assertEquals("\uFEFFa,,,b\r\n", salida.toString());
+    }
+}
@@ -0,0 +1,768 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.exception.DuplicateResourceException;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.SecuenciaSync;
+import com.controlgastos.model.SketchMontos;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contrato común de UserRepository, CategoriaRepository y TransaccionRepository, y de los
+ * repositorios que usan sus escrituras (secuencias, eliminaciones y sketches de montos)
+ * 
+ * Lo cumplen tanto los repositorios de MongoDB (RepositoriosMongoContratoTest) como los
+ * del perfil "memoria" (RepositoriosMemoriaContratoTest): mismas consultas, mismos
+ * rangos de fechas, mismos índices únicos y mismas agregaciones
+ */
+public abstract class ContratoRepositorios {
+    
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 15, 12, 0);
+    
+    protected abstract UserRepository userRepository();
+    
+    protected abstract CategoriaRepository categoriaRepository();
+    
+    protected abstract TransaccionRepository transaccionRepository();
+    
+    protected abstract SecuenciaSyncRepository secuenciaRepository();
+    
+    protected abstract EliminacionRepository eliminacionRepository();
+    
+    protected abstract SketchMontosRepository sketchRepository();
+    
+    /**
+     * Deja todos los repositorios vacíos antes de cada prueba
+     */
+    protected abstract void limpiar();
+    
+    @BeforeEach
+    void prepararContrato() {
+        limpiar();
+    }
+    
+    // ---- Usuarios ----
+    
+    @Test
+    void usuario_Insert_AsignaIdYDevuelveCopias() {
+        // Arrange
+        User user = userRepository().insert(new User("ana", "ana@example.com", "password123"));
+        
+        // Act
+        User leido = userRepository().findById(user.getId()).orElseThrow();
+        leido.setApodo("cambiado");
+        leido.agregarTransaccion("t1");
+        
+        // Assert
+        assertNotNull(user.getId());
+        User otraVez = userRepository().findById(user.getId()).orElseThrow();
+        assertEquals("ana", otraVez.getApodo());
+        assertTrue(otraVez.getTransaccionesIds().isEmpty());
+        assertTrue(userRepository().existsById(user.getId()));
+    }
+    
+    @Test
+    void usuario_ApodoYCorreoUnicos() {
+        // Arrange
+        User ana = userRepository().insert(new User("ana", "ana@example.com", "password123"));
+        
+        // Act & Assert
+        DuplicateKeyException apodo = assertThrows(DuplicateKeyException.class,
+                () -> userRepository().insert(new User("ana", "otra@example.com", "password123")));
+        assertEquals("apodo", DuplicateResourceException.indiceViolado(apodo));
+        DuplicateKeyException correo = assertThrows(DuplicateKeyException.class,
+                () -> userRepository().insert(new User("otra", "ana@example.com", "password123")));
+        assertEquals("correo", DuplicateResourceException.indiceViolado(correo));
+        
+        ana.setContrasenia("nueva123");
+        userRepository().save(ana);
+        assertEquals("nueva123", userRepository().findByApodo("ana").orElseThrow().getContrasenia());
+        assertEquals(1, userRepository().count());
+    }
+    
+    @Test
+    void usuario_Save_LiberaElApodoAnterior() {
+        // Arrange
+        User ana = userRepository().insert(new User("ana", "ana@example.com", "password123"));
+        ana.setApodo("anita");
+        
+        // Act
+        userRepository().save(ana);
+        userRepository().insert(new User("ana", "nueva@example.com", "password123"));
+        
+        // Assert
+        assertEquals(ana.getId(), userRepository().findByApodo("anita").orElseThrow().getId());
+        assertEquals("nueva@example.com", userRepository().findByApodo("ana").orElseThrow().getCorreo());
+        assertEquals(ana.getId(), userRepository().findByCorreo("ana@example.com").orElseThrow().getId());
+    }
+    
+    @Test
+    void usuario_ListasDeIds_ActualizacionesAtomicas() {
+        // Arrange
+        User user = userRepository().insert(new User("ana", "ana@example.com", "password123"));
+        
+        // Act & Assert
+        assertEquals(1, userRepository().agregarTransaccionId(user.getId(), "t1"));
+        assertEquals(1, userRepository().agregarTransaccionId(user.getId(), "t2"));
+        assertEquals(1, userRepository().agregarCategoriaId(user.getId(), "c1"));
+        assertEquals(0, userRepository().agregarTransaccionId("no-existe", "t3"));
+        assertEquals(1, userRepository().quitarTransaccionId(user.getId(), "t1"));
+        assertEquals(0, userRepository().quitarTransaccionId(user.getId(), "t1"));
+        assertEquals(1, userRepository().quitarCategoriaId(user.getId(), "c1"));
+        
+        User leido = userRepository().findById(user.getId()).orElseThrow();
+        assertEquals(List.of("t2"), leido.getTransaccionesIds());
+        assertTrue(leido.getCategoriasIds().isEmpty());
+        assertFalse(userRepository().existsById("no-existe"));
+    }
+    
+    @Test
+    void usuario_ActualizarDatos_ConservaLasListasDeIds() {
+        // Arrange
+        User ana = userRepository().insert(new User("ana", "ana@example.com", "password123"));
+        User luis = userRepository().insert(new User("luis", "luis@example.com", "password123"));
+        userRepository().agregarTransaccionId(ana.getId(), "t1");
+        
+        // Act
+        assertEquals(1, userRepository().actualizarDatos(ana.getId(), "anita", "anita@example.com"));
+        userRepository().agregarCategoriaId(ana.getId(), "c1");
+        assertEquals(1, userRepository().actualizarDatosYContrasenia(ana.getId(), "anita", "anita@example.com", "nueva123"));
+        
+        // Assert
+        User leido = userRepository().findByApodo("anita").orElseThrow();
+        assertEquals("anita@example.com", leido.getCorreo());
+        assertEquals("nueva123", leido.getContrasenia());
+        assertEquals(List.of("t1"), leido.getTransaccionesIds());
+        assertEquals(List.of("c1"), leido.getCategoriasIds());
+        assertTrue(userRepository().findByApodo("ana").isEmpty());
+        assertEquals(0, userRepository().actualizarDatos("no-existe", "otro", "otro@example.com"));
+        DuplicateKeyException e = assertThrows(DuplicateKeyException.class,
+                () -> userRepository().actualizarDatos(luis.getId(), "anita", "luis@example.com"));
+        assertEquals("apodo", DuplicateResourceException.indiceViolado(e));
+    }
+    
+    @Test
+    void usuario_InsercionesConcurrentesConElMismoApodo_SoloUnaGana() throws Exception {
+        // Act
+        List<Future<Boolean>> intentos = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 16; i++) {
+                final int indice = i;
+                intentos.add(executor.submit(() -> {
+                    try {
+                        userRepository().insert(new User("ana", "ana" + indice + "@example.com", "password123"));
+                        return true;
+                    } catch (DuplicateKeyException e) {
+                        return false;
+                    }
+                }));
+            }
+        }
+        
+        // Assert
+        long ganadoras = 0;
+        for (Future<Boolean> intento : intentos) {
+            ganadoras += intento.get() ? 1 : 0;
+        }
+        assertEquals(1, ganadoras);
+        assertEquals(1, userRepository().count());
+    }
+    
+    @Test
+    void usuario_FindAllByIdYDelete() {
+        // Arrange
+        User ana = userRepository().insert(new User("ana", "ana@example.com", "password123"));
+        User luis = userRepository().insert(new User("luis", "luis@example.com", "password123"));
+        
+        // Act
+        userRepository().delete(luis);
+        
+        // Assert
+        assertEquals(List.of(ana.getId()), ids(userRepository().findAllById(List.of(ana.getId(), luis.getId())), User::getId));
+        assertTrue(userRepository().findByApodo("luis").isEmpty());
+        assertEquals(1, userRepository().findAll().size());
+    }
+    
+    // ---- Categorías ----
+    
+    @Test
+    void categoria_NombreUnicoPorUsuario() {
+        // Arrange
+        categoriaRepository().insert(new Categoria("Comida", "user1"));
+        categoriaRepository().insert(new Categoria("Comida", "user2"));
+        
+        // Act & Assert
+        DuplicateKeyException e = assertThrows(DuplicateKeyException.class,
+                () -> categoriaRepository().insert(new Categoria("Comida", "user1")));
+        assertEquals(Categoria.INDICE_NOMBRE, DuplicateResourceException.indiceViolado(e));
+        assertEquals(1, categoriaRepository().findByUserId("user1").size());
+    }
+    
+    @Test
+    void categoria_Renombrar() {
+        // Arrange
+        Categoria comida = categoriaRepository().insert(new Categoria("Comida", "user1"));
+        categoriaRepository().insert(new Categoria("Ocio", "user1"));
+        LocalDateTime ahora = BASE.plusDays(1);
+        
+        // Act & Assert
+        assertEquals(1, categoriaRepository().renombrar(comida.getId(), "Alimentos", 5L, ahora));
+        assertEquals(0, categoriaRepository().renombrar("no-existe", "Alimentos", 6L, ahora));
+        assertFalse(categoriaRepository().existsById("no-existe"));
+        DuplicateKeyException e = assertThrows(DuplicateKeyException.class,
+                () -> categoriaRepository().renombrar(comida.getId(), "Ocio", 7L, ahora));
+        assertEquals(Categoria.INDICE_NOMBRE, DuplicateResourceException.indiceViolado(e));
+        
+        Categoria leida = categoriaRepository().findById(comida.getId()).orElseThrow();
+        assertEquals("Alimentos", leida.getNombre());
+        assertEquals(5L, leida.getSecuencia());
+        assertEquals(ahora, leida.getActualizadoEn());
+    }
+    
+    @Test
+    void categoria_ConsultasPorUsuario() {
+        // Arrange
+        Categoria c1 = categoriaRepository().insert(new Categoria("Comida", "user1"));
+        Categoria c2 = categoriaRepository().insert(new Categoria("Comida", "user2"));
+        categoriaRepository().insert(new Categoria("Comida", "user3"));
+        
+        // Act
+        List<Categoria> dosUsuarios = categoriaRepository().findByUserIdIn(List.of("user1", "user2", "user9"));
+        
+        // Assert
+        assertEquals(List.of(c1.getId(), c2.getId()).stream().sorted().toList(),
+                ids(dosUsuarios, Categoria::getId).stream().sorted().toList());
+        assertTrue(categoriaRepository().findByUserId("user9").isEmpty());
+        assertEquals(List.of(c1.getId()), ids(categoriaRepository().findAllById(List.of(c1.getId(), "no-existe")), Categoria::getId));
+    }
+    
+    @Test
+    void categoria_CambiosPorSecuencia() {
+        // Arrange
+        for (long secuencia : new long[] {3, 1, 2}) {
+            categoriaRepository().insert(new Categoria(null, "C" + secuencia, "user1", secuencia, BASE));
+        }
+        categoriaRepository().insert(new Categoria(null, "C9", "user2", 9L, BASE));
+        
+        // Act
+        List<Categoria> limitadas = categoriaRepository()
+                .findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 1, Limit.of(1));
+        List<Categoria> todas = categoriaRepository()
+                .findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 1, Limit.unlimited());
+        
+        // Assert
+        assertEquals(List.of(2L), ids(limitadas, Categoria::getSecuencia));
+        assertEquals(List.of(2L, 3L), ids(todas, Categoria::getSecuencia));
+    }
+    
+    @Test
+    void categoria_DeleteByUserId() {
+        // Arrange
+        categoriaRepository().insert(new Categoria("Comida", "user1"));
+        categoriaRepository().insert(new Categoria("Ocio", "user1"));
+        Categoria otra = categoriaRepository().insert(new Categoria("Comida", "user2"));
+        
+        // Act
+        categoriaRepository().deleteByUserId("user1");
+        
+        // Assert
+        assertTrue(categoriaRepository().findByUserId("user1").isEmpty());
+        assertEquals(List.of(otra.getId()), ids(categoriaRepository().findAll(), Categoria::getId));
+        categoriaRepository().insert(new Categoria("Comida", "user1"));
+    }
+    
+    // ---- Transacciones ----
+    
+    @Test
+    void transaccion_InsertConIdRepetido_LanzaDuplicateKey() {
+        // Arrange
+        Transaccion transaccion = transaccionRepository().insert(gasto("user1", "cat1", BASE, 10.0));
+        
+        // Act & Assert
+        assertThrows(DuplicateKeyException.class,
+                () -> transaccionRepository().insert(conId(gasto("user1", "cat1", BASE, 20.0), transaccion.getId())));
+        assertEquals(10.0, transaccionRepository().findById(transaccion.getId()).orElseThrow().getMonto());
+    }
+    
+    @Test
+    void transaccion_Reemplazar_SoloSiExisteYMueveLosIndices() {
+        // Arrange
+        Transaccion transaccion = transaccionRepository().insert(gasto("user1", "cat1", BASE, 10.0));
+        Transaccion movida = conId(gasto("user1", "cat2", BASE.plusMonths(2), 15.0), transaccion.getId());
+        
+        // Act
+        assertTrue(transaccionRepository().reemplazar(movida).isPresent());
+        assertTrue(transaccionRepository().reemplazar(conId(gasto("user1", "cat1", BASE, 1.0), "no-existe")).isEmpty());
+        
+        // Assert
+        assertFalse(transaccionRepository().existsById("no-existe"));
+        assertTrue(transaccionRepository().findByUserIdAndFechaBetween("user1", BASE.minusDays(1), BASE.plusDays(1)).isEmpty());
+        assertEquals(List.of(transaccion.getId()), ids(transaccionRepository().findByUserIdAndFechaBetween(
+                "user1", BASE.plusMonths(1), BASE.plusMonths(3)), Transaccion::getId));
+        assertTrue(transaccionRepository().findByUserIdAndCategoriaId("user1", "cat1").isEmpty());
+        assertEquals(1, transaccionRepository().findByUserIdAndCategoriaId("user1", "cat2").size());
+    }
+    
+    @Test
+    void transaccion_RangosDeFechas() {
+        // Arrange
+        transaccionRepository().insert(gasto("user1", "cat1", BASE, 1.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusHours(1), 2.0));
+        transaccionRepository().insert(ingreso("user1", "cat1", BASE.plusHours(1), 50.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusHours(2), 4.0));
+        transaccionRepository().insert(gasto("user2", "cat1", BASE.plusHours(1), 8.0));
+        
+        // Act & Assert
+        // Between es exclusivo en ambos extremos
+        assertEquals(List.of(2.0, 50.0), montos(transaccionRepository()
+                .findByUserIdAndFechaBetween("user1", BASE, BASE.plusHours(2))));
+        assertEquals(List.of(2.0), montos(transaccionRepository().findByUserIdAndTipoTransaccionAndFechaBetween(
+                "user1", TipoTransaccion.GASTO, BASE, BASE.plusHours(2))));
+        // Los montos de gasto usan [inicio, fin) y solo garantizan el campo monto
+        assertEquals(List.of(1.0, 2.0), transaccionRepository()
+                .findMontosGasto("user1", BASE, BASE.plusHours(2)).stream().map(Transaccion::getMonto).sorted().toList());
+        assertEquals(List.of(1.0, 2.0, 4.0), montos(transaccionRepository()
+                .findByUserIdAndTipoTransaccion("user1", TipoTransaccion.GASTO)));
+        assertEquals(4, transaccionRepository().findByUserId("user1").size());
+    }
+    
+    @Test
+    void transaccion_RecorridoOrdenadoPorFecha() {
+        // Arrange
+        for (int hora : new int[] {5, 1, 4, 2, 3}) {
+            transaccionRepository().insert(gasto("user1", "cat1", BASE.plusHours(hora), hora));
+        }
+        
+        // Act
+        List<Double> recorridos;
+        try (Stream<Transaccion> stream = transaccionRepository()
+                .findByUserIdAndFechaBetweenOrderByFechaAsc("user1", BASE.plusHours(1), BASE.plusHours(5))) {
+            recorridos = stream.map(Transaccion::getMonto).toList();
+        }
+        
+        // Assert
+        assertEquals(List.of(2.0, 3.0, 4.0), recorridos);
+    }
+    
+    @Test
+    void transaccion_FindAllOrdenadoYPaginado() {
+        // Arrange
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusHours(3), 30));
+        transaccionRepository().insert(gasto("user1", "cat2", BASE.plusHours(1), 10));
+        transaccionRepository().insert(ingreso("user2", "cat1", BASE.plusHours(2), 20));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusHours(1), 5));
+        
+        // Act
+        List<Transaccion> ordenadas = transaccionRepository()
+                .findAll(Sort.by("fecha").and(Sort.by(Sort.Direction.DESC, "monto")));
+        Page<Transaccion> segunda = transaccionRepository()
+                .findAll(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "monto")));
+        
+        // Assert
+        assertEquals(List.of(10.0, 5.0, 20.0, 30.0), ids(ordenadas, Transaccion::getMonto));
+        assertEquals(List.of(10.0, 5.0), ids(segunda.getContent(), Transaccion::getMonto));
+        assertEquals(4, segunda.getTotalElements());
+        assertEquals(2, segunda.getTotalPages());
+    }
+    
+    @Test
+    void transaccion_ConsultasPorExample() {
+        // Arrange
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusHours(3), 30));
+        transaccionRepository().insert(gasto("user1", "cat2", BASE.plusHours(1), 10));
+        transaccionRepository().insert(ingreso("user2", "cat1", BASE.plusHours(2), 20));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusHours(1), 5));
+        Transaccion gastosUser1 = new Transaccion();
+        gastosUser1.setUserId("user1");
+        gastosUser1.setTipoTransaccion(TipoTransaccion.GASTO);
+        Transaccion porDescripcion = new Transaccion();
+        porDescripcion.setDescripcion("gas");
+        ExampleMatcher empiezaPor = ExampleMatcher.matching()
+                .withMatcher("descripcion", ExampleMatcher.GenericPropertyMatchers.startsWith().ignoreCase());
+        Transaccion otroUsuario = new Transaccion();
+        otroUsuario.setUserId("user9");
+        
+        // Act & Assert
+        assertEquals(List.of(5.0, 10.0, 30.0),
+                ids(transaccionRepository().findAll(Example.of(gastosUser1), Sort.by("monto")), Transaccion::getMonto));
+        assertEquals(3, transaccionRepository().count(Example.of(porDescripcion, empiezaPor)));
+        assertEquals(TipoTransaccion.INGRESO, transaccionRepository().findOne(Example.of(
+                new Transaccion(null, "cat1", null, null, null, 20.0, null))).orElseThrow().getTipoTransaccion());
+        assertFalse(transaccionRepository().exists(Example.of(otroUsuario)));
+        assertEquals(30.0, transaccionRepository().findBy(Example.of(gastosUser1),
+                consulta -> consulta.sortBy(Sort.by(Sort.Direction.DESC, "monto")).firstValue()).getMonto());
+        Page<Transaccion> pagina = transaccionRepository().findBy(Example.of(gastosUser1),
+                consulta -> consulta.sortBy(Sort.by("monto")).page(PageRequest.of(0, 2)));
+        assertEquals(List.of(5.0, 10.0), ids(pagina.getContent(), Transaccion::getMonto));
+        assertEquals(3, pagina.getTotalElements());
+    }
+    
+    @Test
+    void transaccion_RecientesYPorIds() {
+        // Arrange
+        List<String> ids = new ArrayList<>();
+        for (int dia = 1; dia <= 5; dia++) {
+            ids.add(transaccionRepository().insert(gasto("user1", "cat1", BASE.plusDays(dia), dia)).getId());
+        }
+        transaccionRepository().insert(gasto("user2", "cat1", BASE.plusDays(10), 99.0));
+        
+        // Act
+        List<Transaccion> recientes = transaccionRepository().buscarRecientes("user1", 3);
+        List<Transaccion> porIds = transaccionRepository().buscarPorIds(List.of(ids.get(0), "no-existe", ids.get(4)));
+        
+        // Assert
+        assertEquals(List.of(5.0, 4.0, 3.0), ids(recientes, Transaccion::getMonto));
+        assertEquals(List.of(1.0, 5.0), montos(porIds));
+    }
+    
+    @Test
+    void transaccion_ResumirPorCategoria() {
+        // Arrange
+        transaccionRepository().insert(conNombre(gasto("user1", "cat1", BASE, 10.0), "Comida"));
+        transaccionRepository().insert(conNombre(gasto("user1", "cat1", BASE.plusDays(1), 15.0), "Comida"));
+        transaccionRepository().insert(conNombre(gasto("user1", "cat2", BASE.plusDays(1), 5.0), "Ocio"));
+        transaccionRepository().insert(conNombre(ingreso("user1", "cat3", BASE.plusDays(2), 100.0), "Sueldo"));
+        transaccionRepository().insert(conNombre(gasto("user1", "cat2", BASE.plusYears(1), 1000.0), "Ocio"));
+        
+        // Act
+        List<ResumenCategoriaDTO> resumen = transaccionRepository()
+                .resumirPorCategoria("user1", BASE.minusDays(1), BASE.plusMonths(1));
+        
+        // Assert
+        assertEquals(List.of("cat3", "cat1", "cat2"), ids(resumen, ResumenCategoriaDTO::getCategoriaId));
+        ResumenCategoriaDTO comida = resumen.get(1);
+        assertEquals("Comida", comida.getCategoriaNombre());
+        assertEquals(TipoTransaccion.GASTO, comida.getTipoTransaccion());
+        assertEquals(25.0, comida.getTotal(), 1e-9);
+        assertEquals(2L, comida.getCantidad());
+    }
+    
+    @Test
+    void transaccion_AgruparPorPeriodoMensual() {
+        // Arrange: a mediodía y a mitad de mes, el mes no depende de la zona horaria de la JVM
+        transaccionRepository().insert(gasto("user1", "cat1", BASE, 10.0));
+        transaccionRepository().insert(ingreso("user1", "cat1", BASE.plusDays(2), 100.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusMonths(2), 7.0));
+        
+        // Act
+        List<TotalPeriodo> periodos = transaccionRepository().agruparPorPeriodo(
+                "user1", BASE.minusMonths(1), BASE.plusMonths(3), "month", "UTC");
+        
+        // Assert
+        assertEquals(List.of(Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-03-01T00:00:00Z")),
+                ids(periodos, periodo -> periodo.getInicio().toInstant()));
+        assertEquals(100.0, periodos.get(0).getTotalIngresos(), 1e-9);
+        assertEquals(10.0, periodos.get(0).getTotalGastos(), 1e-9);
+        assertEquals(2L, periodos.get(0).getCantidad());
+        assertEquals(0.0, periodos.get(1).getTotalIngresos(), 1e-9);
+        assertEquals(7.0, periodos.get(1).getTotalGastos(), 1e-9);
+    }
+    
+    @Test
+    void transaccion_CompararPorCategoria_RangosSemiabiertos() {
+        // Arrange
+        LocalDateTime corte = BASE.plusMonths(1);
+        transaccionRepository().insert(conNombre(gasto("user1", "cat1", BASE, 10.0), "Comida"));
+        transaccionRepository().insert(conNombre(gasto("user1", "cat1", corte, 20.0), "Comida"));
+        transaccionRepository().insert(conNombre(ingreso("user1", "cat2", corte.plusDays(1), 100.0), "Sueldo"));
+        transaccionRepository().insert(conNombre(gasto("user1", "cat1", corte.plusMonths(1), 1000.0), "Comida"));
+        transaccionRepository().insert(conNombre(gasto("user2", "cat1", corte.plusDays(1), 5.0), "Comida"));
+        
+        // Act
+        ComparacionCategorias comparacion = transaccionRepository().compararPorCategoria(
+                "user1", BASE, corte, corte, corte.plusMonths(1));
+        
+        // Assert: el inicio de cada periodo se incluye y el fin no
+        assertEquals(1, comparacion.getAnterior().size());
+        assertEquals(10.0, comparacion.getAnterior().get(0).getTotal(), 1e-9);
+        assertEquals(List.of("cat2", "cat1"), ids(comparacion.getActual(), ResumenCategoriaDTO::getCategoriaId));
+        assertEquals(20.0, comparacion.getActual().get(1).getTotal(), 1e-9);
+        assertEquals(1L, comparacion.getActual().get(1).getCantidad());
+        assertEquals("Comida", comparacion.getActual().get(1).getCategoriaNombre());
+        
+        ComparacionCategorias vacia = transaccionRepository().compararPorCategoria(
+                "user9", BASE, corte, corte, corte.plusMonths(1));
+        assertTrue(vacia.getAnterior().isEmpty());
+        assertTrue(vacia.getActual().isEmpty());
+    }
+    
+    @Test
+    void transaccion_CompararPorCategoria_CategoriaRenombrada_UnaFilaConElNombreMasReciente() {
+        // Arrange: las transacciones guardan el nombre que tenía la categoría al crearlas
+        LocalDateTime corte = BASE.plusMonths(1);
+        transaccionRepository().insert(conNombre(gasto("user1", "cat1", corte.plusDays(2), 20.0), "Alimentos"));
+        transaccionRepository().insert(conNombre(gasto("user1", "cat1", corte, 10.0), "Comida"));
+        transaccionRepository().insert(conNombre(gasto("user1", "cat1", corte.plusDays(1), 5.0), "Comida"));
+        
+        // Act
+        ComparacionCategorias comparacion = transaccionRepository().compararPorCategoria(
+                "user1", BASE, corte, corte, corte.plusMonths(1));
+        
+        // Assert
+        assertEquals(1, comparacion.getActual().size());
+        ResumenCategoriaDTO fila = comparacion.getActual().get(0);
+        assertEquals("Alimentos", fila.getCategoriaNombre());
+        assertEquals(35.0, fila.getTotal(), 1e-9);
+        assertEquals(3L, fila.getCantidad());
+    }
+    
+    @Test
+    void transaccion_AcumularSaldo_PaginasEncadenadasPorCursor() {
+        // Arrange: dos transacciones con la misma fecha obligan a desempatar por ID
+        transaccionRepository().insert(ingreso("user1", "cat1", BASE, 1000.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusDays(1), 100.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusDays(1), 50.0));
+        transaccionRepository().insert(ingreso("user1", "cat1", BASE.plusDays(2), 10.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusDays(3), 5.0));
+        transaccionRepository().insert(gasto("user2", "cat1", BASE.plusDays(1), 999.0));
+        
+        // Act
+        List<SaldoAcumulado> completo = transaccionRepository().acumularSaldo("user1", null, null, 10);
+        List<Double> paginados = new ArrayList<>();
+        List<String> ids = new ArrayList<>();
+        double saldo = 0.0;
+        List<SaldoAcumulado> pagina = transaccionRepository().acumularSaldo("user1", null, null, 2);
+        while (!pagina.isEmpty()) {
+            for (SaldoAcumulado fila : pagina) {
+                paginados.add(saldo + fila.getAcumulado());
+                ids.add(fila.getId());
+            }
+            SaldoAcumulado ultima = pagina.get(pagina.size() - 1);
+            saldo += ultima.getAcumulado();
+            pagina = transaccionRepository().acumularSaldo("user1", ultima.getFecha(), ultima.getId(), 2);
+        }
+        
+        // Assert
+        assertEquals(5, completo.size());
+        // Los IDs crecen con cada inserción: el gasto de 100 va antes que el de 50
+        assertEquals(List.of(1000.0, 900.0, 850.0, 860.0, 855.0), ids(completo, SaldoAcumulado::getAcumulado));
+        assertEquals(ids(completo, SaldoAcumulado::getId), ids);
+        assertEquals(ids(completo, SaldoAcumulado::getAcumulado), paginados);
+        assertTrue(transaccionRepository().acumularSaldo("user9", null, null, 10).isEmpty());
+    }
+    
+    @Test
+    void transaccion_SumarGastosPorCategorias() {
+        // Arrange
+        transaccionRepository().insert(gasto("user1", "cat1", BASE, 10.0));
+        transaccionRepository().insert(gasto("user2", "cat1", BASE, 5.0));
+        transaccionRepository().insert(gasto("user1", "cat2", BASE, 3.0));
+        transaccionRepository().insert(ingreso("user1", "cat1", BASE, 100.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusMonths(1), 1000.0));
+        transaccionRepository().insert(gasto("user1", "cat9", BASE, 1.0));
+        
+        // Act
+        Map<String, ResumenCategoriaDTO> porCategoria = transaccionRepository().sumarGastosPorCategorias(
+                        List.of("user1", "user2"), List.of("cat1", "cat2"), BASE, BASE.plusMonths(1)).stream()
+                .collect(Collectors.toMap(ResumenCategoriaDTO::getCategoriaId, Function.identity()));
+        
+        // Assert
+        assertEquals(2, porCategoria.size());
+        assertEquals(15.0, porCategoria.get("cat1").getTotal(), 1e-9);
+        assertEquals(2L, porCategoria.get("cat1").getCantidad());
+        assertEquals(TipoTransaccion.GASTO, porCategoria.get("cat1").getTipoTransaccion());
+        assertEquals(3.0, porCategoria.get("cat2").getTotal(), 1e-9);
+    }
+    
+    @Test
+    void transaccion_TotalizarPorUsuarios() {
+        // Arrange
+        transaccionRepository().insert(gasto("user1", "cat1", BASE, 10.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.minusYears(5), 2.5));
+        transaccionRepository().insert(ingreso("user1", "cat1", BASE, 100.0));
+        transaccionRepository().insert(ingreso("user2", "cat1", BASE, 40.0));
+        transaccionRepository().insert(ingreso("user3", "cat1", BASE, 1.0));
+        
+        // Act
+        Map<String, TotalUsuario> totales = transaccionRepository()
+                .totalizarPorUsuarios(List.of("user1", "user2", "user9")).stream()
+                .collect(Collectors.toMap(TotalUsuario::getUserId, Function.identity()));
+        
+        // Assert
+        assertEquals(2, totales.size());
+        assertEquals(100.0, totales.get("user1").getTotalIngresos(), 1e-9);
+        assertEquals(12.5, totales.get("user1").getTotalGastos(), 1e-9);
+        assertEquals(1L, totales.get("user1").getCantidadIngresos());
+        assertEquals(2L, totales.get("user1").getCantidadGastos());
+        assertEquals(0L, totales.get("user2").getCantidadGastos());
+    }
+    
+    @Test
+    void transaccion_EliminacionesMasivas() {
+        // Arrange
+        Transaccion borrar = transaccionRepository().insert(gasto("user1", "cat1", BASE, 1.0));
+        transaccionRepository().insert(gasto("user1", "cat1", BASE.plusDays(1), 2.0));
+        transaccionRepository().insert(gasto("user1", "cat2", BASE, 3.0));
+        transaccionRepository().insert(gasto("user2", "cat3", BASE, 4.0));
+        
+        // Act
+        transaccionRepository().delete(borrar);
+        transaccionRepository().deleteByCategoriaId("cat1");
+        transaccionRepository().deleteByUserId("user2");
+        
+        // Assert
+        assertEquals(List.of(3.0), montos(transaccionRepository().findByUserId("user1")));
+        assertTrue(transaccionRepository().findByUserId("user2").isEmpty());
+        assertTrue(transaccionRepository().findById(borrar.getId()).isEmpty());
+        assertTrue(transaccionRepository().buscarRecientes("user1", 10).stream()
+                .noneMatch(transaccion -> "cat1".equals(transaccion.getCategoriaId())));
+    }
+    
+    @Test
+    void transaccion_CambiosPorSecuencia() {
+        // Arrange
+        for (long secuencia : new long[] {4, 2, 3, 1}) {
+            Transaccion transaccion = gasto("user1", "cat1", BASE.plusDays(secuencia), secuencia);
+            transaccion.setSecuencia(secuencia);
+            transaccionRepository().insert(transaccion);
+        }
+        
+        // Act
+        List<Transaccion> cambiadas = transaccionRepository()
+                .findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 1, Limit.of(2));
+        
+        // Assert
+        assertEquals(List.of(2L, 3L), ids(cambiadas, Transaccion::getSecuencia));
+    }
+    
+    // ---- Sincronización y sketches ----
+    
+    @Test
+    void secuencia_IncrementarYRegistrarPurgadas() {
+        // Act
+        long primera = secuenciaRepository().incrementar("user1", 3);
+        long segunda = secuenciaRepository().incrementar("user1", 1);
+        secuenciaRepository().registrarPurgadas(List.of(new SecuenciaSync("user1", 0, 2), new SecuenciaSync("user2", 0, 9)));
+        secuenciaRepository().registrarPurgadas(List.of(new SecuenciaSync("user1", 0, 1)));
+        
+        // Assert: $max no baja purgadaHasta y no crea contadores
+        assertEquals(3, primera);
+        assertEquals(4, segunda);
+        SecuenciaSync secuencia = secuenciaRepository().findById("user1").orElseThrow();
+        assertEquals(4, secuencia.getValor());
+        assertEquals(2, secuencia.getPurgadaHasta());
+        assertFalse(secuenciaRepository().existsById("user2"));
+    }
+    
+    @Test
+    void eliminacion_CambiosPorSecuenciaYPurga() {
+        // Arrange
+        LocalDateTime antigua = BASE.minusDays(100);
+        eliminacionRepository().insert(new Eliminacion("user1", EntidadSync.TRANSACCION, "t1", 5L, antigua));
+        eliminacionRepository().insert(new Eliminacion("user1", EntidadSync.CATEGORIA, "c1", 7L, antigua));
+        eliminacionRepository().insert(new Eliminacion("user1", EntidadSync.TRANSACCION, "t2", 9L, BASE));
+        eliminacionRepository().insert(new Eliminacion("user2", EntidadSync.TRANSACCION, "t3", 2L, antigua));
+        
+        // Act
+        List<Eliminacion> posteriores = eliminacionRepository()
+                .findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 5, Limit.of(5));
+        Map<String, Long> maximos = eliminacionRepository().maximosAnterioresA(BASE.minusDays(90)).stream()
+                .collect(Collectors.toMap(SecuenciaSync::getId, SecuenciaSync::getPurgadaHasta));
+        long borradas = eliminacionRepository().deleteByEliminadoEnBefore(BASE.minusDays(90));
+        
+        // Assert
+        assertEquals(List.of("c1", "t2"), ids(posteriores, Eliminacion::getEntidadId));
+        assertEquals(Map.of("user1", 7L, "user2", 2L), maximos);
+        assertEquals(3, borradas);
+        assertEquals(List.of("t2"), ids(eliminacionRepository()
+                .findByEntidadAndEliminadoEnGreaterThanEqual(EntidadSync.TRANSACCION, BASE.minusDays(1)), Eliminacion::getEntidadId));
+    }
+    
+    @Test
+    void sketch_SaveConVersionYMarcasObsoletas() {
+        // Arrange
+        SketchMontos sketch = new SketchMontos("user1", "2025-03");
+        sketch.getDigests().put("cat1", new byte[] {1, 2});
+        sketchRepository().save(sketch);
+        SketchMontos leido = sketchRepository().findById("user1:2025-03").orElseThrow();
+        
+        // Act: la marca incrementa version y crea un stub incompleto en el mes sin sketch
+        SketchMontos marzo = new SketchMontos("user1", "2025-03");
+        marzo.getObsoletas().add("cat1");
+        SketchMontos abril = new SketchMontos("user1", "2025-04");
+        abril.getObsoletas().add("cat2");
+        sketchRepository().marcarObsoletas(List.of(marzo, abril));
+        
+        // Assert
+        leido.getObsoletas().clear();
+        assertThrows(OptimisticLockingFailureException.class, () -> sketchRepository().save(leido));
+        assertThrows(DuplicateKeyException.class, () -> sketchRepository().save(new SketchMontos("user1", "2025-04")));
+        List<SketchMontos> meses = sketchRepository().findByUserIdAndPeriodoEntre("user1", "2025-01", "2025-04").stream()
+                .sorted(Comparator.comparing(SketchMontos::getPeriodo))
+                .toList();
+        assertEquals(2, meses.size());
+        assertEquals(Set.of("cat1"), meses.get(0).getObsoletas());
+        assertArrayEquals(new byte[] {1, 2}, meses.get(0).getDigests().get("cat1"));
+        assertFalse(meses.get(0).isIncompleto());
+        assertTrue(meses.get(1).isIncompleto());
+        assertEquals("user1", meses.get(1).getUserId());
+        assertEquals(Set.of("cat2"), meses.get(1).getObsoletas());
+        
+        SketchMontos reconstruido = meses.get(1);
+        reconstruido.setIncompleto(false);
+        reconstruido.getObsoletas().clear();
+        sketchRepository().save(reconstruido);
+        assertFalse(sketchRepository().findById("user1:2025-04").orElseThrow().isIncompleto());
+    }
+    
+    private static Transaccion gasto(String userId, String categoriaId, LocalDateTime fecha, double monto) {
+        return new Transaccion(TipoTransaccion.GASTO, categoriaId, null, "Gasto", fecha, monto, userId);
+    }
+    
+    private static Transaccion ingreso(String userId, String categoriaId, LocalDateTime fecha, double monto) {
+        return new Transaccion(TipoTransaccion.INGRESO, categoriaId, null, "Ingreso", fecha, monto, userId);
+    }
+    
+    private static Transaccion conId(Transaccion transaccion, String id) {
+        transaccion.setId(id);
+        return transaccion;
+    }
+    
+    private static Transaccion conNombre(Transaccion transaccion, String categoriaNombre) {
+        transaccion.setCategoriaNombre(categoriaNombre);
+        return transaccion;
+    }
+    
+    /**
+     * Montos ordenados por fecha y monto, sin depender del orden natural de cada almacén
+     */
+    private static List<Double> montos(List<Transaccion> transacciones) {
+        return transacciones.stream()
+                .sorted(Comparator.comparing(Transaccion::getFecha).thenComparing(Transaccion::getMonto))
+                .map(Transaccion::getMonto)
+                .toList();
+    }
+    
+    private static <T, V> List<V> ids(List<T> elementos, Function<T, V> campo) {
+        return elementos.stream().map(campo).toList();
+    }
+}
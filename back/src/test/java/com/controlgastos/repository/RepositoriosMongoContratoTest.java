@@ -0,0 +1,92 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.EstadoArchivo;
+import com.controlgastos.model.SecuenciaSync;
+import com.controlgastos.model.SketchMontos;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.User;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Contrato de repositorios sobre MongoDB embebido
+ * Ejecutar con: mvn test -Pembedded-mongo -Dtest=RepositoriosMongoContratoTest
+ */
+@Tag("embedded-mongo")
+@SpringBootTest(properties = {"recurrentes.generador.enabled=false", "archivo.enabled=false"})
+@ActiveProfiles("embedded")
+class RepositoriosMongoContratoTest extends ContratoRepositorios {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+    
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+    
+    @Autowired
+    private SecuenciaSyncRepository secuenciaRepository;
+    
+    @Autowired
+    private EliminacionRepository eliminacionRepository;
+    
+    @Autowired
+    private SketchMontosRepository sketchRepository;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private CorteArchivo corteArchivo;
+    
+    @Override
+    protected UserRepository userRepository() {
+        return userRepository;
+    }
+    
+    @Override
+    protected CategoriaRepository categoriaRepository() {
+        return categoriaRepository;
+    }
+    
+    @Override
+    protected TransaccionRepository transaccionRepository() {
+        return transaccionRepository;
+    }
+    
+    @Override
+    protected SecuenciaSyncRepository secuenciaRepository() {
+        return secuenciaRepository;
+    }
+    
+    @Override
+    protected EliminacionRepository eliminacionRepository() {
+        return eliminacionRepository;
+    }
+    
+    @Override
+    protected SketchMontosRepository sketchRepository() {
+        return sketchRepository;
+    }
+    
+    @Override
+    protected void limpiar() {
+        mongoTemplate.remove(new Query(), User.class);
+        mongoTemplate.remove(new Query(), Categoria.class);
+        mongoTemplate.remove(new Query(), Transaccion.class);
+        mongoTemplate.remove(new Query(), CorteArchivo.COLECCION_ARCHIVO);
+        mongoTemplate.remove(new Query(), EstadoArchivo.class);
+        mongoTemplate.remove(new Query(), SecuenciaSync.class);
+        mongoTemplate.remove(new Query(), Eliminacion.class);
+        mongoTemplate.remove(new Query(), SketchMontos.class);
+        corteArchivo.invalidar();
+    }
+}
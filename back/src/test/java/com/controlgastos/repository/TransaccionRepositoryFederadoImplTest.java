@@ -0,0 +1,341 @@
+package com.controlgastos.repository;
+
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para TransaccionRepositoryFederadoImpl
+ */
+@ExtendWith(MockitoExtension.class)
+class TransaccionRepositoryFederadoImplTest {
+
+    private static final LocalDateTime CORTE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CorteArchivo corteArchivo;
+
+    private TransaccionRepositoryFederadoImpl repositorio;
+
+    @BeforeEach
+    void setUp() {
+        repositorio = new TransaccionRepositoryFederadoImpl(mongoTemplate, corteArchivo);
+    }
+
+    @Test
+    void findByUserIdAndFechaBetween_SinCorte_SoloConsultaLaColeccionPrincipal() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(null);
+
+        // Act
+        repositorio.findByUserIdAndFechaBetween("user-1", CORTE.minusYears(5), CORTE);
+
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Transaccion.class), eq(CorteArchivo.COLECCION));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO));
+        assertFalse(query.getValue().getQueryObject().containsKey("$and"));
+    }
+
+    @Test
+    void findByUserIdAndFechaBetween_RangoAnteriorAlCorte_UneAmbasColeccionesSinSolaparlas() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        Transaccion antigua = transaccion("t-1", CORTE.minusMonths(3));
+        Transaccion reciente = transaccion("t-2", CORTE.plusMonths(3));
+        when(mongoTemplate.find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO)))
+                .thenReturn(List.of(antigua));
+        when(mongoTemplate.find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION)))
+                .thenReturn(List.of(reciente));
+
+        // Act
+        List<Transaccion> resultado = repositorio.findByUserIdAndFechaBetween("user-1", CORTE.minusYears(1), CORTE.plusYears(1));
+
+        // Assert
+        assertEquals(List.of(antigua, reciente), resultado);
+        ArgumentCaptor<Query> archivo = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Query> principal = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(archivo.capture(), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO));
+        verify(mongoTemplate).find(principal.capture(), eq(Transaccion.class), eq(CorteArchivo.COLECCION));
+        assertEquals(new Document("$lt", CORTE), condicionCorte(archivo.getValue()));
+        assertEquals(new Document("$gte", CORTE), condicionCorte(principal.getValue()));
+    }
+
+    @Test
+    void findByUserIdAndFechaBetween_RangoPosteriorAlCorte_NoConsultaElArchivo() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+
+        // Act
+        repositorio.findByUserIdAndFechaBetween("user-1", CORTE.plusDays(1), CORTE.plusMonths(1));
+
+        // Assert
+        verify(mongoTemplate).find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void resumirPorCategoria_RangoAnteriorAlCorte_AgregaConUnionWithDelArchivo() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(CorteArchivo.COLECCION), eq(ResumenCategoriaDTO.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        // Act
+        repositorio.resumirPorCategoria("user-1", CORTE.minusYears(1), CORTE.plusYears(1));
+        repositorio.resumirPorCategoria("user-1", CORTE.plusDays(1), CORTE.plusYears(1));
+
+        // Assert
+        ArgumentCaptor<TypedAggregation<?>> agregaciones = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate, times(2)).aggregate(agregaciones.capture(), eq(CorteArchivo.COLECCION), eq(ResumenCategoriaDTO.class));
+        List<Document> conArchivo = agregaciones.getAllValues().get(0).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        List<Document> sinArchivo = agregaciones.getAllValues().get(1).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(CorteArchivo.COLECCION_ARCHIVO,
+                conArchivo.get(1).get("$unionWith", Document.class).getString("coll"));
+        assertTrue(sinArchivo.stream().noneMatch(etapa -> etapa.containsKey("$unionWith")));
+        assertTrue(conArchivo.get(2).containsKey("$group"));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void compararPorCategoria_AmbosPeriodosEnUnaAgregacionConFacetas() {
+        // Arrange
+        LocalDateTime inicio = CORTE.plusMonths(1);
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(CorteArchivo.COLECCION), eq(ComparacionCategorias.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        // Act
+        ComparacionCategorias resultado = repositorio.compararPorCategoria(
+                "user-1", inicio, inicio.plusMonths(1), inicio.plusMonths(1), inicio.plusMonths(2));
+
+        // Assert
+        ArgumentCaptor<TypedAggregation<?>> agregacion = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate, times(1)).aggregate(agregacion.capture(), eq(CorteArchivo.COLECCION), eq(ComparacionCategorias.class));
+        List<Document> pipeline = agregacion.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(2, pipeline.size());
+        assertTrue(pipeline.get(0).get("$match", Document.class).containsKey("$or"));
+        Document facetas = pipeline.get(1).get("$facet", Document.class);
+        assertEquals(Set.of("anterior", "actual"), facetas.keySet());
+        assertTrue(resultado.getAnterior().isEmpty());
+        assertTrue(resultado.getActual().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void acumularSaldo_LimitaAntesDeLaVentanaYContinuaDesdeElCursor() {
+        // Arrange
+        LocalDateTime cursor = CORTE.plusMonths(1);
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(CorteArchivo.COLECCION), eq(SaldoAcumulado.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        // Act
+        repositorio.acumularSaldo("user-1", cursor, "65f000000000000000000001", 101);
+
+        // Assert: la página empieza después del corte, así que no se consulta el archivo
+        ArgumentCaptor<TypedAggregation<?>> agregacion = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate).aggregate(agregacion.capture(), eq(CorteArchivo.COLECCION), eq(SaldoAcumulado.class));
+        List<String> etapas = agregacion.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).stream()
+                .map(etapa -> etapa.keySet().iterator().next())
+                .toList();
+        assertEquals(List.of("$match", "$sort", "$limit", "$setWindowFields", "$project"), etapas);
+        Document ventana = agregacion.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT).get(3)
+                .get("$setWindowFields", Document.class);
+        assertEquals("$userId", ventana.getString("partitionBy"));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void acumularSaldo_PrimeraPaginaConCorte_OrdenaYLimitaEnCadaColeccion() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(CorteArchivo.COLECCION), eq(SaldoAcumulado.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        // Act
+        repositorio.acumularSaldo("user-1", null, null, 101);
+
+        // Assert: cada colección ordena y limita por su índice; la unión solo mezcla dos páginas
+        ArgumentCaptor<TypedAggregation<?>> agregacion = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate).aggregate(agregacion.capture(), eq(CorteArchivo.COLECCION), eq(SaldoAcumulado.class));
+        List<Document> pipeline = agregacion.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(List.of("$match", "$sort", "$limit", "$unionWith", "$sort", "$limit", "$setWindowFields", "$project"),
+                pipeline.stream().map(etapa -> etapa.keySet().iterator().next()).toList());
+        List<Document> archivo = pipeline.get(3).get("$unionWith", Document.class).getList("pipeline", Document.class);
+        assertEquals(List.of("$match", "$sort", "$limit"),
+                archivo.stream().map(etapa -> etapa.keySet().iterator().next()).toList());
+        assertEquals(101L, archivo.get(2).getLong("$limit"));
+    }
+
+    @Test
+    void save_FechaAnteriorAlCorte_GuardaEnElArchivoYQuitaLaCopiaPrincipal() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        Transaccion transaccion = transaccion("t-1", CORTE.minusDays(1));
+        when(mongoTemplate.save(transaccion, CorteArchivo.COLECCION_ARCHIVO)).thenReturn(transaccion);
+
+        // Act
+        repositorio.save(transaccion);
+
+        // Assert
+        verify(mongoTemplate).save(transaccion, CorteArchivo.COLECCION_ARCHIVO);
+        verify(mongoTemplate).remove(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION));
+    }
+
+    @Test
+    void reemplazar_EliminadaEnAmbasColecciones_NoLaVuelveACrear() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        Transaccion transaccion = transaccion("t-1", CORTE.plusDays(1));
+
+        // Act
+        Optional<Transaccion> resultado = repositorio.reemplazar(transaccion);
+
+        // Assert
+        assertTrue(resultado.isEmpty());
+        verify(mongoTemplate).findAndReplace(any(Query.class), eq(transaccion), eq(CorteArchivo.COLECCION));
+        verify(mongoTemplate).findAndRemove(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO));
+        verify(mongoTemplate, never()).insert(any(Transaccion.class), anyString());
+        verify(mongoTemplate, never()).save(any(Transaccion.class), anyString());
+    }
+
+    @Test
+    void buscarPorIds_ConCorte_SoloBuscaEnElArchivoLasQueFaltan() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        Transaccion reciente = transaccion("t-1", CORTE.plusDays(1));
+        Transaccion archivada = transaccion("t-2", CORTE.minusYears(1));
+        when(mongoTemplate.find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION)))
+                .thenReturn(List.of(reciente));
+        when(mongoTemplate.find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO)))
+                .thenReturn(List.of(archivada));
+
+        // Act
+        List<Transaccion> resultado = repositorio.buscarPorIds(List.of("t-1", "t-2", "t-3"));
+
+        // Assert
+        assertEquals(List.of(reciente, archivada), resultado);
+        ArgumentCaptor<Query> archivo = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(archivo.capture(), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO));
+        assertEquals(List.of("t-2", "t-3"),
+                archivo.getValue().getQueryObject().get("id", Document.class).getList("$in", String.class));
+    }
+
+    @Test
+    void buscarRecientes_ColeccionPrincipalIncompleta_CompletaConLasMasRecientesDelArchivo() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        Transaccion reciente = transaccion("t-1", CORTE.plusDays(1));
+        Transaccion archivada = transaccion("t-2", CORTE.minusDays(1));
+        when(mongoTemplate.find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION)))
+                .thenReturn(List.of(reciente));
+        when(mongoTemplate.find(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO)))
+                .thenReturn(List.of(archivada));
+
+        // Act
+        List<Transaccion> resultado = repositorio.buscarRecientes("user-1", 10);
+
+        // Assert
+        assertEquals(List.of(reciente, archivada), resultado);
+        ArgumentCaptor<Query> principal = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Query> archivo = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(principal.capture(), eq(Transaccion.class), eq(CorteArchivo.COLECCION));
+        verify(mongoTemplate).find(archivo.capture(), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO));
+        assertEquals(10, principal.getValue().getLimit());
+        assertEquals(new Document("fecha", -1), principal.getValue().getSortObject());
+        assertEquals(9, archivo.getValue().getLimit());
+    }
+
+    @Test
+    void findById_NoEstaEnLaPrincipal_LaBuscaEnElArchivo() {
+        // Arrange
+        when(corteArchivo.actual()).thenReturn(CORTE);
+        Transaccion archivada = transaccion("t-1", CORTE.minusYears(1));
+        when(mongoTemplate.findById("t-1", Transaccion.class, CorteArchivo.COLECCION)).thenReturn(null);
+        when(mongoTemplate.findById("t-1", Transaccion.class, CorteArchivo.COLECCION_ARCHIVO)).thenReturn(archivada);
+
+        // Act
+        Optional<Transaccion> resultado = repositorio.findById("t-1");
+
+        // Assert
+        assertEquals(Optional.of(archivada), resultado);
+    }
+
+    @Test
+    void coleccionPara_SinCorteOFechaPosterior_UsaLaColeccionPrincipal() {
+        assertEquals(CorteArchivo.COLECCION, TransaccionRepositoryFederadoImpl.coleccionPara(CORTE.minusYears(3), null));
+        assertEquals(CorteArchivo.COLECCION, TransaccionRepositoryFederadoImpl.coleccionPara(CORTE, CORTE));
+        assertEquals(CorteArchivo.COLECCION_ARCHIVO, TransaccionRepositoryFederadoImpl.coleccionPara(CORTE.minusNanos(1), CORTE));
+    }
+
+    @Test
+    void repositorioCompuesto_DelegaElCrudRedeclaradoEnElFragmento() {
+        // Arrange
+        MongoOperations operaciones = mock(MongoOperations.class);
+        MongoMappingContext contexto = new MongoMappingContext();
+        contexto.setSimpleTypeHolder(MongoCustomConversions.create(conversiones -> { }).getSimpleTypeHolder());
+        when(operaciones.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, contexto));
+        TransaccionRepositoryFederado fragmento = mock(TransaccionRepositoryFederado.class);
+        TransaccionRepository repositorioCompuesto = new MongoRepositoryFactory(operaciones)
+                .getRepository(TransaccionRepository.class, RepositoryFragments.just(fragmento));
+        Transaccion transaccion = transaccion("t-1", CORTE);
+
+        // Act
+        repositorioCompuesto.insert(transaccion);
+        repositorioCompuesto.save(transaccion);
+        repositorioCompuesto.findById("t-1");
+        repositorioCompuesto.delete(transaccion);
+
+        // Assert
+        verify(fragmento).insert(transaccion);
+        verify(fragmento).save(transaccion);
+        verify(fragmento).findById("t-1");
+        verify(fragmento).delete(transaccion);
+        verifyNoInteractions(mongoTemplate);
+        verify(operaciones, never()).insert(any(Transaccion.class), any(String.class));
+    }
+
+    private static Document condicionCorte(Query query) {
+        List<?> condiciones = query.getQueryObject().getList("$and", Object.class);
+        return ((Document) condiciones.get(1)).get("fecha", Document.class);
+    }
+
+    private static Transaccion transaccion(String id, LocalDateTime fecha) {
+        Transaccion transaccion = new Transaccion(TipoTransaccion.GASTO, "cat-1", "Comida", "Compra", fecha, 10.0, "user-1");
+        transaccion.setId(id);
+        return transaccion;
+    }
+}
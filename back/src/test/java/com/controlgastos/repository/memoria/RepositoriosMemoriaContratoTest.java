@@ -0,0 +1,62 @@
+package com.controlgastos.repository.memoria;
+
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.ContratoRepositorios;
+import com.controlgastos.repository.EliminacionRepository;
+import com.controlgastos.repository.SecuenciaSyncRepository;
+import com.controlgastos.repository.SketchMontosRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+
+/**
+ * Contrato de repositorios sobre el almacén en memoria del perfil "memoria"
+ */
+class RepositoriosMemoriaContratoTest extends ContratoRepositorios {
+    
+    private UserRepositoryMemoria userRepository;
+    private CategoriaRepositoryMemoria categoriaRepository;
+    private TransaccionRepositoryMemoria transaccionRepository;
+    private SecuenciaSyncRepositoryMemoria secuenciaRepository;
+    private EliminacionRepositoryMemoria eliminacionRepository;
+    private SketchMontosRepositoryMemoria sketchRepository;
+    
+    @Override
+    protected UserRepository userRepository() {
+        return userRepository;
+    }
+    
+    @Override
+    protected CategoriaRepository categoriaRepository() {
+        return categoriaRepository;
+    }
+    
+    @Override
+    protected TransaccionRepository transaccionRepository() {
+        return transaccionRepository;
+    }
+    
+    @Override
+    protected SecuenciaSyncRepository secuenciaRepository() {
+        return secuenciaRepository;
+    }
+    
+    @Override
+    protected EliminacionRepository eliminacionRepository() {
+        return eliminacionRepository;
+    }
+    
+    @Override
+    protected SketchMontosRepository sketchRepository() {
+        return sketchRepository;
+    }
+    
+    @Override
+    protected void limpiar() {
+        userRepository = new UserRepositoryMemoria();
+        categoriaRepository = new CategoriaRepositoryMemoria();
+        transaccionRepository = new TransaccionRepositoryMemoria();
+        secuenciaRepository = new SecuenciaSyncRepositoryMemoria();
+        eliminacionRepository = new EliminacionRepositoryMemoria();
+        sketchRepository = new SketchMontosRepositoryMemoria();
+    }
+}
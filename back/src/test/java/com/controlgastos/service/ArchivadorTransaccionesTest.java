@@ -0,0 +1,132 @@
+package com.controlgastos.service;
+
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.EstadoArchivo;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.CorteArchivo;
+import com.controlgastos.repository.EliminacionRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ArchivadorTransacciones
+ */
+@ExtendWith(MockitoExtension.class)
+class ArchivadorTransaccionesTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2026, 3, 15, 10, 20);
+    private static final LocalDateTime CORTE = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CorteArchivo corteArchivo;
+
+    @Mock
+    private EliminacionRepository eliminacionRepository;
+
+    private ArchivadorTransacciones archivador;
+
+    @BeforeEach
+    void setUp() {
+        archivador = new ArchivadorTransacciones(mongoTemplate, corteArchivo, eliminacionRepository,
+                true, 24, 2, 300_000);
+    }
+
+    @Test
+    void archivar_PrimeraEjecucion_CopiaPorLotesSinBorrarYPublicaElCorte() {
+        // Arrange
+        when(mongoTemplate.indexOps(CorteArchivo.COLECCION_ARCHIVO)).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(CorteArchivo.COLECCION)))
+                .thenReturn(List.of(documento("t-1", 1), documento("t-2", 2)), List.of(documento("t-3", 3)));
+
+        // Act
+        ArchivadorTransacciones.Resultado resultado = archivador.archivar(AHORA);
+
+        // Assert
+        assertEquals(new ArchivadorTransacciones.Resultado(3, 0), resultado);
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq(CorteArchivo.COLECCION), eq(Document.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), anyString());
+        ArgumentCaptor<EstadoArchivo> estado = ArgumentCaptor.forClass(EstadoArchivo.class);
+        verify(mongoTemplate).save(estado.capture());
+        assertEquals(CORTE, estado.getValue().getCorte());
+        assertTrue(estado.getValue().isPendiente());
+        verify(corteArchivo).invalidar();
+    }
+
+    @Test
+    void archivar_PendienteDentroDeLaEspera_NoHaceNada() {
+        // Arrange
+        when(mongoTemplate.findById(EstadoArchivo.ID, EstadoArchivo.class))
+                .thenReturn(new EstadoArchivo(EstadoArchivo.ID, CORTE, true, AHORA.minusMinutes(1), AHORA.minusMinutes(2)));
+
+        // Act
+        ArchivadorTransacciones.Resultado resultado = archivador.archivar(AHORA);
+
+        // Assert
+        assertEquals(new ArchivadorTransacciones.Resultado(0, 0), resultado);
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+        verify(mongoTemplate, never()).save(any());
+    }
+
+    @Test
+    void archivar_PendienteTrasLaEspera_TrasladaYQuitaLasEliminadasDuranteLaCopia() {
+        // Arrange
+        LocalDateTime inicioCopia = AHORA.minusMinutes(70);
+        EstadoArchivo pendiente = new EstadoArchivo(EstadoArchivo.ID, CORTE, true, AHORA.minusMinutes(60), inicioCopia);
+        when(mongoTemplate.findById(EstadoArchivo.ID, EstadoArchivo.class)).thenReturn(pendiente);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(CorteArchivo.COLECCION)))
+                .thenReturn(List.of(documento("t-1", 1)));
+        when(eliminacionRepository.findByEntidadAndEliminadoEnGreaterThanEqual(EntidadSync.TRANSACCION, inicioCopia))
+                .thenReturn(List.of(new Eliminacion("user-1", EntidadSync.TRANSACCION, "t-9", 7L, inicioCopia.plusMinutes(1))));
+
+        // Act
+        ArchivadorTransacciones.Resultado resultado = archivador.archivar(AHORA);
+
+        // Assert
+        assertEquals(new ArchivadorTransacciones.Resultado(0, 1), resultado);
+        verify(mongoTemplate).remove(any(Query.class), eq(CorteArchivo.COLECCION));
+        verify(mongoTemplate).remove(any(Query.class), eq(Transaccion.class), eq(CorteArchivo.COLECCION_ARCHIVO));
+        assertFalse(pendiente.isPendiente());
+        verify(mongoTemplate).save(pendiente);
+        verify(corteArchivo, never()).invalidar();
+    }
+
+    @Test
+    void archivar_CorteVigenteSinNadaQueTrasladar_NoPublicaOtroCorte() {
+        // Arrange
+        when(mongoTemplate.findById(EstadoArchivo.ID, EstadoArchivo.class))
+                .thenReturn(new EstadoArchivo(EstadoArchivo.ID, CORTE, false, AHORA.minusDays(10), AHORA.minusDays(10)));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(CorteArchivo.COLECCION))).thenReturn(List.of());
+
+        // Act
+        ArchivadorTransacciones.Resultado resultado = archivador.archivar(AHORA);
+
+        // Assert
+        assertEquals(new ArchivadorTransacciones.Resultado(0, 0), resultado);
+        verify(mongoTemplate, never()).save(any());
+        verifyNoInteractions(eliminacionRepository);
+    }
+
+    private static Document documento(String id, int dia) {
+        return new Document("_id", id).append("fecha", LocalDateTime.of(2023, 1, dia, 0, 0));
+    }
+}
@@ -2,9 +2,11 @@ package com.controlgastos.service;
 
 import com.controlgastos.dto.CategoriaDTO;
 import com.controlgastos.dto.CategoriaResponseDTO;
+import com.controlgastos.dto.LoteResponseDTO;
 import com.controlgastos.exception.DuplicateResourceException;
 import com.controlgastos.exception.ResourceNotFoundException;
 import com.controlgastos.model.Categoria;
+import com.controlgastos.model.EntidadSync;
 import com.controlgastos.model.User;
 import com.controlgastos.repository.CategoriaRepository;
 import com.controlgastos.repository.UserRepository;
@@ -14,8 +16,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +39,9 @@ class CategoriaServiceTest {
     @Mock
     private UserRepository userRepository;
     
+    @Mock
+    private SyncService syncService;
+    
     @InjectMocks
     private CategoriaService categoriaService;
     
@@ -56,10 +63,8 @@ class CategoriaServiceTest {
     @Test
     void crearCategoria_Exitoso() {
         // Arrange
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(user));
-        when(categoriaRepository.findByNombreAndUserId(anyString(), anyString())).thenReturn(Optional.empty());
-        when(categoriaRepository.save(any(Categoria.class))).thenReturn(categoria);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.agregarCategoriaId(anyString(), anyString())).thenReturn(1L);
+        when(categoriaRepository.insert(any(Categoria.class))).thenReturn(categoria);
         
         // Act
         CategoriaResponseDTO resultado = categoriaService.crearCategoria("user1", categoriaDTO);
@@ -68,35 +73,51 @@ class CategoriaServiceTest {
         assertNotNull(resultado);
         assertEquals("Alimentos", resultado.getNombre());
         assertEquals("user1", resultado.getUserId());
-        verify(categoriaRepository, times(1)).save(any(Categoria.class));
+        verify(categoriaRepository, times(1)).insert(any(Categoria.class));
+        verify(userRepository, never()).save(any(User.class));
     }
     
     @Test
     void crearCategoria_UsuarioNoExiste_LanzaExcepcion() {
         // Arrange
-        when(userRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(userRepository.agregarCategoriaId(anyString(), anyString())).thenReturn(0L);
         
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
             categoriaService.crearCategoria("user999", categoriaDTO);
         });
         
-        verify(categoriaRepository, never()).save(any(Categoria.class));
+        verify(categoriaRepository, never()).insert(any(Categoria.class));
+        verify(syncService, never()).sellar(any(Categoria.class));
+    }
+    
+    @Test
+    void crearCategoria_FallaInsercion_RevierteReferencia() {
+        // Arrange
+        when(userRepository.agregarCategoriaId(anyString(), anyString())).thenReturn(1L);
+        when(categoriaRepository.insert(any(Categoria.class))).thenThrow(new IllegalStateException("fallo"));
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> {
+            categoriaService.crearCategoria("user1", categoriaDTO);
+        });
+        
+        verify(userRepository, times(1)).quitarCategoriaId(eq("user1"), anyString());
     }
     
     @Test
     void crearCategoria_NombreDuplicado_LanzaExcepcion() {
         // Arrange
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(user));
-        when(categoriaRepository.findByNombreAndUserId(anyString(), anyString()))
-                .thenReturn(Optional.of(categoria));
+        when(userRepository.agregarCategoriaId(anyString(), anyString())).thenReturn(1L);
+        when(categoriaRepository.insert(any(Categoria.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: controlgastos.categorias index: userId_nombre dup key"));
         
         // Act & Assert
         assertThrows(DuplicateResourceException.class, () -> {
             categoriaService.crearCategoria("user1", categoriaDTO);
         });
         
-        verify(categoriaRepository, never()).save(any(Categoria.class));
+        verify(userRepository, times(1)).quitarCategoriaId(eq("user1"), anyString());
     }
     
     @Test
@@ -132,13 +153,43 @@ class CategoriaServiceTest {
         assertEquals("Alimentos", resultado.getNombre());
     }
     
+    @Test
+    void obtenerCategoriasPorIds_DevuelveEnOrdenConNoEncontradas() {
+        // Arrange
+        when(categoriaRepository.findAllById(any())).thenReturn(List.of(categoria));
+        
+        // Act
+        LoteResponseDTO<CategoriaResponseDTO> resultado = categoriaService.obtenerCategoriasPorIds(
+                List.of("perdida", "cat1"));
+        
+        // Assert
+        assertNull(resultado.getResultados().get(0));
+        assertEquals("cat1", resultado.getResultados().get(1).getId());
+        assertEquals(List.of("perdida"), resultado.getNoEncontrados());
+        verify(categoriaRepository, never()).findById(anyString());
+    }
+    
+    @Test
+    void obtenerCategoriasPorUsuarios_AgrupaPorUsuario() {
+        // Arrange
+        when(categoriaRepository.findByUserIdIn(any())).thenReturn(List.of(categoria));
+        
+        // Act
+        Map<String, List<CategoriaResponseDTO>> resultado = categoriaService.obtenerCategoriasPorUsuarios(
+                List.of("user1", "user2"));
+        
+        // Assert
+        assertEquals(1, resultado.get("user1").size());
+        assertEquals("Alimentos", resultado.get("user1").get(0).getNombre());
+        assertTrue(resultado.get("user2").isEmpty());
+        verify(categoriaRepository, times(1)).findByUserIdIn(any());
+    }
+    
     @Test
     void actualizarCategoria_Exitoso() {
         // Arrange
         when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoria));
-        when(categoriaRepository.findByNombreAndUserId(anyString(), anyString()))
-                .thenReturn(Optional.empty());
-        when(categoriaRepository.save(any(Categoria.class))).thenReturn(categoria);
+        when(categoriaRepository.renombrar(eq("cat1"), eq("Comida Rápida"), any(), any())).thenReturn(1L);
         
         CategoriaDTO updateDTO = new CategoriaDTO("Comida Rápida");
         
@@ -147,15 +198,38 @@ class CategoriaServiceTest {
         
         // Assert
         assertNotNull(resultado);
-        verify(categoriaRepository, times(1)).save(any(Categoria.class));
+        assertEquals("Comida Rápida", resultado.getNombre());
+        verify(categoriaRepository, never()).save(any(Categoria.class));
+    }
+    
+    @Test
+    void actualizarCategoria_NombreDuplicado_LanzaExcepcion() {
+        // Arrange
+        when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoria));
+        when(categoriaRepository.renombrar(eq("cat1"), eq("Transporte"), any(), any())).thenThrow(
+                new DuplicateKeyException("E11000 duplicate key error collection: controlgastos.categorias index: userId_nombre dup key"));
+        
+        // Act & Assert
+        assertThrows(DuplicateResourceException.class,
+                () -> categoriaService.actualizarCategoria("cat1", new CategoriaDTO("Transporte")));
+    }
+    
+    @Test
+    void actualizarCategoria_EliminadaEntretanto_LanzaExcepcionSinRecrearla() {
+        // Arrange
+        when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoria));
+        when(categoriaRepository.renombrar(eq("cat1"), anyString(), any(), any())).thenReturn(0L);
+        
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> categoriaService.actualizarCategoria("cat1", new CategoriaDTO("Comida Rápida")));
+        verify(categoriaRepository, never()).save(any(Categoria.class));
     }
     
     @Test
     void eliminarCategoria_Exitoso() {
         // Arrange
         when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoria));
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
         doNothing().when(categoriaRepository).delete(any(Categoria.class));
         
         // Act
@@ -163,5 +237,8 @@ class CategoriaServiceTest {
         
         // Assert
         verify(categoriaRepository, times(1)).delete(categoria);
+        verify(userRepository, times(1)).quitarCategoriaId("user1", "cat1");
+        verify(syncService).registrarEliminacion("user1", EntidadSync.CATEGORIA, "cat1");
+        verify(userRepository, never()).save(any(User.class));
     }
 }
@@ -0,0 +1,259 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.CategoriaDTO;
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.dto.ResumenGastosDTO;
+import com.controlgastos.dto.TransaccionRequestDTO;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.SecuenciaSync;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Prueba de estrés de las escrituras concurrentes sobre MongoDB embebido
+ *
+ * Lanza miles de altas, modificaciones y bajas de transacciones y categorías en hilos
+ * virtuales, repartidas entre unos pocos usuarios "calientes" y mezcladas con lecturas
+ * del resumen por categoría (cacheado). Al terminar comprueba que las listas de IDs de
+ * cada usuario coinciden con las colecciones, que los resúmenes coinciden con los datos
+ * y que las secuencias de sincronización no se repiten; informa de las operaciones por
+ * segundo sostenidas
+ * Ejecutar con: mvn test -Pembedded-mongo -Dtest=EscriturasConcurrentesEstresTest
+ * Número de operaciones configurable con -Destres.operaciones=20000
+ */
+@Tag("embedded-mongo")
+@SpringBootTest(properties = {"recurrentes.generador.enabled=false", "archivo.enabled=false"})
+@ActiveProfiles("embedded")
+class EscriturasConcurrentesEstresTest {
+
+    private static final int USUARIOS = 4;
+    private static final int CATEGORIAS_FIJAS = 3;
+    private static final int OPERACIONES = Integer.getInteger("estres.operaciones", 5_000);
+    private static final LocalDateTime DESDE = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final LocalDateTime HASTA = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final List<Usuario> usuarios = new ArrayList<>();
+    private final AtomicLong conflictos = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        Stream.of(Transaccion.class, Categoria.class, User.class, SecuenciaSync.class, Eliminacion.class)
+                .forEach(tipo -> mongoTemplate.remove(new Query(), tipo));
+        usuarios.clear();
+        conflictos.set(0);
+
+        for (int u = 0; u < USUARIOS; u++) {
+            User user = mongoTemplate.insert(new User("caliente" + u, "caliente" + u + "@example.com", "password123"));
+            List<String> fijas = new ArrayList<>();
+            for (int c = 0; c < CATEGORIAS_FIJAS; c++) {
+                fijas.add(categoriaService.crearCategoria(user.getId(), new CategoriaDTO("Fija " + c)).getId());
+            }
+            usuarios.add(new Usuario(user.getId(), fijas));
+        }
+    }
+
+    @Test
+    void escriturasConcurrentes_UsuariosCalientes_MantienenInvariantes() throws Exception {
+        // Act
+        long inicio = System.nanoTime();
+        List<Future<?>> futuros = new ArrayList<>(OPERACIONES);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < OPERACIONES; i++) {
+                final int indice = i;
+                futuros.add(executor.submit(() -> operar(indice)));
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        for (Future<?> futuro : futuros) {
+            futuro.get(); // Propaga cualquier excepción inesperada de las operaciones
+        }
+        System.out.printf("%,d operaciones sobre %d usuarios en %.2f s: %,.0f operaciones/s (%,d conflictos esperados)%n",
+                OPERACIONES, USUARIOS, segundos, OPERACIONES / segundos, conflictos.get());
+
+        // Assert
+        for (Usuario usuario : usuarios) {
+            comprobarInvariantes(usuario);
+        }
+    }
+
+    /**
+     * Ejecuta una operación aleatoria (reproducible por índice) sobre un usuario aleatorio
+     */
+    private void operar(int indice) {
+        SplittableRandom random = new SplittableRandom(indice);
+        Usuario usuario = usuarios.get(random.nextInt(USUARIOS));
+        int tipo = random.nextInt(100);
+        try {
+            if (tipo < 40) {
+                usuario.transacciones.add(transaccionService
+                        .crearTransaccion(usuario.id, nuevaTransaccion(usuario, random)).getId());
+            } else if (tipo < 60) {
+                String id = usuario.transacciones.elegir(random);
+                if (id != null) {
+                    transaccionService.actualizarTransaccion(id, nuevaTransaccion(usuario, random));
+                }
+            } else if (tipo < 75) {
+                String id = usuario.transacciones.elegir(random);
+                if (id != null) {
+                    transaccionService.eliminarTransaccion(id);
+                    usuario.transacciones.quitar(id);
+                }
+            } else if (tipo < 85) {
+                transaccionService.calcularResumenPorCategoria(usuario.id, DESDE, HASTA);
+            } else if (tipo < 90) {
+                usuario.categorias.add(categoriaService
+                        .crearCategoria(usuario.id, new CategoriaDTO("Temporal " + indice)).getId());
+            } else if (tipo < 95) {
+                String id = usuario.categorias.elegir(random);
+                if (id != null) {
+                    categoriaService.actualizarCategoria(id, new CategoriaDTO("Renombrada " + indice));
+                }
+            } else {
+                String id = usuario.categorias.elegir(random);
+                if (id != null) {
+                    categoriaService.eliminarCategoria(id);
+                    usuario.categorias.quitar(id);
+                }
+            }
+        } catch (ResourceNotFoundException e) {
+            // Otra operación eliminó la misma transacción o categoría: es el resultado correcto
+            conflictos.incrementAndGet();
+        }
+    }
+
+    private void comprobarInvariantes(Usuario usuario) {
+        User user = mongoTemplate.findById(usuario.id, User.class);
+        List<Transaccion> transacciones = mongoTemplate.find(
+                Query.query(Criteria.where("userId").is(usuario.id)), Transaccion.class);
+        List<Categoria> categorias = mongoTemplate.find(
+                Query.query(Criteria.where("userId").is(usuario.id)), Categoria.class);
+
+        // Las listas del usuario coinciden con las colecciones, sin duplicados
+        assertEquals(user.getTransaccionesIds().size(), new HashSet<>(user.getTransaccionesIds()).size(),
+                "IDs de transacciones duplicados");
+        assertEquals(ids(transacciones, Transaccion::getId), new HashSet<>(user.getTransaccionesIds()));
+        assertEquals(user.getCategoriasIds().size(), new HashSet<>(user.getCategoriasIds()).size(),
+                "IDs de categorías duplicados");
+        assertEquals(ids(categorias, Categoria::getId), new HashSet<>(user.getCategoriasIds()));
+
+        // El resumen total coincide con los datos
+        ResumenGastosDTO resumen = transaccionService.calcularResumen(usuario.id);
+        assertEquals(sumar(transacciones, TipoTransaccion.INGRESO), resumen.getTotalIngresos(), 1e-6);
+        assertEquals(sumar(transacciones, TipoTransaccion.GASTO), resumen.getTotalGastos(), 1e-6);
+        assertEquals(transacciones.size(), resumen.getCantidadIngresos() + resumen.getCantidadGastos());
+
+        // El resumen por categoría (posiblemente cacheado durante la carga) no quedó desactualizado
+        Map<String, Double> esperado = transacciones.stream().collect(Collectors.groupingBy(
+                t -> t.getCategoriaId() + "/" + t.getTipoTransaccion(), Collectors.summingDouble(Transaccion::getMonto)));
+        Map<String, Double> obtenido = new HashMap<>();
+        for (ResumenCategoriaDTO fila : transaccionService.calcularResumenPorCategoria(usuario.id, DESDE, HASTA)) {
+            obtenido.put(fila.getCategoriaId() + "/" + fila.getTipoTransaccion(), fila.getTotal());
+        }
+        assertEquals(esperado.keySet(), obtenido.keySet());
+        esperado.forEach((clave, total) -> assertEquals(total, obtenido.get(clave), 1e-6, clave));
+
+        // Cada cambio recibió una secuencia de sincronización distinta y ya reservada
+        List<Long> secuencias = Stream.concat(
+                transacciones.stream().map(Transaccion::getSecuencia),
+                categorias.stream().map(Categoria::getSecuencia)).toList();
+        assertEquals(secuencias.size(), new HashSet<>(secuencias).size(), "Secuencias de sincronización repetidas");
+        long reservadas = mongoTemplate.findById(usuario.id, SecuenciaSync.class).getValor();
+        assertTrue(secuencias.stream().allMatch(secuencia -> secuencia != null && secuencia <= reservadas));
+    }
+
+    private TransaccionRequestDTO nuevaTransaccion(Usuario usuario, SplittableRandom random) {
+        return new TransaccionRequestDTO(
+                random.nextInt(4) == 0 ? TipoTransaccion.INGRESO : TipoTransaccion.GASTO,
+                usuario.categoriasFijas.get(random.nextInt(CATEGORIAS_FIJAS)),
+                "Estrés",
+                LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(random.nextInt(525_600)),
+                Math.round(random.nextDouble(1, 1_000) * 100) / 100.0
+        );
+    }
+
+    private static <T> Set<String> ids(List<T> entidades, Function<T, String> id) {
+        return entidades.stream().map(id).collect(Collectors.toSet());
+    }
+
+    private static double sumar(List<Transaccion> transacciones, TipoTransaccion tipo) {
+        return transacciones.stream()
+                .filter(t -> t.getTipoTransaccion() == tipo)
+                .mapToDouble(Transaccion::getMonto)
+                .sum();
+    }
+
+    /**
+     * Usuario caliente con los IDs creados por la prueba que siguen vivos
+     */
+    private static final class Usuario {
+        private final String id;
+        private final List<String> categoriasFijas;
+        private final Vivos transacciones = new Vivos();
+        private final Vivos categorias = new Vivos();
+
+        private Usuario(String id, List<String> categoriasFijas) {
+            this.id = id;
+            this.categoriasFijas = categoriasFijas;
+        }
+    }
+
+    /**
+     * IDs vivos de los que elegir al azar para modificar o eliminar
+     */
+    private static final class Vivos {
+        private final List<String> ids = Collections.synchronizedList(new ArrayList<>());
+
+        void add(String id) {
+            ids.add(id);
+        }
+
+        String elegir(SplittableRandom random) {
+            synchronized (ids) {
+                return ids.isEmpty() ? null : ids.get(random.nextInt(ids.size()));
+            }
+        }
+
+        void quitar(String id) {
+            ids.remove(id);
+        }
+    }
+}
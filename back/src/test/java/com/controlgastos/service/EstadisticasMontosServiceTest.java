@@ -0,0 +1,307 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.EstadisticaMontosDTO;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.SketchMontos;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.SketchMontosRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import com.tdunning.math.stats.TDigest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para EstadisticasMontosService
+ */
+@ExtendWith(MockitoExtension.class)
+class EstadisticasMontosServiceTest {
+
+    @Mock
+    private SketchMontosRepository sketchRepository;
+
+    @Mock
+    private TransaccionRepository transaccionRepository;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private EstadisticasMontosService estadisticasService;
+
+    private static final YearMonth MARZO = YearMonth.of(2025, 3);
+
+    private Categoria alimentos;
+    private Categoria transporte;
+
+    @BeforeEach
+    void setUp() {
+        alimentos = new Categoria("Alimentos", "user1");
+        alimentos.setId("cat1");
+        transporte = new Categoria("Transporte", "user1");
+        transporte.setId("cat2");
+    }
+
+    @Test
+    void percentiles_DentroDeLasCotasDocumentadas() {
+        // Arrange: 12 meses de montos con cola larga (log-normal), combinados como en una consulta
+        Random random = new Random(42);
+        List<TDigest> meses = new ArrayList<>();
+        double[] todos = new double[120_000];
+        for (int mes = 0; mes < 12; mes++) {
+            TDigest digest = EstadisticasMontosService.nuevoDigest();
+            for (int i = 0; i < 10_000; i++) {
+                double monto = Math.exp(3 + random.nextGaussian());
+                digest.add(monto);
+                todos[mes * 10_000 + i] = monto;
+            }
+            // Ida y vuelta por el formato guardado en MongoDB
+            meses.add(EstadisticasMontosService.leer(EstadisticasMontosService.escribir(digest)));
+        }
+        Arrays.sort(todos);
+
+        // Act
+        TDigest combinado = EstadisticasMontosService.combinar(meses);
+
+        // Assert: error de rango del valor devuelto
+        assertEquals(todos.length, combinado.size());
+        assertTrue(errorDeRango(todos, combinado.quantile(0.50), 0.50) <= 0.01);
+        assertTrue(errorDeRango(todos, combinado.quantile(0.90), 0.90) <= 0.0035);
+        assertTrue(errorDeRango(todos, combinado.quantile(0.99), 0.99) <= 0.0004);
+        assertEquals(todos[0], combinado.getMin());
+        assertEquals(todos[todos.length - 1], combinado.getMax());
+    }
+
+    @Test
+    void registrar_MesSinSketch_SoloDejaLaMarcaObsoleta() {
+        // Arrange
+        when(sketchRepository.findById("user1:2025-03")).thenReturn(Optional.empty());
+
+        // Act
+        estadisticasService.registrar(gasto("cat1", 10.0));
+
+        // Assert: la marca (upsert con $inc de version) hace fallar una reconstrucción en curso
+        verify(sketchRepository, never()).save(any(SketchMontos.class));
+        SketchMontos marca = marcaUnica();
+        assertEquals("user1:2025-03", marca.getId());
+        assertEquals("user1", marca.getUserId());
+        assertEquals("2025-03", marca.getPeriodo());
+        assertEquals(Set.of("cat1"), marca.getObsoletas());
+    }
+
+    @Test
+    void registrar_CategoriaObsoleta_VuelveAMarcarla() {
+        // Arrange
+        SketchMontos sketch = new SketchMontos("user1", "2025-03");
+        sketch.getObsoletas().add("cat1");
+        when(sketchRepository.findById("user1:2025-03")).thenReturn(Optional.of(sketch));
+
+        // Act
+        estadisticasService.registrar(gasto("cat1", 10.0));
+
+        // Assert
+        verify(sketchRepository, never()).save(any(SketchMontos.class));
+        assertEquals(Set.of("cat1"), marcaUnica().getObsoletas());
+    }
+
+    @Test
+    void registrar_ConflictoPersistente_MarcaLaCategoriaObsoleta() {
+        // Arrange
+        when(sketchRepository.findById("user1:2025-03"))
+                .thenAnswer(invocation -> Optional.of(new SketchMontos("user1", "2025-03")));
+        when(sketchRepository.save(any(SketchMontos.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflicto"));
+
+        // Act
+        estadisticasService.registrar(gasto("cat1", 10.0));
+
+        // Assert
+        verify(sketchRepository, times(5)).save(any(SketchMontos.class));
+        assertEquals(Set.of("cat1"), marcaUnica().getObsoletas());
+    }
+
+    @Test
+    void registrar_Ingreso_NoActualizaSketches() {
+        // Arrange
+        Transaccion ingreso = gasto("cat1", 10.0);
+        ingreso.setTipoTransaccion(TipoTransaccion.INGRESO);
+
+        // Act
+        estadisticasService.registrar(ingreso);
+        estadisticasService.invalidar(ingreso);
+
+        // Assert
+        verifyNoInteractions(sketchRepository);
+    }
+
+    @Test
+    void calcularEstadisticas_MesSinSketch_LoConstruyeDesdeLasTransacciones() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(sketchRepository.findByUserIdAndPeriodoEntre("user1", "2025-03", "2025-03")).thenReturn(List.of());
+        when(transaccionRepository.findMontosGasto(eq("user1"), any(), any())).thenReturn(List.of(
+                gasto("cat1", 10.0), gasto("cat1", 20.0), gasto("cat1", 30.0), gasto("cat2", 5.0)));
+        when(categoriaRepository.findByUserId("user1")).thenReturn(List.of(alimentos, transporte));
+
+        // Act
+        List<EstadisticaMontosDTO> resultado = estadisticasService.calcularEstadisticas("user1", MARZO, MARZO);
+
+        // Assert
+        assertEquals(2, resultado.size());
+        EstadisticaMontosDTO comida = resultado.get(0);
+        assertEquals("Alimentos", comida.getCategoriaNombre());
+        assertEquals(3, comida.getCantidad());
+        assertEquals(10.0, comida.getMinimo());
+        assertEquals(30.0, comida.getMaximo());
+        assertEquals(20.0, comida.getP50(), 1e-9);
+
+        ArgumentCaptor<SketchMontos> guardado = ArgumentCaptor.forClass(SketchMontos.class);
+        verify(sketchRepository).save(guardado.capture());
+        assertEquals("user1:2025-03", guardado.getValue().getId());
+        assertEquals(2, guardado.getValue().getDigests().size());
+    }
+
+    @Test
+    void calcularEstadisticas_CategoriaObsoleta_SoloReconstruyeEsaCategoria() {
+        // Arrange
+        SketchMontos sketch = new SketchMontos("user1", "2025-03");
+        sketch.getDigests().put("cat1", digestCon(100.0));
+        sketch.getDigests().put("cat2", digestCon(7.0));
+        sketch.getObsoletas().add("cat2");
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(sketchRepository.findByUserIdAndPeriodoEntre("user1", "2025-03", "2025-03")).thenReturn(List.of(sketch));
+        when(transaccionRepository.findMontosGasto(eq("user1"), any(), any())).thenReturn(List.of(
+                gasto("cat1", 1.0), gasto("cat2", 5.0), gasto("cat2", 6.0)));
+        when(categoriaRepository.findByUserId("user1")).thenReturn(List.of(alimentos, transporte));
+
+        // Act
+        List<EstadisticaMontosDTO> resultado = estadisticasService.calcularEstadisticas("user1", MARZO, MARZO);
+
+        // Assert: cat1 conserva su digest (no se reconstruye) y cat2 se rehace
+        assertEquals(100.0, resultado.get(0).getMaximo());
+        assertEquals(1, resultado.get(0).getCantidad());
+        assertEquals(2, resultado.get(1).getCantidad());
+        assertEquals(6.0, resultado.get(1).getMaximo());
+        assertTrue(sketch.getObsoletas().isEmpty());
+        verify(sketchRepository).save(sketch);
+    }
+
+    @Test
+    void calcularEstadisticas_SketchIncompleto_ReconstruyeTodoElMesConSuVersion() {
+        // Arrange: marca que dejó un gasto registrado mientras el mes no tenía sketch
+        SketchMontos marca = new SketchMontos("user1", "2025-03");
+        marca.getObsoletas().add("cat2");
+        marca.setIncompleto(true);
+        marca.setVersion(1L);
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(sketchRepository.findByUserIdAndPeriodoEntre("user1", "2025-03", "2025-03")).thenReturn(List.of(marca));
+        when(transaccionRepository.findMontosGasto(eq("user1"), any(), any())).thenReturn(List.of(
+                gasto("cat1", 1.0), gasto("cat2", 5.0)));
+        when(categoriaRepository.findByUserId("user1")).thenReturn(List.of(alimentos, transporte));
+
+        // Act
+        List<EstadisticaMontosDTO> resultado = estadisticasService.calcularEstadisticas("user1", MARZO, MARZO);
+
+        // Assert
+        assertEquals(2, resultado.size());
+        assertFalse(marca.isIncompleto());
+        assertTrue(marca.getObsoletas().isEmpty());
+        verify(sketchRepository).save(marca);
+    }
+
+    @Test
+    void invalidar_VariosGastos_UnaMarcaPorMes() {
+        // Arrange
+        Transaccion abril = gasto("cat2", 3.0);
+        abril.setFecha(LocalDateTime.of(2025, 4, 2, 9, 0));
+        Transaccion ingreso = gasto("cat3", 50.0);
+        ingreso.setTipoTransaccion(TipoTransaccion.INGRESO);
+
+        // Act
+        estadisticasService.invalidar(List.of(gasto("cat1", 1.0), gasto("cat2", 2.0), abril, ingreso));
+
+        // Assert
+        ArgumentCaptor<Collection<SketchMontos>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(sketchRepository).marcarObsoletas(captor.capture());
+        Map<String, Set<String>> obsoletas = captor.getValue().stream()
+                .collect(Collectors.toMap(SketchMontos::getId, SketchMontos::getObsoletas));
+        assertEquals(Map.of("user1:2025-03", Set.of("cat1", "cat2"), "user1:2025-04", Set.of("cat2")), obsoletas);
+    }
+
+    @Test
+    void invalidar_VariosGastosYFallaElBulkWrite_NoPropagaLaExcepcion() {
+        // Arrange
+        doThrow(new DataAccessResourceFailureException("sin conexión"))
+                .when(sketchRepository).marcarObsoletas(any());
+
+        // Act & Assert: el generador de recurrentes sigue e invalida las cachés de los usuarios
+        assertDoesNotThrow(() -> estadisticasService.invalidar(List.of(gasto("cat1", 1.0))));
+        verify(sketchRepository).marcarObsoletas(any());
+    }
+
+    @Test
+    void calcularEstadisticas_RangoInvalido_LanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class,
+                () -> estadisticasService.calcularEstadisticas("user1", MARZO, MARZO.minusMonths(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> estadisticasService.calcularEstadisticas("user1", MARZO, MARZO.plusMonths(24)));
+        verify(sketchRepository, never()).findByUserIdAndPeriodoEntre(anyString(), anyString(), anyString());
+    }
+
+    private SketchMontos marcaUnica() {
+        ArgumentCaptor<Collection<SketchMontos>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(sketchRepository).marcarObsoletas(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        return captor.getValue().iterator().next();
+    }
+
+    private static Transaccion gasto(String categoriaId, double monto) {
+        return new Transaccion(TipoTransaccion.GASTO, categoriaId, null, "Gasto",
+                LocalDateTime.of(2025, 3, 15, 12, 0), monto, "user1");
+    }
+
+    private static byte[] digestCon(double... montos) {
+        TDigest digest = EstadisticasMontosService.nuevoDigest();
+        for (double monto : montos) {
+            digest.add(monto);
+        }
+        return EstadisticasMontosService.escribir(digest);
+    }
+
+    /**
+     * Diferencia entre el percentil pedido y el rango real del valor devuelto
+     */
+    private static double errorDeRango(double[] ordenados, double valor, double q) {
+        int posicion = Arrays.binarySearch(ordenados, valor);
+        double rango = (posicion >= 0 ? posicion : -posicion - 1) / (double) ordenados.length;
+        return Math.abs(rango - q);
+    }
+}
@@ -0,0 +1,99 @@
+package com.controlgastos.service;
+
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark de la exportación CSV: mide filas por segundo y el crecimiento del heap
+ * al exportar varios millones de transacciones generadas sobre la marcha
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=ExportacionBenchmarkTest
+ */
+@Tag("benchmark")
+class ExportacionBenchmarkTest {
+    
+    private static final long FILAS = 3_000_000;
+    private static final long MAX_CRECIMIENTO_HEAP = 64L * 1024 * 1024;
+    
+    private final ExportacionService exportacionService = new ExportacionService(null, null);
+    
+    @Test
+    void exportarCsv_MillonesDeFilas_MemoriaConstante() throws Exception {
+        medir("calentamiento", 200_000, false);
+        
+        long heapInicial = heapUsado();
+        ContadorBytes salida = medir("sin compresión", FILAS, false);
+        long crecimiento = heapUsado() - heapInicial;
+        System.out.printf("Crecimiento del heap tras %,d filas: %,d KB%n", FILAS, crecimiento / 1024);
+        
+        medir("gzip", FILAS, true);
+        
+        assertTrue(salida.bytes > FILAS * 40);
+        assertTrue(crecimiento < MAX_CRECIMIENTO_HEAP, "El heap no debe crecer con el número de filas");
+    }
+    
+    private ContadorBytes medir(String nombre, long filas, boolean gzip) throws Exception {
+        ContadorBytes contador = new ContadorBytes();
+        long inicio = System.nanoTime();
+        long escritas;
+        if (gzip) {
+            GZIPOutputStream comprimido = new GZIPOutputStream(contador, 64 * 1024);
+            escritas = exportacionService.escribir(generar(filas), ',', comprimido);
+            comprimido.finish();
+        } else {
+            escritas = exportacionService.escribir(generar(filas), ',', contador);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("[%s] %,d filas, %,d KB en %.2f s: %,.0f filas/s%n",
+                nombre, escritas, contador.bytes / 1024, segundos, escritas / segundos);
+        assertEquals(filas, escritas);
+        return contador;
+    }
+    
+    private Stream<Transaccion> generar(long filas) {
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        return LongStream.range(0, filas).mapToObj(i -> {
+            Transaccion transaccion = new Transaccion(
+                    i % 4 == 0 ? TipoTransaccion.INGRESO : TipoTransaccion.GASTO,
+                    "cat" + (i % 20), "Categoría " + (i % 20),
+                    i % 10 == 0 ? "Compra, con coma" : "Movimiento " + i,
+                    base.plusMinutes(i), 10.0 + (i % 1000) / 100.0, "user1");
+            transaccion.setId(Long.toHexString(i));
+            return transaccion;
+        });
+    }
+    
+    private static long heapUsado() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    /**
+     * Salida que descarta los datos y solo cuenta los bytes
+     */
+    private static class ContadorBytes extends OutputStream {
+        private long bytes;
+        
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.controlgastos.service;
+
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ExportacionService
+ */
+@ExtendWith(MockitoExtension.class)
+class ExportacionServiceTest {
+    
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime FIN = LocalDateTime.of(2025, 2, 1, 0, 0);
+    
+    @Mock
+    private TransaccionRepository transaccionRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @InjectMocks
+    private ExportacionService exportacionService;
+    
+    @Test
+    void exportarCsv_EscribeCabeceraYFilas_YCierraElCursor() throws Exception {
+        // Arrange
+        Transaccion gasto = new Transaccion(TipoTransaccion.GASTO, "cat1", "Comida",
+                "Almuerzo, menú del día", LocalDateTime.of(2025, 1, 15, 13, 30), 12500.0, "user1");
+        gasto.setId("t1");
+        Transaccion ingreso = new Transaccion(TipoTransaccion.INGRESO, "cat2", "Salario",
+                "Nómina", LocalDateTime.of(2025, 1, 31, 9, 0), 0.1 + 0.2, "user1");
+        ingreso.setId("t2");
+        AtomicBoolean cerrado = new AtomicBoolean();
+        when(transaccionRepository.findByUserIdAndFechaBetweenOrderByFechaAsc("user1", INICIO, FIN))
+                .thenReturn(Stream.of(gasto, ingreso).onClose(() -> cerrado.set(true)));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        
+        // Act
+        long filas = exportacionService.exportarCsv("user1", INICIO, FIN, ',', salida);
+        
+        // Assert
+        assertEquals(2, filas);
+        assertTrue(cerrado.get());
+        assertEquals("\uFEFFid,fecha,tipo,categoria,descripcion,monto\r\n" +
+                "t1,2025-01-15 13:30:00,GASTO,Comida,\"Almuerzo, menú del día\",12500.0\r\n" +
+                "t2,2025-01-31 09:00:00,INGRESO,Salario,Nómina,0.30000000000000004\r\n",
+                salida.toString(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    void validarExportacion_RangoInvalido_LanzaExcepcion() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> exportacionService.validarExportacion("user1", FIN, INICIO, ','));
+        verifyNoInteractions(userRepository);
+    }
+    
+    @Test
+    void validarExportacion_UsuarioNoExiste_LanzaExcepcion() {
+        // Arrange
+        when(userRepository.existsById(any())).thenReturn(false);
+        
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> exportacionService.validarExportacion("user9", INICIO, FIN, ';'));
+    }
+}
@@ -0,0 +1,124 @@
+package com.controlgastos.service;
+
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Frecuencia;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.TransaccionRecurrente;
+import com.controlgastos.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark del generador de transacciones recurrentes sobre MongoDB embebido:
+ * genera un mes completo para 100.000 reglas y repite la ejecución para comprobar
+ * que es idempotente
+ * Ejecutar con: mvn test -Pbenchmark -Dtest=GeneradorRecurrentesBenchmarkTest
+ */
+@Tag("embedded-mongo")
+@Tag("benchmark")
+@SpringBootTest(properties = "recurrentes.generador.enabled=false")
+@ActiveProfiles("embedded")
+class GeneradorRecurrentesBenchmarkTest {
+    
+    private static final int USUARIOS = 10_000;
+    private static final int REGLAS_POR_USUARIO = 10;
+    private static final LocalDateTime INICIO_MES = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime FIN_MES = LocalDateTime.of(2025, 3, 31, 23, 59, 59);
+    
+    @Autowired
+    private GeneradorRecurrentes generador;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    private long esperadas;
+    
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.remove(new Query(), Transaccion.class);
+        mongoTemplate.remove(new Query(), TransaccionRecurrente.class);
+        mongoTemplate.remove(new Query(), Categoria.class);
+        mongoTemplate.remove(new Query(), User.class);
+        
+        List<User> usuarios = new ArrayList<>();
+        List<Categoria> categorias = new ArrayList<>();
+        for (int u = 0; u < USUARIOS; u++) {
+            User user = new User("usuario" + u, "usuario" + u + "@example.com", "password123");
+            user.setId(String.format("%024x", u));
+            usuarios.add(user);
+            Categoria categoria = new Categoria("General", user.getId());
+            categoria.setId(String.format("%024x", USUARIOS + u));
+            categorias.add(categoria);
+        }
+        mongoTemplate.bulkOps(BulkMode.UNORDERED, User.class).insert(usuarios).execute();
+        mongoTemplate.bulkOps(BulkMode.UNORDERED, Categoria.class).insert(categorias).execute();
+        
+        // 70 % mensuales, 25 % semanales y 5 % diarias, repartidas en los primeros días del mes
+        List<TransaccionRecurrente> reglas = new ArrayList<>();
+        esperadas = 0;
+        for (int i = 0; i < USUARIOS * REGLAS_POR_USUARIO; i++) {
+            int u = i / REGLAS_POR_USUARIO;
+            Frecuencia frecuencia = i % 20 == 0 ? Frecuencia.DIARIA : i % 4 == 1 ? Frecuencia.SEMANAL : Frecuencia.MENSUAL;
+            LocalDateTime inicio = INICIO_MES.plusDays(i % 7).plusHours(9);
+            reglas.add(new TransaccionRecurrente(usuarios.get(u).getId(),
+                    i % 10 == 0 ? TipoTransaccion.INGRESO : TipoTransaccion.GASTO,
+                    categorias.get(u).getId(), "Regla " + i, 10.0 + i % 100, frecuencia, inicio, null));
+            long n = 0;
+            while (!frecuencia.ocurrencia(inicio, n).isAfter(FIN_MES)) {
+                n++;
+            }
+            esperadas += n;
+        }
+        mongoTemplate.bulkOps(BulkMode.UNORDERED, TransaccionRecurrente.class).insert(reglas).execute();
+    }
+    
+    @Test
+    void generarUnMes_CienMilReglas() {
+        // Act
+        long inicio = System.nanoTime();
+        GeneradorRecurrentes.Resultado resultado = generador.generarHasta(FIN_MES);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%,d reglas, %,d transacciones en %.2f s (%,.0f transacciones/s)%n",
+                resultado.reglas(), resultado.transacciones(), segundos, resultado.transacciones() / segundos);
+        
+        // Assert
+        assertEquals(USUARIOS * REGLAS_POR_USUARIO, resultado.reglas());
+        assertEquals(esperadas, resultado.transacciones());
+        assertEquals(esperadas, mongoTemplate.count(new Query(), Transaccion.class));
+        User user = mongoTemplate.findById(String.format("%024x", 0), User.class);
+        assertEquals(mongoTemplate.count(Query.query(
+                Criteria.where("userId").is(user.getId())),
+                Transaccion.class), user.getTransaccionesIds().size());
+        
+        // Act: simular una ejecución interrumpida antes de avanzar las reglas y repetirla
+        mongoTemplate.updateMulti(new Query(), AggregationUpdate.update()
+                .set("ocurrenciasGeneradas").toValue(0L)
+                .set("proximaFecha").toValueOf(Fields.field("fechaInicio")), TransaccionRecurrente.class);
+        inicio = System.nanoTime();
+        GeneradorRecurrentes.Resultado repetida = generador.generarHasta(FIN_MES);
+        System.out.printf("Ejecución repetida: %,d transacciones nuevas en %.2f s%n",
+                repetida.transacciones(), (System.nanoTime() - inicio) / 1e9);
+        
+        // Assert
+        assertEquals(0, repetida.transacciones());
+        assertEquals(esperadas, mongoTemplate.count(new Query(), Transaccion.class));
+        assertEquals(user.getTransaccionesIds().size(),
+                mongoTemplate.findById(user.getId(), User.class).getTransaccionesIds().size());
+    }
+}
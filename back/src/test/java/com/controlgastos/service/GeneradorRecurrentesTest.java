@@ -0,0 +1,240 @@
+package com.controlgastos.service;
+
+import com.controlgastos.cache.ColumnarCache;
+import com.controlgastos.cache.UserScopedCache;
+import com.controlgastos.event.TransaccionCambiadaEvent;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Frecuencia;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.TransaccionRecurrente;
+import com.controlgastos.model.User;
+import com.controlgastos.repository.CategoriaRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para GeneradorRecurrentes
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GeneradorRecurrentesTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private UserScopedCache userCache;
+
+    @Mock
+    private ColumnarCache columnarCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EstadisticasMontosService estadisticasService;
+
+    @Mock
+    private SyncService syncService;
+    
+    @Mock
+    private BulkOperations insercion;
+
+    @Mock
+    private BulkOperations usuarios;
+
+    @Mock
+    private BulkOperations avances;
+
+    private GeneradorRecurrentes generador;
+    private Categoria categoria;
+    private TransaccionRecurrente alquiler;
+
+    @BeforeEach
+    void setUp() {
+        generador = new GeneradorRecurrentes(mongoTemplate, categoriaRepository, userCache, columnarCache, eventPublisher,
+                estadisticasService, syncService, true, 100);
+
+        categoria = new Categoria("Vivienda", "user1");
+        categoria.setId("cat1");
+
+        alquiler = new TransaccionRecurrente("user1", TipoTransaccion.GASTO, "cat1", "Alquiler", 500.0,
+                Frecuencia.MENSUAL, LocalDateTime.of(2025, 1, 31, 9, 0), null);
+        alquiler.setId(new ObjectId().toHexString());
+
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, Transaccion.class)).thenReturn(insercion);
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, User.class)).thenReturn(usuarios);
+        when(mongoTemplate.bulkOps(BulkMode.UNORDERED, TransaccionRecurrente.class)).thenReturn(avances);
+        when(insercion.insert(anyList())).thenReturn(insercion);
+        when(categoriaRepository.findAllById(any())).thenReturn(List.of(categoria));
+    }
+
+    @Test
+    void frecuenciaMensual_NoAcumulaDesplazamientoDeFinDeMes() {
+        LocalDateTime inicio = LocalDateTime.of(2025, 1, 31, 9, 0);
+
+        assertEquals(LocalDateTime.of(2025, 2, 28, 9, 0), Frecuencia.MENSUAL.ocurrencia(inicio, 1));
+        assertEquals(LocalDateTime.of(2025, 3, 31, 9, 0), Frecuencia.MENSUAL.ocurrencia(inicio, 2));
+        assertEquals(LocalDateTime.of(2025, 2, 14, 9, 0), Frecuencia.SEMANAL.ocurrencia(inicio, 2));
+    }
+
+    @Test
+    void siguienteFecha_PasadaLaFechaDeFin_DevuelveNull() {
+        alquiler.setFechaFin(LocalDateTime.of(2025, 3, 1, 0, 0));
+
+        assertEquals(LocalDateTime.of(2025, 2, 28, 9, 0), GeneradorRecurrentes.siguienteFecha(alquiler, 1));
+        assertNull(GeneradorRecurrentes.siguienteFecha(alquiler, 2));
+    }
+
+    @Test
+    void idOcurrencia_EsDeterministaYUnicoPorReglaYNumero() {
+        LocalDateTime fecha = LocalDateTime.of(2025, 1, 31, 9, 0);
+
+        String id = GeneradorRecurrentes.idOcurrencia("regla1", 0, fecha);
+
+        assertEquals(id, GeneradorRecurrentes.idOcurrencia("regla1", 0, fecha));
+        assertNotEquals(id, GeneradorRecurrentes.idOcurrencia("regla1", 1, fecha));
+        assertNotEquals(id, GeneradorRecurrentes.idOcurrencia("regla2", 0, fecha));
+        assertTrue(ObjectId.isValid(id));
+        assertEquals(fecha.toEpochSecond(ZoneOffset.UTC), new ObjectId(id).getTimestamp());
+    }
+
+    @Test
+    void generarHasta_GeneraOcurrenciasVencidasYAvanzaLaRegla() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(TransaccionRecurrente.class))).thenReturn(List.of(alquiler));
+        when(insercion.execute()).thenReturn(resultado(3));
+
+        // Act
+        GeneradorRecurrentes.Resultado resultado = generador.generarHasta(LocalDateTime.of(2025, 3, 31, 23, 0));
+
+        // Assert
+        assertEquals(1, resultado.reglas());
+        assertEquals(3, resultado.transacciones());
+
+        List<Transaccion> insertadas = transaccionesInsertadas();
+        assertEquals(List.of(
+                LocalDateTime.of(2025, 1, 31, 9, 0),
+                LocalDateTime.of(2025, 2, 28, 9, 0),
+                LocalDateTime.of(2025, 3, 31, 9, 0)),
+                insertadas.stream().map(Transaccion::getFecha).toList());
+        assertEquals("Vivienda", insertadas.get(0).getCategoriaNombre());
+        assertEquals(GeneradorRecurrentes.idOcurrencia(alquiler.getId(), 2, insertadas.get(2).getFecha()),
+                insertadas.get(2).getId());
+
+        verify(usuarios).updateOne(any(Query.class), any(Update.class));
+        verify(usuarios).execute();
+
+        ArgumentCaptor<Update> avance = ArgumentCaptor.forClass(Update.class);
+        verify(avances).updateOne(any(Query.class), avance.capture());
+        assertEquals(3L, avance.getValue().getUpdateObject().get("$set", Document.class).get("ocurrenciasGeneradas"));
+        assertEquals(LocalDateTime.of(2025, 4, 30, 9, 0),
+                avance.getValue().getUpdateObject().get("$set", Document.class).get("proximaFecha"));
+        verify(avances).execute();
+
+        verify(userCache).invalidar("user1");
+        verify(columnarCache).invalidar("user1");
+        verify(eventPublisher).publishEvent(new TransaccionCambiadaEvent("user1"));
+    }
+
+    @Test
+    void generarHasta_EjecucionRepetida_IgnoraDuplicadosYAvanzaLaRegla() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(TransaccionRecurrente.class))).thenReturn(List.of(alquiler));
+        when(insercion.execute()).thenThrow(errorDeInsercion(11000, 11000));
+
+        // Act
+        GeneradorRecurrentes.Resultado resultado = generador.generarHasta(LocalDateTime.of(2025, 3, 31, 23, 0));
+
+        // Assert
+        assertEquals(1, resultado.transacciones());
+        verify(usuarios).execute();
+        verify(avances).execute();
+    }
+
+    @Test
+    void generarHasta_ErrorDistintoDeDuplicado_NoAvanzaLaRegla() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(TransaccionRecurrente.class))).thenReturn(List.of(alquiler));
+        when(insercion.execute()).thenThrow(errorDeInsercion(11000, 121));
+
+        // Act & Assert
+        assertThrows(BulkOperationException.class,
+                () -> generador.generarHasta(LocalDateTime.of(2025, 3, 31, 23, 0)));
+        verify(avances, never()).execute();
+    }
+
+    @Test
+    void generarHasta_CategoriaEliminada_FinalizaLaReglaSinGenerar() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(TransaccionRecurrente.class))).thenReturn(List.of(alquiler));
+        when(categoriaRepository.findAllById(any())).thenReturn(List.of());
+
+        // Act
+        GeneradorRecurrentes.Resultado resultado = generador.generarHasta(LocalDateTime.of(2025, 3, 31, 23, 0));
+
+        // Assert
+        assertEquals(0, resultado.transacciones());
+        verify(insercion, never()).execute();
+        verify(usuarios, never()).execute();
+        ArgumentCaptor<Update> avance = ArgumentCaptor.forClass(Update.class);
+        verify(avances).updateOne(any(Query.class), avance.capture());
+        assertNull(avance.getValue().getUpdateObject().get("$set", Document.class).get("proximaFecha"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Transaccion> transaccionesInsertadas() {
+        ArgumentCaptor<List<Transaccion>> captor = ArgumentCaptor.forClass(List.class);
+        verify(insercion).insert(captor.capture());
+        return captor.getValue();
+    }
+
+    private static BulkWriteResult resultado(int insertadas) {
+        return BulkWriteResult.acknowledged(insertadas, 0, 0, 0, List.of(), List.of());
+    }
+
+    private static BulkOperationException errorDeInsercion(int... codigos) {
+        List<BulkWriteError> errores = new ArrayList<>();
+        for (int i = 0; i < codigos.length; i++) {
+            errores.add(new BulkWriteError(codigos[i], "error", new BsonDocument(), i));
+        }
+        MongoBulkWriteException causa = new MongoBulkWriteException(
+                resultado(3 - codigos.length), errores, null, new ServerAddress(), Set.of());
+        return new BulkOperationException("Error en bulk", causa);
+    }
+}
@@ -0,0 +1,201 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.CategoriaDTO;
+import com.controlgastos.dto.CategoriaResponseDTO;
+import com.controlgastos.dto.PresupuestoRequestDTO;
+import com.controlgastos.dto.PresupuestoResponseDTO;
+import com.controlgastos.dto.TransaccionRequestDTO;
+import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.model.AlertaPresupuesto;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.User;
+import com.controlgastos.repository.AlertaPresupuestoRepository;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.CheckpointStreamRepository;
+import com.controlgastos.repository.PresupuestoRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del monitor de presupuestos sobre un replica set de un nodo en MongoDB embebido
+ */
+@Tag("embedded-mongo")
+@SpringBootTest(properties = "presupuestos.monitor.checkpoint-intervalo-ms=200")
+@ActiveProfiles("embedded")
+class MonitorPresupuestosIntegracionTest {
+
+    private static final long ESPERA_MS = 10_000;
+
+    @Autowired
+    private MonitorPresupuestos monitor;
+
+    @Autowired
+    private PresupuestoService presupuestoService;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    @Autowired
+    private PresupuestoRepository presupuestoRepository;
+
+    @Autowired
+    private AlertaPresupuestoRepository alertaRepository;
+
+    @Autowired
+    private CheckpointStreamRepository checkpointRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private User user;
+    private CategoriaResponseDTO categoria;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        monitor.stop();
+        transaccionRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        presupuestoRepository.deleteAll();
+        alertaRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        userRepository.deleteAll();
+        monitor.start();
+        esperar(monitor::isActivo);
+
+        user = userRepository.save(new User("presupuestos", "presupuestos@example.com", "password123"));
+        categoria = categoriaService.crearCategoria(user.getId(), new CategoriaDTO("Comida"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.start();
+    }
+
+    @Test
+    void gastos_CruzanUmbrales_EmiteUnaAlertaPorUmbral() throws InterruptedException {
+        // Arrange
+        presupuestoService.crearPresupuesto(user.getId(), new PresupuestoRequestDTO(categoria.getId(), 100.0, List.of(50, 100)));
+
+        // Act
+        gasto(30.0);
+        gasto(30.0);  // 60 -> 50%
+        gasto(50.0);  // 110 -> 100%
+        gasto(5.0);
+
+        // Assert
+        esperar(() -> alertaRepository.count() == 2);
+        List<Integer> umbrales = alertaRepository.findByUserIdOrderByFechaDesc(user.getId()).stream()
+                .map(AlertaPresupuesto::getUmbral)
+                .sorted()
+                .toList();
+        assertEquals(List.of(50, 100), umbrales);
+        esperar(() -> gastado() == 115.0);
+    }
+
+    @Test
+    void eliminarYActualizar_AjustaTotalesConPreImagenes() throws InterruptedException {
+        // Arrange
+        presupuestoService.crearPresupuesto(user.getId(), new PresupuestoRequestDTO(categoria.getId(), 1000.0, null));
+        TransaccionResponseDTO primera = gasto(40.0);
+        TransaccionResponseDTO segunda = gasto(60.0);
+        esperar(() -> gastado() == 100.0);
+
+        // Act
+        transaccionService.eliminarTransaccion(primera.getId());
+        transaccionService.actualizarTransaccion(segunda.getId(), new TransaccionRequestDTO(
+                TipoTransaccion.GASTO, categoria.getId(), "Editado", LocalDateTime.now(), 25.0));
+
+        // Assert
+        esperar(() -> gastado() == 25.0);
+    }
+
+    @Test
+    void reinicio_ReproduceModificacionesSeguidasConSusPropiasImagenes() throws InterruptedException {
+        // Arrange
+        presupuestoService.crearPresupuesto(user.getId(), new PresupuestoRequestDTO(categoria.getId(), 1000.0, null));
+        TransaccionResponseDTO gasto = gasto(100.0);
+        esperar(() -> gastado() == 100.0);
+        monitor.stop();
+
+        // Act: dos $set seguidos (eventos UPDATE) que se reproducen al reanudar
+        modificarMonto(gasto.getId(), 150.0);
+        modificarMonto(gasto.getId(), 200.0);
+        gasto(1.0);
+        monitor.start();
+
+        // Assert: con el documento leído al consultar (UPDATE_LOOKUP) saldría 251
+        esperar(() -> gastado() == 201.0);
+    }
+
+    @Test
+    void reinicio_ReanudaDesdeCheckpointSinPerderEventos() throws InterruptedException {
+        // Arrange
+        presupuestoService.crearPresupuesto(user.getId(), new PresupuestoRequestDTO(categoria.getId(), 100.0, List.of(100)));
+        gasto(60.0);
+        esperar(() -> gastado() == 60.0);
+        monitor.stop();
+        assertTrue(checkpointRepository.findById("monitor-presupuestos").isPresent());
+
+        // Act: gasto mientras el monitor está detenido
+        gasto(50.0);
+        monitor.start();
+
+        // Assert
+        esperar(() -> alertaRepository.count() == 1);
+        esperar(() -> gastado() == 110.0);
+    }
+
+    private TransaccionResponseDTO gasto(double monto) {
+        return transaccionService.crearTransaccion(user.getId(), new TransaccionRequestDTO(
+                TipoTransaccion.GASTO, categoria.getId(), "Gasto", LocalDateTime.now(), monto));
+    }
+
+    private void modificarMonto(String transaccionId, double monto) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(transaccionId)),
+                Update.update("monto", monto), Transaccion.class);
+    }
+
+    private double gastado() {
+        List<PresupuestoResponseDTO> presupuestos = presupuestoService.obtenerPresupuestosPorUsuario(user.getId());
+        return presupuestos.isEmpty() ? -1 : presupuestos.get(0).getGastadoMes();
+    }
+
+    private void esperar(BooleanSupplier condicion) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MS;
+        while (!condicion.getAsBoolean()) {
+            if (System.currentTimeMillis() > limite) {
+                fail("La condición no se cumplió en " + ESPERA_MS + " ms");
+            }
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.PresupuestoRequestDTO;
+import com.controlgastos.dto.PresupuestoResponseDTO;
+import com.controlgastos.dto.ResumenCategoriaDTO;
+import com.controlgastos.exception.DuplicateResourceException;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Presupuesto;
+import com.controlgastos.repository.AlertaPresupuestoRepository;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.PresupuestoRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para PresupuestoService y el estado en memoria del monitor
+ */
+@ExtendWith(MockitoExtension.class)
+class PresupuestoServiceTest {
+    
+    @Mock
+    private PresupuestoRepository presupuestoRepository;
+    
+    @Mock
+    private AlertaPresupuestoRepository alertaRepository;
+    
+    @Mock
+    private CategoriaRepository categoriaRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private TransaccionRepository transaccionRepository;
+    
+    @Mock
+    private MonitorPresupuestos monitor;
+    
+    @InjectMocks
+    private PresupuestoService presupuestoService;
+    
+    private Categoria categoria;
+    private Presupuesto presupuesto;
+    
+    @BeforeEach
+    void setUp() {
+        categoria = new Categoria("Alimentos", "user1");
+        categoria.setId("cat1");
+        
+        presupuesto = new Presupuesto("user1", "cat1", 200.0, List.of(80, 100));
+        presupuesto.setId("pre1");
+    }
+    
+    @Test
+    void crearPresupuesto_Exitoso_UsaGastoDelMonitor() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(categoriaRepository.findById("cat1")).thenReturn(Optional.of(categoria));
+        when(presupuestoRepository.insert(any(Presupuesto.class))).thenReturn(presupuesto);
+        when(monitor.gastadoDelMes(presupuesto)).thenReturn(Optional.of(50.0));
+        
+        // Act
+        PresupuestoResponseDTO resultado = presupuestoService.crearPresupuesto(
+                "user1", new PresupuestoRequestDTO("cat1", 200.0, null));
+        
+        // Assert
+        assertEquals("pre1", resultado.getId());
+        assertEquals(50.0, resultado.getGastadoMes());
+        assertEquals(25.0, resultado.getPorcentaje());
+        verify(monitor).registrar(presupuesto);
+        verify(transaccionRepository, never()).sumarGastosPorCategorias(any(), any(), any(), any());
+    }
+    
+    @Test
+    void crearPresupuesto_CategoriaDeOtroUsuario_LanzaExcepcion() {
+        // Arrange
+        categoria.setUserId("user2");
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(categoriaRepository.findById("cat1")).thenReturn(Optional.of(categoria));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> presupuestoService.crearPresupuesto(
+                "user1", new PresupuestoRequestDTO("cat1", 200.0, List.of(50))));
+        verify(presupuestoRepository, never()).insert(any(Presupuesto.class));
+    }
+    
+    @Test
+    void crearPresupuesto_CategoriaConPresupuesto_LanzaExcepcion() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(categoriaRepository.findById("cat1")).thenReturn(Optional.of(categoria));
+        when(presupuestoRepository.insert(any(Presupuesto.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: controlgastos.presupuestos index: categoriaId dup key"));
+        
+        // Act & Assert
+        assertThrows(DuplicateResourceException.class, () -> presupuestoService.crearPresupuesto(
+                "user1", new PresupuestoRequestDTO("cat1", 200.0, null)));
+        verify(monitor, never()).registrar(any(Presupuesto.class));
+    }
+    
+    @Test
+    void obtenerPresupuestos_MonitorInactivo_CalculaConAgregacion() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(presupuestoRepository.findByUserId("user1")).thenReturn(List.of(presupuesto));
+        when(monitor.gastadoDelMes(presupuesto)).thenReturn(Optional.empty());
+        when(transaccionRepository.sumarGastosPorCategorias(any(), any(), any(), any()))
+                .thenReturn(List.of(new ResumenCategoriaDTO("cat1", null, null, 160.0, 3L)));
+        
+        // Act
+        List<PresupuestoResponseDTO> resultado = presupuestoService.obtenerPresupuestosPorUsuario("user1");
+        
+        // Assert
+        assertEquals(1, resultado.size());
+        assertEquals(160.0, resultado.get(0).getGastadoMes());
+        assertEquals(80.0, resultado.get(0).getPorcentaje());
+    }
+    
+    @Test
+    void eliminarPresupuesto_NoExiste_LanzaExcepcion() {
+        // Arrange
+        when(presupuestoRepository.findById(anyString())).thenReturn(Optional.empty());
+        
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> presupuestoService.eliminarPresupuesto("pre9"));
+        verify(monitor, never()).quitar(any());
+    }
+    
+    @Test
+    void estadoPresupuesto_DevuelveUmbralesCruzadosHaciaArriba() {
+        // Arrange
+        YearMonth mes = YearMonth.of(2025, 3);
+        MonitorPresupuestos.EstadoPresupuesto estado =
+                new MonitorPresupuestos.EstadoPresupuesto(presupuesto, mes, 100.0);
+        
+        // Act
+        List<Integer> primero = estado.aplicar(mes, mes, 70.0);   // 170 -> cruza 80% (160)
+        List<Integer> segundo = estado.aplicar(mes, mes, 10.0);   // 180 -> sin cruces
+        List<Integer> tercero = estado.aplicar(mes, mes, -30.0);  // 150 -> eliminación
+        List<Integer> cuarto = estado.aplicar(mes, mes, 60.0);    // 210 -> cruza 80% y 100%
+        List<Integer> otroMes = estado.aplicar(mes.minusMonths(1), mes, 500.0);
+        
+        // Assert
+        assertEquals(List.of(80), primero);
+        assertTrue(segundo.isEmpty());
+        assertTrue(tercero.isEmpty());
+        assertEquals(List.of(80, 100), cuarto);
+        assertTrue(otroMes.isEmpty());
+        assertEquals(210.0, estado.gastado(mes));
+        assertEquals(0.0, estado.gastado(mes.plusMonths(1)));
+    }
+}
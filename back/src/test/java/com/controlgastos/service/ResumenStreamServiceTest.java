@@ -0,0 +1,175 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.ResumenGastosDTO;
+import com.controlgastos.event.TransaccionCambiadaEvent;
+import com.controlgastos.exception.CapacidadExcedidaException;
+import com.controlgastos.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para ResumenStreamService
+ */
+@ExtendWith(MockitoExtension.class)
+class ResumenStreamServiceTest {
+    
+    @Mock
+    private TransaccionService transaccionService;
+    
+    private ExecutorManual executor;
+    private ResumenStreamService streamService;
+    
+    @BeforeEach
+    void setUp() {
+        executor = new ExecutorManual();
+        streamService = new ResumenStreamService(transaccionService, 2, 60_000, executor);
+    }
+    
+    @Test
+    void suscribir_UsuarioNoExiste_NoReservaConexion() {
+        // Arrange
+        when(transaccionService.calcularResumen("user9"))
+                .thenThrow(new ResourceNotFoundException("Usuario", "id", "user9"));
+        
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> streamService.suscribir("user9"));
+        assertEquals(0, streamService.getConexionesActivas());
+    }
+    
+    @Test
+    void suscribir_SuperaMaximo_LanzaExcepcion() {
+        // Arrange
+        when(transaccionService.calcularResumen(anyString())).thenReturn(resumen());
+        streamService.suscribir("user1");
+        streamService.suscribir("user2");
+        
+        // Act & Assert
+        CapacidadExcedidaException ex = assertThrows(CapacidadExcedidaException.class,
+                () -> streamService.suscribir("user3"));
+        assertTrue(ex.getReintentarEnSegundos() > 0);
+        assertEquals(2, streamService.getConexionesActivas());
+    }
+    
+    @Test
+    void cambios_EnRafaga_SeAgrupanEnUnSoloRecalculo() {
+        // Arrange
+        when(transaccionService.calcularResumen("user1")).thenReturn(resumen());
+        streamService.suscribir("user1");
+        streamService.suscribir("user1");
+        
+        // Act
+        for (int i = 0; i < 10; i++) {
+            streamService.onTransaccionCambiada(new TransaccionCambiadaEvent("user1"));
+        }
+        executor.ejecutarPendientes();
+        
+        // Assert: 2 cálculos iniciales (uno por conexión) + 1 por la ráfaga
+        assertEquals(1, executor.ejecutadas);
+        verify(transaccionService, times(3)).calcularResumen("user1");
+    }
+    
+    @Test
+    void cambios_DeUsuarioSinConexiones_SeIgnoran() {
+        // Act
+        streamService.onTransaccionCambiada(new TransaccionCambiadaEvent("user1"));
+        
+        // Assert
+        assertTrue(executor.pendientes.isEmpty());
+        verifyNoInteractions(transaccionService);
+    }
+    
+    @Test
+    void conexionCompletada_LiberaCapacidad() {
+        // Arrange
+        when(transaccionService.calcularResumen(anyString())).thenReturn(resumen());
+        SseEmitter emitter = streamService.suscribir("user1");
+        streamService.suscribir("user2");
+        
+        // Act: sin respuesta HTTP asociada el emisor falla al enviar y se descarta
+        emitter.complete();
+        streamService.enviarHeartbeats();
+        executor.ejecutarPendientes();
+        
+        // Assert
+        assertEquals(1, streamService.getConexionesActivas());
+    }
+    
+    @Test
+    void heartbeats_SeEnvianEnLosHilosDeEnvioUnoPendientePorUsuario() {
+        // Arrange
+        when(transaccionService.calcularResumen(anyString())).thenReturn(resumen());
+        SseEmitter emitter = streamService.suscribir("user1");
+        streamService.suscribir("user2");
+        emitter.complete();
+        
+        // Act
+        streamService.enviarHeartbeats();
+        streamService.enviarHeartbeats();
+        
+        // Assert: el hilo programado no envía nada; el segundo heartbeat se agrupa con el primero
+        assertEquals(2, executor.pendientes.size());
+        assertEquals(2, streamService.getConexionesActivas());
+        executor.ejecutarPendientes();
+        assertEquals(1, streamService.getConexionesActivas());
+    }
+    
+    private ResumenGastosDTO resumen() {
+        return new ResumenGastosDTO(100.0, 40.0, 60.0, 1L, 1L, "Todos los periodos");
+    }
+    
+    /**
+     * Executor que acumula las tareas hasta que la prueba decide ejecutarlas
+     */
+    private static class ExecutorManual extends AbstractExecutorService {
+        
+        private final List<Runnable> pendientes = new ArrayList<>();
+        private int ejecutadas;
+        
+        void ejecutarPendientes() {
+            List<Runnable> tareas = new ArrayList<>(pendientes);
+            pendientes.clear();
+            tareas.forEach(Runnable::run);
+            ejecutadas += tareas.size();
+        }
+        
+        @Override
+        public void execute(Runnable command) {
+            pendientes.add(command);
+        }
+        
+        @Override
+        public void shutdown() {
+        }
+        
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.of();
+        }
+        
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+        
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.SyncResponseDTO;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Eliminacion;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.SecuenciaSync;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.EliminacionRepository;
+import com.controlgastos.repository.SecuenciaSyncRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para SyncService
+ */
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    @Mock
+    private SecuenciaSyncRepository secuenciaRepository;
+
+    @Mock
+    private TransaccionRepository transaccionRepository;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private EliminacionRepository eliminacionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SyncService syncService;
+    private LocalDateTime antigua;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new SyncService(secuenciaRepository, transaccionRepository, categoriaRepository,
+                eliminacionRepository, userRepository, 10_000, 1000, 90);
+        antigua = LocalDateTime.now().minusHours(1);
+    }
+
+    @Test
+    void reservar_DevuelveLaPrimeraSecuenciaDelBloque() {
+        // Arrange
+        when(secuenciaRepository.incrementar("user1", 3)).thenReturn(15L);
+
+        // Act
+        long primera = syncService.reservar("user1", 3);
+
+        // Assert
+        assertEquals(13, primera);
+    }
+
+    @Test
+    void obtenerCambios_SinCambiosDesdeLaMarca_NoConsultaLasColecciones() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(secuenciaRepository.findById("user1")).thenReturn(Optional.of(new SecuenciaSync("user1", 42, 0)));
+
+        // Act
+        SyncResponseDTO respuesta = syncService.obtenerCambios("user1", 42L, 500);
+
+        // Assert
+        assertEquals(42, respuesta.getMarca());
+        assertFalse(respuesta.isCompleto());
+        assertTrue(respuesta.getTransacciones().isEmpty());
+        verifyNoInteractions(transaccionRepository, categoriaRepository, eliminacionRepository);
+    }
+
+    @Test
+    void obtenerCambios_ConMarca_DevuelveCambiosYEliminacionesOrdenados() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(secuenciaRepository.findById("user1")).thenReturn(Optional.of(new SecuenciaSync("user1", 13, 0)));
+        when(transaccionRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 10, Limit.of(501)))
+                .thenReturn(List.of(transaccion("t1", 11, antigua)));
+        when(categoriaRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 10, Limit.of(501)))
+                .thenReturn(List.of(categoria("c1", 13, antigua)));
+        when(eliminacionRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 10, Limit.of(501)))
+                .thenReturn(List.of(new Eliminacion("user1", EntidadSync.TRANSACCION, "t0", 12L, antigua)));
+
+        // Act
+        SyncResponseDTO respuesta = syncService.obtenerCambios("user1", 10L, 500);
+
+        // Assert
+        assertEquals(13, respuesta.getMarca());
+        assertFalse(respuesta.isCompleto());
+        assertFalse(respuesta.isHayMas());
+        assertEquals("t1", respuesta.getTransacciones().get(0).getId());
+        assertEquals("c1", respuesta.getCategorias().get(0).getId());
+        assertEquals("t0", respuesta.getEliminaciones().get(0).getId());
+        assertEquals(EntidadSync.TRANSACCION, respuesta.getEliminaciones().get(0).getEntidad());
+    }
+
+    @Test
+    void obtenerCambios_CambioReciente_NoAvanzaLaMarcaMasAllaDelMargen() {
+        // Arrange: la secuencia 12 puede tener escrituras anteriores aún sin confirmar
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(secuenciaRepository.findById("user1")).thenReturn(Optional.of(new SecuenciaSync("user1", 13, 0)));
+        when(transaccionRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(eq("user1"), eq(10L), any()))
+                .thenReturn(List.of(transaccion("t1", 11, antigua), transaccion("t2", 12, LocalDateTime.now()),
+                        transaccion("t3", 13, antigua)));
+        when(categoriaRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(eq("user1"), eq(10L), any()))
+                .thenReturn(List.of());
+        when(eliminacionRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(eq("user1"), eq(10L), any()))
+                .thenReturn(List.of());
+
+        // Act
+        SyncResponseDTO respuesta = syncService.obtenerCambios("user1", 10L, 500);
+
+        // Assert: se envían los tres cambios, pero la marca se queda en 11
+        assertEquals(11, respuesta.getMarca());
+        assertEquals(3, respuesta.getTransacciones().size());
+    }
+
+    @Test
+    void obtenerCambios_MasCambiosQueElLimite_IndicaHayMas() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(secuenciaRepository.findById("user1")).thenReturn(Optional.of(new SecuenciaSync("user1", 20, 0)));
+        when(transaccionRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 0, Limit.of(3)))
+                .thenReturn(List.of(transaccion("t1", 1, antigua), transaccion("t3", 3, antigua), transaccion("t5", 5, antigua)));
+        when(categoriaRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 0, Limit.of(3)))
+                .thenReturn(List.of(categoria("c2", 2, antigua)));
+        when(eliminacionRepository.findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc("user1", 0, Limit.of(3)))
+                .thenReturn(List.of());
+
+        // Act
+        SyncResponseDTO respuesta = syncService.obtenerCambios("user1", 0L, 2);
+
+        // Assert
+        assertEquals(2, respuesta.getMarca());
+        assertTrue(respuesta.isHayMas());
+        assertEquals(1, respuesta.getTransacciones().size());
+        assertEquals(1, respuesta.getCategorias().size());
+    }
+
+    @Test
+    void obtenerCambios_MarcaAnteriorALaPurga_DevuelveCopiaCompleta() {
+        // Arrange
+        Transaccion heredada = transaccion("t0", 0, null);
+        heredada.setSecuencia(null);
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(secuenciaRepository.findById("user1")).thenReturn(Optional.of(new SecuenciaSync("user1", 60, 50)));
+        when(transaccionRepository.findByUserId("user1")).thenReturn(List.of(heredada, transaccion("t1", 30, antigua)));
+        when(categoriaRepository.findByUserId("user1")).thenReturn(List.of(categoria("c1", 20, antigua)));
+
+        // Act
+        SyncResponseDTO respuesta = syncService.obtenerCambios("user1", 5L, 500);
+
+        // Assert: la marca pasa de las secuencias purgadas aunque no quede nada vivo posterior
+        assertTrue(respuesta.isCompleto());
+        assertEquals(50, respuesta.getMarca());
+        assertEquals(2, respuesta.getTransacciones().size());
+        assertEquals(1, respuesta.getCategorias().size());
+        verify(eliminacionRepository, never())
+                .findByUserIdAndSecuenciaGreaterThanOrderBySecuenciaAsc(anyString(), anyLong(), any());
+    }
+
+    @Test
+    void obtenerCambios_UsuarioInexistente_LanzaExcepcion() {
+        when(userRepository.existsById("user1")).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> syncService.obtenerCambios("user1", 0L, 500));
+        assertThrows(IllegalArgumentException.class, () -> syncService.obtenerCambios("user1", -1L, 500));
+        assertThrows(IllegalArgumentException.class, () -> syncService.obtenerCambios("user1", 0L, 1001));
+    }
+
+    @Test
+    void purgarEliminaciones_RegistraLaMayorSecuenciaAntesDeBorrar() {
+        // Arrange
+        LocalDateTime corte = LocalDateTime.now().minusDays(90);
+        List<SecuenciaSync> maximos = List.of(new SecuenciaSync("user1", 0, 40));
+        when(eliminacionRepository.maximosAnterioresA(corte)).thenReturn(maximos);
+        when(eliminacionRepository.deleteByEliminadoEnBefore(corte)).thenReturn(7L);
+
+        // Act
+        long borradas = syncService.purgarEliminacionesAnterioresA(corte);
+
+        // Assert
+        assertEquals(7, borradas);
+        var orden = inOrder(secuenciaRepository, eliminacionRepository);
+        orden.verify(secuenciaRepository).registrarPurgadas(maximos);
+        orden.verify(eliminacionRepository).deleteByEliminadoEnBefore(corte);
+    }
+
+    private static Transaccion transaccion(String id, long secuencia, LocalDateTime actualizadoEn) {
+        Transaccion transaccion = new Transaccion(TipoTransaccion.GASTO, "cat1", "Alimentos", "Compra",
+                LocalDateTime.of(2025, 3, 15, 12, 0), 10.0, "user1");
+        transaccion.setId(id);
+        transaccion.setSecuencia(secuencia);
+        transaccion.setActualizadoEn(actualizadoEn);
+        return transaccion;
+    }
+
+    private static Categoria categoria(String id, long secuencia, LocalDateTime actualizadoEn) {
+        Categoria categoria = new Categoria("Alimentos", "user1");
+        categoria.setId(id);
+        categoria.setSecuencia(secuencia);
+        categoria.setActualizadoEn(actualizadoEn);
+        return categoria;
+    }
+}
@@ -0,0 +1,107 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.TransaccionRecurrenteRequestDTO;
+import com.controlgastos.dto.TransaccionRecurrenteResponseDTO;
+import com.controlgastos.exception.ResourceNotFoundException;
+import com.controlgastos.model.Categoria;
+import com.controlgastos.model.Frecuencia;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.TransaccionRecurrente;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.TransaccionRecurrenteRepository;
+import com.controlgastos.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas unitarias para TransaccionRecurrenteService
+ */
+@ExtendWith(MockitoExtension.class)
+class TransaccionRecurrenteServiceTest {
+    
+    @Mock
+    private TransaccionRecurrenteRepository recurrenteRepository;
+    
+    @Mock
+    private CategoriaRepository categoriaRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @InjectMocks
+    private TransaccionRecurrenteService recurrenteService;
+    
+    private Categoria categoria;
+    private TransaccionRecurrenteRequestDTO requestDTO;
+    
+    @BeforeEach
+    void setUp() {
+        categoria = new Categoria("Salario", "user1");
+        categoria.setId("cat1");
+        
+        requestDTO = new TransaccionRecurrenteRequestDTO(TipoTransaccion.INGRESO, "cat1", "Salario", 2500.0,
+                Frecuencia.MENSUAL, LocalDateTime.of(2025, 1, 1, 8, 0), null);
+    }
+    
+    @Test
+    void crearRecurrente_Exitoso_ProximaFechaEsElInicio() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(categoriaRepository.findById("cat1")).thenReturn(Optional.of(categoria));
+        when(recurrenteRepository.insert(any(TransaccionRecurrente.class))).thenAnswer(invocation -> {
+            TransaccionRecurrente recurrente = invocation.getArgument(0);
+            recurrente.setId("rec1");
+            return recurrente;
+        });
+        
+        // Act
+        TransaccionRecurrenteResponseDTO resultado = recurrenteService.crearRecurrente("user1", requestDTO);
+        
+        // Assert
+        assertEquals("rec1", resultado.getId());
+        assertEquals(requestDTO.getFechaInicio(), resultado.getProximaFecha());
+        assertEquals(0, resultado.getOcurrenciasGeneradas());
+    }
+    
+    @Test
+    void crearRecurrente_CategoriaDeOtroUsuario_LanzaExcepcion() {
+        // Arrange
+        categoria.setUserId("user2");
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(categoriaRepository.findById("cat1")).thenReturn(Optional.of(categoria));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> recurrenteService.crearRecurrente("user1", requestDTO));
+        verify(recurrenteRepository, never()).insert(any(TransaccionRecurrente.class));
+    }
+    
+    @Test
+    void crearRecurrente_FinAnteriorAlInicio_LanzaExcepcion() {
+        // Arrange
+        requestDTO.setFechaFin(requestDTO.getFechaInicio().minusDays(1));
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(categoriaRepository.findById("cat1")).thenReturn(Optional.of(categoria));
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> recurrenteService.crearRecurrente("user1", requestDTO));
+    }
+    
+    @Test
+    void eliminarRecurrente_NoExiste_LanzaExcepcion() {
+        // Arrange
+        when(recurrenteRepository.findById("rec1")).thenReturn(Optional.empty());
+        
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> recurrenteService.eliminarRecurrente("rec1"));
+    }
+}
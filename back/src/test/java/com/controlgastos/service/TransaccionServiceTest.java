@@ -1,14 +1,30 @@
 package com.controlgastos.service;
 
+import com.controlgastos.cache.ColumnarCache;
+import com.controlgastos.cache.UserScopedCache;
+import com.controlgastos.dto.ComparacionPeriodosDTO;
+import com.controlgastos.dto.LoteResponseDTO;
+import com.controlgastos.dto.ResumenCategoriaDTO;
 import com.controlgastos.dto.ResumenGastosDTO;
+import com.controlgastos.dto.SaldoPaginaDTO;
+import com.controlgastos.dto.SerieGastosDTO;
 import com.controlgastos.dto.TransaccionRequestDTO;
 import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.dto.VariacionCategoriaDTO;
+import com.controlgastos.event.TransaccionCambiadaEvent;
 import com.controlgastos.exception.ResourceNotFoundException;
 import com.controlgastos.model.Categoria;
+import com.controlgastos.model.EntidadSync;
+import com.controlgastos.model.Granularidad;
+import com.controlgastos.model.PeriodoComparacion;
 import com.controlgastos.model.TipoTransaccion;
 import com.controlgastos.model.Transaccion;
 import com.controlgastos.model.User;
 import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.ComparacionCategorias;
+import com.controlgastos.repository.SaldoAcumulado;
+import com.controlgastos.repository.TotalPeriodo;
+import com.controlgastos.repository.TotalUsuario;
 import com.controlgastos.repository.TransaccionRepository;
 import com.controlgastos.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,11 +32,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -42,6 +65,21 @@ class TransaccionServiceTest {
     @Mock
     private CategoriaRepository categoriaRepository;
     
+    @Spy
+    private UserScopedCache userCache = new UserScopedCache(100, 10);
+    
+    @Spy
+    private ColumnarCache columnarCache = new ColumnarCache(false, 1 << 20);
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private EstadisticasMontosService estadisticasService;
+    
+    @Mock
+    private SyncService syncService;
+    
     @InjectMocks
     private TransaccionService transaccionService;
     
@@ -80,10 +118,9 @@ class TransaccionServiceTest {
     @Test
     void crearTransaccion_Exitoso() {
         // Arrange
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(user));
         when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoria));
-        when(transaccionRepository.save(any(Transaccion.class))).thenReturn(transaccion);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.agregarTransaccionId(anyString(), anyString())).thenReturn(1L);
+        when(transaccionRepository.insert(any(Transaccion.class))).thenReturn(transaccion);
         
         // Act
         TransaccionResponseDTO resultado = transaccionService.crearTransaccion("user1", transaccionRequestDTO);
@@ -92,26 +129,45 @@ class TransaccionServiceTest {
         assertNotNull(resultado);
         assertEquals(TipoTransaccion.GASTO, resultado.getTipoTransaccion());
         assertEquals(150.50, resultado.getMonto());
-        verify(transaccionRepository, times(1)).save(any(Transaccion.class));
+        verify(transaccionRepository, times(1)).insert(any(Transaccion.class));
+        verify(userRepository, never()).save(any(User.class));
+        verify(eventPublisher).publishEvent(new TransaccionCambiadaEvent("user1"));
     }
     
     @Test
     void crearTransaccion_UsuarioNoExiste_LanzaExcepcion() {
         // Arrange
-        when(userRepository.findById(anyString())).thenReturn(Optional.empty());
+        Categoria categoriaHuerfana = new Categoria("Alimentos", "user999");
+        categoriaHuerfana.setId("cat1");
+        when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoriaHuerfana));
+        when(userRepository.agregarTransaccionId(anyString(), anyString())).thenReturn(0L);
         
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
             transaccionService.crearTransaccion("user999", transaccionRequestDTO);
         });
         
-        verify(transaccionRepository, never()).save(any(Transaccion.class));
+        verify(transaccionRepository, never()).insert(any(Transaccion.class));
+    }
+    
+    @Test
+    void crearTransaccion_FallaInsercion_RevierteReferencia() {
+        // Arrange
+        when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoria));
+        when(userRepository.agregarTransaccionId(anyString(), anyString())).thenReturn(1L);
+        when(transaccionRepository.insert(any(Transaccion.class))).thenThrow(new IllegalStateException("fallo"));
+        
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> {
+            transaccionService.crearTransaccion("user1", transaccionRequestDTO);
+        });
+        
+        verify(userRepository, times(1)).quitarTransaccionId(eq("user1"), anyString());
     }
     
     @Test
     void crearTransaccion_CategoriaNoExiste_LanzaExcepcion() {
         // Arrange
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(user));
         when(categoriaRepository.findById(anyString())).thenReturn(Optional.empty());
         
         // Act & Assert
@@ -119,7 +175,8 @@ class TransaccionServiceTest {
             transaccionService.crearTransaccion("user1", transaccionRequestDTO);
         });
         
-        verify(transaccionRepository, never()).save(any(Transaccion.class));
+        verify(transaccionRepository, never()).insert(any(Transaccion.class));
+        verify(userRepository, never()).agregarTransaccionId(anyString(), anyString());
     }
     
     @Test
@@ -195,6 +252,71 @@ class TransaccionServiceTest {
         assertEquals(1L, resultado.getCantidadGastos());
     }
     
+    @Test
+    void calcularResumenes_UnaAgregacion_UsuariosSinTransaccionesEnCero() {
+        // Arrange
+        when(transaccionRepository.totalizarPorUsuarios(List.of("user1", "user2")))
+                .thenReturn(List.of(new TotalUsuario("user1", 1000.0, 300.0, 1L, 2L)));
+        
+        // Act
+        Map<String, ResumenGastosDTO> resultado = transaccionService.calcularResumenes(List.of("user1", "user2"));
+        
+        // Assert
+        assertEquals(700.0, resultado.get("user1").getBalance());
+        assertEquals(2L, resultado.get("user1").getCantidadGastos());
+        assertEquals(0.0, resultado.get("user2").getBalance());
+        assertEquals(0L, resultado.get("user2").getCantidadIngresos());
+        verify(transaccionRepository, times(1)).totalizarPorUsuarios(any());
+        verifyNoInteractions(userRepository);
+    }
+    
+    @Test
+    void calcularResumenPorFecha_CacheColumnar_CargaUnaVezConRangoExclusivo() {
+        // Arrange
+        TransaccionService servicio = conCacheColumnar();
+        LocalDateTime inicio = LocalDateTime.of(2025, 3, 1, 0, 0);
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.findByUserId("user1")).thenReturn(List.of(
+                new Transaccion(TipoTransaccion.INGRESO, "cat1", "Salario", "Sueldo", inicio, 1000.0, "user1"),
+                new Transaccion(TipoTransaccion.GASTO, "cat1", "Alimentos", "Compra", inicio.plusDays(1), 300.0, "user1"),
+                new Transaccion(TipoTransaccion.GASTO, "cat1", "Alimentos", "Cena", inicio.plusDays(2), 50.0, "user1")));
+        
+        // Act
+        ResumenGastosDTO periodo = servicio.calcularResumenPorFecha("user1", inicio, inicio.plusDays(2));
+        ResumenGastosDTO total = servicio.calcularResumen("user1");
+        
+        // Assert: los extremos del rango quedan fuera, igual que en la consulta Between
+        assertEquals(0.0, periodo.getTotalIngresos());
+        assertEquals(300.0, periodo.getTotalGastos());
+        assertEquals(0L, periodo.getCantidadIngresos());
+        assertEquals(1L, periodo.getCantidadGastos());
+        assertEquals(1000.0, total.getTotalIngresos());
+        assertEquals(350.0, total.getTotalGastos());
+        assertEquals(650.0, total.getBalance());
+        verify(transaccionRepository, times(1)).findByUserId("user1");
+        verify(transaccionRepository, never()).findByUserIdAndTipoTransaccionAndFechaBetween(any(), any(), any(), any());
+    }
+    
+    @Test
+    void calcularResumen_CacheColumnar_EscrituraInvalidaLasColumnas() {
+        // Arrange
+        TransaccionService servicio = conCacheColumnar();
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.findByUserId("user1")).thenReturn(List.of(transaccion), List.of());
+        when(transaccionRepository.findById("trans1")).thenReturn(Optional.of(transaccion));
+        
+        // Act
+        ResumenGastosDTO antes = servicio.calcularResumen("user1");
+        servicio.eliminarTransaccion("trans1");
+        ResumenGastosDTO despues = servicio.calcularResumen("user1");
+        
+        // Assert
+        assertEquals(150.50, antes.getTotalGastos());
+        assertEquals(0.0, despues.getTotalGastos());
+        assertEquals(0L, despues.getCantidadGastos());
+        verify(transaccionRepository, times(2)).findByUserId("user1");
+    }
+    
     @Test
     void obtenerTransaccionPorId_Exitoso() {
         // Arrange
@@ -209,12 +331,33 @@ class TransaccionServiceTest {
         assertEquals("Compra de supermercado", resultado.getDescripcion());
     }
     
+    @Test
+    void obtenerTransaccionesPorIds_DevuelveEnOrdenConNoEncontrados() {
+        // Arrange
+        Transaccion otra = new Transaccion(TipoTransaccion.INGRESO, "cat1", "Alimentos", "Reembolso",
+                LocalDateTime.now(), 20.0, "user1");
+        otra.setId("trans2");
+        when(transaccionRepository.buscarPorIds(any())).thenReturn(List.of(otra, transaccion));
+        
+        // Act
+        LoteResponseDTO<TransaccionResponseDTO> resultado = transaccionService.obtenerTransaccionesPorIds(
+                List.of("trans1", "perdida", "trans2", "trans1"));
+        
+        // Assert
+        assertEquals(List.of("trans1", "perdida", "trans2", "trans1"), resultado.getResultados().stream()
+                .map(dto -> dto == null ? "perdida" : dto.getId())
+                .toList());
+        assertEquals(List.of("perdida"), resultado.getNoEncontrados());
+        verify(transaccionRepository).buscarPorIds(Set.of("trans1", "perdida", "trans2"));
+        verify(transaccionRepository, never()).findById(anyString());
+    }
+    
     @Test
     void actualizarTransaccion_Exitoso() {
         // Arrange
         when(transaccionRepository.findById(anyString())).thenReturn(Optional.of(transaccion));
         when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoria));
-        when(transaccionRepository.save(any(Transaccion.class))).thenReturn(transaccion);
+        when(transaccionRepository.reemplazar(any(Transaccion.class))).thenReturn(Optional.of(transaccion));
         
         TransaccionRequestDTO updateDTO = new TransaccionRequestDTO();
         updateDTO.setTipoTransaccion(TipoTransaccion.GASTO);
@@ -228,15 +371,30 @@ class TransaccionServiceTest {
         
         // Assert
         assertNotNull(resultado);
-        verify(transaccionRepository, times(1)).save(any(Transaccion.class));
+        verify(transaccionRepository, times(1)).reemplazar(any(Transaccion.class));
+        verify(transaccionRepository, never()).save(any(Transaccion.class));
+    }
+    
+    @Test
+    void actualizarTransaccion_EliminadaEntretanto_LanzaExcepcionSinRecrearla() {
+        // Arrange
+        when(transaccionRepository.findById(anyString())).thenReturn(Optional.of(transaccion));
+        when(categoriaRepository.findById(anyString())).thenReturn(Optional.of(categoria));
+        when(transaccionRepository.reemplazar(any(Transaccion.class))).thenReturn(Optional.empty());
+        
+        TransaccionRequestDTO updateDTO = new TransaccionRequestDTO(
+                TipoTransaccion.GASTO, "cat1", "Actualizado", LocalDateTime.now(), 200.0);
+        
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> transaccionService.actualizarTransaccion("trans1", updateDTO));
+        verify(transaccionRepository, never()).save(any(Transaccion.class));
     }
     
     @Test
     void eliminarTransaccion_Exitoso() {
         // Arrange
         when(transaccionRepository.findById(anyString())).thenReturn(Optional.of(transaccion));
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
         doNothing().when(transaccionRepository).delete(any(Transaccion.class));
         
         // Act
@@ -244,5 +402,317 @@ class TransaccionServiceTest {
         
         // Assert
         verify(transaccionRepository, times(1)).delete(transaccion);
+        verify(userRepository, times(1)).quitarTransaccionId("user1", "trans1");
+        verify(syncService).registrarEliminacion("user1", EntidadSync.TRANSACCION, "trans1");
+        verify(userRepository, never()).save(any(User.class));
+    }
+    
+    @Test
+    void obtenerTransaccionesRecientes_SegundaConsultaUsaCacheHastaLaSiguienteEscritura() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.buscarRecientes("user1", 10)).thenReturn(List.of(transaccion));
+        when(transaccionRepository.findById("trans1")).thenReturn(Optional.of(transaccion));
+        
+        // Act
+        List<TransaccionResponseDTO> primera = transaccionService.obtenerTransaccionesRecientes("user1", 10);
+        List<TransaccionResponseDTO> segunda = transaccionService.obtenerTransaccionesRecientes("user1", 10);
+        transaccionService.eliminarTransaccion("trans1");
+        transaccionService.obtenerTransaccionesRecientes("user1", 10);
+        
+        // Assert
+        assertEquals("trans1", primera.get(0).getId());
+        assertSame(primera, segunda);
+        verify(transaccionRepository, times(2)).buscarRecientes("user1", 10);
+    }
+    
+    @Test
+    void obtenerTransaccionesRecientes_NFueraDeRango_LanzaExcepcion() {
+        assertThrows(IllegalArgumentException.class, () -> transaccionService.obtenerTransaccionesRecientes("user1", 0));
+        assertThrows(IllegalArgumentException.class, () -> transaccionService.obtenerTransaccionesRecientes("user1", 101));
+        verifyNoInteractions(transaccionRepository);
+    }
+    
+    @Test
+    void calcularResumenPorCategoria_SegundaConsulta_UsaCache() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2024, 2, 1, 0, 0);
+        ResumenCategoriaDTO alimentos = new ResumenCategoriaDTO(
+                "cat1", "Alimentos", TipoTransaccion.GASTO, 450.0, 3L);
+        
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.resumirPorCategoria("user1", inicio, fin))
+                .thenReturn(Arrays.asList(alimentos));
+        
+        // Act
+        List<ResumenCategoriaDTO> primera = transaccionService.calcularResumenPorCategoria("user1", inicio, fin);
+        List<ResumenCategoriaDTO> segunda = transaccionService.calcularResumenPorCategoria("user1", inicio, fin);
+        
+        // Assert
+        assertEquals(1, primera.size());
+        assertEquals(450.0, primera.get(0).getTotal());
+        assertSame(primera, segunda);
+        verify(transaccionRepository, times(1)).resumirPorCategoria("user1", inicio, fin);
+    }
+    
+    @Test
+    void calcularResumenPorCategoria_DespuesDeEscritura_Recalcula() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2024, 2, 1, 0, 0);
+        
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.resumirPorCategoria("user1", inicio, fin)).thenReturn(List.of());
+        when(transaccionRepository.findById(anyString())).thenReturn(Optional.of(transaccion));
+        
+        // Act
+        transaccionService.calcularResumenPorCategoria("user1", inicio, fin);
+        transaccionService.eliminarTransaccion("trans1");
+        transaccionService.calcularResumenPorCategoria("user1", inicio, fin);
+        
+        // Assert
+        verify(transaccionRepository, times(2)).resumirPorCategoria("user1", inicio, fin);
+    }
+    
+    @Test
+    void calcularResumenPorCategoria_UsuarioNoExiste_LanzaExcepcion() {
+        // Arrange
+        when(userRepository.existsById(anyString())).thenReturn(false);
+        
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> {
+            transaccionService.calcularResumenPorCategoria(
+                    "user999", LocalDateTime.now().minusDays(30), LocalDateTime.now());
+        });
+        
+        verify(transaccionRepository, never()).resumirPorCategoria(anyString(), any(), any());
+    }
+    
+    @Test
+    void compararPeriodos_MesAnterior_UnaAgregacionConVariaciones() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2025, 4, 1, 0, 0);
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.compararPorCategoria("user1", inicio.minusMonths(1), fin.minusMonths(1), inicio, fin))
+                .thenReturn(new ComparacionCategorias(
+                        List.of(new ResumenCategoriaDTO("cat2", "Salario", TipoTransaccion.INGRESO, 1000.0, 1L),
+                                new ResumenCategoriaDTO("cat1", "Alimentos", TipoTransaccion.GASTO, 200.0, 4L),
+                                new ResumenCategoriaDTO("cat3", "Ocio", TipoTransaccion.GASTO, 50.0, 1L)),
+                        List.of(new ResumenCategoriaDTO("cat2", "Salario", TipoTransaccion.INGRESO, 1000.0, 1L),
+                                new ResumenCategoriaDTO("cat1", "Alimentos", TipoTransaccion.GASTO, 300.0, 5L),
+                                new ResumenCategoriaDTO("cat4", "Viajes", TipoTransaccion.GASTO, 100.0, 1L))));
+        
+        // Act
+        ComparacionPeriodosDTO resultado = transaccionService.compararPeriodos(
+                "user1", inicio, fin, PeriodoComparacion.MES_ANTERIOR);
+        transaccionService.compararPeriodos("user1", inicio, fin, PeriodoComparacion.MES_ANTERIOR);
+        
+        // Assert
+        assertEquals(LocalDateTime.of(2025, 2, 1, 0, 0), resultado.getInicioAnterior());
+        assertEquals(0.0, resultado.getIngresos().getDiferencia());
+        assertEquals(0.0, resultado.getIngresos().getPorcentaje());
+        assertEquals(250.0, resultado.getGastos().getAnterior());
+        assertEquals(400.0, resultado.getGastos().getActual());
+        assertEquals(60.0, resultado.getGastos().getPorcentaje(), 1e-9);
+        assertEquals(-150.0, resultado.getBalance().getDiferencia());
+        assertEquals(-20.0, resultado.getBalance().getPorcentaje(), 1e-9);
+        
+        assertEquals(List.of("cat2", "cat1", "cat4", "cat3"),
+                resultado.getCategorias().stream().map(VariacionCategoriaDTO::getCategoriaId).toList());
+        VariacionCategoriaDTO viajes = resultado.getCategorias().get(2);
+        assertEquals(0L, viajes.getCantidadAnterior());
+        assertNull(viajes.getTotal().getPorcentaje());
+        VariacionCategoriaDTO ocio = resultado.getCategorias().get(3);
+        assertEquals(-50.0, ocio.getTotal().getDiferencia());
+        assertEquals(-100.0, ocio.getTotal().getPorcentaje(), 1e-9);
+        verify(transaccionRepository, times(1)).compararPorCategoria(anyString(), any(), any(), any(), any());
+    }
+    
+    @Test
+    void compararPeriodos_CategoriaConDosNombres_SumaSusFilas() {
+        // Arrange: la categoría se renombró y el repositorio devuelve una fila por nombre
+        LocalDateTime inicio = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2025, 4, 1, 0, 0);
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.compararPorCategoria("user1", inicio.minusMonths(1), fin.minusMonths(1), inicio, fin))
+                .thenReturn(new ComparacionCategorias(
+                        List.of(new ResumenCategoriaDTO("cat1", "Comida", TipoTransaccion.GASTO, 100.0, 2L)),
+                        List.of(new ResumenCategoriaDTO("cat1", "Alimentos", TipoTransaccion.GASTO, 200.0, 3L),
+                                new ResumenCategoriaDTO("cat1", "Comida", TipoTransaccion.GASTO, 50.0, 1L))));
+        
+        // Act
+        ComparacionPeriodosDTO resultado = transaccionService.compararPeriodos(
+                "user1", inicio, fin, PeriodoComparacion.MES_ANTERIOR);
+        
+        // Assert
+        assertEquals(1, resultado.getCategorias().size());
+        VariacionCategoriaDTO comida = resultado.getCategorias().get(0);
+        assertEquals("Alimentos", comida.getCategoriaNombre());
+        assertEquals(4L, comida.getCantidadActual());
+        assertEquals(250.0, comida.getTotal().getActual());
+        assertEquals(100.0, comida.getTotal().getAnterior());
+        assertEquals(250.0, resultado.getGastos().getActual());
+    }
+    
+    @Test
+    void compararPeriodos_RangoInvalido_LanzaExcepcion() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2025, 3, 1, 0, 0);
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            transaccionService.compararPeriodos("user1", fecha, fecha, PeriodoComparacion.ANIO_ANTERIOR);
+        });
+        
+        verifyNoInteractions(transaccionRepository);
+    }
+    
+    @Test
+    void obtenerSaldoAcumulado_SumaElSaldoInicialYDevuelveElCursor() {
+        // Arrange
+        LocalDateTime fecha = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.acumularSaldo("user1", fecha, "t0", 3)).thenReturn(List.of(
+                new SaldoAcumulado("t1", TipoTransaccion.INGRESO, "cat2", "Salario", "Sueldo", fecha, 1000.0, 1000.0),
+                new SaldoAcumulado("t2", TipoTransaccion.GASTO, "cat1", "Alimentos", "Compra", fecha.plusDays(1), 300.0, 700.0),
+                new SaldoAcumulado("t3", TipoTransaccion.GASTO, "cat1", "Alimentos", "Cena", fecha.plusDays(2), 50.0, 650.0)));
+        
+        // Act
+        SaldoPaginaDTO pagina = transaccionService.obtenerSaldoAcumulado("user1", fecha, "t0", 100.0, 2);
+        
+        // Assert
+        assertEquals(2, pagina.getMovimientos().size());
+        assertEquals(1100.0, pagina.getMovimientos().get(0).getSaldo());
+        assertEquals(800.0, pagina.getMovimientos().get(1).getSaldo());
+        assertEquals(800.0, pagina.getSaldoFinal());
+        assertTrue(pagina.isHayMas());
+        assertEquals(fecha.plusDays(1), pagina.getSiguienteFecha());
+        assertEquals("t2", pagina.getSiguienteId());
+    }
+    
+    @Test
+    void obtenerSaldoAcumulado_UltimaPagina_SinCursor() {
+        // Arrange
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.acumularSaldo("user1", null, null, 101)).thenReturn(List.of());
+        
+        // Act
+        SaldoPaginaDTO pagina = transaccionService.obtenerSaldoAcumulado("user1", null, null, 250.0, 100);
+        
+        // Assert
+        assertTrue(pagina.getMovimientos().isEmpty());
+        assertEquals(250.0, pagina.getSaldoFinal());
+        assertFalse(pagina.isHayMas());
+        assertNull(pagina.getSiguienteId());
+    }
+    
+    @Test
+    void obtenerSaldoAcumulado_CursorIncompletoOLimiteInvalido_LanzaExcepcion() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            transaccionService.obtenerSaldoAcumulado("user1", LocalDateTime.now(), null, 0.0, 100);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            transaccionService.obtenerSaldoAcumulado("user1", null, null, 0.0, 1001);
+        });
+        
+        verifyNoInteractions(transaccionRepository);
+    }
+    
+    @Test
+    void calcularSerie_CompletaPeriodosSinTransacciones() {
+        // Arrange
+        ZoneId zona = ZoneId.systemDefault();
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2024, 1, 4, 0, 0);
+        TotalPeriodo segundoDia = new TotalPeriodo(
+                Date.from(LocalDate.of(2024, 1, 2).atStartOfDay(zona).toInstant()), 1000.0, 250.0, 3L);
+        
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.agruparPorPeriodo("user1", inicio, fin, "day", zona.getId()))
+                .thenReturn(Arrays.asList(segundoDia));
+        
+        // Act
+        SerieGastosDTO serie = transaccionService.calcularSerie(
+                "user1", Granularidad.DIA, inicio, fin, zona.getId());
+        
+        // Assert
+        assertEquals(3, serie.getPuntos().size());
+        assertEquals(LocalDate.of(2024, 1, 1), serie.getPuntos().get(0).getInicio());
+        assertEquals(0.0, serie.getPuntos().get(0).getTotalGastos());
+        assertEquals(0L, serie.getPuntos().get(0).getCantidad());
+        assertEquals(750.0, serie.getPuntos().get(1).getBalance());
+        assertEquals(3L, serie.getPuntos().get(1).getCantidad());
+        assertEquals(LocalDate.of(2024, 1, 3), serie.getPuntos().get(2).getInicio());
+        verify(transaccionRepository, times(1)).agruparPorPeriodo(anyString(), any(), any(), anyString(), anyString());
+    }
+    
+    @Test
+    void calcularSerie_SemanasInicianElLunes() {
+        // Arrange: 2024-01-03 es miércoles
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 3, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2024, 1, 20, 0, 0);
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.agruparPorPeriodo(anyString(), any(), any(), anyString(), anyString()))
+                .thenReturn(List.of());
+        
+        // Act
+        SerieGastosDTO serie = transaccionService.calcularSerie(
+                "user1", Granularidad.SEMANA, inicio, fin, ZoneId.systemDefault().getId());
+        
+        // Assert
+        assertEquals(3, serie.getPuntos().size());
+        assertEquals(LocalDate.of(2024, 1, 1), serie.getPuntos().get(0).getInicio());
+        assertEquals(LocalDate.of(2024, 1, 15), serie.getPuntos().get(2).getInicio());
+    }
+    
+    @Test
+    void calcularSerie_ZonaSoloValidaEnJava_SeEnviaComoDesplazamiento() {
+        // Arrange
+        LocalDateTime inicio = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime fin = LocalDateTime.of(2024, 1, 2, 0, 0);
+        when(userRepository.existsById("user1")).thenReturn(true);
+        when(transaccionRepository.agruparPorPeriodo(anyString(), any(), any(), anyString(), anyString()))
+                .thenReturn(List.of());
+        
+        // Act
+        SerieGastosDTO gmt = transaccionService.calcularSerie("user1", Granularidad.DIA, inicio, fin, "GMT+5");
+        SerieGastosDTO utc = transaccionService.calcularSerie("user1", Granularidad.DIA, inicio, fin, "UTC-03:30");
+        SerieGastosDTO z = transaccionService.calcularSerie("user1", Granularidad.DIA, inicio, fin, "Z");
+        SerieGastosDTO iana = transaccionService.calcularSerie("user1", Granularidad.DIA, inicio, fin, "America/Bogota");
+        
+        // Assert: $dateTrunc solo acepta identificadores IANA o ±HH:MM
+        assertEquals("+05:00", gmt.getZonaHoraria());
+        assertEquals("-03:30", utc.getZonaHoraria());
+        assertEquals("UTC", z.getZonaHoraria());
+        assertEquals("America/Bogota", iana.getZonaHoraria());
+        verify(transaccionRepository).agruparPorPeriodo("user1", inicio, fin, "day", "+05:00");
+        verify(transaccionRepository).agruparPorPeriodo("user1", inicio, fin, "day", "-03:30");
+        verify(transaccionRepository).agruparPorPeriodo("user1", inicio, fin, "day", "UTC");
+        verify(transaccionRepository).agruparPorPeriodo("user1", inicio, fin, "day", "America/Bogota");
+    }
+    
+    @Test
+    void calcularSerie_RangoInvalido_LanzaExcepcion() {
+        // Act & Assert
+        LocalDateTime fecha = LocalDateTime.of(2024, 1, 1, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> {
+            transaccionService.calcularSerie("user1", Granularidad.MES, fecha, fecha, "UTC");
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            transaccionService.calcularSerie("user1", Granularidad.MES, fecha, fecha.plusMonths(1), "Zona/Inexistente");
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            transaccionService.calcularSerie("user1", Granularidad.MES, fecha, fecha.plusMonths(1), "+05:30:15");
+        });
+        
+        verify(transaccionRepository, never()).agruparPorPeriodo(anyString(), any(), any(), anyString(), anyString());
+    }
+    
+    private TransaccionService conCacheColumnar() {
+        return new TransaccionService(transaccionRepository, userRepository, categoriaRepository, userCache,
+                new ColumnarCache(true, 1 << 20), eventPublisher, estadisticasService, syncService);
     }
 }
@@ -0,0 +1,160 @@
+package com.controlgastos.service;
+
+import com.controlgastos.dto.CategoriaDTO;
+import com.controlgastos.dto.CategoriaResponseDTO;
+import com.controlgastos.dto.TransaccionRequestDTO;
+import com.controlgastos.dto.TransaccionResponseDTO;
+import com.controlgastos.model.TipoTransaccion;
+import com.controlgastos.model.Transaccion;
+import com.controlgastos.model.User;
+import com.controlgastos.repository.CategoriaRepository;
+import com.controlgastos.repository.TransaccionRepository;
+import com.controlgastos.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de concurrencia sobre MongoDB embebido para las referencias
+ * del usuario (transaccionesIds / categoriasIds) actualizadas con $push/$pull
+ */
+@Tag("embedded-mongo")
+@SpringBootTest
+@ActiveProfiles("embedded")
+class UserReferenciasConcurrenciaTest {
+
+    private static final int HILOS = 16;
+    private static final int OPERACIONES = 400;
+
+    @Autowired
+    private TransaccionService transaccionService;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private TransaccionRepository transaccionRepository;
+
+    private User user;
+    private CategoriaResponseDTO categoria;
+
+    @BeforeEach
+    void setUp() {
+        transaccionRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        userRepository.deleteAll();
+
+        user = userRepository.save(new User("concurrente", "concurrente@example.com", "password123"));
+        categoria = categoriaService.crearCategoria(user.getId(), new CategoriaDTO("General"));
+    }
+
+    @Test
+    void crearTransacciones_EnParalelo_NoPierdeIds() throws Exception {
+        // Act
+        List<String> creadas = ejecutarEnParalelo(OPERACIONES, i -> transaccionService
+                .crearTransaccion(user.getId(), nuevaTransaccion(i)).getId());
+
+        // Assert
+        User actualizado = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(OPERACIONES, actualizado.getTransaccionesIds().size());
+        assertEquals(new HashSet<>(creadas), new HashSet<>(actualizado.getTransaccionesIds()));
+        assertEquals(idsEnColeccion(), new HashSet<>(actualizado.getTransaccionesIds()));
+    }
+
+    @Test
+    void crearYEliminarTransacciones_EnParalelo_ListaCoincideConColeccion() throws Exception {
+        // Arrange
+        List<String> iniciales = ejecutarEnParalelo(OPERACIONES, i -> transaccionService
+                .crearTransaccion(user.getId(), nuevaTransaccion(i)).getId());
+
+        // Act: eliminar la mitad mientras se crean nuevas
+        ejecutarEnParalelo(OPERACIONES, i -> {
+            if (i % 2 == 0) {
+                transaccionService.eliminarTransaccion(iniciales.get(i));
+                return iniciales.get(i);
+            }
+            TransaccionResponseDTO nueva = transaccionService.crearTransaccion(user.getId(), nuevaTransaccion(i));
+            return nueva.getId();
+        });
+
+        // Assert
+        User actualizado = userRepository.findById(user.getId()).orElseThrow();
+        Set<String> enUsuario = new HashSet<>(actualizado.getTransaccionesIds());
+        assertEquals(actualizado.getTransaccionesIds().size(), enUsuario.size(), "No debe haber IDs duplicados");
+        assertEquals(OPERACIONES, enUsuario.size());
+        assertEquals(idsEnColeccion(), enUsuario);
+    }
+
+    @Test
+    void crearCategorias_EnParalelo_NoPierdeIds() throws Exception {
+        // Act
+        List<String> creadas = ejecutarEnParalelo(OPERACIONES, i -> categoriaService
+                .crearCategoria(user.getId(), new CategoriaDTO("Categoria " + i)).getId());
+
+        // Assert
+        User actualizado = userRepository.findById(user.getId()).orElseThrow();
+        assertEquals(OPERACIONES + 1, actualizado.getCategoriasIds().size());
+        assertTrue(actualizado.getCategoriasIds().containsAll(creadas));
+    }
+
+    private TransaccionRequestDTO nuevaTransaccion(int i) {
+        return new TransaccionRequestDTO(
+                i % 3 == 0 ? TipoTransaccion.INGRESO : TipoTransaccion.GASTO,
+                categoria.getId(),
+                "Movimiento " + i,
+                LocalDateTime.now().minusMinutes(i),
+                10.0 + i
+        );
+    }
+
+    private Set<String> idsEnColeccion() {
+        return transaccionRepository.findByUserId(user.getId()).stream()
+                .map(Transaccion::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private List<String> ejecutarEnParalelo(int operaciones, Operacion operacion) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<String>> futuros = new ArrayList<>();
+            for (int i = 0; i < operaciones; i++) {
+                final int indice = i;
+                Callable<String> tarea = () -> operacion.ejecutar(indice);
+                futuros.add(executor.submit(tarea));
+            }
+            List<String> resultados = new ArrayList<>();
+            for (Future<String> futuro : futuros) {
+                resultados.add(futuro.get());
+            }
+            return resultados;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Operacion {
+        String ejecutar(int indice);
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -51,9 +52,7 @@ class UserServiceTest {
     @Test
     void crearUsuario_Exitoso() {
         // Arrange
-        when(userRepository.existsByApodo(anyString())).thenReturn(false);
-        when(userRepository.existsByCorreo(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.insert(any(User.class))).thenReturn(user);
         
         // Act
         UserResponseDTO resultado = userService.crearUsuario(userRequestDTO);
@@ -62,34 +61,35 @@ class UserServiceTest {
         assertNotNull(resultado);
         assertEquals("testuser", resultado.getApodo());
         assertEquals("test@example.com", resultado.getCorreo());
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository, times(1)).insert(any(User.class));
     }
     
     @Test
     void crearUsuario_ApodoDuplicado_LanzaExcepcion() {
         // Arrange
-        when(userRepository.existsByApodo(anyString())).thenReturn(true);
+        when(userRepository.insert(any(User.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: controlgastos.usuarios index: apodo dup key: { apodo: \"testuser\" }"));
         
         // Act & Assert
-        assertThrows(DuplicateResourceException.class, () -> {
+        DuplicateResourceException excepcion = assertThrows(DuplicateResourceException.class, () -> {
             userService.crearUsuario(userRequestDTO);
         });
         
-        verify(userRepository, never()).save(any(User.class));
+        assertEquals("Usuario ya existe con apodo: 'testuser'", excepcion.getMessage());
     }
     
     @Test
     void crearUsuario_CorreoDuplicado_LanzaExcepcion() {
         // Arrange
-        when(userRepository.existsByApodo(anyString())).thenReturn(false);
-        when(userRepository.existsByCorreo(anyString())).thenReturn(true);
+        when(userRepository.insert(any(User.class))).thenThrow(new DuplicateKeyException(
+                "E11000 duplicate key error collection: controlgastos.usuarios index: correo dup key: { correo: \"test@example.com\" }"));
         
         // Act & Assert
-        assertThrows(DuplicateResourceException.class, () -> {
+        DuplicateResourceException excepcion = assertThrows(DuplicateResourceException.class, () -> {
             userService.crearUsuario(userRequestDTO);
         });
         
-        verify(userRepository, never()).save(any(User.class));
+        assertEquals("Usuario ya existe con correo: 'test@example.com'", excepcion.getMessage());
     }
     
     @Test
@@ -138,9 +138,6 @@ class UserServiceTest {
     void actualizarUsuario_Exitoso() {
         // Arrange
         when(userRepository.findById(anyString())).thenReturn(Optional.of(user));
-        when(userRepository.existsByApodo(anyString())).thenReturn(false);
-        when(userRepository.existsByCorreo(anyString())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(user);
         
     UserRequestDTO updateDTO = new UserRequestDTO();
     updateDTO.setApodo("updateduser");
@@ -152,7 +149,47 @@ class UserServiceTest {
         
         // Assert
         assertNotNull(resultado);
-        verify(userRepository, times(1)).save(any(User.class));
+        verify(userRepository).actualizarDatosYContrasenia("1", "updateduser", "updated@example.com", "newpass123");
+        verify(userRepository, never()).save(any(User.class));
+    }
+    
+    @Test
+    void actualizarUsuario_SinContrasenia_ConservaLaAnterior() {
+        // Arrange
+        when(userRepository.findById("1")).thenReturn(Optional.of(user));
+        UserRequestDTO updateDTO = new UserRequestDTO();
+        updateDTO.setApodo("updateduser");
+        updateDTO.setCorreo("updated@example.com");
+        
+        // Act
+        userService.actualizarUsuario("1", updateDTO);
+        
+        // Assert
+        verify(userRepository).actualizarDatos("1", "updateduser", "updated@example.com");
+        verify(userRepository, never()).actualizarDatosYContrasenia(anyString(), anyString(), anyString(), anyString());
+    }
+    
+    @Test
+    void actualizarUsuario_CorreoDeOtroUsuario_LanzaDuplicateResource() {
+        // Arrange
+        when(userRepository.actualizarDatosYContrasenia(anyString(), anyString(), anyString(), anyString()))
+                .thenThrow(new DuplicateKeyException(
+                        "E11000 duplicate key error collection: controlgastos.usuarios index: correo dup key: { correo: \"test@example.com\" }"));
+        
+        // Act & Assert
+        DuplicateResourceException e = assertThrows(DuplicateResourceException.class,
+                () -> userService.actualizarUsuario("1", userRequestDTO));
+        assertTrue(e.getMessage().contains("correo"));
+        verify(userRepository, never()).findById(anyString());
+    }
+    
+    @Test
+    void actualizarUsuario_NoEncontrado_LanzaExcepcion() {
+        // Arrange
+        when(userRepository.findById("999")).thenReturn(Optional.empty());
+        
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> userService.actualizarUsuario("999", userRequestDTO));
     }
     
     @Test